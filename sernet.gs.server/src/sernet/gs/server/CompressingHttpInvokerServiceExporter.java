@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.gs.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.log4j.Logger;
+import org.springframework.remoting.httpinvoker.HttpInvokerServiceExporter;
+import org.springframework.remoting.support.RemoteInvocation;
+import org.springframework.remoting.support.RemoteInvocationResult;
+
+import sernet.gs.service.TransportStatistics;
+import sernet.gs.service.TransportStatistics.CountingInputStream;
+import sernet.gs.service.TransportStatistics.CountingOutputStream;
+
+/**
+ * An HttpInvoker exporter which compresses the responses for clients which
+ * accept gzip encoding and reads gzip compressed requests. The result of an
+ * invocation is serialized directly into the response stream.
+ *
+ * Every response contains the header
+ * {@link TransportStatistics#HEADER_ACCEPT_REQUEST_ENCODING}, clients send
+ * compressed requests only after they received this header.
+ *
+ * The sizes and the (de)serialization times of the requests and responses
+ * are measured per command class. The times include the time to transfer
+ * the data.
+ */
+public class CompressingHttpInvokerServiceExporter extends HttpInvokerServiceExporter {
+
+    private static final Logger LOG = Logger.getLogger(CompressingHttpInvokerServiceExporter.class);
+
+    private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+    private static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+
+    private static final String ATTRIBUTE_KEY = CompressingHttpInvokerServiceExporter.class
+            .getName() + ".key";
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private boolean compressResponses = true;
+
+    private final TransportStatistics requestStatistics = new TransportStatistics();
+    private final TransportStatistics responseStatistics = new TransportStatistics();
+
+    @Override
+    protected RemoteInvocation readRemoteInvocation(HttpServletRequest request, InputStream is)
+            throws IOException, ClassNotFoundException {
+        long start = System.nanoTime();
+        CountingInputStream wire = new CountingInputStream(is);
+        InputStream in = wire;
+        if (TransportStatistics.containsGzip(request.getHeader(HEADER_CONTENT_ENCODING))) {
+            in = new GZIPInputStream(wire, BUFFER_SIZE);
+        }
+        CountingInputStream payload = new CountingInputStream(in);
+        RemoteInvocation invocation = super.readRemoteInvocation(request, payload);
+        long nanos = System.nanoTime() - start;
+        String key = TransportStatistics.getKey(invocation.getMethodName(),
+                invocation.getArguments());
+        request.setAttribute(ATTRIBUTE_KEY, key);
+        requestStatistics.add(key, payload.getCount(), wire.getCount(), nanos);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Request "
+                    + TransportStatistics.format(key, payload.getCount(), wire.getCount(), nanos));
+        }
+        return invocation;
+    }
+
+    @Override
+    protected void writeRemoteInvocationResult(HttpServletRequest request,
+            HttpServletResponse response, RemoteInvocationResult result) throws IOException {
+        long start = System.nanoTime();
+        boolean gzip = compressResponses
+                && TransportStatistics.containsGzip(request.getHeader(HEADER_ACCEPT_ENCODING));
+        response.setContentType(getContentType());
+        response.setHeader(TransportStatistics.HEADER_ACCEPT_REQUEST_ENCODING,
+                TransportStatistics.ENCODING_GZIP);
+        if (gzip) {
+            response.setHeader(HEADER_CONTENT_ENCODING, TransportStatistics.ENCODING_GZIP);
+        }
+        CountingOutputStream wire = new CountingOutputStream(response.getOutputStream());
+        OutputStream out = gzip ? new FastGZIPOutputStream(wire) : wire;
+        CountingOutputStream payload = new CountingOutputStream(out);
+        writeRemoteInvocationResult(request, response, result, payload);
+        long nanos = System.nanoTime() - start;
+        Object key = request.getAttribute(ATTRIBUTE_KEY);
+        if (key != null) {
+            responseStatistics.add(key.toString(), payload.getCount(), wire.getCount(), nanos);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Response " + TransportStatistics.format(key.toString(),
+                        payload.getCount(), wire.getCount(), nanos));
+            }
+        }
+    }
+
+    /**
+     * @return The measurements of the requests by command class
+     */
+    public TransportStatistics getRequestStatistics() {
+        return requestStatistics;
+    }
+
+    /**
+     * @return The measurements of the responses by command class
+     */
+    public TransportStatistics getResponseStatistics() {
+        return responseStatistics;
+    }
+
+    public boolean isCompressResponses() {
+        return compressResponses;
+    }
+
+    public void setCompressResponses(boolean compressResponses) {
+        this.compressResponses = compressResponses;
+    }
+
+    /**
+     * Compresses with the fastest compression level. Command results
+     * compress well even with the fastest level.
+     */
+    private static final class FastGZIPOutputStream extends GZIPOutputStream {
+
+        private FastGZIPOutputStream(OutputStream out) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+}
@@ -17,7 +17,9 @@
  ******************************************************************************/
 package sernet.gs.server.security;
 
+import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
 
 import org.aspectj.lang.ProceedingJoinPoint;
@@ -140,18 +142,52 @@ public final class InternalAuthenticationProvider implements AuthenticationProvi
 	 */
 	public Object doInsertAuthentication(ProceedingJoinPoint pjp)
 	throws Throwable
+	{
+		Object arg = pjp.getArgs()[0];
+		return proceedWithAuthentication(pjp, Collections.singletonList(arg));
+	}
+
+	/**
+	 * This method is called upon invocation of the
+	 * {@link HibernateCommandService#executeCommands(List)} method.
+	 * 
+	 * <p>The commands of a batch are executed without calling
+	 * {@link #doInsertAuthentication(ProceedingJoinPoint)}. If no authentication
+	 * information is provided yet, every command of the batch must be a
+	 * well-known instance. In that case the batch is executed with the
+	 * {@link Authentication} instance of the internal user, otherwise it is rejected
+	 * as a single command would be.</p>
+	 * 
+	 * @param pjp
+	 * @return
+	 * @throws Throwable
+	 */
+	public Object doInsertBatchAuthentication(ProceedingJoinPoint pjp)
+	throws Throwable
+	{
+		Object arg = pjp.getArgs()[0];
+		if (!(arg instanceof List)){
+			throw new IllegalStateException("Argument is either null or not a list of " + ICommand.class.getName() + ".");
+		}
+		return proceedWithAuthentication(pjp, (List<?>) arg);
+	}
+
+	private Object proceedWithAuthentication(ProceedingJoinPoint pjp, List<?> commands)
+	throws Throwable
 	{
 		SecurityContext ctx = SecurityContextHolder.getContext();
 		
 		Authentication auth = ctx.getAuthentication();
 		if (ctx.getAuthentication() == null || !auth.isAuthenticated())
 		{
-			Object arg = pjp.getArgs()[0];
-			if (!(arg instanceof ICommand)){
-				throw new IllegalStateException("Argument is either null or not of type " + ICommand.class.getName() + ".");
-			}
-			if (!allowedInstances.containsKey(arg)){
-				throw new IllegalStateException("It was not configured that this instance can receive an Authentication instance.");
+			for (Object command : commands)
+			{
+				if (!(command instanceof ICommand)){
+					throw new IllegalStateException("Argument is either null or not of type " + ICommand.class.getName() + ".");
+				}
+				if (!allowedInstances.containsKey(command)){
+					throw new IllegalStateException("It was not configured that this instance can receive an Authentication instance.");
+				}
 			}
 			ctx.setAuthentication(authentication);
 		}
@@ -16,23 +16,33 @@
  ******************************************************************************/
 package sernet.verinice.bpm;
 
-import java.sql.SQLException;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.log4j.Logger;
 import org.eclipse.jdt.annotation.NonNull;
 import org.hibernate.Criteria;
 import org.hibernate.FetchMode;
-import org.hibernate.HibernateException;
+import org.hibernate.Query;
 import org.hibernate.Session;
 import org.hibernate.criterion.CriteriaSpecification;
 import org.hibernate.criterion.DetachedCriteria;
@@ -41,18 +51,20 @@ import org.hibernate.criterion.Restrictions;
 import org.quartz.JobExecutionContext;
 import org.quartz.JobExecutionException;
 import org.quartz.StatefulJob;
-import org.springframework.orm.hibernate3.HibernateCallback;
 import org.springframework.scheduling.quartz.QuartzJobBean;
 import org.springframework.security.context.SecurityContext;
 import org.springframework.security.context.SecurityContextHolder;
 
 import sernet.gs.server.security.DummyAuthentication;
+import sernet.gs.server.security.DummyAuthenticationRunnable;
+import sernet.gs.service.CollectionUtil;
 import sernet.gs.service.ServerInitializer;
 import sernet.hui.common.connect.Entity;
+import sernet.verinice.concurrency.CustomNamedThreadGroupFactory;
 import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.IDao;
 import sernet.verinice.interfaces.bpm.IIndividualProcess;
 import sernet.verinice.interfaces.bpm.IIndividualService;
-import sernet.verinice.interfaces.bpm.ITask;
 import sernet.verinice.interfaces.bpm.ITaskParameter;
 import sernet.verinice.interfaces.bpm.ITaskService;
 import sernet.verinice.interfaces.bpm.IndividualServiceParameter;
@@ -67,11 +79,46 @@ import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.common.configuration.Configuration;
 
+/**
+ * Creates tasks for requirements and safeguards of the base protection which
+ * need to be implemented or revised.
+ *
+ * The requirements are loaded and scanned in chunks, each chunk in a separate
+ * thread and Hibernate session. The tasks are created after all chunks are
+ * scanned. Existing tasks are looked up in an {@link ExistingTaskIndex}.
+ *
+ * In incremental mode only the requirements and safeguards which may need a
+ * task since the last successful run are scanned, see
+ * {@link BpTaskCreatorState}. A full run is done if there is no state of a
+ * previous run, if user accounts changed or if the last full run is older
+ * than the full run interval.
+ */
 public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
 
     private static final Logger LOG = Logger.getLogger(BpTaskCreatorJob.class);
 
+    static final String RUN_STATE = "runState";
+
+    private static final String REL_BP_PERSON_BP_REQUIREMENT = "rel_bp_person_bp_requirement_general";
+    private static final String REL_BP_PERSON_BP_SAFEGUARD = "rel_bp_person_bp_safeguard_general";
+
+    private static final String HQL_LINKS = "select link.id.dependantId, link.id.dependencyId, " //$NON-NLS-1$
+            + "link.id.typeId from CnALink link where link.id.typeId in (:typeIds)"; //$NON-NLS-1$
+
+    private static final String HQL_CHANGED_ELEMENTS = "select distinct entry.elementId " //$NON-NLS-1$
+            + "from ChangeLogEntry entry where entry.changetime >= :since " //$NON-NLS-1$
+            + "and (entry.elementClass like :requirementClass " //$NON-NLS-1$
+            + "or entry.elementClass like :safeguardClass)"; //$NON-NLS-1$
+
+    private static final String HQL_ELEMENT_IDS = "select element.dbId from CnATreeElement element " //$NON-NLS-1$
+            + "where element.uuid in (:uuids)"; //$NON-NLS-1$
+
     private boolean enabled = false;
+    private boolean incremental = false;
+    private int fullRunIntervalDays = 7;
+    private int threads = 4;
+    private BpTaskCreatorState runState;
+
 
     private IBaseDao<CnATreeElement, Integer> elementDao;
     private IBaseDao<Configuration, Integer> configurationDao;
@@ -115,7 +162,12 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
             ctx = SecurityContextHolder.getContext();
             dummyAuthAdded = addSecurityContext(ctx);
 
-            elementDao.executeCallback(new CreateTasks());
+            BpTaskCreatorState nextState = new CreateTasks().run();
+            if (nextState != null) {
+                context.getJobDetail().getJobDataMap().put(RUN_STATE, nextState);
+            } else {
+                context.getJobDetail().getJobDataMap().remove(RUN_STATE);
+            }
 
         } finally {
             if (dummyAuthAdded) {
@@ -144,6 +196,26 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
         this.enabled = enabled;
     }
 
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
+    public void setFullRunIntervalDays(int fullRunIntervalDays) {
+        this.fullRunIntervalDays = fullRunIntervalDays;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the state of the last successful run, the state is stored in the
+     * job data map by {@link #executeInternal(JobExecutionContext)}.
+     */
+    public void setRunState(BpTaskCreatorState runState) {
+        this.runState = runState;
+    }
+
     public void setElementDao(IBaseDao<CnATreeElement, Integer> elementDao) {
         this.elementDao = elementDao;
     }
@@ -228,36 +300,130 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
         this.nextRevisionFieldNamesSafeguard = Set.of(nextRevisionFieldNamesSafeguard.split(", *"));
     }
 
-    private final class CreateTasks implements HibernateCallback {
+    private final class CreateTasks {
 
-        private final List<ITask> existingTasks;
-        private final Map<Integer, String> loginsByPersonId;
-        private final Set<Integer> handledSafeguardIds;
+        private final long start = System.currentTimeMillis();
+        private ExistingTaskIndex existingTasks;
+        private Map<Integer, String> loginsByPersonId;
+        private final Set<Integer> handledSafeguardIds = ConcurrentHashMap.newKeySet();
+        private final Set<Integer> handledElementIds = ConcurrentHashMap.newKeySet();
+        private final Map<Integer, Long> dueTimes = new ConcurrentHashMap<>();
+        private final List<PlannedTask> plannedTasks = Collections
+                .synchronizedList(new ArrayList<>());
+        private final AtomicInteger numberOfRequirements = new AtomicInteger();
+        private final AtomicInteger numberOfElements = new AtomicInteger();
 
-        CreateTasks() {
+        BpTaskCreatorState run() throws JobExecutionException {
             ITaskParameter searchParameter = new TaskParameter();
             searchParameter.setProcessKey(IIndividualProcess.KEY);
             searchParameter.setAllUser(true);
-            existingTasks = taskService.getTaskList(searchParameter);
+            existingTasks = new ExistingTaskIndex(taskService.getTaskList(searchParameter));
             loginsByPersonId = loadAccountConfiguration();
-            handledSafeguardIds = new HashSet<>();
-        }
+            long tasksLoaded = System.currentTimeMillis();
+
+            List<Integer> catalogScopeIds = loadCatalogScopeIds();
+            LinkData links = incremental ? loadLinks() : null;
+            int accountHash = loginsByPersonId.hashCode();
+            boolean fullRun = isFullRun(accountHash);
+            List<Integer> requirementIds = fullRun ? loadRequirementIds(catalogScopeIds)
+                    : loadCandidateRequirementIds(links);
+            long elementsSelected = System.currentTimeMillis();
+
+            evaluate(requirementIds, catalogScopeIds);
+            long elementsEvaluated = System.currentTimeMillis();
+
+            Set<String> elementUuidsWithNewTasks = new HashSet<>();
+            for (PlannedTask task : plannedTasks) {
+                createTask(task);
+                elementUuidsWithNewTasks.add(task.uuid);
+            }
+            long end = System.currentTimeMillis();
 
-        @Override
-        public Object doInHibernate(Session session) throws HibernateException, SQLException {
-            List<@NonNull BpRequirement> requirements = loadRequirements(session);
             if (LOG.isInfoEnabled()) {
-                LOG.info("Found " + requirements.size() + " requirements");
+                LOG.info("BP task creation finished, " + (fullRun ? "full" : "incremental")
+                        + " run, requirements: " + numberOfRequirements + ", elements scanned: "
+                        + numberOfElements + ", tasks created: " + plannedTasks.size()
+                        + ", loading tasks: " + (tasksLoaded - start)
+                        + " ms, selecting elements: " + (elementsSelected - tasksLoaded)
+                        + " ms, scanning elements: " + (elementsEvaluated - elementsSelected)
+                        + " ms, creating tasks: " + (end - elementsEvaluated) + " ms");
+            }
+            if (!incremental) {
+                return null;
+            }
+            Map<String, Integer> taskHashes = new HashMap<>(existingTasks.getTaskHashes());
+            // elements with new tasks are revisited by the next run
+            taskHashes.keySet().removeAll(elementUuidsWithNewTasks);
+            if (fullRun) {
+                return new BpTaskCreatorState(start, start, accountHash, links.hashes,
+                        new HashMap<>(dueTimes), taskHashes);
             }
+            return runState.next(start, accountHash, links.hashes, handledElementIds, dueTimes,
+                    taskHashes);
+        }
+
+        private boolean isFullRun(int accountHash) {
+            return !incremental || runState == null || runState.getAccountHash() != accountHash
+                    || start - runState.getFullRunStart() >= TimeUnit.DAYS
+                            .toMillis(fullRunIntervalDays);
+        }
 
-            for (BpRequirement requirement : requirements) {
-                processRequirement(requirement);
+        private void evaluate(List<Integer> requirementIds, List<Integer> catalogScopeIds)
+                throws JobExecutionException {
+            if (requirementIds.isEmpty()) {
+                return;
+            }
+            Collection<List<Integer>> chunks = CollectionUtil.partition(requirementIds,
+                    IDao.QUERY_MAX_ITEMS_IN_LIST);
+            ExecutorService executor = Executors.newFixedThreadPool(
+                    Math.max(1, Math.min(threads, chunks.size())),
+                    new CustomNamedThreadGroupFactory("bpTaskCreator"));
+            try {
+                List<Future<?>> futures = new ArrayList<>(chunks.size());
+                for (List<Integer> chunk : chunks) {
+                    futures.add(executor.submit(new EvaluateChunk(chunk, catalogScopeIds)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JobExecutionException("Interrupted while scanning requirements", e);
+            } catch (ExecutionException e) {
+                throw new JobExecutionException("Error while scanning requirements",
+                        e.getCause());
+            } finally {
+                executor.shutdownNow();
             }
-            return null;
         }
 
-        private void processRequirement(BpRequirement requirement) {
+        private final class EvaluateChunk extends DummyAuthenticationRunnable {
 
+            private final List<Integer> requirementIds;
+            private final List<Integer> catalogScopeIds;
+
+            EvaluateChunk(List<Integer> requirementIds, List<Integer> catalogScopeIds) {
+                this.requirementIds = requirementIds;
+                this.catalogScopeIds = catalogScopeIds;
+            }
+
+            @Override
+            public void doRun() {
+                ServerInitializer.inheritVeriniceContextState();
+                elementDao.executeCallback(session -> {
+                    List<@NonNull BpRequirement> requirements = loadRequirements(session,
+                            requirementIds, catalogScopeIds);
+                    numberOfRequirements.addAndGet(requirements.size());
+                    for (BpRequirement requirement : requirements) {
+                        processRequirement(requirement);
+                    }
+                    return null;
+                });
+            }
+        }
+
+        private void processRequirement(BpRequirement requirement) {
+            handledElementIds.add(requirement.getDbId());
             if (requirement.isDeductionOfImplementation()) {
                 Set<CnATreeElement> safeguards = requirement.getLinksDown().stream().filter(
                         DeductionImplementationUtil::isRelevantLinkForImplementationStateDeduction)
@@ -269,13 +435,12 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
                 } else {
                     for (CnATreeElement safeguard : safeguards) {
                         if (handledSafeguardIds.add(safeguard.getDbId())) {
-                            new ElementTaskCreator(safeguard, true, existingTasks, loginsByPersonId)
-                                    .run();
+                            new ElementTaskCreator(safeguard, true, this).run();
                         }
                     }
                 }
             } else {
-                new ElementTaskCreator(requirement, false, existingTasks, loginsByPersonId).run();
+                new ElementTaskCreator(requirement, false, this).run();
             }
         }
 
@@ -290,20 +455,103 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
                     Collectors.toMap(c -> c.getPerson().getDbId(), Configuration::getUser));
         }
 
-        private List<@NonNull BpRequirement> loadRequirements(Session session) {
-            @SuppressWarnings("unchecked")
-            List<Integer> catalogScopeDBIds = session.createCriteria(ItNetwork.class)
-                    .createAlias("parent", "parent")
+        @SuppressWarnings("unchecked")
+        private List<Integer> loadCatalogScopeIds() {
+            return (List<Integer>) elementDao.executeCallback(session -> session
+                    .createCriteria(ItNetwork.class).createAlias("parent", "parent")
                     .add(Restrictions.eq("parent.objectType", CatalogModel.TYPE_ID))
-                    .setProjection(Projections.property("dbId")).list();
+                    .setProjection(Projections.property("dbId")).list());
+        }
 
+        @SuppressWarnings("unchecked")
+        private List<Integer> loadRequirementIds(List<Integer> catalogScopeIds) {
+            return (List<Integer>) elementDao.executeCallback(session -> {
+                Criteria criteria = session.createCriteria(BpRequirement.class)
+                        .setProjection(Projections.property("dbId"));
+                if (!catalogScopeIds.isEmpty()) {
+                    criteria.add(Restrictions.not(Restrictions.in("scopeId", catalogScopeIds)));
+                }
+                return criteria.list();
+            });
+        }
+
+        /**
+         * @return The ids of the requirements which may need a task since the
+         *         last run, including the requirements whose implementation
+         *         status is deduced from a safeguard which may need a task
+         */
+        private List<Integer> loadCandidateRequirementIds(LinkData links) {
+            Set<Integer> candidateIds = new HashSet<>();
+            candidateIds.addAll(loadChangedElementIds(runState.getRunStart()));
+            candidateIds.addAll(runState.getElementIdsWithChangedLinks(links.hashes));
+            candidateIds.addAll(runState.getDueElementIds(start));
+            candidateIds.addAll(loadElementIds(
+                    runState.getElementUuidsWithChangedTasks(existingTasks.getTaskHashes())));
+            Set<Integer> requirementIds = new TreeSet<>(candidateIds);
+            for (Integer dbId : candidateIds) {
+                requirementIds.addAll(links.requirementIdsBySafeguardId.getOrDefault(dbId,
+                        Collections.emptySet()));
+            }
+            return new ArrayList<>(requirementIds);
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<Integer> loadChangedElementIds(long since) {
+            return (List<Integer>) elementDao.executeCallback(session -> {
+                Query query = session.createQuery(HQL_CHANGED_ELEMENTS);
+                query.setTimestamp("since", new Date(since));
+                query.setString("requirementClass", BpRequirement.class.getName() + "%");
+                query.setString("safeguardClass", Safeguard.class.getName() + "%");
+                return query.list();
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private List<Integer> loadElementIds(Set<String> uuids) {
+            List<Integer> dbIds = new ArrayList<>(uuids.size());
+            for (List<String> chunk : CollectionUtil.partition(new ArrayList<>(uuids),
+                    IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+                dbIds.addAll((List<Integer>) elementDao.executeCallback(session -> session
+                        .createQuery(HQL_ELEMENT_IDS).setParameterList("uuids", chunk).list()));
+            }
+            return dbIds;
+        }
+
+        @SuppressWarnings("unchecked")
+        private LinkData loadLinks() {
+            List<Object[]> rows = (List<Object[]>) elementDao.executeCallback(session -> session
+                    .createQuery(HQL_LINKS)
+                    .setParameterList("typeIds",
+                            List.of(REL_BP_PERSON_BP_REQUIREMENT, REL_BP_PERSON_BP_SAFEGUARD,
+                                    BpRequirement.REL_BP_REQUIREMENT_BP_SAFEGUARD))
+                    .setReadOnly(true).list());
+            LinkData links = new LinkData();
+            for (Object[] row : rows) {
+                Integer dependantId = (Integer) row[0];
+                Integer dependencyId = (Integer) row[1];
+                if (BpRequirement.REL_BP_REQUIREMENT_BP_SAFEGUARD.equals(row[2])) {
+                    links.add(dependantId, dependencyId, 1);
+                    links.requirementIdsBySafeguardId
+                            .computeIfAbsent(dependencyId, id -> new HashSet<>())
+                            .add(dependantId);
+                } else {
+                    // responsible person => requirement or safeguard
+                    links.add(dependencyId, dependantId, 0);
+                }
+            }
+            return links;
+        }
+
+        private List<@NonNull BpRequirement> loadRequirements(Session session,
+                List<Integer> requirementIds, List<Integer> catalogScopeIds) {
             Criteria criteria = session.createCriteria(BpRequirement.class)
                     .setFetchMode("entity", FetchMode.JOIN)
                     .setFetchMode("entity.typedPropertyLists", FetchMode.JOIN)
+                    .add(Restrictions.in("dbId", requirementIds))
                     .setResultTransformer(CriteriaSpecification.DISTINCT_ROOT_ENTITY);
 
-            if (!catalogScopeDBIds.isEmpty()) {
-                criteria.add(Restrictions.not(Restrictions.in("scopeId", catalogScopeDBIds)));
+            if (!catalogScopeIds.isEmpty()) {
+                criteria.add(Restrictions.not(Restrictions.in("scopeId", catalogScopeIds)));
             }
 
             @SuppressWarnings("unchecked")
@@ -311,6 +559,25 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
             return requirements;
         }
 
+        private void createTask(PlannedTask task) {
+            if (LOG.isInfoEnabled()) {
+                LOG.info("Create task " + task.parameters.title + " for " + task.elementLabel
+                        + ", assignee: " + task.login);
+            }
+            IndividualServiceParameter parameter = new IndividualServiceParameter();
+            parameter.setUuid(task.uuid);
+            parameter.setTypeId(task.typeId);
+            parameter.setAssignee(task.login);
+            parameter.setTitle(task.parameters.title);
+            parameter.setDescription(task.parameters.description);
+            parameter.setDueDate(Date.from(
+                    ZonedDateTime.now().plusDays(task.parameters.dueDateDays).toInstant()));
+            parameter.setReminderPeriodDays(task.parameters.reminderPeriodDays);
+            parameter.setProperties(task.parameters.properties);
+            parameter.setWithAReleaseProcess(task.parameters.withReleaseProcess);
+            individualService.startProcess(parameter);
+        }
+
     }
 
     private final class ElementTaskCreator implements Runnable {
@@ -319,19 +586,14 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
         private final boolean isSafeguard;
         private final Entity entity;
         private final ImplementationStatus implementationStatus;
-        private final Set<ITask> existingTasksForElement;
-        private final Map<Integer, String> loginsByPersonId;
+        private final CreateTasks run;
 
-        public ElementTaskCreator(CnATreeElement element, boolean isSafeguard,
-                List<ITask> existingTasks, Map<Integer, String> loginsByPersonId) {
+        public ElementTaskCreator(CnATreeElement element, boolean isSafeguard, CreateTasks run) {
             this.element = element;
             entity = element.getEntity();
 
             this.isSafeguard = isSafeguard;
-            this.existingTasksForElement = existingTasks.stream()
-                    .filter(task -> element.getUuid().equals(task.getUuid()))
-                    .collect(Collectors.toSet());
-            this.loginsByPersonId = loginsByPersonId;
+            this.run = run;
             if (isSafeguard) {
                 implementationStatus = Safeguard.getImplementationStatus(
                         entity.getRawPropertyValue(Safeguard.PROP_IMPLEMENTATION_STATUS));
@@ -347,10 +609,12 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
         @Override
         public void run() {
             LOG.info("Handle element " + element);
+            run.numberOfElements.incrementAndGet();
+            run.handledElementIds.add(element.getDbId());
             Set<CnATreeElement> responsiblePersons = element.getLinksUp().stream()
                     .filter(link -> link.getRelationId()
-                            .equals(isSafeguard ? "rel_bp_person_bp_safeguard_general"
-                                    : "rel_bp_person_bp_requirement_general"))
+                            .equals(isSafeguard ? REL_BP_PERSON_BP_SAFEGUARD
+                                    : REL_BP_PERSON_BP_REQUIREMENT))
                     .map(CnALink::getDependant).collect(Collectors.toSet());
 
             if (responsiblePersons.isEmpty()) {
@@ -377,6 +641,8 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
                 if (daysUntilImplementationBy < implementationThresholdDays) {
                     createTaskIfNotExists(element, responsiblePersons,
                             newImplementationTaskParameters());
+                } else {
+                    setDueTime(implementationByDate, implementationThresholdDays);
                 }
             } else if (implementationStatus == ImplementationStatus.YES
                     || implementationStatus == ImplementationStatus.NOT_APPLICABLE) {
@@ -386,6 +652,8 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
                 if (daysUntilNextRevision < nextRevisionThresholdDays) {
                     createTaskIfNotExists(element, responsiblePersons,
                             newNextRevisionTaskParameters());
+                } else {
+                    setDueTime(nextRevision, nextRevisionThresholdDays);
                 }
             } else {
                 LOG.error("Invalid implementation status value " + implementationStatus + " for "
@@ -393,6 +661,15 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
             }
         }
 
+        /**
+         * Sets the time when the element is revisited by an incremental run,
+         * one day before the threshold is reached.
+         */
+        private void setDueTime(Date date, int thresholdDays) {
+            run.dueTimes.put(element.getDbId(), date.toInstant().atZone(ZoneId.systemDefault())
+                    .minusDays(thresholdDays + 1L).toInstant().toEpochMilli());
+        }
+
         private TaskParameters newImplementationTaskParameters() {
             return new TaskParameters(implementationTaskTitle, implementationTaskDescription,
                     implementationDueDateDays, implementationReminderPeriodDays,
@@ -412,15 +689,16 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
         private void createTaskIfNotExists(CnATreeElement element,
                 Set<CnATreeElement> responsiblePersons, TaskParameters taskParameters) {
             for (CnATreeElement person : responsiblePersons) {
-                String login = loginsByPersonId.get(person.getDbId());
+                String login = run.loginsByPersonId.get(person.getDbId());
                 if (login == null) {
                     LOG.warn("No user account found for person " + person + " linked with "
                             + element);
                 } else {
-                    boolean taskExists = checkForExistingTask(login, taskParameters.title);
+                    boolean taskExists = run.existingTasks.contains(element.getUuid(),
+                            taskParameters.title, login);
 
                     if (!taskExists) {
-                        createTask(element, taskParameters, login);
+                        run.plannedTasks.add(new PlannedTask(element, taskParameters, login));
                     } else {
                         if (LOG.isDebugEnabled()) {
                             LOG.debug("task exists");
@@ -430,32 +708,6 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
             }
         }
 
-        private boolean checkForExistingTask(String login, String taskTitle) {
-            return existingTasksForElement.stream().anyMatch(
-                    t -> taskTitle.equals(t.getName()) && Optional.ofNullable(t.getAssignee())
-                            .map(it -> it.endsWith(" [" + login + "]")).orElse(false));
-        }
-
-        private void createTask(CnATreeElement element, TaskParameters taskParameters,
-                String login) {
-            if (LOG.isInfoEnabled()) {
-                LOG.info("Create task " + implementationTaskTitle + " for " + element
-                        + ", assignee: " + login);
-            }
-            IndividualServiceParameter parameter = new IndividualServiceParameter();
-            parameter.setUuid(element.getUuid());
-            parameter.setTypeId(element.getTypeId());
-            parameter.setAssignee(login);
-            parameter.setTitle(taskParameters.title);
-            parameter.setDescription(taskParameters.description);
-            parameter.setDueDate(Date
-                    .from(ZonedDateTime.now().plusDays(taskParameters.dueDateDays).toInstant()));
-            parameter.setReminderPeriodDays(taskParameters.reminderPeriodDays);
-            parameter.setProperties(taskParameters.properties);
-            parameter.setWithAReleaseProcess(taskParameters.withReleaseProcess);
-            individualService.startProcess(parameter);
-        }
-
         private long getDaysUntil(Date implementationByDate) {
             return ZonedDateTime.now().until(
                     implementationByDate.toInstant().atZone(ZoneId.systemDefault()),
@@ -464,6 +716,43 @@ public class BpTaskCreatorJob extends QuartzJobBean implements StatefulJob {
 
     }
 
+    /**
+     * The links of the requirements and safeguards loaded by an incremental
+     * run. Changes of the links are detected by a hash of the ids of the
+     * linked elements.
+     */
+    private static final class LinkData {
+
+        // key: element db-id, value: hash of the linked persons and safeguards
+        private final Map<Integer, Integer> hashes = new HashMap<>();
+        private final Map<Integer, Set<Integer>> requirementIdsBySafeguardId = new HashMap<>();
+
+        private void add(Integer elementId, Integer linkedElementId, int linkType) {
+            // the sum is independent of the order of the links
+            hashes.merge(elementId, Integer.rotateLeft(linkedElementId * 0x9E3779B9, linkType),
+                    Integer::sum);
+        }
+    }
+
+    /**
+     * A task which is created after all elements are scanned.
+     */
+    private static final class PlannedTask {
+        private final String uuid;
+        private final String typeId;
+        private final String elementLabel;
+        private final TaskParameters parameters;
+        private final String login;
+
+        PlannedTask(CnATreeElement element, TaskParameters parameters, String login) {
+            this.uuid = element.getUuid();
+            this.typeId = element.getTypeId();
+            this.elementLabel = element.toString();
+            this.parameters = parameters;
+            this.login = login;
+        }
+    }
+
     private static class TaskParameters {
         public final String title;
         public final String description;
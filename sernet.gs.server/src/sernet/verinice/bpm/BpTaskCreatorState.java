@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.bpm;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The state of the last successful run of the {@link BpTaskCreatorJob}. The
+ * state is stored in the job data map of the stateful job and used to
+ * determine the requirements and safeguards which are revisited by an
+ * incremental run:
+ *
+ * <ul>
+ * <li>Elements changed since the last run according to the change log</li>
+ * <li>Elements whose links to responsible persons or deduction safeguards
+ * changed</li>
+ * <li>Elements whose implementation or revision date reaches the threshold
+ * of the job</li>
+ * <li>Elements whose tasks changed since the last run, e.g. completed tasks</li>
+ * </ul>
+ */
+final class BpTaskCreatorState implements Serializable {
+
+    private static final long serialVersionUID = -3049381520667724393L;
+
+    private final long runStart;
+    private final long fullRunStart;
+    private final int accountHash;
+    // key: element db-id, value: hash of the linked persons and safeguards
+    private final Map<Integer, Integer> linkHashes;
+    // key: element db-id, value: time when the element is revisited
+    private final Map<Integer, Long> dueTimes;
+    // key: element uuid, value: hash of the tasks of the element
+    private final Map<String, Integer> taskHashes;
+
+    BpTaskCreatorState(long runStart, long fullRunStart, int accountHash,
+            Map<Integer, Integer> linkHashes, Map<Integer, Long> dueTimes,
+            Map<String, Integer> taskHashes) {
+        this.runStart = runStart;
+        this.fullRunStart = fullRunStart;
+        this.accountHash = accountHash;
+        this.linkHashes = linkHashes;
+        this.dueTimes = dueTimes;
+        this.taskHashes = taskHashes;
+    }
+
+    long getRunStart() {
+        return runStart;
+    }
+
+    long getFullRunStart() {
+        return fullRunStart;
+    }
+
+    int getAccountHash() {
+        return accountHash;
+    }
+
+    Map<Integer, Long> getDueTimes() {
+        return dueTimes;
+    }
+
+    /**
+     * @return The ids of all elements which are due at the given time
+     */
+    Set<Integer> getDueElementIds(long time) {
+        Set<Integer> dueIds = new HashSet<>();
+        for (Map.Entry<Integer, Long> entry : dueTimes.entrySet()) {
+            if (entry.getValue() <= time) {
+                dueIds.add(entry.getKey());
+            }
+        }
+        return dueIds;
+    }
+
+    /**
+     * @return The ids of all elements whose links differ from the links of
+     *         the last run, including elements whose links were removed
+     */
+    Set<Integer> getElementIdsWithChangedLinks(Map<Integer, Integer> currentLinkHashes) {
+        Set<Integer> changedIds = new HashSet<>();
+        for (Map.Entry<Integer, Integer> entry : currentLinkHashes.entrySet()) {
+            if (!Objects.equals(linkHashes.get(entry.getKey()), entry.getValue())) {
+                changedIds.add(entry.getKey());
+            }
+        }
+        for (Integer dbId : linkHashes.keySet()) {
+            if (!currentLinkHashes.containsKey(dbId)) {
+                changedIds.add(dbId);
+            }
+        }
+        return changedIds;
+    }
+
+    /**
+     * @return The UUIDs of all elements which had tasks in the last run and
+     *         whose tasks changed or were completed since then
+     */
+    Set<String> getElementUuidsWithChangedTasks(Map<String, Integer> currentTaskHashes) {
+        Set<String> uuids = new HashSet<>();
+        for (Map.Entry<String, Integer> entry : taskHashes.entrySet()) {
+            if (!entry.getValue().equals(currentTaskHashes.get(entry.getKey()))) {
+                uuids.add(entry.getKey());
+            }
+        }
+        return uuids;
+    }
+
+    /**
+     * Creates the state after an incremental run. The due times of the
+     * elements handled by the run replace the due times of the last run.
+     *
+     * @param handledElementIds
+     *            The ids of all elements handled by the run
+     * @param handledDueTimes
+     *            The due times of the handled elements
+     */
+    BpTaskCreatorState next(long nextRunStart, int nextAccountHash,
+            Map<Integer, Integer> nextLinkHashes, Set<Integer> handledElementIds,
+            Map<Integer, Long> handledDueTimes, Map<String, Integer> nextTaskHashes) {
+        Map<Integer, Long> nextDueTimes = new HashMap<>(dueTimes);
+        nextDueTimes.keySet().removeAll(handledElementIds);
+        nextDueTimes.putAll(handledDueTimes);
+        return new BpTaskCreatorState(nextRunStart, fullRunStart, nextAccountHash, nextLinkHashes,
+                nextDueTimes, nextTaskHashes);
+    }
+}
@@ -0,0 +1,117 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.bpm;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import sernet.verinice.interfaces.bpm.ITask;
+
+/**
+ * Index of existing tasks by the UUID of the element, the title of the task
+ * and the login of the assignee. The index is created once per run of the
+ * {@link BpTaskCreatorJob}, a lookup does not depend on the number of tasks.
+ *
+ * The assignee of a task is the name of the user followed by the login in
+ * brackets, see ConfigurationService#getName(String).
+ */
+final class ExistingTaskIndex {
+
+    private static final String LOGIN_PREFIX = " [";
+    private static final String LOGIN_SUFFIX = "]";
+
+    // key: element uuid, value: task title and login of the assignee
+    private final Map<String, Set<TaskKey>> tasksByElementUuid;
+
+    ExistingTaskIndex(Collection<ITask> tasks) {
+        tasksByElementUuid = new HashMap<>();
+        for (ITask task : tasks) {
+            String login = getLogin(task.getAssignee());
+            if (task.getUuid() != null && task.getName() != null && login != null) {
+                tasksByElementUuid.computeIfAbsent(task.getUuid(), uuid -> new HashSet<>())
+                        .add(new TaskKey(task.getName(), login));
+            }
+        }
+    }
+
+    boolean contains(String elementUuid, String taskTitle, String login) {
+        Set<TaskKey> tasks = tasksByElementUuid.get(elementUuid);
+        return tasks != null && tasks.contains(new TaskKey(taskTitle, login));
+    }
+
+    /**
+     * @return A hash of the tasks of each element with at least one task,
+     *         key: element UUID
+     */
+    Map<String, Integer> getTaskHashes() {
+        Map<String, Integer> hashes = new HashMap<>(tasksByElementUuid.size());
+        for (Map.Entry<String, Set<TaskKey>> entry : tasksByElementUuid.entrySet()) {
+            hashes.put(entry.getKey(), entry.getValue().hashCode());
+        }
+        return hashes;
+    }
+
+    /**
+     * @return The login of an assignee "Name [login]" or null if the assignee
+     *         does not contain a login
+     */
+    static String getLogin(String assignee) {
+        if (assignee == null || !assignee.endsWith(LOGIN_SUFFIX)) {
+            return null;
+        }
+        int start = assignee.lastIndexOf(LOGIN_PREFIX);
+        if (start < 0) {
+            return null;
+        }
+        return assignee.substring(start + LOGIN_PREFIX.length(),
+                assignee.length() - LOGIN_SUFFIX.length());
+    }
+
+    private static final class TaskKey {
+
+        private final String title;
+        private final String login;
+
+        TaskKey(String title, String login) {
+            this.title = title;
+            this.login = login;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * title.hashCode() + login.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof TaskKey)) {
+                return false;
+            }
+            TaskKey other = (TaskKey) obj;
+            return title.equals(other.title) && login.equals(other.login);
+        }
+    }
+}
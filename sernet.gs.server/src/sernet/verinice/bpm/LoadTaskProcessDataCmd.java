@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.bpm;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.hibernate.Session;
+import org.jbpm.api.cmd.Command;
+import org.jbpm.api.cmd.Environment;
+import org.jbpm.api.model.Transition;
+import org.jbpm.pvm.internal.model.ActivityImpl;
+import org.jbpm.pvm.internal.model.ExecutionImpl;
+import org.jbpm.pvm.internal.task.TaskImpl;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.verinice.interfaces.IDao;
+
+/**
+ * A jBPM command which loads the process variables and the outcomes of many
+ * tasks at once.
+ * 
+ * The executions of the tasks are loaded with their variables in one query
+ * per chunk of tasks. The binary values of the variables are loaded with one
+ * more query per chunk. The outcomes are determined once per activity of a
+ * process definition.
+ * 
+ * The command must be executed by the process engine, variable values are
+ * deserialized in the jBPM environment.
+ */
+final class LoadTaskProcessDataCmd implements Command<Map<String, LoadTaskProcessDataCmd.TaskProcessData>> {
+
+    private static final long serialVersionUID = -2157043402845301870L;
+
+    private static final String HQL_TASKS = "select distinct task from org.jbpm.pvm.internal.task.TaskImpl task " //$NON-NLS-1$
+            + "left join fetch task.execution execution " //$NON-NLS-1$
+            + "left join fetch execution.variables " //$NON-NLS-1$
+            + "where task.dbid in (:dbids)"; //$NON-NLS-1$
+
+    private static final String HQL_LOBS = "select variable.lob " //$NON-NLS-1$
+            + "from org.jbpm.pvm.internal.type.variable.BlobVariable variable " //$NON-NLS-1$
+            + "where variable.execution.dbid in (:executionDbids)"; //$NON-NLS-1$
+
+    private final List<Long> taskDbIds;
+
+    /**
+     * @param taskIds
+     *            The IDs of the tasks, see {@link org.jbpm.api.task.Task#getId()}
+     */
+    LoadTaskProcessDataCmd(Collection<String> taskIds) {
+        taskDbIds = new ArrayList<>(taskIds.size());
+        for (String taskId : taskIds) {
+            taskDbIds.add(Long.valueOf(taskId));
+        }
+    }
+
+    /**
+     * @return The variables and outcomes of the tasks by task ID
+     */
+    @Override
+    public Map<String, TaskProcessData> execute(Environment environment) {
+        Session session = environment.get(Session.class);
+        Map<String, TaskProcessData> dataByTaskId = new HashMap<>(taskDbIds.size());
+        Map<String, Set<String>> outcomesByActivity = new HashMap<>();
+        for (List<Long> dbIds : CollectionUtil.partition(taskDbIds, IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            @SuppressWarnings("unchecked")
+            List<TaskImpl> tasks = session.createQuery(HQL_TASKS).setParameterList("dbids", dbIds)
+                    .list();
+            loadLobs(session, tasks);
+            for (TaskImpl task : tasks) {
+                ExecutionImpl execution = task.getExecution();
+                if (execution == null) {
+                    dataByTaskId.put(task.getId(),
+                            new TaskProcessData(Collections.emptyMap(), Collections.emptySet()));
+                    continue;
+                }
+                Set<String> outcomes = outcomesByActivity.computeIfAbsent(
+                        execution.getProcessDefinitionId() + "/" + execution.getActivityName(), //$NON-NLS-1$
+                        key -> getOutcomes(execution));
+                dataByTaskId.put(task.getId(),
+                        new TaskProcessData(execution.getVariables(), outcomes));
+            }
+        }
+        return dataByTaskId;
+    }
+
+    /**
+     * Loads the binary values of the variables into the session. The lazy
+     * references of the variables are resolved from the session afterwards.
+     */
+    private void loadLobs(Session session, List<TaskImpl> tasks) {
+        Set<Long> executionDbIds = new HashSet<>();
+        for (TaskImpl task : tasks) {
+            if (task.getExecution() != null) {
+                executionDbIds.add(task.getExecution().getDbid());
+            }
+        }
+        if (!executionDbIds.isEmpty()) {
+            session.createQuery(HQL_LOBS).setParameterList("executionDbids", executionDbIds)
+                    .list();
+        }
+    }
+
+    /**
+     * Returns the names of the outgoing transitions of the activity of an
+     * execution like {@link org.jbpm.api.TaskService#getOutcomes(String)}.
+     */
+    private static Set<String> getOutcomes(ExecutionImpl execution) {
+        ActivityImpl activity = execution.getActivity();
+        if (activity == null || activity.getOutgoingTransitions() == null) {
+            return Collections.emptySet();
+        }
+        Set<String> outcomes = new HashSet<>();
+        for (Transition transition : activity.getOutgoingTransitions()) {
+            outcomes.add(transition.getName());
+        }
+        return outcomes;
+    }
+
+    /**
+     * The process variables and the outcomes of a task.
+     */
+    static final class TaskProcessData implements Serializable {
+
+        private static final long serialVersionUID = 4410867383287011530L;
+
+        private final Map<String, Object> variables;
+        private final Set<String> outcomes;
+
+        private TaskProcessData(Map<String, Object> variables, Set<String> outcomes) {
+            this.variables = variables;
+            this.outcomes = outcomes;
+        }
+
+        Map<String, Object> getVariables() {
+            return variables;
+        }
+
+        Set<String> getOutcomes() {
+            return outcomes;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.bpm;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import sernet.verinice.bpm.LoadTaskProcessDataCmd.TaskProcessData;
+import sernet.verinice.interfaces.bpm.KeyValue;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * The data loaded in bulk by the {@link TaskService} to map a list of jBPM
+ * tasks. An instance is used for one request only. Values which are the same
+ * for many tasks, e.g. the names of the assignees and the outcomes, are
+ * resolved once per request.
+ */
+final class TaskListData {
+
+    private static final String[] NO_SCOPE_TITLE = new String[] { "", "" };
+
+    private final Map<String, TaskProcessData> processDataByTaskId;
+    private final Map<String, CnATreeElement> elementsByUuid;
+    private final Map<Integer, String[]> scopeTitlesByDbId;
+    private final Map<String, String> namesByLogin = new HashMap<>();
+    private final Map<Set<String>, List<KeyValue>> outcomeLists = new HashMap<>();
+
+    /**
+     * @param scopeTitlesByDbId
+     *            The title and the UUID of the scopes by database ID
+     */
+    TaskListData(Map<String, TaskProcessData> processDataByTaskId,
+            Map<String, CnATreeElement> elementsByUuid, Map<Integer, String[]> scopeTitlesByDbId) {
+        this.processDataByTaskId = processDataByTaskId;
+        this.elementsByUuid = elementsByUuid;
+        this.scopeTitlesByDbId = scopeTitlesByDbId;
+    }
+
+    Map<String, Object> getVariables(String taskId) {
+        TaskProcessData data = processDataByTaskId.get(taskId);
+        return (data != null) ? data.getVariables() : Collections.emptyMap();
+    }
+
+    Set<String> getOutcomes(String taskId) {
+        TaskProcessData data = processDataByTaskId.get(taskId);
+        return (data != null) ? data.getOutcomes() : Collections.emptySet();
+    }
+
+    /**
+     * @return The element or null if the element does not exist or the user
+     *         is not allowed to read it
+     */
+    CnATreeElement getElement(String uuid) {
+        return elementsByUuid.get(uuid);
+    }
+
+    /**
+     * @return The title and the UUID of the scope of an element, empty
+     *         strings if the scope is not an IT network or an organization
+     */
+    String[] getScopeTitle(String elementUuid) {
+        CnATreeElement element = (elementUuid != null) ? elementsByUuid.get(elementUuid) : null;
+        if (element == null || element.getScopeId() == null) {
+            return NO_SCOPE_TITLE;
+        }
+        return scopeTitlesByDbId.getOrDefault(element.getScopeId(), NO_SCOPE_TITLE);
+    }
+
+    Map<String, String> getNamesByLogin() {
+        return namesByLogin;
+    }
+
+    Map<Set<String>, List<KeyValue>> getOutcomeLists() {
+        return outcomeLists;
+    }
+}
@@ -26,13 +26,16 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
+import org.hibernate.Query;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Restrictions;
 import org.jbpm.api.Execution;
 import org.jbpm.api.ExecutionService;
 import org.jbpm.api.ManagementService;
@@ -42,9 +45,11 @@ import org.jbpm.pvm.internal.task.TaskImpl;
 import org.jbpm.pvm.internal.type.Variable;
 import org.springframework.remoting.httpinvoker.HttpInvokerProxyFactoryBean;
 
+import sernet.gs.service.CollectionUtil;
 import sernet.gs.service.RetrieveInfo;
 import sernet.gs.service.ServerInitializer;
 import sernet.hui.common.VeriniceContext;
+import sernet.verinice.bpm.LoadTaskProcessDataCmd.TaskProcessData;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.IAuthService;
 import sernet.verinice.interfaces.IBaseDao;
@@ -62,6 +67,7 @@ import sernet.verinice.interfaces.bpm.ITask;
 import sernet.verinice.interfaces.bpm.ITaskDescriptionHandler;
 import sernet.verinice.interfaces.bpm.ITaskParameter;
 import sernet.verinice.interfaces.bpm.ITaskService;
+import sernet.verinice.interfaces.bpm.TaskSortOrder;
 import sernet.verinice.interfaces.bpm.KeyValue;
 import sernet.verinice.model.bpm.Messages;
 import sernet.verinice.model.bpm.TaskInformation;
@@ -135,6 +141,14 @@ public class TaskService implements ITaskService {
 
     private static final String PROCESS_NAME_OF_TASK_WITH_RELEASE_PROCESS = "individual-task-release-process";
 
+    private static final String HQL_SCOPE_TITLES = "select elmt.dbId, elmt.uuid, props.propertyValue " //$NON-NLS-1$
+            + "from CnATreeElement elmt " //$NON-NLS-1$
+            + "inner join elmt.entity as entity " //$NON-NLS-1$
+            + "inner join entity.typedPropertyLists as propertyList " //$NON-NLS-1$
+            + "inner join propertyList.properties as props " //$NON-NLS-1$
+            + "where elmt.dbId in (:dbIds) " //$NON-NLS-1$
+            + "and props.propertyType in (:titleProperties)"; //$NON-NLS-1$
+
     private ProcessEngine processEngine;
 
     private IAuthService authService;
@@ -143,7 +157,7 @@ public class TaskService implements ITaskService {
 
     private IBaseDao<CnATreeElement, Integer> elementDao;
 
-    private IDao<TaskImpl, Long> jbpmTaskDao;
+    private IBaseDao<TaskImpl, Long> jbpmTaskDao;
 
     private IDao<Variable, Long> jbpmVariableDao;
 
@@ -210,8 +224,9 @@ public class TaskService implements ITaskService {
             if (log.isDebugEnabled()) {
                 log.debug("getTaskList, hql: " + hql); //$NON-NLS-1$
             }
-            @SuppressWarnings("unchecked")
-            List<Object> jbpmTaskList = getJbpmTaskDao().findByQuery(hql, paramList.toArray());
+            boolean pagedByDatabase = isPagedByDatabase(parameter);
+            List<Object> jbpmTaskList = pagedByDatabase ? findTaskPage(hql, paramList, parameter)
+                    : findTasks(hql, paramList);
             if (log.isDebugEnabled()) {
                 log.debug("getTaskList, number of tasks: " + jbpmTaskList.size()); //$NON-NLS-1$
             }
@@ -219,6 +234,15 @@ public class TaskService implements ITaskService {
             if (jbpmTaskList != null && !jbpmTaskList.isEmpty()) {
                 taskList = populateTaskList(jbpmTaskList);
             }
+            if (parameter.getSortOrder() == TaskSortOrder.NATURAL) {
+                Collections.sort(taskList);
+                if (parameter.isSortDescending()) {
+                    Collections.reverse(taskList);
+                }
+            }
+            if (!pagedByDatabase) {
+                taskList = getPage(taskList, parameter);
+            }
         }
         if (log.isDebugEnabled()) {
             log.debug("getTaskList finished"); //$NON-NLS-1$
@@ -226,37 +250,165 @@ public class TaskService implements ITaskService {
         return taskList;
     }
 
+    @SuppressWarnings("unchecked")
+    private List<Object> findTasks(String hql, List<?> paramList) {
+        return getJbpmTaskDao().findByQuery(hql, paramList.toArray());
+    }
+
+    /**
+     * Loads the page of tasks defined by the first result and the maximum
+     * number of results of the parameter.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Object> findTaskPage(String hql, List<?> paramList, ITaskParameter parameter) {
+        return (List<Object>) getJbpmTaskDao().executeCallback(session -> {
+            Query query = session.createQuery(hql);
+            for (int i = 0; i < paramList.size(); i++) {
+                query.setParameter(i, paramList.get(i));
+            }
+            query.setFirstResult(Math.max(parameter.getFirstResult(), 0));
+            if (parameter.getMaxResults() > 0) {
+                query.setMaxResults(parameter.getMaxResults());
+            }
+            return query.list();
+        });
+    }
+
+    /**
+     * Tasks in natural order are sorted and paged after all tasks are loaded.
+     * Note that pages loaded from the database may contain fewer tasks if the
+     * user is not allowed to read the element of a task.
+     */
+    private boolean isPagedByDatabase(ITaskParameter parameter) {
+        return parameter.getSortOrder() != TaskSortOrder.NATURAL
+                && (parameter.getFirstResult() > 0 || parameter.getMaxResults() > 0);
+    }
+
+    private static List<ITask> getPage(List<ITask> taskList, ITaskParameter parameter) {
+        int from = Math.min(Math.max(parameter.getFirstResult(), 0), taskList.size());
+        int to = (parameter.getMaxResults() > 0)
+                ? Math.min(from + parameter.getMaxResults(), taskList.size())
+                : taskList.size();
+        if (from == 0 && to == taskList.size()) {
+            return taskList;
+        }
+        return new ArrayList<>(taskList.subList(from, to));
+    }
+
     private List<ITask> populateTaskList(List<?> jbpmTaskList) {
-        List<ITask> taskList;
-        taskList = new ArrayList<>();
-        Task task = null;
-        for (Iterator<?> iterator = jbpmTaskList.iterator(); iterator.hasNext();) {
-            Object object = iterator.next();
+        List<Task> tasks = new ArrayList<>(jbpmTaskList.size());
+        for (Object object : jbpmTaskList) {
             if (object instanceof Task) {
-                task = (Task) object;
+                tasks.add((Task) object);
             }
             if (object instanceof Object[]) {
-                task = (Task) ((Object[]) object)[0];
+                tasks.add((Task) ((Object[]) object)[0]);
             }
-            if (task != null) {
-                try {
-                    ITask taskInfo = map(task);
-                    taskInfo.setOutcomes(getOutcomeList(task));
-                    taskList.add(taskInfo);
-                } catch (ElementNotFoundException enfe) {
-                    if (log.isDebugEnabled()) {
-                        log.debug("populateTaskList, element not found (no read permission?): " //$NON-NLS-1$
-                                + enfe.getUuid());
-                    }
-                    // ignore task
+        }
+        TaskListData data = loadTaskListData(tasks);
+        List<ITask> taskList = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            try {
+                ITask taskInfo = map(task, data);
+                taskInfo.setOutcomes(getOutcomeList(task, data));
+                taskList.add(taskInfo);
+            } catch (ElementNotFoundException enfe) {
+                if (log.isDebugEnabled()) {
+                    log.debug("populateTaskList, element not found (no read permission?): " //$NON-NLS-1$
+                            + enfe.getUuid());
                 }
+                // ignore task
             }
         }
         return taskList;
     }
 
-    private List<KeyValue> getOutcomeList(Task task) {
-        Set<String> outcomeSet = getTaskService().getOutcomes(task.getId());
+    /**
+     * Loads the data of all tasks which is needed to map the tasks: The
+     * process variables and outcomes with one jBPM command, the elements
+     * and audits referenced by the tasks and the titles of their scopes with
+     * one query each (per chunk of {@link IDao#QUERY_MAX_ITEMS_IN_LIST}).
+     */
+    private TaskListData loadTaskListData(List<Task> tasks) {
+        long start = System.currentTimeMillis();
+        List<String> taskIds = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            taskIds.add(task.getId());
+        }
+        Map<String, TaskProcessData> processData = getProcessEngine()
+                .execute(new LoadTaskProcessDataCmd(taskIds));
+        Set<String> uuids = new HashSet<>();
+        for (TaskProcessData data : processData.values()) {
+            Object uuid = data.getVariables().get(IGenericProcess.VAR_UUID);
+            if (uuid instanceof String) {
+                uuids.add((String) uuid);
+            }
+            Object auditUuid = data.getVariables().get(IIsaExecutionProcess.VAR_AUDIT_UUID);
+            if (auditUuid instanceof String) {
+                uuids.add((String) auditUuid);
+            }
+        }
+        Map<String, CnATreeElement> elementsByUuid = loadElements(uuids);
+        Set<Integer> scopeIds = new HashSet<>();
+        for (CnATreeElement element : elementsByUuid.values()) {
+            if (element.getScopeId() != null) {
+                scopeIds.add(element.getScopeId());
+            }
+        }
+        TaskListData taskListData = new TaskListData(processData, elementsByUuid,
+                loadScopeTitles(scopeIds));
+        if (log.isDebugEnabled()) {
+            log.debug("Data of " + tasks.size() + " tasks loaded in " //$NON-NLS-1$ //$NON-NLS-2$
+                    + (System.currentTimeMillis() - start) + " ms"); //$NON-NLS-1$
+        }
+        return taskListData;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, CnATreeElement> loadElements(Set<String> uuids) {
+        Map<String, CnATreeElement> elementsByUuid = new HashMap<>(uuids.size());
+        for (List<String> chunk : CollectionUtil.partition(new ArrayList<>(uuids),
+                IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class);
+            criteria.add(Restrictions.in("uuid", chunk)); //$NON-NLS-1$
+            new RetrieveInfo().setProperties(true).configureCriteria(criteria);
+            List<CnATreeElement> elements = getElementDao().findByCriteria(criteria);
+            for (CnATreeElement element : elements) {
+                elementsByUuid.put(element.getUuid(), element);
+            }
+        }
+        return elementsByUuid;
+    }
+
+    /**
+     * @return The title and the UUID of the scopes by database ID
+     */
+    private Map<Integer, String[]> loadScopeTitles(Set<Integer> scopeIds) {
+        Map<Integer, String[]> titlesByDbId = new HashMap<>(scopeIds.size());
+        for (List<Integer> chunk : CollectionUtil.partition(new ArrayList<>(scopeIds),
+                IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            List<?> hqlResult = getElementDao().findByQuery(HQL_SCOPE_TITLES,
+                    new String[] { "dbIds", "titleProperties" }, //$NON-NLS-1$ //$NON-NLS-2$
+                    new Object[] { chunk,
+                            Arrays.asList(ITVerbund.PROP_NAME, Organization.PROP_NAME) });
+            for (Object row : hqlResult) {
+                Object[] values = (Object[]) row;
+                if (values[1] instanceof String && values[2] instanceof String) {
+                    titlesByDbId.put((Integer) values[0],
+                            new String[] { (String) values[2], (String) values[1] });
+                }
+            }
+        }
+        return titlesByDbId;
+    }
+
+    private List<KeyValue> getOutcomeList(Task task, TaskListData data) {
+        Set<String> outcomeSet = data.getOutcomes(task.getId());
+        return new ArrayList<>(
+                data.getOutcomeLists().computeIfAbsent(outcomeSet, this::createOutcomeList));
+    }
+
+    private List<KeyValue> createOutcomeList(Set<String> outcomeSet) {
         List<KeyValue> outcomeList = new ArrayList<>(outcomeSet.size());
         for (String id : outcomeSet) {
             if (!getTaskOutcomeBlacklist().contains(id)) {
@@ -356,11 +508,24 @@ public class TaskService implements ITaskService {
                 && !parameter.getRead()) {
             addReadStatus(sb, paramList, where, ITaskService.VAR_UNREAD);
         }
+        addOrderBy(sb, parameter);
         retValues[0] = paramList;
         retValues[1] = sb.toString();
         return retValues;
     }
 
+    private void addOrderBy(StringBuilder sb, ITaskParameter parameter) {
+        String direction = parameter.isSortDescending() ? "desc" : "asc"; //$NON-NLS-1$ //$NON-NLS-2$
+        if (parameter.getSortOrder() == TaskSortOrder.CREATE_DATE) {
+            sb.append("order by task.createTime ").append(direction).append(", task.dbid"); //$NON-NLS-1$ //$NON-NLS-2$
+        } else if (parameter.getSortOrder() == TaskSortOrder.DUE_DATE) {
+            sb.append("order by task.duedate ").append(direction).append(", task.dbid"); //$NON-NLS-1$ //$NON-NLS-2$
+        } else if (isPagedByDatabase(parameter)) {
+            // pages need a stable order
+            sb.append("order by task.dbid"); //$NON-NLS-1$
+        }
+    }
+
     private void addReadStatus(StringBuilder sb, List<Object> paramList, boolean where,
             String status) {
         concat(sb, where);
@@ -402,16 +567,17 @@ public class TaskService implements ITaskService {
                 || (parameter.getRead() || parameter.getUnread()));
     }
 
-    private TaskInformation map(Task task) {
+    private TaskInformation map(Task task, TaskListData data) {
         TaskInformation taskInformation = new TaskInformation();
         taskInformation.setId(task.getId());
         taskInformation.setType(task.getName());
         taskInformation.setCreateDate(task.getCreateTime());
-        taskInformation.setAssignee(getConfigurationService().getName(task.getAssignee()));
+        taskInformation.setAssignee(data.getNamesByLogin().computeIfAbsent(task.getAssignee(),
+                getConfigurationService()::getName));
 
         log.debug("map, setting read status..."); //$NON-NLS-1$
 
-        Map<String, Object> varMap = loadVariables(task);
+        Map<String, Object> varMap = data.getVariables(task.getId());
         taskInformation.setName(loadTaskTitle(task.getName(), varMap));
         taskInformation.setDescription(loadTaskDescription(task.getName(), varMap, false));
 
@@ -428,8 +594,8 @@ public class TaskService implements ITaskService {
             taskInformation.setProperties((Set<String>) value);
         }
 
-        mapElement(taskInformation, varMap);
-        mapAudit(taskInformation, varMap);
+        mapElement(taskInformation, varMap, data);
+        mapAudit(taskInformation, varMap, data);
 
         if (log.isDebugEnabled()) {
             log.debug("map, loading type..."); //$NON-NLS-1$
@@ -478,20 +644,8 @@ public class TaskService implements ITaskService {
         return handler.loadTitle(taskId, varMap);
     }
 
-    private Map<String, Object> loadVariables(Task task) {
-        if (log.isDebugEnabled()) {
-            log.debug("loadVariables, loading element..."); //$NON-NLS-1$
-        }
-        String executionId = task.getExecutionId();
-        return loadVariablesForProcess(executionId);
-    }
-
-    private Map<String, Object> loadVariablesForProcess(String executionId) {
-        Set<String> varNameSet = getExecutionService().getVariableNames(executionId);
-        return getExecutionService().getVariables(executionId, varNameSet);
-    }
-
-    private TaskInformation mapAudit(TaskInformation taskInformation, Map<String, Object> varMap) {
+    private TaskInformation mapAudit(TaskInformation taskInformation, Map<String, Object> varMap,
+            TaskListData data) {
 
         log.debug("mapAudit, loading audit..."); //$NON-NLS-1$
 
@@ -499,18 +653,18 @@ public class TaskService implements ITaskService {
         String elementUuid = (String) varMap.get(IIsaExecutionProcess.VAR_UUID);
 
         if (uuidAudit != null) {// task references child of Audit
-            return handleAuditElement(taskInformation, uuidAudit);
+            return handleAuditElement(taskInformation, uuidAudit, data);
         } else { // task references child of ITVerbund or Organization
-            return handleNonAuditElement(taskInformation, elementUuid);
+            return handleNonAuditElement(taskInformation, elementUuid, data);
         }
     }
 
     private TaskInformation handleNonAuditElement(TaskInformation taskInformation,
-            String elementUuid) {
+            String elementUuid, TaskListData data) {
 
-        String[] dbResult = getTitlefromDB(elementUuid);
-        String title = dbResult[0];
-        String uuid = dbResult[1];
+        String[] scopeTitle = data.getScopeTitle(elementUuid);
+        String title = scopeTitle[0];
+        String uuid = scopeTitle[1];
 
         if (title == null || title.equals("")) {
             taskInformation.setGroupTitle(Messages.getString("TaskService.0")); //$NON-NLS-1$
@@ -522,12 +676,10 @@ public class TaskService implements ITaskService {
         return taskInformation;
     }
 
-    private TaskInformation handleAuditElement(TaskInformation taskInformation, String uuidAudit) {
-        CnATreeElement audit;
+    private TaskInformation handleAuditElement(TaskInformation taskInformation, String uuidAudit,
+            TaskListData data) {
         taskInformation.setUuidGroup(uuidAudit);
-        RetrieveInfo ri = new RetrieveInfo();
-        ri.setProperties(true);
-        audit = getElementDao().findByUuid(uuidAudit, ri);
+        CnATreeElement audit = data.getElement(uuidAudit);
 
         if (audit != null) {
             taskInformation.setGroupTitle(audit.getTitle());
@@ -536,45 +688,8 @@ public class TaskService implements ITaskService {
         return taskInformation;
     }
 
-    private String[] getTitlefromDB(String elementUuid) {
-        String[] results = null;
-        String hql = "select props.propertyValue, elmt.uuid from CnATreeElement elmt "
-                + "inner join elmt.entity as entity "
-                + "inner join entity.typedPropertyLists as propertyList "
-                + "inner join propertyList.properties as props " + "where  elmt.dbId = ("
-                + "select scopeId from CnATreeElement element2 where element2.uuid = :uuid " + ") "
-                + "AND props.propertyType IN (:titleProperties)";
-        List hqlResult = getElementDao().findByQuery(hql,
-                new String[] { "uuid", "titleProperties" }, new Object[] { elementUuid,
-                        Arrays.asList(ITVerbund.PROP_NAME, Organization.PROP_NAME) });
-        if (hqlResult instanceof Collection && hqlResult.size() == 1) {
-            results = getValuesFromHQLResult(hqlResult);
-        }
-        if (results != null && results.length == 2 && results[0] != null && results[1] != null) {
-            return results;
-        } else {
-            return new String[] { "", "" };
-        }
-    }
-
-    private String[] getValuesFromHQLResult(List hqlResult) {
-        String[] results = new String[2];
-        if (hqlResult.get(0) instanceof Object[]) {
-            Object[] hqlResultArr = (Object[]) hqlResult.get(0);
-            if (hqlResultArr.length == 2) {
-                if (hqlResultArr[0] instanceof String) {
-                    results[0] = (String) hqlResultArr[0];
-                }
-                if (hqlResultArr[1] instanceof String) {
-                    results[1] = (String) hqlResultArr[1];
-                }
-            }
-        }
-        return results;
-    }
-
     private TaskInformation mapElement(TaskInformation taskInformation,
-            Map<String, Object> varMap) {
+            Map<String, Object> varMap, TaskListData data) {
 
         String uuid = (String) varMap.get(IGenericProcess.VAR_UUID);
         taskInformation.setUuid(uuid);
@@ -584,9 +699,7 @@ public class TaskService implements ITaskService {
             return taskInformation;
         }
 
-        RetrieveInfo ri = new RetrieveInfo();
-        ri.setProperties(true);
-        CnATreeElement element = getElementDao().findByUuid(uuid, ri);
+        CnATreeElement element = data.getElement(uuid);
 
         if (element != null) {
             taskInformation.setElementTitle(element.getTitle());
@@ -915,11 +1028,11 @@ public class TaskService implements ITaskService {
         this.elementDao = elementDao;
     }
 
-    public IDao<TaskImpl, Long> getJbpmTaskDao() {
+    public IBaseDao<TaskImpl, Long> getJbpmTaskDao() {
         return jbpmTaskDao;
     }
 
-    public void setJbpmTaskDao(IDao<TaskImpl, Long> jbpmTaskDao) {
+    public void setJbpmTaskDao(IBaseDao<TaskImpl, Long> jbpmTaskDao) {
         this.jbpmTaskDao = jbpmTaskDao;
     }
 
@@ -998,7 +1111,7 @@ public class TaskService implements ITaskService {
         if (task == null) {
             return null;
         }
-        return map(task);
+        return map(task, loadTaskListData(Collections.singletonList(task)));
     }
 
 }
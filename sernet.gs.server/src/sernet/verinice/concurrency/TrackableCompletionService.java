@@ -38,8 +38,8 @@ public final class TrackableCompletionService<V> implements ClosableCompletionSe
 
     private final ThreadPoolExecutor threadPoolExecutor;
 
-    private TrackableCompletionService() {
-        threadPoolExecutor = VeriniceThreadPoolExecutor.newInstance();
+    private TrackableCompletionService(int numberOfThreads) {
+        threadPoolExecutor = VeriniceThreadPoolExecutor.newInstance(numberOfThreads);
         completionService = new ExecutorCompletionService<>(threadPoolExecutor);
     }
 
@@ -103,7 +103,16 @@ public final class TrackableCompletionService<V> implements ClosableCompletionSe
     }
 
     public static <V> ClosableCompletionService<V> newInstance() {
-        return new TrackableCompletionService<>();
+        return newInstance(0);
+    }
+
+    /**
+     * @param numberOfThreads
+     *            Number of worker threads, if numberOfThreads is less than 1
+     *            as many threads as processors are available are used
+     */
+    public static <V> ClosableCompletionService<V> newInstance(int numberOfThreads) {
+        return new TrackableCompletionService<>(numberOfThreads);
     }
 
 }
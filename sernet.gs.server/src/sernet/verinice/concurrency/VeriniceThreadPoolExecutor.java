@@ -50,9 +50,18 @@ public class VeriniceThreadPoolExecutor extends ThreadPoolExecutor {
     }
 
     public static ThreadPoolExecutor newInstance() {
-        return new VeriniceThreadPoolExecutor(VERINICE_THREADS_POOL, DEFAULT_NUMBER_OF_THREADS,
-                2 * DEFAULT_NUMBER_OF_THREADS, 0L, TimeUnit.MILLISECONDS,
-                new LinkedBlockingQueue<>());
+        return newInstance(DEFAULT_NUMBER_OF_THREADS);
+    }
+
+    /**
+     * @param numberOfThreads
+     *            Number of workers, if numberOfThreads is less than 1 as many
+     *            workers as processors are available are created
+     */
+    public static ThreadPoolExecutor newInstance(int numberOfThreads) {
+        int corePoolSize = numberOfThreads > 0 ? numberOfThreads : DEFAULT_NUMBER_OF_THREADS;
+        return new VeriniceThreadPoolExecutor(VERINICE_THREADS_POOL, corePoolSize,
+                2 * corePoolSize, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
     }
 
 }
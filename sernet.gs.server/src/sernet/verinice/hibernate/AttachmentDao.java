@@ -19,14 +19,24 @@
  ******************************************************************************/
 package sernet.verinice.hibernate;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.util.List;
 
 import org.hibernate.Criteria;
 import org.hibernate.FetchMode;
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Restrictions;
+import org.springframework.orm.hibernate3.HibernateCallback;
 
+import sernet.gs.service.RuntimeCommandException;
 import sernet.verinice.interfaces.IAttachmentDao;
+import sernet.verinice.interfaces.IAttachmentStore;
 import sernet.verinice.model.bsi.Attachment;
 
 /**
@@ -34,6 +44,15 @@ import sernet.verinice.model.bsi.Attachment;
  */
 public class AttachmentDao extends TreeElementDao<Attachment, Integer> implements IAttachmentDao {
 
+    private static final String SQL_SELECT_FILE_DATA = "select fileData, contentHash from note where dbId = ?";
+
+    private static final String HQL_SELECT_CONTENT_HASH = "select a.contentHash from AttachmentFile a where a.dbId = ?";
+
+    private static final String HQL_SELECT_UNSTORED_IDS = "select a.dbId from AttachmentFile a "
+            + "where a.fileData is not null and a.contentHash is null order by a.dbId";
+
+    private IAttachmentStore attachmentStore;
+
     public AttachmentDao() {
         super(Attachment.class);
     }
@@ -55,4 +74,75 @@ public class AttachmentDao extends TreeElementDao<Attachment, Integer> implement
         crit.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
         return findByCriteria(crit);
     }
+
+    /*
+     * @see
+     * sernet.verinice.interfaces.IAttachmentDao#readFileData(java.lang.Integer,
+     * sernet.verinice.interfaces.IAttachmentDao.FileDataReader)
+     */
+    @Override
+    public boolean readFileData(final Integer attachmentId, final FileDataReader reader) {
+        // The binary column is read by JDBC, the mapped AttachmentFile
+        // would load the complete file into a byte array
+        return (Boolean) getHibernateTemplate().execute(new HibernateCallback() {
+            @Override
+            public Object doInHibernate(Session session) throws HibernateException, SQLException {
+                String contentHash = null;
+                try (PreparedStatement statement = session.connection()
+                        .prepareStatement(SQL_SELECT_FILE_DATA)) {
+                    statement.setInt(1, attachmentId);
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        if (!resultSet.next()) {
+                            return false;
+                        }
+                        contentHash = resultSet.getString(2);
+                        if (contentHash == null) {
+                            try (InputStream fileData = resultSet.getBinaryStream(1)) {
+                                if (fileData == null) {
+                                    return false;
+                                }
+                                reader.read(fileData);
+                                return true;
+                            }
+                        }
+                    }
+                    return attachmentStore != null && attachmentStore.read(contentHash, reader);
+                } catch (IOException e) {
+                    throw new RuntimeCommandException(
+                            "Error while reading file data of attachment " + attachmentId, e);
+                }
+            }
+        });
+    }
+
+    /*
+     * @see
+     * sernet.verinice.interfaces.IAttachmentDao#loadContentHash(java.lang.
+     * Integer)
+     */
+    @Override
+    public String loadContentHash(Integer attachmentId) {
+        List<?> result = getHibernateTemplate().find(HQL_SELECT_CONTENT_HASH, attachmentId);
+        return result.isEmpty() ? null : (String) result.get(0);
+    }
+
+    /*
+     * @see
+     * sernet.verinice.interfaces.IAttachmentDao#loadIdsOfUnstoredFileData(int)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Integer> loadIdsOfUnstoredFileData(final int maxResults) {
+        return (List<Integer>) getHibernateTemplate().execute(new HibernateCallback() {
+            @Override
+            public Object doInHibernate(Session session) throws HibernateException {
+                return session.createQuery(HQL_SELECT_UNSTORED_IDS).setMaxResults(maxResults)
+                        .list();
+            }
+        });
+    }
+
+    public void setAttachmentStore(IAttachmentStore attachmentStore) {
+        this.attachmentStore = attachmentStore;
+    }
 }
@@ -46,6 +46,7 @@ import sernet.verinice.model.catalog.CatalogModel;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.common.Permission;
 import sernet.verinice.model.common.configuration.Configuration;
+import sernet.verinice.service.PermissionCache;
 
 /**
  * Extends {@link TreeElementDao} to check write and delete authorization for
@@ -62,6 +63,7 @@ public class SecureTreeElementDao extends TreeElementDao<CnATreeElement, Integer
     private IBaseDao<Configuration, Integer> configurationDao;
     private IBaseDao<Permission, Integer> permissionDao;
     private IConfigurationService configurationService;
+    private PermissionCache permissionCache;
 
     public SecureTreeElementDao(Class<CnATreeElement> type) {
         super(type);
@@ -120,6 +122,7 @@ public class SecureTreeElementDao extends TreeElementDao<CnATreeElement, Integer
         checkRights(entity);
         super.delete(entity);
         indexDelete(entity);
+        notifyElementDeleteListeners(Set.of(entity));
     }
 
     @Override
@@ -127,7 +130,7 @@ public class SecureTreeElementDao extends TreeElementDao<CnATreeElement, Integer
         checkRights(entities);
         super.delete(entities);
         indexDelete(entities);
-
+        notifyElementDeleteListeners(entities);
     }
 
     /*
@@ -242,11 +245,12 @@ public class SecureTreeElementDao extends TreeElementDao<CnATreeElement, Integer
         Set<Integer> result = new HashSet<>(idToScopeId.size());
         if (hasAdminRole(roleArray)) {
             result.addAll(idToScopeId.keySet());
+        } else if (isPermissionCacheEnabled()) {
+            result.addAll(permissionCache.filterWritableElements(username, idToScopeId.keySet(),
+                    dbIds -> filterWritableElementsForNonAdmin(dbIds, username, roleArray)));
         } else {
-            CollectionUtil
-                    .partition(List.copyOf(idToScopeId.keySet()), IDao.QUERY_MAX_ITEMS_IN_LIST)
-                    .forEach(chunk -> result
-                            .addAll(filterWritableElementsForNonAdmin(chunk, username, roleArray)));
+            result.addAll(filterWritableElementsForNonAdmin(List.copyOf(idToScopeId.keySet()),
+                    username, roleArray));
         }
         if (isScopeOnly()) {
             Integer userScopeId = getConfigurationService().getScopeId(username);
@@ -260,8 +264,16 @@ public class SecureTreeElementDao extends TreeElementDao<CnATreeElement, Integer
         return result;
     }
 
+    protected Set<Integer> filterWritableElementsForNonAdmin(List<Integer> dbIds, String username,
+            String[] roleArray) {
+        Set<Integer> result = new HashSet<>(dbIds.size());
+        CollectionUtil.partition(dbIds, IDao.QUERY_MAX_ITEMS_IN_LIST).forEach(
+                chunk -> result.addAll(filterWritableChunkForNonAdmin(chunk, username, roleArray)));
+        return result;
+    }
+
     @SuppressWarnings("unchecked")
-    protected Set<Integer> filterWritableElementsForNonAdmin(List<Integer> chunk, String username,
+    private Set<Integer> filterWritableChunkForNonAdmin(List<Integer> chunk, String username,
             String[] roleArray) {
 
         DetachedCriteria criteria = DetachedCriteria.forClass(Permission.class)
@@ -279,7 +291,8 @@ public class SecureTreeElementDao extends TreeElementDao<CnATreeElement, Integer
                 log.debug(integer);
             }
         }
-        return chunk.stream().filter(idList::contains).collect(Collectors.toSet());
+        Set<Integer> allowedIds = new HashSet<>(idList);
+        return chunk.stream().filter(allowedIds::contains).collect(Collectors.toSet());
     }
 
     private void beforeExecution() {
@@ -323,12 +336,15 @@ public class SecureTreeElementDao extends TreeElementDao<CnATreeElement, Integer
                 @Override
                 public Object doInHibernate(Session session)
                         throws HibernateException, SQLException {
-                    @SuppressWarnings("unchecked")
-                    List<Integer> allowedScopeIds = session.createCriteria(CnATreeElement.class)
-                            .createAlias("parent", "parent")
-                            .add(Restrictions.eq("parent.objectType", CatalogModel.TYPE_ID))
-                            .setProjection(Projections.property("dbId")).list();
-                    allowedScopeIds.add(userScopeId);
+                    List<Integer> allowedScopeIds;
+                    if (isPermissionCacheEnabled()) {
+                        allowedScopeIds = permissionCache.getAllowedScopeIds(
+                                authService.getUsername(), userScopeId,
+                                () -> loadCatalogScopeIds(session));
+                    } else {
+                        allowedScopeIds = loadCatalogScopeIds(session);
+                        allowedScopeIds.add(userScopeId);
+                    }
                     session.enableFilter("scopeFilter").setParameterList("scopeIds",
                             allowedScopeIds);
                     return null;
@@ -348,6 +364,13 @@ public class SecureTreeElementDao extends TreeElementDao<CnATreeElement, Integer
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private static List<Integer> loadCatalogScopeIds(Session session) {
+        return session.createCriteria(CnATreeElement.class).createAlias("parent", "parent")
+                .add(Restrictions.eq("parent.objectType", CatalogModel.TYPE_ID))
+                .setProjection(Projections.property("dbId")).list();
+    }
+
     private void setAccessFilterEnabled(boolean enable) {
         if (enable) {
             final Object[] roles = getConfigurationService().getRoles(authService.getUsername());
@@ -387,9 +410,16 @@ public class SecureTreeElementDao extends TreeElementDao<CnATreeElement, Integer
     }
 
     private String[] getDynamicRoles(String username) {
+        if (isPermissionCacheEnabled()) {
+            return permissionCache.getRoles(username, getConfigurationService()::getRoles);
+        }
         return getConfigurationService().getRoles(username);
     }
 
+    private boolean isPermissionCacheEnabled() {
+        return permissionCache != null && permissionCache.isEnabled();
+    }
+
     public void setAuthService(IAuthService authService) {
         this.authService = authService;
     }
@@ -422,4 +452,8 @@ public class SecureTreeElementDao extends TreeElementDao<CnATreeElement, Integer
         this.configurationService = configurationService;
     }
 
+    public void setPermissionCache(PermissionCache permissionCache) {
+        this.permissionCache = permissionCache;
+    }
+
 }
@@ -20,6 +20,7 @@ package sernet.verinice.hibernate;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -38,25 +39,33 @@ import sernet.gs.service.RetrieveInfo;
 import sernet.gs.service.RuntimeCommandException;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.IDao;
+import sernet.verinice.interfaces.IElementChangeListener;
 import sernet.verinice.interfaces.IElementTitleCache;
 import sernet.verinice.interfaces.IRetrieveInfo;
 import sernet.verinice.interfaces.search.IJsonBuilder;
-import sernet.verinice.model.common.CascadingTransaction;
+import sernet.verinice.model.bsi.Addition;
+import sernet.verinice.model.bsi.AttachmentFile;
 import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.ProtectionRequirementsPropagator;
 import sernet.verinice.model.common.TransactionAbortedException;
 import sernet.verinice.model.iso27k.InheritLogger;
 import sernet.verinice.model.iso27k.ProtectionRequirementUtils;
 import sernet.verinice.search.IElementSearchDao;
+import sernet.verinice.search.IndexUpdateQueue;
 
 public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T, ID>
         implements IBaseDao<T, ID> {
 
     private static final Logger LOG = Logger.getLogger(TreeElementDao.class);
     private static final InheritLogger LOG_INHERIT = InheritLogger.getLogger(TreeElementDao.class);
+    private static final String HQL_SCOPE_IDS_OF_ADDITIONS = "select a.cnATreeElement.scopeId "
+            + "from Addition a where a.dbId in (:ids)";
     private IElementSearchDao searchDao;
     private IJsonBuilder jsonBuilder;
+    private IndexUpdateQueue indexUpdateQueue;
     private IElementTitleCache titleCache;
+    private List<IElementChangeListener> elementChangeListeners = Collections.emptyList();
 
     public TreeElementDao(Class<T> type) {
         super(type);
@@ -106,6 +115,8 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
             CnATreeElement elmt = (CnATreeElement) entity;
             index(Set.of(elmt));
             notifyChangedElement(elmt);
+        } else {
+            notifyRelatedObjectsChanged(Set.of(entity));
         }
     }
 
@@ -117,13 +128,24 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
         super.saveOrUpdateAll(entities);
         if (!entities.isEmpty() && entities.iterator().next() instanceof CnATreeElement) {
             index((Collection<CnATreeElement>) entities);
-            for (T entity : entities) {
-                CnATreeElement elmt = (CnATreeElement) entity;
-                notifyChangedElement(elmt);
-            }
+            notifyChangedElements((Collection<CnATreeElement>) entities);
+        } else {
+            notifyRelatedObjectsChanged(entities);
         }
     }
 
+    @Override
+    public void delete(T entity) {
+        super.delete(entity);
+        notifyRelatedObjectsChanged(Set.of(entity));
+    }
+
+    @Override
+    public void delete(List<T> entities) {
+        super.delete(entities);
+        notifyRelatedObjectsChanged(entities);
+    }
+
     public List findAll(IRetrieveInfo ri) {
         // this could be used to limit result size:
         // DetachedCriteria criteria = DetachedCriteria.forClass(type);
@@ -196,6 +218,8 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
         if (mergedElement instanceof CnATreeElement) {
             CnATreeElement element = (CnATreeElement) mergedElement;
             index(element);
+        } else {
+            notifyRelatedObjectsChanged(Set.of(mergedElement));
         }
         return mergedElement;
     }
@@ -211,10 +235,14 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
             CnATreeElement element = (CnATreeElement) mergedElement;
             if (updateIndex) {
                 index(element);
+            } else {
+                notifyElementChangeListeners(Set.of(element));
             }
             if (fireChange) {
                 notifyChangedElement(element);
             }
+        } else {
+            notifyRelatedObjectsChanged(Set.of(mergedElement));
         }
 
         if (fireChange && mergedElement instanceof CnALink) {
@@ -234,7 +262,12 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
             updateTitleCache(element);
 
         }
-        updateIndex(elements);
+        if (getIndexUpdateQueue() != null && getIndexUpdateQueue().isActive()) {
+            getIndexUpdateQueue().add(elements);
+        } else {
+            updateIndex(elements);
+        }
+        notifyElementChangeListeners(elements);
     }
 
     private void updateIndex(Collection<CnATreeElement> elements) {
@@ -259,6 +292,95 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
         }
     }
 
+    /**
+     * Notifies the element change listeners about saved or merged elements.
+     * Errors of a listener are logged and do not abort the transaction.
+     */
+    protected void notifyElementChangeListeners(Collection<? extends CnATreeElement> elements) {
+        for (IElementChangeListener listener : getElementChangeListeners()) {
+            try {
+                listener.elementsChanged(elements);
+            } catch (Exception e) {
+                LOG.error("Error while notifying element change listener", e);
+            }
+        }
+    }
+
+    /**
+     * Notifies the element change listeners about deleted elements. Errors of
+     * a listener are logged and do not abort the transaction.
+     */
+    protected void notifyElementDeleteListeners(Collection<? extends CnATreeElement> elements) {
+        for (IElementChangeListener listener : getElementChangeListeners()) {
+            try {
+                listener.elementsDeleted(elements);
+            } catch (Exception e) {
+                LOG.error("Error while notifying element change listener", e);
+            }
+        }
+    }
+
+    @Override
+    public void notifyElementsMoved(Collection<? extends CnATreeElement> elements,
+            Set<Integer> previousScopeIds) {
+        for (IElementChangeListener listener : getElementChangeListeners()) {
+            try {
+                listener.elementsMoved(elements, previousScopeIds);
+            } catch (Exception e) {
+                LOG.error("Error while notifying element change listener", e);
+            }
+        }
+    }
+
+    /**
+     * Notifies the element change listeners about saved, merged or deleted
+     * links, notes and attachments. Other entities are ignored. Errors of a
+     * listener are logged and do not abort the transaction.
+     */
+    protected void notifyRelatedObjectsChanged(Collection<?> entities) {
+        if (getElementChangeListeners().isEmpty()) {
+            return;
+        }
+        Set<Integer> scopeIds = getScopeIdsOfRelatedObjects(entities);
+        if (scopeIds.isEmpty()) {
+            return;
+        }
+        for (IElementChangeListener listener : getElementChangeListeners()) {
+            try {
+                listener.relatedObjectsChanged(scopeIds);
+            } catch (Exception e) {
+                LOG.error("Error while notifying element change listener", e);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<Integer> getScopeIdsOfRelatedObjects(Collection<?> entities) {
+        Set<Integer> scopeIds = new HashSet<>();
+        List<Integer> attachmentFileIds = new ArrayList<>();
+        for (Object entity : entities) {
+            if (entity instanceof CnALink) {
+                CnALink link = (CnALink) entity;
+                addScopeId(scopeIds, link.getDependant());
+                addScopeId(scopeIds, link.getDependency());
+            } else if (entity instanceof Addition) {
+                addScopeId(scopeIds, ((Addition) entity).getCnATreeElement());
+            } else if (entity instanceof AttachmentFile) {
+                attachmentFileIds.add(((AttachmentFile) entity).getDbId());
+            }
+        }
+        if (!attachmentFileIds.isEmpty()) {
+            // the file data shares the id of its attachment
+            scopeIds.addAll(findByQuery(HQL_SCOPE_IDS_OF_ADDITIONS, new String[] { "ids" },
+                    new Object[] { attachmentFileIds }));
+        }
+        return scopeIds;
+    }
+
+    private static void addScopeId(Set<Integer> scopeIds, CnATreeElement element) {
+        scopeIds.add((element != null) ? element.getScopeId() : null);
+    }
+
     private void updateTitleCache(CnATreeElement element) {
         try {
             if (getTitleCache() != null && element.isScope()) {
@@ -271,13 +393,18 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
     }
 
     protected void indexDelete(CnATreeElement element) {
-        if (getSearchDao() != null) {
-            getSearchDao().delete(element.getUuid());
-        }
+        indexDelete(List.of(element));
     }
 
+    /**
+     * Removes the elements from the index. If the index update queue is
+     * active the elements are removed by the queue after an update of the
+     * elements which is still waiting in the queue.
+     */
     protected void indexDelete(List<CnATreeElement> elements) {
-        if (getSearchDao() != null) {
+        if (getIndexUpdateQueue() != null && getIndexUpdateQueue().isActive()) {
+            getIndexUpdateQueue().delete(elements);
+        } else if (getSearchDao() != null) {
             getSearchDao().delete(
                     elements.stream().map(CnATreeElement::getUuid).collect(Collectors.toList()));
         }
@@ -291,42 +418,76 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
      *            the element that was changed.
      */
     protected void notifyChangedElement(CnATreeElement elmt) {
-        elmt.valuesChanged();
+        notifyChangedElements(Set.of(elmt));
+    }
+
+    /**
+     * Calls change listener methods on all changed elements and propagates
+     * the protection levels (schutzbedarf) of all elements in a single pass.
+     * Elements which are not attached to the current session, e.g. after a
+     * batch was cleared from the session, are loaded again.
+     * 
+     * @param elements
+     *            the elements that were changed.
+     * @see ProtectionRequirementsPropagator
+     */
+    @Override
+    public void notifyChangedElements(Collection<? extends CnATreeElement> elements) {
+        List<CnATreeElement> providers = new ArrayList<>(elements.size());
+        Set<Integer> detachedIDs = new HashSet<>();
+        for (CnATreeElement elmt : elements) {
+            elmt.valuesChanged();
+            if (ProtectionRequirementUtils.isProtectionRequirementsProvider(elmt.getTypeId())) {
+                if (getHibernateTemplate().contains(elmt)) {
+                    providers.add(elmt);
+                } else {
+                    detachedIDs.add(elmt.getDbId());
+                }
+            }
+        }
+        if (!detachedIDs.isEmpty()) {
+            providers.addAll(loadElements(detachedIDs));
+        }
         if (LOG_INHERIT.isDebug()) {
-            LOG_INHERIT.debug("fireChange...");
+            LOG_INHERIT.debug("fireChange, " + providers.size() + " provider(s)...");
         }
-        if (ProtectionRequirementUtils.isProtectionRequirementsProvider(elmt.getTypeId())) {
-            initializeDeductionTree(elmt);
-            elmt.fireIntegritaetChanged(new CascadingTransaction());
-            elmt.fireVerfuegbarkeitChanged(new CascadingTransaction());
-            elmt.fireVertraulichkeitChanged(new CascadingTransaction());
+        if (!providers.isEmpty()) {
+            initializeDeductionTree(providers);
+            ProtectionRequirementsPropagator.propagate(providers);
         }
     }
 
-    private void initializeDeductionTree(CnATreeElement elmt) {
+    @SuppressWarnings("unchecked")
+    private List<CnATreeElement> loadElements(Set<Integer> dbIds) {
+        List<CnATreeElement> result = new ArrayList<>(dbIds.size());
+        CollectionUtil.partition(List.copyOf(dbIds), IDao.QUERY_MAX_ITEMS_IN_LIST)
+                .forEach(partition -> {
+                    DetachedCriteria crit = DetachedCriteria.forClass(CnATreeElement.class)
+                            .add(Restrictions.in("dbId", partition));
+                    RetrieveInfo.getPropertyInstance().configureCriteria(crit);
+                    result.addAll((Collection<? extends CnATreeElement>) findByCriteria(crit));
+                });
+        return result;
+    }
+
+    private void initializeDeductionTree(Collection<CnATreeElement> elements) {
         try {
-            Set<Integer> initializeIDs = collectAffectedIDs(elmt);
+            Set<Integer> initializeIDs = collectAffectedIDs(elements);
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Initialize " + initializeIDs.size() + " elements");
             }
-            List<CnATreeElement> result = new ArrayList<>(initializeIDs.size());
-
-            CollectionUtil.partition(List.copyOf(initializeIDs), IDao.QUERY_MAX_ITEMS_IN_LIST)
-                    .forEach(partition -> {
-                        DetachedCriteria crit = DetachedCriteria.forClass(CnATreeElement.class)
-                                .add(Restrictions.in("dbId", initializeIDs));
-                        RetrieveInfo.getPropertyInstance().configureCriteria(crit);
-                        result.addAll((Collection<? extends CnATreeElement>) findByCriteria(crit));
-                    });
+            loadElements(initializeIDs);
         } catch (TransactionAbortedException e) {
             throw new RuntimeCommandException(e);
         }
     }
 
-    private Set<Integer> collectAffectedIDs(CnATreeElement element)
+    private Set<Integer> collectAffectedIDs(Collection<CnATreeElement> elements)
             throws TransactionAbortedException {
-        Set<CnATreeElement> initializeElements = new HashSet<>();
-        collectAffectedElementsDown(element, initializeElements);
+        Set<CnATreeElement> initializeElements = new HashSet<>(elements);
+        for (CnATreeElement element : elements) {
+            collectAffectedElementsDown(element, initializeElements);
+        }
         if (!initializeElements.isEmpty()) {
             collectAffectedElementsUp(Set.copyOf(initializeElements), initializeElements);
         }
@@ -351,12 +512,14 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
                 .collect(Collectors.toSet());
 
         if (!elementsWithoutInitializedLinksUp.isEmpty()) {
-
-            DetachedCriteria crit = DetachedCriteria.forClass(CnATreeElement.class)
-                    .setFetchMode("linksUp", FetchMode.JOIN)
-                    .add(Restrictions.in("dbId", elementsWithoutInitializedLinksUp.stream()
-                            .map(CnATreeElement::getDbId).collect(Collectors.toSet())));
-            findByCriteria(crit);
+            CollectionUtil.partition(elementsWithoutInitializedLinksUp.stream()
+                    .map(CnATreeElement::getDbId).collect(Collectors.toList()),
+                    IDao.QUERY_MAX_ITEMS_IN_LIST).forEach(partition -> {
+                        DetachedCriteria crit = DetachedCriteria.forClass(CnATreeElement.class)
+                                .setFetchMode("linksUp", FetchMode.JOIN)
+                                .add(Restrictions.in("dbId", partition));
+                        findByCriteria(crit);
+                    });
         }
         Set<CnATreeElement> dependants = new HashSet<>();
 
@@ -414,6 +577,14 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
         this.jsonBuilder = jsonBuilder;
     }
 
+    public IndexUpdateQueue getIndexUpdateQueue() {
+        return indexUpdateQueue;
+    }
+
+    public void setIndexUpdateQueue(IndexUpdateQueue indexUpdateQueue) {
+        this.indexUpdateQueue = indexUpdateQueue;
+    }
+
     public IElementTitleCache getTitleCache() {
         return titleCache;
     }
@@ -422,4 +593,12 @@ public class TreeElementDao<T, ID extends Serializable> extends HibernateDao<T,
         this.titleCache = titleCache;
     }
 
+    public List<IElementChangeListener> getElementChangeListeners() {
+        return elementChangeListeners;
+    }
+
+    public void setElementChangeListeners(List<IElementChangeListener> elementChangeListeners) {
+        this.elementChangeListeners = elementChangeListeners;
+    }
+
 }
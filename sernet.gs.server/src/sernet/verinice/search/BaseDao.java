@@ -36,6 +36,7 @@ import org.elasticsearch.action.bulk.BulkRequestBuilder;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.delete.DeleteRequestBuilder;
 import org.elasticsearch.action.delete.DeleteResponse;
+import org.elasticsearch.action.get.GetResponse;
 import org.elasticsearch.action.search.MultiSearchRequestBuilder;
 import org.elasticsearch.action.search.MultiSearchResponse;
 import org.elasticsearch.action.search.SearchRequestBuilder;
@@ -89,8 +90,13 @@ public abstract class BaseDao implements ISearchDao {
 
     @Override
     public ActionResponse updateOrIndex(Map<String, String> idToJson) {
+        return updateOrIndex(idToJson, true);
+    }
+
+    @Override
+    public ActionResponse updateOrIndex(Map<String, String> idToJson, boolean refresh) {
         try {
-            return update(idToJson);
+            return update(idToJson, refresh);
         } catch (ElasticsearchException e) {
             LOG.error("Error while updating elements, reason: " + e.getMessage());
             LOG.error(e.getDetailedMessage());
@@ -99,9 +105,15 @@ public abstract class BaseDao implements ISearchDao {
 
     }
 
+    @Override
     public ActionResponse update(Map<String, String> idToJson) {
+        return update(idToJson, true);
+    }
+
+    @Override
+    public ActionResponse update(Map<String, String> idToJson, boolean refresh) {
         try {
-            BulkRequestBuilder request = getClient().prepareBulk().setRefresh(true)
+            BulkRequestBuilder request = getClient().prepareBulk().setRefresh(refresh)
                     .setTimeout(TimeValue.timeValueSeconds(10));
             idToJson.forEach((id, json) -> request
                     .add(getClient().prepareUpdate(getIndex(), getType(), id).setDoc(json)));
@@ -117,11 +129,11 @@ public abstract class BaseDao implements ISearchDao {
                         }
                     }
                 }
-                index(idToJsonIndex);
+                index(idToJsonIndex, refresh);
             }
             return response;
         } catch (DocumentMissingException e) {
-            return index(idToJson);
+            return index(idToJson, refresh);
         } catch (RuntimeException e) {
             throw e;
         } catch (Exception e) {
@@ -137,13 +149,23 @@ public abstract class BaseDao implements ISearchDao {
      */
     @Override
     public BulkResponse index(Map<String, String> idToJson) {
-        BulkRequestBuilder request = getClient().prepareBulk().setRefresh(true)
+        return index(idToJson, true);
+    }
+
+    @Override
+    public BulkResponse index(Map<String, String> idToJson, boolean refresh) {
+        BulkRequestBuilder request = getClient().prepareBulk().setRefresh(refresh)
                 .setTimeout(TimeValue.timeValueSeconds(10));
         idToJson.forEach((id, json) -> request
                 .add(getClient().prepareIndex(getIndex(), getType(), id).setSource(json)));
         return request.execute().actionGet();
     }
 
+    @Override
+    public void refresh() {
+        getClient().admin().indices().prepareRefresh(getIndex()).execute().actionGet();
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -441,6 +463,28 @@ public abstract class BaseDao implements ISearchDao {
 
     }
 
+    @Override
+    public IndexState loadIndexState() {
+        try {
+            GetResponse response = getClient()
+                    .prepareGet(getIndex(), IndexState.TYPE_NAME, IndexState.ID).execute()
+                    .actionGet();
+            return response.isExists() ? IndexState.fromMap(response.getSourceAsMap()) : null;
+        } catch (IndexMissingException e) {
+            LOG.warn("Index " + getIndex() + " does not exist, no index state available.");
+            return null;
+        }
+    }
+
+    @Override
+    public void saveIndexState(IndexState state) {
+        getClient().prepareIndex(getIndex(), IndexState.TYPE_NAME, IndexState.ID)
+                .setSource(state.toMap()).setRefresh(true).execute().actionGet();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Index state saved: " + state);
+        }
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -67,11 +67,31 @@ public class ElementDaoDummy implements IElementSearchDao {
         return null;
     }
 
+    @Override
+    public ActionResponse updateOrIndex(Map<String, String> idToJson, boolean refresh) {
+        return null;
+    }
+
+    @Override
+    public ActionResponse update(Map<String, String> idToJson, boolean refresh) {
+        return null;
+    }
+
     @Override
     public ActionResponse index(Map<String, String> idToJson) {
         return null;
     }
 
+    @Override
+    public ActionResponse index(Map<String, String> idToJson, boolean refresh) {
+        return null;
+    }
+
+    @Override
+    public void refresh() {
+        // nothing to do
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -96,6 +116,16 @@ public class ElementDaoDummy implements IElementSearchDao {
     public void clear() {
     }
 
+    @Override
+    public IndexState loadIndexState() {
+        return null;
+    }
+
+    @Override
+    public void saveIndexState(IndexState state) {
+        // nothing to do
+    }
+
     /*
      * (non-Javadoc)
      * 
@@ -55,24 +55,53 @@ public interface ISearchDao {
 
     public ActionResponse updateOrIndex(Map<String, String> idToJson);
 
+    /**
+     * Updates or indexes documents. If refresh is false the changes become
+     * visible for searches after the next refresh of the index.
+     *
+     * @see #refresh()
+     */
+    public ActionResponse updateOrIndex(Map<String, String> idToJson, boolean refresh);
+
     public default ActionResponse update(String id, String json) {
         return update(Collections.singletonMap(id, json));
     }
 
     public ActionResponse update(Map<String, String> idToJson);
 
+    public ActionResponse update(Map<String, String> idToJson, boolean refresh);
+
     public default ActionResponse index(String id, String json) {
         return index(Collections.singletonMap(id, json));
     }
 
     public ActionResponse index(Map<String, String> idToJson);
 
+    public ActionResponse index(Map<String, String> idToJson, boolean refresh);
+
+    /**
+     * Refreshes the index and makes all changes since the last refresh
+     * visible for searches.
+     */
+    public void refresh();
+
     public DeleteResponse delete(String id);
 
     public BulkResponse delete(List<String> ids);
 
     public void clear();
 
+    /**
+     * Returns the state of the index saved by the last run of the
+     * {@link Indexer} or null if no state was saved yet.
+     */
+    public IndexState loadIndexState();
+
+    /**
+     * Saves the state of the index in the index itself.
+     */
+    public void saveIndexState(IndexState state);
+
     public SearchResponse findAll();
 
     public SearchResponse find(String title);
@@ -33,6 +33,11 @@ public class IndexJob extends QuartzJobBean implements StatefulJob {
     private static final Logger LOG = Logger.getLogger(IndexJob.class);
     
     private Indexer indexer;
+
+    /**
+     * If true only the elements changed since the last run are indexed
+     */
+    private boolean incremental = false;
     
     /* (non-Javadoc)
      * @see org.springframework.scheduling.quartz.QuartzJobBean#executeInternal(org.quartz.JobExecutionContext)
@@ -42,7 +47,11 @@ public class IndexJob extends QuartzJobBean implements StatefulJob {
         if (LOG.isInfoEnabled()) {
             LOG.info("Start executing...");
         }
-        getIndexer().nonBlockingIndexing();
+        if (isIncremental()) {
+            getIndexer().nonBlockingIncrementalIndexing();
+        } else {
+            getIndexer().nonBlockingIndexing();
+        }
     }
 
     public Indexer getIndexer() {
@@ -53,4 +62,12 @@ public class IndexJob extends QuartzJobBean implements StatefulJob {
         this.indexer = indexer;
     }
 
+    public boolean isIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
+    }
+
 }
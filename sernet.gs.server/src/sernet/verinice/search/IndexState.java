@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.search;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.log4j.Logger;
+
+/**
+ * State of the search index which is stored as a document of type
+ * {@link #TYPE_NAME} in the index itself.
+ *
+ * The state contains the id of the last
+ * {@link sernet.verinice.model.common.ChangeLogEntry} which was processed by
+ * the {@link Indexer} (the high-water mark) and a checksum of the mapping the
+ * index was created with. If the index is deleted the state
+ * is deleted with it and the next run of the indexer is a full rebuild.
+ *
+ * @see ISearchDao#loadIndexState()
+ * @see ISearchDao#saveIndexState(IndexState)
+ */
+public class IndexState {
+
+    private static final Logger LOG = Logger.getLogger(IndexState.class);
+
+    public static final String TYPE_NAME = "indexstate";
+    public static final String ID = "state";
+
+    public static final String FIELD_LAST_CHANGE_LOG_ENTRY_ID = "last-change-log-entry-id";
+    public static final String FIELD_MAPPING_CHECKSUM = "mapping-checksum";
+    public static final String FIELD_TIMESTAMP = "timestamp";
+
+    private static final String MAPPING_RESOURCE = "/sernet/verinice/search/mapping.json";
+
+    private static String mappingChecksum;
+
+    private final Integer lastChangeLogEntryId;
+    private final String checksum;
+    private final long timestamp;
+
+    public IndexState(Integer lastChangeLogEntryId, String checksum, long timestamp) {
+        this.lastChangeLogEntryId = lastChangeLogEntryId;
+        this.checksum = checksum;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Creates a state from the source of an index document.
+     */
+    public static IndexState fromMap(Map<String, Object> source) {
+        Number lastId = (Number) source.get(FIELD_LAST_CHANGE_LOG_ENTRY_ID);
+        Number time = (Number) source.get(FIELD_TIMESTAMP);
+        return new IndexState(lastId != null ? lastId.intValue() : null,
+                (String) source.get(FIELD_MAPPING_CHECKSUM), time != null ? time.longValue() : 0);
+    }
+
+    /**
+     * @return The source of an index document for this state
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> source = new HashMap<>(3);
+        source.put(FIELD_LAST_CHANGE_LOG_ENTRY_ID, lastChangeLogEntryId);
+        source.put(FIELD_MAPPING_CHECKSUM, checksum);
+        source.put(FIELD_TIMESTAMP, timestamp);
+        return source;
+    }
+
+    /**
+     * Returns true if this state was saved for an index created with the
+     * current mapping and contains a high-water mark.
+     */
+    public boolean isValid() {
+        return lastChangeLogEntryId != null && getMappingChecksum().equals(checksum);
+    }
+
+    /**
+     * @return The SHA-1 checksum of the current mapping file mapping.json
+     */
+    public static synchronized String getMappingChecksum() {
+        if (mappingChecksum == null) {
+            try (InputStream in = IndexState.class.getResourceAsStream(MAPPING_RESOURCE)) {
+                MessageDigest digest = MessageDigest.getInstance("SHA-1");
+                mappingChecksum = new BigInteger(1, digest.digest(IOUtils.toByteArray(in)))
+                        .toString(16);
+            } catch (IOException | NoSuchAlgorithmException e) {
+                LOG.error("Error while creating checksum of mapping file", e);
+                mappingChecksum = "";
+            }
+        }
+        return mappingChecksum;
+    }
+
+    public Integer getLastChangeLogEntryId() {
+        return lastChangeLogEntryId;
+    }
+
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "IndexState [lastChangeLogEntryId=" + lastChangeLogEntryId + ", checksum="
+                + checksum + ", timestamp=" + timestamp + "]";
+    }
+}
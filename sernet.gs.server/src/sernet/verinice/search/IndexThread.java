@@ -34,6 +34,7 @@ import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.search.IJsonBuilder;
 import sernet.verinice.interfaces.search.ISearchService;
 import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.service.ReadOnlyEntityLoader;
 
 /**
  * @author Daniel Murygin <dm[at]sernet[dot]de>
@@ -43,7 +44,7 @@ public class IndexThread extends DummyAuthenticatorCallable<List<IndexedElementD
     private IBaseDao<CnATreeElement, Integer> elementDao;
     private ISearchDao searchDao;
     private ISearchService searchService;
-    private List<String> ids;
+    private List<Integer> ids;
     private IJsonBuilder jsonBuilder;
     private boolean logIndexedElementDetails = false;
 
@@ -75,17 +76,22 @@ public class IndexThread extends DummyAuthenticatorCallable<List<IndexedElementD
         return result;
     }
 
+    /**
+     * Loads the elements without properties and replaces their entities by
+     * {@link sernet.hui.common.connect.ReadOnlyEntity} instances. The JSON
+     * documents only read the property values.
+     */
     private List<CnATreeElement> loadElements() {
         DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class);
         criteria.add(Restrictions.in("dbId", ids));
         criteria.setFetchMode("permissions", FetchMode.JOIN);
         criteria.setFetchMode("entity", FetchMode.JOIN);
-        criteria.setFetchMode("entity.typedPropertyLists", FetchMode.JOIN);
-        criteria.setFetchMode("entity.typedPropertyLists.properties", FetchMode.JOIN);
-        return getElementDao().findByCriteria(criteria);
+        List<CnATreeElement> elements = getElementDao().findByCriteria(criteria);
+        ReadOnlyEntityLoader.setReadOnlyEntities(getElementDao(), elements);
+        return elements;
     }
 
-    public void setIDs(List<String> ids) {
+    public void setIDs(List<Integer> ids) {
         this.ids = ids;
     }
 
@@ -0,0 +1,584 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.hibernate.FetchMode;
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Restrictions;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import sernet.gs.server.security.DummyAuthenticationRunnable;
+import sernet.gs.service.CollectionUtil;
+import sernet.gs.service.ServerInitializer;
+import sernet.verinice.concurrency.CustomNamedThreadGroupFactory;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.search.IJsonBuilder;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * An outbox for search index updates which decouples indexing from the
+ * transaction in which an element is saved.
+ *
+ * The UUIDs of changed and deleted elements are collected per transaction
+ * and added to a bounded queue after the transaction is committed. A
+ * background worker takes the UUIDs from the queue, loads the changed
+ * elements in chunks and sends bulk requests to the search index without a
+ * forced refresh. Repeated updates of the same element which are waiting in
+ * the queue are coalesced. A delete replaces a waiting update of the same
+ * element. Since there is only one worker, an update which is sent while the
+ * element is deleted is always followed by the delete.
+ *
+ * If a batch fails it is added to the queue again. Elements which still
+ * fail after {@link #MAX_RETRIES} retries are dropped and the index is
+ * marked for a full rebuild by saving an invalid {@link IndexState}. The
+ * next run of the {@link Indexer} job then reindexes all elements.
+ *
+ * The index is refreshed by the worker if changes were sent and the refresh
+ * interval has elapsed.
+ *
+ * If the queue is disabled (property veriniceserver.search.index.async)
+ * elements are indexed synchronously by {@link sernet.verinice.hibernate.TreeElementDao}.
+ *
+ * Statistics about queue depth, lag and batch size are logged with logger
+ * sernet.verinice.search.IndexUpdateQueue.statistics in debug level and
+ * are available via the getters of this class.
+ */
+public class IndexUpdateQueue {
+
+    private static final Logger LOG = Logger.getLogger(IndexUpdateQueue.class);
+    private static final Logger LOG_STATISTICS = Logger
+            .getLogger(IndexUpdateQueue.class.getName() + ".statistics");
+
+    private static final int DEFAULT_CAPACITY = 10000;
+    private static final int DEFAULT_BATCH_SIZE = 50;
+    private static final long DEFAULT_REFRESH_INTERVAL_MS = 1000;
+
+    public static final int MAX_RETRIES = 3;
+
+    private IBaseDao<CnATreeElement, Integer> elementDao;
+    private ISearchDao searchDao;
+    private IJsonBuilder jsonBuilder;
+
+    private boolean enabled = true;
+    private int capacity = DEFAULT_CAPACITY;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private long refreshIntervalMs = DEFAULT_REFRESH_INTERVAL_MS;
+
+    private BlockingQueue<String> queue;
+    /**
+     * UUIDs waiting in the queue mapped to the time when they were added
+     */
+    private final Map<String, Long> pendingUuids = new ConcurrentHashMap<>();
+    /**
+     * UUIDs of deleted elements which are waiting in the queue
+     */
+    private final Set<String> pendingDeletes = ConcurrentHashMap.newKeySet();
+    /**
+     * UUIDs of elements of failed batches mapped to the number of retries
+     */
+    private final Map<String, Integer> retries = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+    private volatile boolean running = false;
+
+    private final AtomicLong numberOfUpdates = new AtomicLong();
+    private final AtomicLong numberOfCoalescedUpdates = new AtomicLong();
+    private final AtomicLong numberOfIndexedElements = new AtomicLong();
+    private final AtomicLong numberOfBatches = new AtomicLong();
+    private final AtomicLong numberOfBatchedElements = new AtomicLong();
+    private final AtomicLong numberOfDeletedElements = new AtomicLong();
+    private final AtomicLong numberOfFailedBatches = new AtomicLong();
+    private final AtomicLong numberOfDroppedElements = new AtomicLong();
+    private volatile int lastBatchSize = 0;
+    private volatile long lastLagMs = 0;
+    private volatile long maxLagMs = 0;
+
+    public void init() {
+        if (!isEnabled()) {
+            LOG.info("Asynchronous index update is disabled, elements are indexed synchronously.");
+            return;
+        }
+        queue = new LinkedBlockingQueue<>(getCapacity());
+        running = true;
+        executor = Executors
+                .newSingleThreadExecutor(new CustomNamedThreadGroupFactory("index-update"));
+        executor.execute(new Worker());
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Asynchronous index update started, capacity: " + getCapacity()
+                    + ", batch size: " + getBatchSize() + ", refresh interval: "
+                    + getRefreshIntervalMs() + " ms");
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                    LOG.warn("Index update worker did not terminate, pending updates: "
+                            + getQueueDepth());
+                }
+            } catch (InterruptedException e) {
+                LOG.warn("Interrupted while waiting for index update worker.", e);
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Adds the elements to the queue. If a transaction is active the elements
+     * are added after the transaction is committed. If the transaction is
+     * rolled back, the elements are not added.
+     */
+    public void add(Collection<? extends CnATreeElement> elements) {
+        add(elements, false);
+    }
+
+    /**
+     * Adds deleted elements to the queue. The elements are removed from the
+     * index by the worker. If a transaction is active the elements are added
+     * after the transaction is committed.
+     */
+    public void delete(Collection<? extends CnATreeElement> elements) {
+        add(elements, true);
+    }
+
+    private void add(Collection<? extends CnATreeElement> elements, boolean deleted) {
+        Set<String> uuids = new LinkedHashSet<>(elements.size());
+        for (CnATreeElement element : elements) {
+            if (element.getUuid() != null) {
+                uuids.add(element.getUuid());
+            }
+        }
+        if (uuids.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Map<String, Boolean> transactionUuids = getTransactionUuids();
+            for (String uuid : uuids) {
+                // a delete wins over an update in the same transaction
+                transactionUuids.merge(uuid, deleted, Boolean::logicalOr);
+            }
+        } else {
+            addUuids(uuids, deleted);
+        }
+    }
+
+    /**
+     * Returns the UUIDs of the current transaction mapped to true if the
+     * element was deleted. If there are no UUIDs yet, a synchronization is
+     * registered which adds the UUIDs to the queue after commit.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Boolean> getTransactionUuids() {
+        Map<String, Boolean> uuids = (Map<String, Boolean>) TransactionSynchronizationManager
+                .getResource(this);
+        if (uuids == null) {
+            Map<String, Boolean> newUuids = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, newUuids);
+            TransactionSynchronizationManager
+                    .registerSynchronization(new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCommit() {
+                            newUuids.forEach((uuid, deleted) -> addUuids(Set.of(uuid),
+                                    deleted));
+                        }
+
+                        @Override
+                        public void afterCompletion(int status) {
+                            TransactionSynchronizationManager
+                                    .unbindResourceIfPossible(IndexUpdateQueue.this);
+                        }
+                    });
+            uuids = newUuids;
+        }
+        return uuids;
+    }
+
+    private void addUuids(Collection<String> uuids, boolean deleted) {
+        Long now = System.currentTimeMillis();
+        for (String uuid : uuids) {
+            numberOfUpdates.incrementAndGet();
+            // the delete flag is set before the uuid is pending, the worker
+            // reads it after the uuid was removed from the pending uuids
+            if (deleted) {
+                pendingDeletes.add(uuid);
+            }
+            if (pendingUuids.putIfAbsent(uuid, now) != null) {
+                numberOfCoalescedUpdates.incrementAndGet();
+                continue;
+            }
+            putInQueue(uuid);
+        }
+    }
+
+    private void putInQueue(String uuid) {
+        if (queue.offer(uuid)) {
+            return;
+        }
+        LOG.warn("Index update queue is full, capacity: " + getCapacity()
+                + ", waiting for worker...");
+        try {
+            queue.put(uuid);
+        } catch (InterruptedException e) {
+            pendingUuids.remove(uuid);
+            LOG.error("Interrupted while adding element to index update queue, uuid: " + uuid,
+                    e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class Worker extends DummyAuthenticationRunnable {
+
+        private long lastRefresh = System.currentTimeMillis();
+        private boolean refreshNeeded = false;
+
+        @Override
+        public void doRun() {
+            ServerInitializer.inheritVeriniceContextState();
+            while (running || !queue.isEmpty()) {
+                try {
+                    Batch batch = takeBatch();
+                    if (!batch.isEmpty()) {
+                        process(batch);
+                        refreshNeeded = true;
+                    }
+                    refreshIfNeeded();
+                } catch (InterruptedException e) {
+                    LOG.warn("Index update worker interrupted.", e);
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (Exception e) {
+                    LOG.error("Error while updating index.", e);
+                }
+            }
+            refreshIfNeeded();
+        }
+
+        private Batch takeBatch() throws InterruptedException {
+            Batch batch = new Batch();
+            String first = queue.poll(getRefreshIntervalMs(), TimeUnit.MILLISECONDS);
+            if (first == null) {
+                return batch;
+            }
+            List<String> uuids = new ArrayList<>(getBatchSize());
+            uuids.add(first);
+            queue.drainTo(uuids, getBatchSize() - 1);
+            long now = System.currentTimeMillis();
+            long lag = 0;
+            for (String uuid : uuids) {
+                // Removing the uuid before the element is loaded makes sure
+                // that a change committed in the meantime is indexed again
+                Long addedAt = pendingUuids.remove(uuid);
+                if (addedAt != null) {
+                    lag = Math.max(lag, now - addedAt);
+                }
+                if (pendingDeletes.remove(uuid)) {
+                    batch.deletes.add(uuid);
+                } else {
+                    batch.updates.add(uuid);
+                }
+            }
+            lastBatchSize = uuids.size();
+            lastLagMs = lag;
+            maxLagMs = Math.max(maxLagMs, lag);
+            numberOfBatches.incrementAndGet();
+            numberOfBatchedElements.addAndGet(uuids.size());
+            return batch;
+        }
+
+        private void process(Batch batch) throws InterruptedException {
+            try {
+                if (!batch.updates.isEmpty()) {
+                    index(batch.updates);
+                }
+                if (!batch.deletes.isEmpty()) {
+                    getSearchDao().delete(batch.deletes);
+                    numberOfDeletedElements.addAndGet(batch.deletes.size());
+                }
+                for (String uuid : batch.updates) {
+                    retries.remove(uuid);
+                }
+                for (String uuid : batch.deletes) {
+                    retries.remove(uuid);
+                }
+            } catch (Exception e) {
+                LOG.error("Error while updating index, batch size: " + batch.size(), e);
+                numberOfFailedBatches.incrementAndGet();
+                retry(batch);
+                // do not retry before the search index had time to recover
+                Thread.sleep(getRefreshIntervalMs());
+            }
+        }
+
+        private void refreshIfNeeded() {
+            long now = System.currentTimeMillis();
+            if (refreshNeeded && (now - lastRefresh >= getRefreshIntervalMs() || !running)) {
+                getSearchDao().refresh();
+                lastRefresh = now;
+                refreshNeeded = false;
+            }
+        }
+    }
+
+    /**
+     * Adds the elements of a failed batch to the queue again. If an element
+     * failed too often or the queue is full, the index is marked for a full
+     * rebuild. The worker must not block on a full queue since it is the only
+     * consumer of the queue.
+     */
+    private void retry(Batch batch) {
+        List<String> dropped = new ArrayList<>();
+        retry(batch.updates, false, dropped);
+        retry(batch.deletes, true, dropped);
+        if (!dropped.isEmpty()) {
+            LOG.error("Index update failed " + MAX_RETRIES + " times or queue is full, "
+                    + "elements: " + dropped + ". Marking index for full rebuild.");
+            numberOfDroppedElements.addAndGet(dropped.size());
+            markForFullRebuild();
+        }
+    }
+
+    private void retry(List<String> uuids, boolean deleted, List<String> dropped) {
+        for (String uuid : uuids) {
+            int count = retries.merge(uuid, 1, Integer::sum);
+            if (count > MAX_RETRIES) {
+                retries.remove(uuid);
+                dropped.add(uuid);
+                continue;
+            }
+            if (deleted) {
+                pendingDeletes.add(uuid);
+            }
+            if (pendingUuids.putIfAbsent(uuid, System.currentTimeMillis()) == null
+                    && !queue.offer(uuid)) {
+                pendingUuids.remove(uuid);
+                pendingDeletes.remove(uuid);
+                retries.remove(uuid);
+                dropped.add(uuid);
+            }
+        }
+    }
+
+    /**
+     * Saves an invalid {@link IndexState}. The next incremental run of the
+     * {@link Indexer} reindexes all elements.
+     */
+    private void markForFullRebuild() {
+        try {
+            getSearchDao().saveIndexState(new IndexState(null, IndexState.getMappingChecksum(),
+                    System.currentTimeMillis()));
+        } catch (Exception e) {
+            LOG.error("Error while marking index for full rebuild, reindex all elements manually.",
+                    e);
+        }
+    }
+
+    private void index(List<String> uuids) {
+        long start = System.currentTimeMillis();
+        List<CnATreeElement> elements = loadElements(uuids);
+        Map<String, String> idToJson = new HashMap<>(elements.size());
+        for (CnATreeElement element : elements) {
+            if (getJsonBuilder().isIndexableElement(element)) {
+                idToJson.put(element.getUuid(), getJsonBuilder().getJson(element));
+            }
+        }
+        if (!idToJson.isEmpty()) {
+            // update throws an exception if the request fails
+            getSearchDao().update(idToJson, false);
+        }
+        numberOfIndexedElements.addAndGet(idToJson.size());
+        if (LOG_STATISTICS.isDebugEnabled()) {
+            LOG_STATISTICS.debug("Batch indexed, size: " + uuids.size() + ", indexed: "
+                    + idToJson.size() + ", lag: " + lastLagMs + " ms, runtime: "
+                    + (System.currentTimeMillis() - start) + " ms, queue depth: "
+                    + getQueueDepth());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CnATreeElement> loadElements(List<String> uuids) {
+        List<CnATreeElement> elements = new ArrayList<>(uuids.size());
+        for (List<String> chunk : CollectionUtil.partition(uuids, getBatchSize())) {
+            DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class);
+            criteria.add(Restrictions.in("uuid", chunk));
+            criteria.setFetchMode("permissions", FetchMode.JOIN);
+            criteria.setFetchMode("entity", FetchMode.JOIN);
+            criteria.setFetchMode("entity.typedPropertyLists", FetchMode.JOIN);
+            criteria.setFetchMode("entity.typedPropertyLists.properties", FetchMode.JOIN);
+            criteria.setResultTransformer(DetachedCriteria.DISTINCT_ROOT_ENTITY);
+            elements.addAll(getElementDao().findByCriteria(criteria));
+        }
+        return elements;
+    }
+
+    /**
+     * A batch of UUIDs taken from the queue
+     */
+    private static final class Batch {
+        private final List<String> updates = new ArrayList<>();
+        private final List<String> deletes = new ArrayList<>();
+
+        private boolean isEmpty() {
+            return updates.isEmpty() && deletes.isEmpty();
+        }
+
+        private int size() {
+            return updates.size() + deletes.size();
+        }
+    }
+
+    /**
+     * @return True if the queue is enabled and the worker is running
+     */
+    public boolean isActive() {
+        return isEnabled() && running;
+    }
+
+    /**
+     * @return The number of elements waiting in the queue
+     */
+    public int getQueueDepth() {
+        return (queue != null) ? queue.size() : 0;
+    }
+
+    /**
+     * @return The time in ms the elements of the last batch waited in the
+     *         queue at most
+     */
+    public long getLastLagMs() {
+        return lastLagMs;
+    }
+
+    public long getMaxLagMs() {
+        return maxLagMs;
+    }
+
+    public int getLastBatchSize() {
+        return lastBatchSize;
+    }
+
+    public double getAverageBatchSize() {
+        long batches = numberOfBatches.get();
+        return (batches > 0) ? (double) numberOfBatchedElements.get() / batches : 0;
+    }
+
+    public long getNumberOfUpdates() {
+        return numberOfUpdates.get();
+    }
+
+    public long getNumberOfCoalescedUpdates() {
+        return numberOfCoalescedUpdates.get();
+    }
+
+    public long getNumberOfIndexedElements() {
+        return numberOfIndexedElements.get();
+    }
+
+    public long getNumberOfDeletedElements() {
+        return numberOfDeletedElements.get();
+    }
+
+    public long getNumberOfFailedBatches() {
+        return numberOfFailedBatches.get();
+    }
+
+    /**
+     * @return The number of elements which were dropped after failed index
+     *         updates, see {@link #MAX_RETRIES}
+     */
+    public long getNumberOfDroppedElements() {
+        return numberOfDroppedElements.get();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public long getRefreshIntervalMs() {
+        return refreshIntervalMs;
+    }
+
+    public void setRefreshIntervalMs(long refreshIntervalMs) {
+        this.refreshIntervalMs = refreshIntervalMs;
+    }
+
+    public IBaseDao<CnATreeElement, Integer> getElementDao() {
+        return elementDao;
+    }
+
+    public void setElementDao(IBaseDao<CnATreeElement, Integer> elementDao) {
+        this.elementDao = elementDao;
+    }
+
+    public ISearchDao getSearchDao() {
+        return searchDao;
+    }
+
+    public void setSearchDao(ISearchDao searchDao) {
+        this.searchDao = searchDao;
+    }
+
+    public IJsonBuilder getJsonBuilder() {
+        return jsonBuilder;
+    }
+
+    public void setJsonBuilder(IJsonBuilder jsonBuilder) {
+        this.jsonBuilder = jsonBuilder;
+    }
+}
@@ -21,7 +21,10 @@ package sernet.verinice.search;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -42,12 +45,23 @@ import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.IElementTitleCache;
 import sernet.verinice.model.bp.elements.ItNetwork;
 import sernet.verinice.model.bsi.ITVerbund;
+import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.iso27k.Organization;
 
 /**
  * Creates Elasticsearch index for verinice.
  *
+ * <p>
+ * A full indexing reindexes all elements in the database. An incremental
+ * indexing reindexes only the elements which were changed since the last run
+ * according to the {@link ChangeLogEntry} table and removes deleted elements
+ * from the index. The id of the last processed change log entry (the
+ * high-water mark) is saved as {@link IndexState} in the index. If there is
+ * no valid state, e.g. if the index is new or the mapping has changed, an
+ * incremental indexing falls back to a full indexing.
+ * </p>
+ *
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  * @author Benjamin Weißenfels <bw[at]sernet[dot]de>
  */
@@ -57,14 +71,43 @@ public class Indexer {
 
     private static final String HQL_LOAD_IDS = "select dbId from CnATreeElement";
 
-    private static final int INDEXING_CHUNK_SIZE = 50;
+    private static final String HQL_LOAD_LAST_CHANGE_LOG_ENTRY_ID = "select max(dbId) from ChangeLogEntry";
+
+    /**
+     * Loads the change log entries after the high-water mark. Entries written
+     * shortly before the last run are loaded again since their transaction
+     * may have been committed after the high-water mark was read.
+     */
+    private static final String HQL_LOAD_CHANGES = "select c.elementId, c.uuid, c.change "
+            + "from ChangeLogEntry c "
+            + "where (c.dbId > ? or c.changetime >= ?) and c.dbId <= ? "
+            + "order by c.dbId";
+
+    private static final long TRANSACTION_OVERLAP_MS = 10L * 60L * 1000L;
+
+    public static final int DEFAULT_CHUNK_SIZE = 50;
 
     private IBaseDao<CnATreeElement, Integer> elementDao;
 
+    private ISearchDao searchDao;
+
     private IElementTitleCache titleCache;
 
+    /**
+     * Number of threads indexing elements concurrently, if less than 1 as many
+     * threads as processors are available are used
+     */
+    private int numberOfThreads = 0;
+
+    /**
+     * Number of elements loaded and indexed by one {@link IndexThread}
+     */
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
     private long indexingStart;
 
+    private final Object indexingLock = new Object();
+
     /**
      * Factory to create {@link IndexThread} instances configured in
      * veriniceserver-search-base.xml
@@ -90,32 +133,39 @@ public class Indexer {
      *
      */
     public void nonBlockingIndexing() {
-        runIndexingThread();
+        runIndexingThread(new DummyAuthenticationRunnableExtension(false));
+    }
+
+    /**
+     * Updates the index in an non blocking way. Only the elements which were
+     * changed since the last indexing are indexed. If there is no valid
+     * {@link IndexState} all elements are indexed.
+     *
+     * @see #blockingIncrementalIndexing()
+     */
+    public void nonBlockingIncrementalIndexing() {
+        runIndexingThread(new DummyAuthenticationRunnableExtension(true));
     }
 
-    private void runIndexingThread() {
-        DummyAuthenticationRunnable dummyAuthenticationRunnable = new DummyAuthenticationRunnableExtension();
+    private void runIndexingThread(DummyAuthenticationRunnable dummyAuthenticationRunnable) {
         ThreadFactory threadFactory = new CustomNamedThreadGroupFactory("index");
         ExecutorService exeService = Executors.newSingleThreadExecutor(threadFactory);
         exeService.execute(dummyAuthenticationRunnable);
         exeService.shutdown();
     }
 
-    private ClosableCompletionService<List<IndexedElementDetails>> doIndex(
+    private ClosableCompletionService<List<IndexedElementDetails>> doIndex(List<Integer> ids,
             boolean logIndexedElementDetails) {
 
-        indexingStart = System.currentTimeMillis();
-
         ClosableCompletionService<List<IndexedElementDetails>> completionService = TrackableCompletionService
-                .newInstance();
-        List<String> allIDs = geAllCnATreeElementIDS();
+                .newInstance(getNumberOfThreads());
 
         if (LOG.isInfoEnabled()) {
-            LOG.info("Elements: " + allIDs.size() + ", start indexing...");
+            LOG.info("Elements: " + ids.size() + ", start indexing...");
         }
 
         getTitleCache().load(ITVerbund.TYPE_ID_HIBERNATE, Organization.TYPE_ID, ItNetwork.TYPE_ID);
-        Collection<IndexThread> indexThreads = createIndexThreadsByIDs(allIDs,
+        Collection<IndexThread> indexThreads = createIndexThreadsByIDs(ids,
                 logIndexedElementDetails);
         for (IndexThread indexThread : indexThreads) {
             completionService.submit(indexThread);
@@ -130,36 +180,30 @@ public class Indexer {
     }
 
     @SuppressWarnings("unchecked")
-    private List<String> geAllCnATreeElementIDS() {
-        List<String> allUuids;
+    private List<Integer> geAllCnATreeElementIDS() {
+        List<Integer> allIds;
 
         ServerInitializer.inheritVeriniceContextState();
-        allUuids = getElementDao().findByQuery(HQL_LOAD_IDS, null);
+        allIds = getElementDao().findByQuery(HQL_LOAD_IDS, null);
 
-        return allUuids;
+        return allIds;
     }
 
-    private void logNonBlockingIndexingTermination(
-            final ClosableCompletionService<List<IndexedElementDetails>> completionService,
-            boolean logIndexedElementDetails) {
-        if (LOG.isInfoEnabled()) {
-            ExecutorService executor = Executors.newFixedThreadPool(1);
-            executor.execute(new Runnable() {
-                @Override
-                public void run() {
-                    ServerInitializer.inheritVeriniceContextState();
-                    awaitIndexingTermination(completionService, logIndexedElementDetails);
-                    printIndexingTimeConsumption();
-                }
-            });
-            executor.shutdown();
+    private int loadLastChangeLogEntryId() {
+        List<?> result = getElementDao().findByQuery(HQL_LOAD_LAST_CHANGE_LOG_ENTRY_ID, null);
+        if (result.isEmpty() || result.get(0) == null) {
+            return 0;
         }
+        return ((Number) result.get(0)).intValue();
     }
 
-    private void printIndexingTimeConsumption() {
+    private void printIndexingTimeConsumption(int numberOfElements) {
         long end = System.currentTimeMillis();
         long ms = end - indexingStart;
-        LOG.info("Index created, runtime: " + TimeFormatter.getHumanRedableTime(ms));
+        long elementsPerSecond = ms > 0 ? numberOfElements * 1000L / ms : numberOfElements;
+        LOG.info("Index created, runtime: " + TimeFormatter.getHumanRedableTime(ms)
+                + ", elements: " + numberOfElements + " (" + elementsPerSecond
+                + " per second), chunk size: " + getChunkSize());
     }
 
     /**
@@ -186,17 +230,106 @@ public class Indexer {
     }
 
     private void doBlockingIndexing() {
+        ServerInitializer.inheritVeriniceContextState();
+        synchronized (indexingLock) {
+            long timestamp = System.currentTimeMillis();
+            // read the high-water mark first, changes written while indexing
+            // are processed again by the next incremental indexing
+            int lastChangeLogEntryId = loadLastChangeLogEntryId();
+            indexElements(geAllCnATreeElementIDS());
+            saveIndexState(lastChangeLogEntryId, timestamp);
+        }
+    }
+
+    /**
+     * Updates the index in a blocking manner. Only the elements which were
+     * changed since the last indexing according to the change log are
+     * indexed, deleted elements are removed from the index. If there is no
+     * valid {@link IndexState} all elements are indexed.
+     *
+     * <p>
+     * Changes which are not recorded in the change log are not detected.
+     * </p>
+     */
+    public void blockingIncrementalIndexing() {
+        try {
+            doIncrementalIndexing();
+        } catch (Exception e) {
+            LOG.error("incremental indexing failed: " + e.getLocalizedMessage(), e);
+        }
+    }
 
+    private void doIncrementalIndexing() {
         ServerInitializer.inheritVeriniceContextState();
+        synchronized (indexingLock) {
+            IndexState state = getSearchDao().loadIndexState();
+            if (state == null || !state.isValid()) {
+                if (LOG.isInfoEnabled()) {
+                    LOG.info("No valid index state found, indexing all elements...");
+                }
+                doBlockingIndexing();
+                return;
+            }
+            long timestamp = System.currentTimeMillis();
+            int lastChangeLogEntryId = loadLastChangeLogEntryId();
+            List<Object[]> changes = loadChanges(state, lastChangeLogEntryId);
+
+            // the last change of an element wins
+            Map<String, Object[]> lastChangeByUuid = new LinkedHashMap<>(changes.size());
+            for (Object[] change : changes) {
+                if (change[1] != null) {
+                    lastChangeByUuid.put((String) change[1], change);
+                }
+            }
+            List<Integer> changedIds = new ArrayList<>(lastChangeByUuid.size());
+            List<String> deletedUuids = new ArrayList<>();
+            for (Map.Entry<String, Object[]> entry : lastChangeByUuid.entrySet()) {
+                Object[] change = entry.getValue();
+                if (((Number) change[2]).intValue() == ChangeLogEntry.TYPE_DELETE) {
+                    deletedUuids.add(entry.getKey());
+                } else if (change[0] != null) {
+                    changedIds.add((Integer) change[0]);
+                }
+            }
+            if (LOG.isInfoEnabled()) {
+                LOG.info("Change log entries since " + state.getLastChangeLogEntryId() + ": "
+                        + changes.size() + ", changed elements: " + changedIds.size()
+                        + ", deleted elements: " + deletedUuids.size());
+            }
+
+            for (List<String> chunk : Lists.partition(deletedUuids, getChunkSize())) {
+                getSearchDao().delete(chunk);
+            }
+            if (!changedIds.isEmpty()) {
+                indexElements(changedIds);
+            }
+            saveIndexState(lastChangeLogEntryId, timestamp);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> loadChanges(IndexState state, int lastChangeLogEntryId) {
+        Date since = new Date(state.getTimestamp() - TRANSACTION_OVERLAP_MS);
+        return getElementDao().findByQuery(HQL_LOAD_CHANGES, new Object[] {
+                state.getLastChangeLogEntryId(), since, lastChangeLogEntryId });
+    }
+
+    private void indexElements(List<Integer> ids) {
+        indexingStart = System.currentTimeMillis();
         boolean logIndexedElementDetails = LOG.isDebugEnabled();
-        ClosableCompletionService<List<IndexedElementDetails>> completionService = doIndex(
+        ClosableCompletionService<List<IndexedElementDetails>> completionService = doIndex(ids,
                 logIndexedElementDetails);
 
         // This call causes the blocking since it takes every completed task
         // from the executor queue.
         awaitIndexingTermination(completionService, logIndexedElementDetails);
 
-        printIndexingTimeConsumption();
+        printIndexingTimeConsumption(ids.size());
+    }
+
+    private void saveIndexState(int lastChangeLogEntryId, long timestamp) {
+        getSearchDao().saveIndexState(
+                new IndexState(lastChangeLogEntryId, IndexState.getMappingChecksum(), timestamp));
     }
 
     private static void awaitIndexingTermination(
@@ -224,11 +357,11 @@ public class Indexer {
         }
     }
 
-    private Collection<IndexThread> createIndexThreadsByIDs(List<String> allIDs,
+    private Collection<IndexThread> createIndexThreadsByIDs(List<Integer> allIDs,
             boolean logIndexedElementDetails) {
-        List<List<String>> chunks = Lists.partition(allIDs, INDEXING_CHUNK_SIZE);
+        List<List<Integer>> chunks = Lists.partition(allIDs, getChunkSize());
         Collection<IndexThread> indexThreads = new ArrayList<>(chunks.size());
-        for (List<String> chunk : chunks) {
+        for (List<Integer> chunk : chunks) {
             IndexThread indexThread = (IndexThread) indexThreadFactory.getObject();
             indexThread.setIDs(chunk);
             indexThread.setReturnIndexedElementDetails(logIndexedElementDetails);
@@ -238,13 +371,21 @@ public class Indexer {
     }
 
     private final class DummyAuthenticationRunnableExtension extends DummyAuthenticationRunnable {
+
+        private final boolean incremental;
+
+        private DummyAuthenticationRunnableExtension(boolean incremental) {
+            this.incremental = incremental;
+        }
+
         @Override
         public void doRun() {
             try {
-                boolean logIndexedElementDetails = LOG.isDebugEnabled();
-                ClosableCompletionService<List<IndexedElementDetails>> completionService = doIndex(
-                        logIndexedElementDetails);
-                logNonBlockingIndexingTermination(completionService, logIndexedElementDetails);
+                if (incremental) {
+                    doIncrementalIndexing();
+                } else {
+                    doBlockingIndexing();
+                }
             } catch (Exception e) {
                 LOG.error("Error while indexing elements.", e);
             }
@@ -267,6 +408,30 @@ public class Indexer {
         this.elementDao = elementDao;
     }
 
+    public ISearchDao getSearchDao() {
+        return searchDao;
+    }
+
+    public void setSearchDao(ISearchDao searchDao) {
+        this.searchDao = searchDao;
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+    }
+
     public IElementTitleCache getTitleCache() {
         return titleCache;
     }
@@ -19,6 +19,9 @@ package sernet.verinice.server.vna;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.Hashtable;
 import java.util.Map;
 
@@ -26,7 +29,6 @@ import javax.activation.DataHandler;
 import javax.jws.WebService;
 import javax.jws.soap.SOAPBinding;
 
-import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 
 import de.sernet.service.vna.FileType;
@@ -85,22 +87,30 @@ public class VnaServiceImpl implements VnaService {
     protected void doImport(Vna request, Response response) throws IOException, CommandException, SyncParameterException {
         if(request!=null && request.getData()!=null) {        
             DataHandler handler = request.getData();
-            InputStream is = handler.getInputStream();
-            byte[] bytes = IOUtils.toByteArray(is);
-            
-            String message = "File recieved: " + request.getName() + ", type: " + request.getType().toString() + ", size: " + bytes.length + " bytes.";
-            if (LOG.isInfoEnabled()) {
-                LOG.info(message);
-            }             
-            response.getMessage().add(message);
-            SyncParameter parameter = getParameterForRequest(request);
-            SyncCommand command = doImport(parameter, bytes);
-            createResponse(command, response);
+            // the file is copied to disk and imported from there
+            // to avoid holding it in memory
+            Path file = Files.createTempFile("vna-service-", ".tmp");
+            try {
+                long size;
+                try (InputStream is = handler.getInputStream()) {
+                    size = Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+                String message = "File recieved: " + request.getName() + ", type: " + request.getType().toString() + ", size: " + size + " bytes.";
+                if (LOG.isInfoEnabled()) {
+                    LOG.info(message);
+                }
+                response.getMessage().add(message);
+                SyncParameter parameter = getParameterForRequest(request);
+                SyncCommand command = doImport(parameter, file);
+                createResponse(command, response);
+            } finally {
+                Files.deleteIfExists(file);
+            }
         }
     }
 
-    private SyncCommand doImport(SyncParameter parameter, byte[] fileData) throws CommandException {
-        SyncCommand command = new SyncCommand(parameter, fileData); 
+    private SyncCommand doImport(SyncParameter parameter, Path file) throws CommandException {
+        SyncCommand command = new SyncCommand(parameter, file.toString());
         return getCommandService().executeCommand(command);
     }
     
@@ -51,6 +51,7 @@ import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.IConfigurationService;
 import sernet.verinice.interfaces.IDao;
+import sernet.verinice.interfaces.IPermissionCache;
 import sernet.verinice.interfaces.IRightsServerHandler;
 import sernet.verinice.interfaces.IRightsService;
 import sernet.verinice.model.bp.elements.BpPerson;
@@ -87,6 +88,8 @@ public class AccountService implements IAccountService, Serializable {
 
     private IRightsServerHandler rightsServerHandler;
 
+    private IPermissionCache permissionCache;
+
     private IBaseDao<Permission, Serializable> permissionDao;
 
     private final Set<String> standardGroups = new HashSet<>(
@@ -355,6 +358,7 @@ public class AccountService implements IAccountService, Serializable {
         String[] params = new String[] { role };
         getPermissionDao().updateByQuery(hqlQuery, params);
         rightsServerHandler.discardData();
+        invalidatePermissionCache();
     }
 
     @Override
@@ -364,6 +368,17 @@ public class AccountService implements IAccountService, Serializable {
         String[] params = new String[] { newRole, oldRole };
         getPermissionDao().updateByQuery(hqlQuery, params);
         rightsServerHandler.discardData();
+        invalidatePermissionCache();
+    }
+
+    /**
+     * The permissions are changed by a query without DAO hooks, all cached
+     * permission decisions are removed.
+     */
+    private void invalidatePermissionCache() {
+        if (permissionCache != null) {
+            permissionCache.invalidateAllNowAndAfterCommit();
+        }
     }
 
     public IAuthService getAuthService() {
@@ -398,6 +413,14 @@ public class AccountService implements IAccountService, Serializable {
         this.rightsServerHandler = rightsServerHandler;
     }
 
+    public IPermissionCache getPermissionCache() {
+        return permissionCache;
+    }
+
+    public void setPermissionCache(IPermissionCache permissionCache) {
+        this.permissionCache = permissionCache;
+    }
+
     private List<Configuration> getAllConfigurations() {
         HqlQuery hqlQuery = AccountSearchQueryFactory.createRetrieveAllConfigurations();
         List<Configuration> configurations = getConfigurationDao().findByQuery(hqlQuery.getHql(),
@@ -0,0 +1,279 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.log4j.Logger;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import sernet.verinice.interfaces.IAttachmentDao.FileDataReader;
+import sernet.verinice.interfaces.IAttachmentStore;
+import sernet.verinice.model.bsi.AttachmentStoreStatistics;
+
+/**
+ * The attachment store of the server. The contents and their reference
+ * counts are kept in table attachmentcontent, the file data is kept by an
+ * {@link IAttachmentBackend}. If no backend is set, the file data is stored in
+ * the database or, if a directory is set, in the file system.
+ *
+ * The store uses the JDBC connection of the current Hibernate transaction.
+ * File data is written to a temporary file first to calculate its hash.
+ * Storing the same new content in two concurrent transactions lets the
+ * second transaction fail with a constraint violation. The file data of a new
+ * content is removed again if its transaction is rolled back.
+ */
+public class AttachmentStore implements IAttachmentStore {
+
+    private static final Logger log = Logger.getLogger(AttachmentStore.class);
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private static final int HASH_LENGTH = 64;
+
+    private static final String SQL_ADD_REFERENCE = "update attachmentcontent set refCount = refCount + 1 where hash = ?";
+
+    private static final String SQL_INSERT_CONTENT = "insert into attachmentcontent (hash, fileSize, refCount) values (?, ?, 1)";
+
+    private static final String SQL_RELEASE = "update attachmentcontent set refCount = refCount - 1 where hash = ?";
+
+    private static final String SQL_DELETE_UNREFERENCED = "delete from attachmentcontent where hash = ? and refCount <= 0";
+
+    private static final String SQL_SELECT_REF_COUNT = "select refCount from attachmentcontent where hash = ?";
+
+    private static final String SQL_SELECT_CONTENT_HASH = "select contentHash from note where dbId = ?";
+
+    private static final String SQL_STATISTICS = "select count(*), sum(refCount), sum(fileSize), "
+            + "sum(fileSize * refCount) from attachmentcontent";
+
+    private DataSource dataSource;
+
+    private String directory;
+
+    private IAttachmentBackend backend;
+
+    private JdbcTemplate jdbcTemplate;
+
+    // number of transactions which wrote a content and are not completed yet
+    private final Map<String, Integer> pendingWrites = new HashMap<>();
+
+    public void init() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        if (backend == null) {
+            backend = StringUtils.isBlank(directory) ? new DatabaseAttachmentBackend(jdbcTemplate)
+                    : new FileSystemAttachmentBackend(new File(directory.trim()));
+        }
+        if (log.isInfoEnabled()) {
+            log.info("Attachment store initialized, backend: " + backend.getClass().getSimpleName()
+                    + (StringUtils.isBlank(directory) ? "" : ", directory: " + directory));
+        }
+    }
+
+    @Override
+    public String store(InputStream fileData) throws IOException {
+        File content = backend.createTempFile();
+        try {
+            MessageDigest digest = createDigest();
+            long size;
+            try (OutputStream out = Files.newOutputStream(content.toPath())) {
+                size = IOUtils.copyLarge(new DigestInputStream(fileData, digest), out);
+            }
+            String hash = toHex(digest.digest());
+            if (jdbcTemplate.update(SQL_ADD_REFERENCE, new Object[] { hash }) == 0) {
+                jdbcTemplate.update(SQL_INSERT_CONTENT, new Object[] { hash, size });
+                writeContent(hash, content);
+                if (log.isDebugEnabled()) {
+                    log.debug("New content stored: " + hash + ", size: " + size);
+                }
+            }
+            return hash;
+        } finally {
+            Files.deleteIfExists(content.toPath());
+        }
+    }
+
+    @Override
+    public void addReference(String hash) {
+        if (jdbcTemplate.update(SQL_ADD_REFERENCE, new Object[] { hash }) == 0) {
+            throw new IllegalArgumentException("Content not found in attachment store: " + hash);
+        }
+    }
+
+    @Override
+    public void release(String hash) {
+        jdbcTemplate.update(SQL_RELEASE, new Object[] { hash });
+        if (jdbcTemplate.update(SQL_DELETE_UNREFERENCED, new Object[] { hash }) > 0) {
+            if (log.isDebugEnabled()) {
+                log.debug("Content without references removed: " + hash);
+            }
+            deleteContentAfterCommit(hash);
+        }
+    }
+
+    /**
+     * Releases the reference of an attachment which is deleted.
+     *
+     * @param attachmentId
+     *            The db id of an attachment, the attachment must not be
+     *            deleted yet
+     */
+    public void releaseContentOf(Integer attachmentId) {
+        @SuppressWarnings("unchecked")
+        List<String> hashes = jdbcTemplate.queryForList(SQL_SELECT_CONTENT_HASH,
+                new Object[] { attachmentId }, String.class);
+        if (!hashes.isEmpty() && hashes.get(0) != null) {
+            release(hashes.get(0));
+        }
+    }
+
+    @Override
+    public boolean read(String hash, FileDataReader reader) throws IOException {
+        return backend.read(hash, reader);
+    }
+
+    @Override
+    public AttachmentStoreStatistics getStatistics() {
+        return (AttachmentStoreStatistics) jdbcTemplate.query(SQL_STATISTICS,
+                new ResultSetExtractor() {
+                    @Override
+                    public Object extractData(ResultSet resultSet) throws SQLException {
+                        resultSet.next();
+                        // the sums are null without contents, getLong returns 0
+                        return new AttachmentStoreStatistics(resultSet.getLong(1),
+                                resultSet.getLong(2), resultSet.getLong(3),
+                                resultSet.getLong(4));
+                    }
+                });
+    }
+
+    private void writeContent(final String hash, File content) throws IOException {
+        addPendingWrite(hash);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager
+                    .registerSynchronization(new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCompletion(int status) {
+                            synchronized (pendingWrites) {
+                                removePendingWrite(hash);
+                                if (status == TransactionSynchronization.STATUS_ROLLED_BACK) {
+                                    deleteContent(hash);
+                                }
+                            }
+                        }
+                    });
+            backend.write(hash, content);
+        } else {
+            try {
+                backend.write(hash, content);
+            } finally {
+                removePendingWrite(hash);
+            }
+        }
+    }
+
+    private void deleteContentAfterCommit(final String hash) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager
+                    .registerSynchronization(new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCommit() {
+                            deleteContent(hash);
+                        }
+                    });
+        } else {
+            deleteContent(hash);
+        }
+    }
+
+    /**
+     * Deletes the file data of a content unless the same content was stored
+     * again in the meantime.
+     */
+    private void deleteContent(String hash) {
+        synchronized (pendingWrites) {
+            if (pendingWrites.containsKey(hash) || !jdbcTemplate
+                    .queryForList(SQL_SELECT_REF_COUNT, new Object[] { hash }).isEmpty()) {
+                return;
+            }
+            backend.delete(hash);
+        }
+    }
+
+    private void addPendingWrite(String hash) {
+        synchronized (pendingWrites) {
+            Integer count = pendingWrites.get(hash);
+            pendingWrites.put(hash, count == null ? 1 : count + 1);
+        }
+    }
+
+    private void removePendingWrite(String hash) {
+        synchronized (pendingWrites) {
+            Integer count = pendingWrites.remove(hash);
+            if (count != null && count > 1) {
+                pendingWrites.put(hash, count - 1);
+            }
+        }
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(HASH_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] hash) {
+        return StringUtils.leftPad(new BigInteger(1, hash).toString(16), HASH_LENGTH, '0');
+    }
+
+    public void setDataSource(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    public void setBackend(IAttachmentBackend backend) {
+        this.backend = backend;
+    }
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import org.hibernate.event.PreDeleteEvent;
+import org.hibernate.event.PreDeleteEventListener;
+
+import sernet.verinice.model.bsi.Attachment;
+
+/**
+ * Releases the content of every deleted {@link Attachment} in the
+ * {@link AttachmentStore}. Attachments are deleted by the delete command and
+ * by the cascades of the deleted elements. Register this listener for
+ * pre-delete events.
+ */
+public class AttachmentStoreDeleteListener implements PreDeleteEventListener {
+
+    private static final long serialVersionUID = 2739183390715204521L;
+
+    private transient AttachmentStore attachmentStore;
+
+    @Override
+    public boolean onPreDelete(PreDeleteEvent event) {
+        if (attachmentStore != null && event.getEntity() instanceof Attachment) {
+            attachmentStore.releaseContentOf((Integer) event.getId());
+        }
+        // do not veto the deletion
+        return false;
+    }
+
+    public void setAttachmentStore(AttachmentStore attachmentStore) {
+        this.attachmentStore = attachmentStore;
+    }
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import org.hibernate.event.PostInsertEvent;
+import org.hibernate.event.PostInsertEventListener;
+
+import sernet.verinice.model.common.ChangeLogEntry;
+
+/**
+ * Publishes every inserted {@link ChangeLogEntry} in the
+ * {@link ChangeFeedService} after the transaction is committed. Register
+ * this listener for post-insert events.
+ */
+public class ChangeFeedInsertListener implements PostInsertEventListener {
+
+    private static final long serialVersionUID = 5381752083467196012L;
+
+    private transient ChangeFeedService changeFeedService;
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (changeFeedService != null && event.getEntity() instanceof ChangeLogEntry) {
+            changeFeedService.publishAfterCommit((ChangeLogEntry) event.getEntity());
+        }
+    }
+
+    public void setChangeFeedService(ChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+}
@@ -0,0 +1,270 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.apache.log4j.Logger;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import sernet.verinice.interfaces.IChangeFeedService;
+import sernet.verinice.model.common.ChangeLogEntry;
+import sernet.verinice.model.common.ChangeSet;
+
+/**
+ * Keeps the latest changes of elements in memory and hands them out to the
+ * rich clients. Clients no longer query the change log table, a request is
+ * answered from memory.
+ *
+ * Changes are published by {@link ChangeFeedInsertListener} when the
+ * transaction which inserted a {@link ChangeLogEntry} is committed. Every
+ * change gets a sequence number. The changes returned to a client are
+ * coalesced: an element is contained at most once per update, insert or
+ * delete and at most once per permission change.
+ *
+ * A request without new changes waits until a change is published or the
+ * maximum wait time is over. The number of waiting requests is limited,
+ * further requests are answered immediately to keep threads free for other
+ * requests. These answers are marked as rejected, the client then waits before
+ * it sends the next request.
+ */
+public class ChangeFeedService implements IChangeFeedService {
+
+    private static final Logger LOG = Logger.getLogger(ChangeFeedService.class);
+
+    public static final int DEFAULT_CAPACITY = 10000;
+    public static final long DEFAULT_MAX_WAIT_MILLIS = 20000;
+    public static final int DEFAULT_MAX_WAITING_REQUESTS = 100;
+
+    private final String feedId = UUID.randomUUID().toString();
+
+    private int capacity = DEFAULT_CAPACITY;
+    private long maxWaitMillis = DEFAULT_MAX_WAIT_MILLIS;
+    private int maxWaitingRequests = DEFAULT_MAX_WAITING_REQUESTS;
+
+    // guarded by this
+    private final Deque<Change> changes = new ArrayDeque<>();
+    private long sequence = 0;
+    private int waitingRequests = 0;
+
+    @Override
+    public ChangeSet getChanges(long lastSequence, String stationId, long maxWaitMillis) {
+        long waitMillis = Math.min(Math.max(maxWaitMillis, 0), this.maxWaitMillis);
+        long deadline = System.currentTimeMillis() + waitMillis;
+        synchronized (this) {
+            if (lastSequence < 0) {
+                return new ChangeSet(feedId, sequence, true, Collections.emptyList());
+            }
+            if (!isAvailable(lastSequence)) {
+                if (LOG.isInfoEnabled()) {
+                    LOG.info("Changes after " + lastSequence + " are not available, sequence: "
+                            + sequence);
+                }
+                return new ChangeSet(feedId, sequence, false, Collections.emptyList());
+            }
+            List<ChangeLogEntry> entries = collect(lastSequence, stationId);
+            long newSequence = sequence;
+            boolean rejected = false;
+            if (entries.isEmpty() && waitMillis > 0 && waitingRequests >= maxWaitingRequests) {
+                rejected = true;
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Request of station " + stationId + " rejected, "
+                            + waitingRequests + " requests are waiting");
+                }
+            } else if (entries.isEmpty() && waitMillis > 0) {
+                waitingRequests++;
+                try {
+                    long remaining = waitMillis;
+                    while (entries.isEmpty() && remaining > 0) {
+                        wait(remaining);
+                        if (!isAvailable(lastSequence)) {
+                            return new ChangeSet(feedId, sequence, false,
+                                    Collections.emptyList());
+                        }
+                        entries = collect(lastSequence, stationId);
+                        remaining = deadline - System.currentTimeMillis();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    waitingRequests--;
+                }
+                newSequence = sequence;
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(entries.size() + " changes after " + lastSequence + " for station "
+                        + stationId + ", sequence: " + newSequence);
+            }
+            return new ChangeSet(feedId, newSequence, true, rejected, entries);
+        }
+    }
+
+    /**
+     * Publishes a change when the current transaction is committed or
+     * immediately if there is no transaction.
+     */
+    public void publishAfterCommit(ChangeLogEntry entry) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(Collections.singletonList(entry));
+            return;
+        }
+        getTransactionEntries().add(entry);
+    }
+
+    /**
+     * Publishes changes and wakes up the waiting requests.
+     */
+    public synchronized void publish(List<ChangeLogEntry> entries) {
+        for (ChangeLogEntry entry : entries) {
+            if (entry.getElementId() == null || entry.getChange() == ChangeLogEntry.TYPE_SYSTEM) {
+                continue;
+            }
+            sequence++;
+            changes.addLast(new Change(sequence, entry));
+            if (changes.size() > capacity) {
+                changes.removeFirst();
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Returns true if all changes after a sequence number are in memory.
+     */
+    private boolean isAvailable(long lastSequence) {
+        if (lastSequence > sequence) {
+            return false;
+        }
+        return changes.isEmpty() || changes.getFirst().sequence <= lastSequence + 1;
+    }
+
+    private List<ChangeLogEntry> collect(long lastSequence, String stationId) {
+        // key: element id, value: latest change of the element
+        Map<Integer, ChangeLogEntry> elementChanges = new LinkedHashMap<>();
+        Map<Integer, ChangeLogEntry> permissionChanges = new LinkedHashMap<>();
+        Iterator<Change> iterator = changes.descendingIterator();
+        List<Change> newChanges = new ArrayList<>();
+        while (iterator.hasNext()) {
+            Change change = iterator.next();
+            if (change.sequence <= lastSequence) {
+                break;
+            }
+            newChanges.add(change);
+        }
+        Collections.reverse(newChanges);
+        for (Change change : newChanges) {
+            ChangeLogEntry entry = change.entry;
+            if (stationId != null && stationId.equals(entry.getStationId())) {
+                continue;
+            }
+            if (entry.getChange() == ChangeLogEntry.TYPE_PERMISSION) {
+                permissionChanges.put(entry.getElementId(), entry);
+            } else {
+                coalesce(elementChanges, entry);
+            }
+        }
+        List<ChangeLogEntry> entries = new ArrayList<>(
+                elementChanges.size() + permissionChanges.size());
+        entries.addAll(elementChanges.values());
+        entries.addAll(permissionChanges.values());
+        return entries;
+    }
+
+    private static void coalesce(Map<Integer, ChangeLogEntry> elementChanges,
+            ChangeLogEntry entry) {
+        ChangeLogEntry previous = elementChanges.get(entry.getElementId());
+        if (previous != null && previous.getChange() == ChangeLogEntry.TYPE_INSERT
+                && entry.getChange() == ChangeLogEntry.TYPE_UPDATE) {
+            // the client loads the inserted element anyway
+            return;
+        }
+        elementChanges.remove(entry.getElementId());
+        elementChanges.put(entry.getElementId(), entry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ChangeLogEntry> getTransactionEntries() {
+        List<ChangeLogEntry> entries = (List<ChangeLogEntry>) TransactionSynchronizationManager
+                .getResource(this);
+        if (entries == null) {
+            List<ChangeLogEntry> newEntries = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, newEntries);
+            TransactionSynchronizationManager
+                    .registerSynchronization(new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCommit() {
+                            publish(newEntries);
+                        }
+
+                        @Override
+                        public void afterCompletion(int status) {
+                            TransactionSynchronizationManager
+                                    .unbindResourceIfPossible(ChangeFeedService.this);
+                        }
+                    });
+            entries = newEntries;
+        }
+        return entries;
+    }
+
+    public String getFeedId() {
+        return feedId;
+    }
+
+    public synchronized long getSequence() {
+        return sequence;
+    }
+
+    public synchronized int getWaitingRequests() {
+        return waitingRequests;
+    }
+
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    public void setMaxWaitMillis(long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public void setMaxWaitingRequests(int maxWaitingRequests) {
+        this.maxWaitingRequests = maxWaitingRequests;
+    }
+
+    private static final class Change {
+
+        private final long sequence;
+        private final ChangeLogEntry entry;
+
+        private Change(long sequence, ChangeLogEntry entry) {
+            this.sequence = sequence;
+            this.entry = entry;
+        }
+    }
+}
@@ -0,0 +1,503 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.log4j.Logger;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import sernet.verinice.interfaces.ICachedCommand;
+import sernet.verinice.interfaces.IElementChangeListener;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * A server side cache for the results of {@link ICachedCommand}s.
+ *
+ * The key of a result is the class and the cache id of the command and the
+ * permission context of the user. The results are stored serialized, every
+ * hit returns a new copy of the result. The cache is limited by the size of
+ * the serialized results, the least recently used results are removed first.
+ *
+ * While a command is executed the scope ids of all loaded elements are
+ * recorded by the {@link CommandResultCacheLoadListener}. A result is removed
+ * when an element of one of these scopes is changed or deleted. Results of
+ * commands which loaded no elements or elements without a scope are removed
+ * by every change. Results loaded while elements were changed are not
+ * stored. The DAOs of links, notes and attachments remove the results of the
+ * scopes of the elements the changed objects belong to. Changes which bypass
+ * the DAOs, e.g. HQL updates, are not noticed, so results expire after a
+ * maximum age.
+ */
+public class CommandResultCache implements IElementChangeListener {
+
+    private static final Logger LOG = Logger.getLogger(CommandResultCache.class);
+
+    private static final int BYTES_PER_MEGABYTE = 1024 * 1024;
+    private static final int DEFAULT_MAX_MEGABYTES = 64;
+    private static final int DEFAULT_MAX_AGE_SECONDS = 600;
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<Recording> RECORDING = new ThreadLocal<>();
+
+    private boolean enabled = true;
+    private long maxBytes = (long) DEFAULT_MAX_MEGABYTES * BYTES_PER_MEGABYTE;
+    private long maxAgeMillis = DEFAULT_MAX_AGE_SECONDS * MILLIS_PER_SECOND;
+
+    // access order, the least recently used entry is the first one
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<Integer, Set<String>> keysByScopeId = new HashMap<>();
+    private final Set<String> keysWithoutScope = new HashSet<>();
+    private long bytes = 0;
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final Map<String, CommandStatistics> statistics = new ConcurrentHashMap<>();
+
+    /**
+     * Injects the cached result into the command.
+     *
+     * @param permissionContext
+     *            The user, roles and scope which restrict the result of the
+     *            command
+     * @return True if a result was found in the cache, false if the command
+     *         must be executed
+     */
+    public boolean injectCachedResult(ICachedCommand command, String permissionContext) {
+        String key = createKey(command, permissionContext);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        CommandStatistics commandStatistics = getStatistics(command);
+        if (entry != null && isExpired(entry)) {
+            remove(key, entry);
+            entry = null;
+        }
+        if (entry == null) {
+            commandStatistics.misses.incrementAndGet();
+            return false;
+        }
+        Object result;
+        try {
+            result = deserialize(entry.result, command.getClass().getClassLoader());
+        } catch (IOException | ClassNotFoundException e) {
+            LOG.warn("Error while deserializing the cached result of "
+                    + command.getClass().getName() + ", executing the command", e);
+            remove(key);
+            commandStatistics.misses.incrementAndGet();
+            return false;
+        }
+        commandStatistics.hits.incrementAndGet();
+        command.injectCacheResult(result);
+        return true;
+    }
+
+    /**
+     * Starts recording the scopes of the elements loaded by the current
+     * thread. Call {@link #store(ICachedCommand, String)} after the command
+     * is executed and {@link #stopRecording()} in a finally block.
+     */
+    public void startRecording() {
+        RECORDING.set(new Recording(version.get()));
+    }
+
+    public void stopRecording() {
+        RECORDING.remove();
+    }
+
+    /**
+     * Records the scope of an element loaded while a command is executed.
+     */
+    void elementLoaded(CnATreeElement element) {
+        Recording recording = RECORDING.get();
+        if (recording != null) {
+            recording.add(element.getScopeId());
+        }
+    }
+
+    /**
+     * Stores the result of a command executed after
+     * {@link #startRecording()}.
+     */
+    public void store(ICachedCommand command, String permissionContext) {
+        Recording recording = RECORDING.get();
+        Object result = command.getCacheableResult();
+        if (recording == null || !(result instanceof Serializable)) {
+            return;
+        }
+        byte[] serialized;
+        try {
+            serialized = serialize(result);
+        } catch (IOException e) {
+            LOG.warn("Result of " + command.getClass().getName() + " is not cached", e);
+            return;
+        }
+        if (serialized.length > maxBytes / 8) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Result of " + command.getClass().getName() + " with "
+                        + serialized.length + " bytes is too large to be cached");
+            }
+            return;
+        }
+        String key = createKey(command, permissionContext);
+        Set<Integer> scopeIds = recording.withoutScope ? Collections.emptySet()
+                : recording.scopeIds;
+        synchronized (this) {
+            if (version.get() != recording.version) {
+                return;
+            }
+            removeEntry(key);
+            entries.put(key, new Entry(serialized, scopeIds));
+            if (scopeIds.isEmpty()) {
+                keysWithoutScope.add(key);
+            }
+            for (Integer scopeId : scopeIds) {
+                keysByScopeId.computeIfAbsent(scopeId, id -> new HashSet<>()).add(key);
+            }
+            bytes += serialized.length;
+            evict();
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            removeFromIndex(eldest.getKey(), eldest.getValue());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private synchronized void remove(String key) {
+        removeEntry(key);
+    }
+
+    /**
+     * Removes the entry of the key, if it was not replaced in the meantime.
+     */
+    private synchronized void remove(String key, Entry entry) {
+        if (entries.get(key) == entry) {
+            removeEntry(key);
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return System.currentTimeMillis() - entry.created > maxAgeMillis;
+    }
+
+    private void removeEntry(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            removeFromIndex(key, entry);
+        }
+    }
+
+    private void removeFromIndex(String key, Entry entry) {
+        bytes -= entry.result.length;
+        keysWithoutScope.remove(key);
+        for (Integer scopeId : entry.scopeIds) {
+            Set<String> keys = keysByScopeId.get(scopeId);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByScopeId.remove(scopeId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes the results which depend on the changed elements.
+     */
+    @Override
+    public void elementsChanged(Collection<? extends CnATreeElement> elements) {
+        invalidateNowAndAfterCommit(elements);
+    }
+
+    @Override
+    public void elementsDeleted(Collection<? extends CnATreeElement> elements) {
+        invalidateNowAndAfterCommit(elements);
+    }
+
+    /**
+     * Removes the results of the scopes of elements whose links, notes or
+     * attachments were changed.
+     */
+    @Override
+    public void relatedObjectsChanged(Set<Integer> scopeIds) {
+        Set<Integer> knownScopeIds = new HashSet<>(scopeIds);
+        boolean withoutScope = knownScopeIds.remove(null);
+        invalidateNowAndAfterCommit(knownScopeIds, withoutScope);
+    }
+
+    private void invalidateNowAndAfterCommit(Collection<? extends CnATreeElement> elements) {
+        Set<Integer> scopeIds = new HashSet<>();
+        boolean withoutScope = false;
+        for (CnATreeElement element : elements) {
+            if (element.getScopeId() == null) {
+                withoutScope = true;
+            } else {
+                scopeIds.add(element.getScopeId());
+            }
+        }
+        invalidateNowAndAfterCommit(scopeIds, withoutScope);
+    }
+
+    private void invalidateNowAndAfterCommit(Set<Integer> scopeIds, boolean withoutScope) {
+        invalidate(scopeIds, withoutScope);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            Recording changes = getTransactionChanges();
+            changes.scopeIds.addAll(scopeIds);
+            changes.withoutScope |= withoutScope;
+        }
+    }
+
+    /**
+     * Returns the scope ids changed in the current transaction. If there are
+     * no changes yet, a synchronization is registered which invalidates the
+     * scopes after commit.
+     */
+    private Recording getTransactionChanges() {
+        Recording changes = (Recording) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            Recording newChanges = new Recording(0);
+            TransactionSynchronizationManager.bindResource(this, newChanges);
+            TransactionSynchronizationManager
+                    .registerSynchronization(new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCommit() {
+                            invalidate(newChanges.scopeIds, newChanges.withoutScope);
+                        }
+
+                        @Override
+                        public void afterCompletion(int status) {
+                            TransactionSynchronizationManager
+                                    .unbindResourceIfPossible(CommandResultCache.this);
+                        }
+                    });
+            changes = newChanges;
+        }
+        return changes;
+    }
+
+    private synchronized void invalidate(Set<Integer> scopeIds, boolean withoutScope) {
+        version.incrementAndGet();
+        if (withoutScope) {
+            clear();
+            return;
+        }
+        Set<String> keys = new HashSet<>(keysWithoutScope);
+        for (Integer scopeId : scopeIds) {
+            keys.addAll(keysByScopeId.getOrDefault(scopeId, Collections.emptySet()));
+        }
+        keys.forEach(this::removeEntry);
+    }
+
+    public synchronized void invalidateAll() {
+        version.incrementAndGet();
+        clear();
+    }
+
+    private void clear() {
+        entries.clear();
+        keysByScopeId.clear();
+        keysWithoutScope.clear();
+        bytes = 0;
+    }
+
+    private CommandStatistics getStatistics(ICachedCommand command) {
+        return statistics.computeIfAbsent(command.getClass().getName(),
+                name -> new CommandStatistics());
+    }
+
+    /**
+     * @return The hits and misses by class name of the commands
+     */
+    public Map<String, CommandStatistics> getStatistics() {
+        return Collections.unmodifiableMap(new TreeMap<>(statistics));
+    }
+
+    public synchronized int getNumberOfResults() {
+        return entries.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    private static String createKey(ICachedCommand command, String permissionContext) {
+        return command.getClass().getName() + '\n' + command.getCacheID() + '\n'
+                + permissionContext;
+    }
+
+    private static byte[] serialize(Object result) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+            objectOut.writeObject(result);
+        }
+        return out.toByteArray();
+    }
+
+    private static Object deserialize(byte[] serialized, ClassLoader classLoader)
+            throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ClassLoaderObjectInputStream(
+                new ByteArrayInputStream(serialized), classLoader)) {
+            return in.readObject();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public void setMaxMegabytes(int maxMegabytes) {
+        this.maxBytes = (long) maxMegabytes * BYTES_PER_MEGABYTE;
+    }
+
+    /**
+     * @param maxAgeSeconds
+     *            The time after which a result is executed again, even if no
+     *            change of its scopes was noticed
+     */
+    public void setMaxAgeSeconds(int maxAgeSeconds) {
+        this.maxAgeMillis = maxAgeSeconds * MILLIS_PER_SECOND;
+    }
+
+    /**
+     * The hits and misses of a command class.
+     */
+    public static final class CommandStatistics {
+
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        /**
+         * @return The share of hits of all requests from 0 to 1
+         */
+        public double getHitRate() {
+            long requests = getHits() + getMisses();
+            return (requests == 0) ? 0 : (double) getHits() / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "hits: " + getHits() + ", misses: " + getMisses();
+        }
+    }
+
+    private static final class Entry {
+
+        private final byte[] result;
+        private final Set<Integer> scopeIds;
+        private final long created = System.currentTimeMillis();
+
+        private Entry(byte[] result, Set<Integer> scopeIds) {
+            this.result = result;
+            this.scopeIds = scopeIds;
+        }
+    }
+
+    /**
+     * The scope ids of elements loaded by a command or changed in a
+     * transaction.
+     */
+    private static final class Recording {
+
+        private final long version;
+        private final Set<Integer> scopeIds = new HashSet<>();
+        private boolean withoutScope = false;
+
+        private Recording(long version) {
+            this.version = version;
+        }
+
+        private void add(Integer scopeId) {
+            if (scopeId == null) {
+                withoutScope = true;
+            } else {
+                scopeIds.add(scopeId);
+            }
+        }
+    }
+
+    /**
+     * Resolves the classes of cached results with the class loader of the
+     * command, the classes may not be visible to the class loader of the
+     * server bundle.
+     */
+    private static final class ClassLoaderObjectInputStream extends ObjectInputStream {
+
+        private final ClassLoader classLoader;
+
+        private ClassLoaderObjectInputStream(InputStream in, ClassLoader classLoader)
+                throws IOException {
+            super(in);
+            this.classLoader = classLoader;
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass description)
+                throws IOException, ClassNotFoundException {
+            try {
+                return Class.forName(description.getName(), false, classLoader);
+            } catch (ClassNotFoundException e) {
+                return super.resolveClass(description);
+            }
+        }
+    }
+}
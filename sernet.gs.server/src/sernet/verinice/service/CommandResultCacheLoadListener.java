@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import org.hibernate.event.PostLoadEvent;
+import org.hibernate.event.PostLoadEventListener;
+
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Records the scopes of the elements loaded by Hibernate while the result of
+ * a command is recorded by the {@link CommandResultCache}. Register this
+ * listener for post-load events in addition to the default listener of
+ * Hibernate.
+ */
+public class CommandResultCacheLoadListener implements PostLoadEventListener {
+
+    private static final long serialVersionUID = -3150861236120954822L;
+
+    private transient CommandResultCache commandResultCache;
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        if (commandResultCache != null && event.getEntity() instanceof CnATreeElement) {
+            commandResultCache.elementLoaded((CnATreeElement) event.getEntity());
+        }
+    }
+
+    public void setCommandResultCache(CommandResultCache commandResultCache) {
+        this.commandResultCache = commandResultCache;
+    }
+}
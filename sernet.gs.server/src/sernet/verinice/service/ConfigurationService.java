@@ -44,6 +44,7 @@ import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.IConfigurationService;
 import sernet.verinice.interfaces.IDao;
+import sernet.verinice.interfaces.IPermissionCache;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.common.Permission;
 import sernet.verinice.model.common.PersonAdapter;
@@ -73,6 +74,7 @@ public class ConfigurationService implements IConfigurationService {
 
     private IAuthService authService;
     private ICommandService commandService;
+    private IPermissionCache permissionCache;
 
     private void loadUserData() {
         DetachedCriteria criteria = DetachedCriteria.forClass(Configuration.class);
@@ -142,6 +144,7 @@ public class ConfigurationService implements IConfigurationService {
         } finally {
             writeLock.unlock();
         }
+        invalidatePermissionCache();
     }
 
     /*
@@ -160,6 +163,7 @@ public class ConfigurationService implements IConfigurationService {
         } finally {
             writeLock.unlock();
         }
+        invalidatePermissionCache();
     }
 
     private String[] getRoles(Configuration c) {
@@ -195,6 +199,13 @@ public class ConfigurationService implements IConfigurationService {
         } finally {
             writeLock.unlock();
         }
+        invalidatePermissionCache();
+    }
+
+    private void invalidatePermissionCache() {
+        if (permissionCache != null) {
+            permissionCache.invalidateAll();
+        }
     }
 
     /*
@@ -398,4 +409,8 @@ public class ConfigurationService implements IConfigurationService {
         this.commandService = commandService;
     }
 
+    public void setPermissionCache(IPermissionCache permissionCache) {
+        this.permissionCache = permissionCache;
+    }
+
 }
@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+
+import sernet.gs.service.RuntimeCommandException;
+import sernet.verinice.interfaces.IAttachmentDao.FileDataReader;
+
+/**
+ * Keeps the file data of the attachment store in column fileData of table
+ * attachmentcontent. The column is written and read with JDBC streams.
+ */
+public class DatabaseAttachmentBackend implements IAttachmentBackend {
+
+    private static final String SQL_UPDATE_FILE_DATA = "update attachmentcontent set fileData = ? where hash = ?";
+
+    private static final String SQL_SELECT_FILE_DATA = "select fileData from attachmentcontent where hash = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatabaseAttachmentBackend(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public File createTempFile() throws IOException {
+        return File.createTempFile("verinice-attachment", ".tmp");
+    }
+
+    @Override
+    public void write(final String hash, final File content) throws IOException {
+        try (InputStream fileData = new FileInputStream(content)) {
+            jdbcTemplate.execute(SQL_UPDATE_FILE_DATA, new PreparedStatementCallback() {
+                @Override
+                public Object doInPreparedStatement(PreparedStatement statement)
+                        throws SQLException {
+                    statement.setBinaryStream(1, fileData, content.length());
+                    statement.setString(2, hash);
+                    return statement.executeUpdate();
+                }
+            });
+        }
+    }
+
+    @Override
+    public boolean read(final String hash, final FileDataReader reader) {
+        return (Boolean) jdbcTemplate.execute(SQL_SELECT_FILE_DATA,
+                new PreparedStatementCallback() {
+                    @Override
+                    public Object doInPreparedStatement(PreparedStatement statement)
+                            throws SQLException, DataAccessException {
+                        statement.setString(1, hash);
+                        try (ResultSet resultSet = statement.executeQuery()) {
+                            if (!resultSet.next()) {
+                                return false;
+                            }
+                            try (InputStream fileData = resultSet.getBinaryStream(1)) {
+                                if (fileData == null) {
+                                    return false;
+                                }
+                                reader.read(fileData);
+                                return true;
+                            }
+                        } catch (IOException e) {
+                            throw new RuntimeCommandException(
+                                    "Error while reading attachment content " + hash, e);
+                        }
+                    }
+                });
+    }
+
+    @Override
+    public void delete(String hash) {
+        // the file data was deleted with the row
+    }
+}
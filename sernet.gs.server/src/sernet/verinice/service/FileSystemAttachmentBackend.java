@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.regex.Pattern;
+
+import org.apache.log4j.Logger;
+
+import sernet.verinice.interfaces.IAttachmentDao.FileDataReader;
+
+/**
+ * Keeps the file data of the attachment store in a directory of the file
+ * system. The file of a content is named by its hash and stored in a sub
+ * directory named by the first two characters of the hash. New files are
+ * written to the sub directory tmp and moved to their final name.
+ */
+public class FileSystemAttachmentBackend implements IAttachmentBackend {
+
+    private static final Logger log = Logger.getLogger(FileSystemAttachmentBackend.class);
+
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    private static final int PREFIX_LENGTH = 2;
+
+    private final File directory;
+
+    private final File tempDirectory;
+
+    public FileSystemAttachmentBackend(File directory) {
+        this.directory = directory;
+        this.tempDirectory = new File(directory, "tmp");
+        if (!tempDirectory.isDirectory() && !tempDirectory.mkdirs()) {
+            throw new IllegalStateException(
+                    "Can not create directory of attachment store: " + tempDirectory);
+        }
+    }
+
+    @Override
+    public File createTempFile() throws IOException {
+        return File.createTempFile("attachment", ".tmp", tempDirectory);
+    }
+
+    @Override
+    public void write(String hash, File content) throws IOException {
+        File file = getFile(hash);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.move(content.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    @Override
+    public boolean read(String hash, FileDataReader reader) throws IOException {
+        File file = getFile(hash);
+        if (!file.isFile()) {
+            log.error("File of attachment content not found: " + file);
+            return false;
+        }
+        try (InputStream fileData = Files.newInputStream(file.toPath())) {
+            reader.read(fileData);
+            return true;
+        }
+    }
+
+    @Override
+    public void delete(String hash) {
+        File file = getFile(hash);
+        try {
+            Files.deleteIfExists(file.toPath());
+        } catch (IOException e) {
+            log.error("Error while deleting file of attachment content: " + file, e);
+        }
+    }
+
+    private File getFile(String hash) {
+        if (hash == null || !HASH_PATTERN.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Invalid content hash: " + hash);
+        }
+        return new File(new File(directory, hash.substring(0, PREFIX_LENGTH)), hash);
+    }
+}
@@ -20,6 +20,8 @@ package sernet.verinice.service;
 
 import java.io.Serializable;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -40,6 +42,7 @@ import sernet.verinice.interfaces.ElementChange;
 import sernet.verinice.interfaces.IAuthAwareCommand;
 import sernet.verinice.interfaces.IAuthService;
 import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.ICachedCommand;
 import sernet.verinice.interfaces.IChangeLoggingCommand;
 import sernet.verinice.interfaces.ICommand;
 import sernet.verinice.interfaces.ICommandService;
@@ -89,6 +92,17 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
 
     private IRightsServerHandler rightsServerHandler;
 
+    private PermissionCache permissionCache;
+
+    private CommandResultCache commandResultCache;
+
+    // number of commands executed by the current thread, nested commands
+    // increase the depth
+    private final ThreadLocal<Integer> executionDepth = ThreadLocal.withInitial(() -> 0);
+
+    // true while the current thread executes a batch of commands
+    private final ThreadLocal<Boolean> batchExecution = ThreadLocal.withInitial(() -> false);
+
     IBaseDao<BSIModel, Serializable> dao;
 
     private VnaSchemaVersion vnaSchemaVersion;
@@ -108,6 +122,11 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
      * 
      * A command can execute other commands to fulfill its purpose using the
      * reference to the command service.
+     * 
+     * The results of {@link ICachedCommand}s which are not executed by other
+     * commands are cached in the {@link CommandResultCache}. Commands of a
+     * batch take their results from the cache but do not store them, see
+     * {@link #executeCommands(List)}.
      */
     @Override
     public <T extends ICommand> T executeCommand(T command) throws CommandException {
@@ -122,6 +141,11 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
                     + " / user: " + username);
         }
 
+        ICachedCommand cachedCommand = getCommandToCache(command);
+        boolean recording = false;
+        String permissionContext = null;
+        int depth = executionDepth.get();
+        executionDepth.set(depth + 1);
         try {
             checkRightsForAction(command, username);
 
@@ -148,6 +172,17 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
                 ldapCommand.setLdapService(getLdapService());
             }
 
+            if (cachedCommand != null) {
+                permissionContext = getPermissionContext(username);
+                if (commandResultCache.injectCachedResult(cachedCommand, permissionContext)) {
+                    return command;
+                }
+                if (!batchExecution.get()) {
+                    commandResultCache.startRecording();
+                    recording = true;
+                }
+            }
+
             // When a command is being executed that should be subject to access
             // control (this is the default) and the logged in user is non-
             // privileged the filter is configured and activated.
@@ -163,6 +198,10 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
 
             disableFilter(getBsiModelDao());
 
+            if (recording) {
+                commandResultCache.store(cachedCommand, permissionContext);
+            }
+
             // log changes:
             if (command instanceof IChangeLoggingCommand) {
                 log((IChangeLoggingCommand) command);
@@ -183,10 +222,80 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
             // wrong, abort application completely?
             if (exceptionHandler != null)
                 exceptionHandler.handle(e);
+        } finally {
+            if (recording) {
+                commandResultCache.stopRecording();
+            }
+            executionDepth.set(depth);
         }
         return command;
     }
 
+    /**
+     * Executes the commands one after another. The transaction of the batch
+     * is started by the Spring container.
+     *
+     * All commands of the batch share one Hibernate session. The scopes of
+     * the elements loaded by an earlier command of the batch are not
+     * recorded for the later commands, hence the results of the commands are
+     * not stored in the {@link CommandResultCache}.
+     *
+     * The commands are executed without the Spring proxy of this service.
+     * Internal authentication is done once for the whole batch, see
+     * InternalAuthenticationProvider#doInsertBatchAuthentication.
+     */
+    @Override
+    public List<ICommand> executeCommands(List<? extends ICommand> commands)
+            throws CommandException {
+        if (log.isDebugEnabled()) {
+            log.debug("Service executing batch of " + commands.size() + " commands");
+        }
+        List<ICommand> executedCommands = new ArrayList<>(commands.size());
+        boolean outerBatch = batchExecution.get();
+        batchExecution.set(true);
+        try {
+            for (ICommand command : commands) {
+                executedCommands.add(executeCommand(command));
+            }
+        } finally {
+            batchExecution.set(outerBatch);
+        }
+        return executedCommands;
+    }
+
+    /**
+     * @return The command if its result is cached, null if not
+     */
+    private ICachedCommand getCommandToCache(ICommand command) {
+        if (command instanceof ICachedCommand && commandResultCache != null
+                && commandResultCache.isEnabled() && executionDepth.get() == 0) {
+            return (ICachedCommand) command;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the user, the roles and the scope of a scope-only user. Cached
+     * results are shared only by executions with the same permission
+     * context.
+     */
+    private String getPermissionContext(String username) {
+        if (!authService.isPermissionHandlingNeeded()) {
+            return "";
+        }
+        StringBuilder context = new StringBuilder(username);
+        String[] roles = getConfigurationService().getRoles(username);
+        if (roles != null) {
+            String[] sortedRoles = roles.clone();
+            Arrays.sort(sortedRoles);
+            context.append('\n').append(String.join(",", sortedRoles));
+        }
+        if (getConfigurationService().isScopeOnly(username)) {
+            context.append('\n').append(getConfigurationService().getScopeId(username));
+        }
+        return context.toString();
+    }
+
     /**
      * Check if the given command is allowed to execute by the given user as
      * defined in the authorization configuration see {@link XmlRightsService}
@@ -242,6 +351,7 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
 
     private void log(IChangeLoggingCommand notifyCommand) {
         List<ElementChange> elementChanges = notifyCommand.getChanges();
+        List<CnATreeElement> changedElements = new ArrayList<>(elementChanges.size());
         for (ElementChange changedElement : elementChanges) {
 
             ChangeLogEntry logEntry = new ChangeLogEntry(changedElement.getElement(),
@@ -254,6 +364,12 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
                         + logEntry.getElementId());
             }
             daoFactory.getDAO(ChangeLogEntry.class).saveOrUpdate(logEntry);
+            if (changedElement.getElement() != null) {
+                changedElements.add(changedElement.getElement());
+            }
+        }
+        if (commandResultCache != null && !changedElements.isEmpty()) {
+            commandResultCache.elementsChanged(changedElements);
         }
     }
 
@@ -338,6 +454,14 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
         this.rightsServerHandler = rightsServerHandler;
     }
 
+    public void setPermissionCache(PermissionCache permissionCache) {
+        this.permissionCache = permissionCache;
+    }
+
+    public void setCommandResultCache(CommandResultCache commandResultCache) {
+        this.commandResultCache = commandResultCache;
+    }
+
     @Override
     public Properties getProperties() {
         return properties;
@@ -358,12 +482,15 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
                 @Override
                 public Object doInHibernate(Session session)
                         throws HibernateException, SQLException {
-                    @SuppressWarnings("unchecked")
-                    List<Integer> allowedScopeIds = session.createCriteria(CnATreeElement.class)
-                            .createAlias("parent", "parent")
-                            .add(Restrictions.eq("parent.objectType", CatalogModel.TYPE_ID))
-                            .setProjection(Projections.property("dbId")).list();
-                    allowedScopeIds.add(userScopeId);
+                    List<Integer> allowedScopeIds;
+                    if (permissionCache != null && permissionCache.isEnabled()) {
+                        allowedScopeIds = permissionCache.getAllowedScopeIds(
+                                authService.getUsername(), userScopeId,
+                                () -> loadCatalogScopeIds(session));
+                    } else {
+                        allowedScopeIds = loadCatalogScopeIds(session);
+                        allowedScopeIds.add(userScopeId);
+                    }
                     session.enableFilter("scopeFilter").setParameterList("scopeIds",
                             allowedScopeIds);
                     return null;
@@ -374,6 +501,13 @@ public class HibernateCommandService implements ICommandService, IHibernateComma
         }
     }
 
+    @SuppressWarnings("unchecked")
+    private static List<Integer> loadCatalogScopeIds(Session session) {
+        return session.createCriteria(CnATreeElement.class).createAlias("parent", "parent")
+                .add(Restrictions.eq("parent.objectType", CatalogModel.TYPE_ID))
+                .setProjection(Projections.property("dbId")).list();
+    }
+
     private void setAccessFilterEnabled(boolean enable, IBaseDao dao) {
         if (enable) {
             final Object[] roles = getConfigurationService().getRoles(authService.getUsername());
@@ -0,0 +1,62 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.io.File;
+import java.io.IOException;
+
+import sernet.verinice.interfaces.IAttachmentDao.FileDataReader;
+
+/**
+ * Keeps the contents of the {@link AttachmentStore}. The store counts the
+ * references, the backend only writes, reads and deletes the file data of a
+ * content identified by its SHA-256 hash.
+ */
+public interface IAttachmentBackend {
+
+    /**
+     * @return A new temporary file for file data which is written to the
+     *         store, the file is moved or deleted by the store
+     */
+    File createTempFile() throws IOException;
+
+    /**
+     * Writes the file data of a new content. The content row in table
+     * attachmentcontent is inserted before this method is called.
+     *
+     * @param content
+     *            A file created by {@link #createTempFile()}
+     */
+    void write(String hash, File content) throws IOException;
+
+    /**
+     * Passes the file data of a content as a stream to the reader.
+     *
+     * @return true if the content exists, false if not
+     */
+    boolean read(String hash, FileDataReader reader) throws IOException;
+
+    /**
+     * Deletes the file data of a content after its row in table
+     * attachmentcontent was deleted and the transaction was committed, or
+     * after the transaction which inserted the row was rolled back.
+     */
+    void delete(String hash);
+}
@@ -0,0 +1,162 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.util.Arrays;
+
+/**
+ * A set of positive int values without boxing. Uses open addressing with
+ * linear probing, 0 marks an empty slot. The set is not thread-safe.
+ */
+final class IntHashSet {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int PHI = 0x9E3779B9;
+
+    private int[] slots;
+    private int shift;
+    private int size;
+
+    IntHashSet() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * @return True if the value was added, false if the set already
+     *         contained the value
+     */
+    boolean add(int value) {
+        checkValue(value);
+        int mask = slots.length - 1;
+        int index = index(value);
+        while (slots[index] != 0) {
+            if (slots[index] == value) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        slots[index] = value;
+        size++;
+        if (size * 4 > slots.length * 3) {
+            rehash(slots.length * 2);
+        }
+        return true;
+    }
+
+    boolean contains(int value) {
+        if (value <= 0) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        int index = index(value);
+        while (slots[index] != 0) {
+            if (slots[index] == value) {
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @return True if the set contained the value
+     */
+    boolean remove(int value) {
+        if (value <= 0) {
+            return false;
+        }
+        int mask = slots.length - 1;
+        int index = index(value);
+        while (slots[index] != 0) {
+            if (slots[index] == value) {
+                shiftBack(index, mask);
+                size--;
+                return true;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        if (slots.length > MIN_CAPACITY) {
+            allocate(MIN_CAPACITY);
+        } else {
+            Arrays.fill(slots, 0);
+        }
+        size = 0;
+    }
+
+    /**
+     * Backward shift deletion, keeps the probe sequences of the remaining
+     * values intact.
+     */
+    private void shiftBack(int removed, int mask) {
+        int gap = removed;
+        int index = (gap + 1) & mask;
+        while (slots[index] != 0) {
+            int home = index(slots[index]);
+            // move the value if its home slot is not between gap and index
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                slots[gap] = slots[index];
+                gap = index;
+            }
+            index = (index + 1) & mask;
+        }
+        slots[gap] = 0;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldSlots = slots;
+        allocate(capacity);
+        int mask = capacity - 1;
+        for (int value : oldSlots) {
+            if (value != 0) {
+                int index = index(value);
+                while (slots[index] != 0) {
+                    index = (index + 1) & mask;
+                }
+                slots[index] = value;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        slots = new int[capacity];
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+    }
+
+    /**
+     * Fibonacci hashing, the upper bits of the product are the slot index.
+     */
+    private int index(int value) {
+        return (value * PHI) >>> shift;
+    }
+
+    private static void checkValue(int value) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Value must be positive: " + value);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import sernet.verinice.model.licensemanagement.LicenseManagementEntry;
+
+/**
+ * An index of the decrypted values of all {@link LicenseManagementEntry}
+ * instances of the license repository. The index is created by
+ * {@link LicenseManagementServerModeService} after the vnl files are read.
+ * Looking up a license by its (encrypted or decrypted) license id or content
+ * id does not decrypt anything.
+ *
+ * Encrypted ids which are not the id of an entry, e.g. the content ids
+ * encrypted with the password of an entry, are resolved by decrypting them
+ * with the password of every entry. The results of these resolutions are
+ * cached in the index.
+ *
+ * The index contains decrypted values and passwords. It must not be
+ * serialized or returned to a client, hence this class is not
+ * {@link java.io.Serializable} and is not used in any service interface.
+ */
+final class LicenseIndex {
+
+    private static final int MAX_RESOLVED_CIPHERS = 10000;
+
+    private final List<IndexedLicense> licenses;
+
+    private final Map<String, IndexedLicense> byCipherLicenseId = new HashMap<>();
+    private final Map<String, IndexedLicense> byLicenseId = new HashMap<>();
+    private final Map<String, List<IndexedLicense>> byCipherContentId = new HashMap<>();
+    private final Map<String, List<IndexedLicense>> byContentId = new HashMap<>();
+
+    // key: cipher text which is not an id of an entry
+    private final Map<String, List<IndexedLicense>> resolvedCiphers = Collections
+            .synchronizedMap(new LinkedHashMap<String, List<IndexedLicense>>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(
+                        Map.Entry<String, List<IndexedLicense>> eldest) {
+                    return size() > MAX_RESOLVED_CIPHERS;
+                }
+            });
+
+    LicenseIndex(Collection<IndexedLicense> licenses) {
+        this.licenses = Collections.unmodifiableList(new ArrayList<>(licenses));
+        for (IndexedLicense license : this.licenses) {
+            byCipherLicenseId.putIfAbsent(license.getEntry().getLicenseID(), license);
+            byLicenseId.putIfAbsent(license.getLicenseId(), license);
+            byCipherContentId
+                    .computeIfAbsent(license.getEntry().getContentIdentifier(),
+                            key -> new ArrayList<>())
+                    .add(license);
+            byContentId.computeIfAbsent(license.getContentId(), key -> new ArrayList<>())
+                    .add(license);
+        }
+    }
+
+    List<IndexedLicense> getAll() {
+        return licenses;
+    }
+
+    IndexedLicense getByCipherLicenseId(String cipherLicenseId) {
+        return byCipherLicenseId.get(cipherLicenseId);
+    }
+
+    IndexedLicense getByLicenseId(String licenseId) {
+        return byLicenseId.get(licenseId);
+    }
+
+    List<IndexedLicense> getByCipherContentId(String cipherContentId) {
+        return byCipherContentId.getOrDefault(cipherContentId, Collections.emptyList());
+    }
+
+    List<IndexedLicense> getByContentId(String contentId) {
+        return byContentId.getOrDefault(contentId, Collections.emptyList());
+    }
+
+    Set<String> getLicenseIds(boolean decrypted) {
+        return new HashSet<>(decrypted ? byLicenseId.keySet() : byCipherLicenseId.keySet());
+    }
+
+    Set<String> getContentIds(boolean decrypted) {
+        return new HashSet<>(decrypted ? byContentId.keySet() : byCipherContentId.keySet());
+    }
+
+    /**
+     * Returns the licenses matching a cipher text which is not an id of an
+     * entry. The cipher text is resolved only if it was not resolved before
+     * with this index.
+     */
+    List<IndexedLicense> resolve(String cipherText,
+            Function<String, List<IndexedLicense>> resolver) {
+        List<IndexedLicense> resolved = resolvedCiphers.get(cipherText);
+        if (resolved == null) {
+            resolved = Collections.unmodifiableList(resolver.apply(cipherText));
+            resolvedCiphers.put(cipherText, resolved);
+        }
+        return resolved;
+    }
+
+    /**
+     * The decrypted values of a {@link LicenseManagementEntry}.
+     */
+    static final class IndexedLicense {
+
+        private final LicenseManagementEntry entry;
+        private final String licenseId;
+        private final String contentId;
+        private final LocalDate validUntil;
+        private final int validUsers;
+        private final String password;
+
+        IndexedLicense(LicenseManagementEntry entry, String licenseId, String contentId,
+                LocalDate validUntil, int validUsers, String password) {
+            this.entry = entry;
+            this.licenseId = licenseId;
+            this.contentId = contentId;
+            this.validUntil = validUntil;
+            this.validUsers = validUsers;
+            this.password = password;
+        }
+
+        LicenseManagementEntry getEntry() {
+            return entry;
+        }
+
+        String getLicenseId() {
+            return licenseId;
+        }
+
+        String getContentId() {
+            return contentId;
+        }
+
+        LocalDate getValidUntil() {
+            return validUntil;
+        }
+
+        int getValidUsers() {
+            return validUsers;
+        }
+
+        String getPassword() {
+            return password;
+        }
+
+        boolean isValid() {
+            return validUntil.isAfter(LocalDate.now());
+        }
+    }
+}
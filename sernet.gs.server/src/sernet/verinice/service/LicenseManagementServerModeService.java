@@ -33,10 +33,13 @@ import java.nio.file.WatchEvent.Kind;
 import java.nio.file.WatchKey;
 import java.nio.file.WatchService;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
 
 import javax.swing.text.html.HTMLWriter;
 
@@ -62,6 +65,7 @@ import sernet.verinice.model.licensemanagement.LicenseMessageInfos;
 import sernet.verinice.model.licensemanagement.NoLicenseAssignedException;
 import sernet.verinice.model.licensemanagement.VNLMapper;
 import sernet.verinice.model.licensemanagement.propertyconverter.PropertyConverter;
+import sernet.verinice.service.LicenseIndex.IndexedLicense;
 
 /**
  * 
@@ -78,6 +82,8 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
 
     protected static final Logger log = Logger.getLogger(LicenseManagementServerModeService.class);
 
+    private static final int DAYS_OF_MONTH = 31;
+
     // injected by spring
     private IBaseDao<Configuration, Serializable> configurationDao;
     private IEncryptionService cryptoService;
@@ -87,6 +93,13 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
 
     protected Set<LicenseManagementEntry> existingLicenses = null;
 
+    // decrypted values of existingLicenses, never leaves the server
+    private volatile LicenseIndex licenseIndex = null;
+
+    // incremented by resetLicenseIndex, an index is only kept if it was not
+    // reset while it was created, e.g. by getExistingLicenses
+    private final AtomicLong licenseIndexGeneration = new AtomicLong();
+
     public void init() {
         try {
             watchVNLDirectory();
@@ -98,17 +111,13 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
     @Override
     public boolean isCurrentUserValidForLicense(String username, String encryptedLicenseId,
             boolean decrypt) throws LicenseManagementException {
-        LicenseManagementEntry entryToUse = null;
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            if (entry.getLicenseID().equals(encryptedLicenseId)) {
-                entryToUse = entry;
-                break;
-            }
+        IndexedLicense license = getLicenseIndex().getByCipherLicenseId(encryptedLicenseId);
+        if (license == null) {
+            return false;
         }
-        String plainEntryLicenseId = decrypt(entryToUse, LicenseManagementEntry.COLUMN_LICENSEID);
         Configuration configuration = getConfigurationByUsername(username);
         boolean userHasLicense = configuration != null
-                && configuration.getAssignedLicenseIds().contains(plainEntryLicenseId);
+                && configuration.getAssignedLicenseIds().contains(license.getLicenseId());
         return userHasLicense
                 && isUserAssignedLicenseStillValid(username, encryptedLicenseId, decrypt);
     }
@@ -117,52 +126,33 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
     public boolean isUserAssignedLicenseStillValid(String user, String encryptedLicenseId,
             boolean decrypt) throws LicenseManagementException {
 
-        LicenseManagementEntry entryToUse = findEntryForLicenseId(encryptedLicenseId, decrypt);
-
-        if (entryToUse != null) {
-            Object o = decrypt(entryToUse, LicenseManagementEntry.COLUMN_VALIDUNTIL);
-            LocalDate ld = LocalDate.parse(o.toString());
-            return ld.isAfter(LocalDate.now());
-        }
-        return false;
+        IndexedLicense license = findLicenseForLicenseId(encryptedLicenseId, decrypt);
+        return license != null && license.isValid();
     }
 
     /**
-     * Finds the instance of {@link LicenseManagementEntry} which matches
-     * to @param encryptedLicenseId
+     * Finds the license which matches to @param encryptedLicenseId
      * 
-     * Search for entry is possible in en- or decrypted mode (@param decrypt)
+     * Search for the license is possible in en- or decrypted mode (@param
+     * decrypt). In decrypted mode @param encryptedLicenseId is decrypted with
+     * the password of every license, the result is cached in the
+     * {@link LicenseIndex}.
      * 
      * @param encryptedLicenseId
      * @param decrypt
-     * @param entryToUse
      * @return
      * @throws LicenseManagementException
      */
-    private LicenseManagementEntry findEntryForLicenseId(String encryptedLicenseId, boolean decrypt)
+    private IndexedLicense findLicenseForLicenseId(String encryptedLicenseId, boolean decrypt)
             throws LicenseManagementException {
-        LicenseManagementEntry entryToUse = null;
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            if (decrypt) {
-                String plainLicenseId = getCryptoService().decryptLicenseRestrictedProperty(
-                        getUserPasswordAsString(entry), encryptedLicenseId);
-                String plainEntryLicenseId = decrypt(entry,
-                        LicenseManagementEntry.COLUMN_LICENSEID);
-                if (plainLicenseId.equals(plainEntryLicenseId)) {
-                    entryToUse = entry;
-                }
-
-            } else {
-                if (entry.getLicenseID().equals(encryptedLicenseId)) {
-                    entryToUse = entry;
-                }
-            }
-
-            if (entryToUse != null) {
-                break;
-            }
+        LicenseIndex index = getLicenseIndex();
+        if (!decrypt) {
+            return index.getByCipherLicenseId(encryptedLicenseId);
         }
-        return entryToUse;
+        List<IndexedLicense> licenses = index.resolve(encryptedLicenseId,
+                cipherText -> findLicensesByPlainValue(index, cipherText,
+                        IndexedLicense::getLicenseId));
+        return licenses.isEmpty() ? null : licenses.get(0);
     }
 
     @Override
@@ -170,16 +160,11 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
             throws LicenseManagementException {
         int validUsers = 0;
         int assignedUsers = 0;
-        LicenseManagementEntry entry = null;
-        for (LicenseManagementEntry existingEntry : getExistingLicenses()) {
-            if (encryptedLicenseId.equals(existingEntry.getLicenseID())) {
-                entry = existingEntry;
-            }
-        }
+        IndexedLicense license = getLicenseIndex().getByCipherLicenseId(encryptedLicenseId);
         String decryptedLicenseId = null;
-        if (entry != null) {
-            validUsers = decrypt(entry, LicenseManagementEntry.COLUMN_VALIDUSERS);
-            decryptedLicenseId = decrypt(entry, LicenseManagementEntry.COLUMN_LICENSEID);
+        if (license != null) {
+            validUsers = license.getValidUsers();
+            decryptedLicenseId = license.getLicenseId();
             for (Configuration configuration : getAllConfigurations()) {
                 Set<String> assignedIds = configuration.getAllLicenseIds();
                 if (assignedIds.contains(decryptedLicenseId)) {
@@ -215,13 +200,7 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
      */
     @Override
     public Set<String> getAllLicenseIds(boolean decrypted) throws LicenseManagementException {
-        Set<String> allIds = new HashSet<>();
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            String cypherLicenseId = entry.getLicenseID();
-            String plainLicenseId = decrypt(entry, LicenseManagementEntry.COLUMN_LICENSEID);
-            allIds.add(decrypted ? plainLicenseId : cypherLicenseId);
-        }
-        return allIds;
+        return getLicenseIndex().getLicenseIds(decrypted);
     }
 
     @Override
@@ -230,11 +209,10 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
         Set<LicenseManagementEntry> userLicenses = new HashSet<>();
 
         Configuration configuration = getConfigurationByUsername(user);
-        for (LicenseManagementEntry entry : getLicenseEntriesForContentId(contentId, true)) {
-            String entryLicenseIdPlain = decrypt(entry, LicenseManagementEntry.COLUMN_LICENSEID);
+        for (IndexedLicense license : findLicensesForContentId(contentId, true)) {
             if (configuration != null
-                    && configuration.getAssignedLicenseIds().contains(entryLicenseIdPlain)) {
-                userLicenses.add(entry);
+                    && configuration.getAssignedLicenseIds().contains(license.getLicenseId())) {
+                userLicenses.add(license.getEntry());
             }
         }
         return userLicenses;
@@ -244,72 +222,67 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
     public Set<LicenseManagementEntry> getLicenseEntriesForContentId(String encryptedContentId,
             boolean decrypt) throws LicenseManagementException {
         Set<LicenseManagementEntry> uniqueEntryCollection = new HashSet<>();
-
-        if (decrypt) {
-            return getLicenseEntriesViaDecryptedContentIds(encryptedContentId,
-                    uniqueEntryCollection);
-        }
-
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            if (entry.getContentIdentifier().equals(encryptedContentId)) {
-                uniqueEntryCollection.add(entry);
-            }
+        for (IndexedLicense license : findLicensesForContentId(encryptedContentId, decrypt)) {
+            uniqueEntryCollection.add(license.getEntry());
         }
         return uniqueEntryCollection;
     }
 
     /**
+     * Returns the licenses of an encrypted contentId.
      * 
-     * Iterates over all {@link LicenseManagementEntry} and decrypts their
-     * contentId. Tries to decrypt the given @param encryptedContentId with the
-     * password of the {@link LicenseManagementEntry} and after that compares
-     * both contentIds. If they are equal, the entry will be added to a set that
-     * gets returned after the iteration has finished
+     * If @param decrypt is true, @param encryptedContentId is decrypted with
+     * the password of every license and compared to the contentId of the
+     * license. The result is cached in the {@link LicenseIndex}, hence this is
+     * done only once for every encrypted contentId.
      * 
      * @param encryptedContentId
-     * @param uniqueEntryCollection
+     * @param decrypt
      * @return
      * @throws LicenseManagementException
      */
-    private Set<LicenseManagementEntry> getLicenseEntriesViaDecryptedContentIds(
-            String encryptedContentId, Set<LicenseManagementEntry> uniqueEntryCollection)
-            throws LicenseManagementException {
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
+    protected List<IndexedLicense> findLicensesForContentId(String encryptedContentId,
+            boolean decrypt) throws LicenseManagementException {
+        LicenseIndex index = getLicenseIndex();
+        if (!decrypt) {
+            return index.getByCipherContentId(encryptedContentId);
+        }
+        return index.resolve(encryptedContentId, cipherText -> findLicensesByPlainValue(index,
+                cipherText, IndexedLicense::getContentId));
+    }
+
+    /**
+     * Decrypts @param cipherText with the password of every license of the
+     * index and returns the licenses whose value equals the plain text.
+     */
+    private List<IndexedLicense> findLicensesByPlainValue(LicenseIndex index, String cipherText,
+            Function<IndexedLicense, String> plainValue) {
+        List<IndexedLicense> licenses = new ArrayList<>();
+        for (IndexedLicense license : index.getAll()) {
             try {
-                String plainContentId = getCryptoService().decryptLicenseRestrictedProperty(
-                        getUserPasswordAsString(entry), encryptedContentId);
-                String plainEntryContentId = decrypt(entry,
-                        LicenseManagementEntry.COLUMN_CONTENTID);
-                if (plainContentId.equals(plainEntryContentId)) {
-                    uniqueEntryCollection.add(entry);
+                String plainText = getCryptoService()
+                        .decryptLicenseRestrictedProperty(license.getPassword(), cipherText);
+                if (plainText.equals(plainValue.apply(license))) {
+                    licenses.add(license);
                 }
             } catch (EncryptionException e) {
-                log.info("Could not decrypt correctly for value:\t" + encryptedContentId
-                        + "with entry (licenseId):\t" + entry.getLicenseID(), e);
-                continue;
+                // this is try & error, so fails are ok here
+                if (log.isDebugEnabled()) {
+                    log.debug("Could not decrypt correctly for value:\t" + cipherText
+                            + " with entry (licenseId):\t" + license.getEntry().getLicenseID());
+                }
             }
         }
-        return uniqueEntryCollection;
+        return licenses;
     }
 
     @Override
     public LicenseManagementEntry getLicenseEntryForLicenseId(String licenseId, boolean decrypt)
             throws LicenseManagementException {
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            if (!decrypt) { // don't use decryption
-                if (entry.getLicenseID().equals(licenseId)) {
-                    return entry;
-                }
-            } else { // use decryption
-                String plainEntryLicenseId = decrypt(entry,
-                        LicenseManagementEntry.COLUMN_LICENSEID);
-                if (plainEntryLicenseId.equals(licenseId)) {
-                    return entry;
-                }
-            }
-
-        }
-        return null;
+        LicenseIndex index = getLicenseIndex();
+        IndexedLicense license = decrypt ? index.getByLicenseId(licenseId)
+                : index.getByCipherLicenseId(licenseId);
+        return (license != null) ? license.getEntry() : null;
     }
 
     @Override
@@ -318,46 +291,15 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
         // unless contentId is crypted with pw and salt, this returns an empty
         // set
         Set<String> uniqueIds = new HashSet<>();
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            String plainLicenseId = decrypt(entry, LicenseManagementEntry.COLUMN_LICENSEID);
-            if (!decrypted) {
-                if (entry.getContentIdentifier().equals(contentId)) {
-                    uniqueIds.add(plainLicenseId);
-                }
-            } else {
-                String plainContentIdEntry = decrypt(entry,
-                        LicenseManagementEntry.COLUMN_CONTENTID);
-                String plainContentIdInput = "";
-                try {
-                    plainContentIdInput = getCryptoService().decryptLicenseRestrictedProperty(
-                            getUserPasswordAsString(entry), contentId);
-                } catch (EncryptionException e) {
-                    // this is try & error, so fails are ok here
-                    continue;
-                }
-                if (plainContentIdEntry.equals(plainContentIdInput)) {
-                    uniqueIds.add(plainLicenseId);
-                }
-            }
+        for (IndexedLicense license : findLicensesForContentId(contentId, decrypted)) {
+            uniqueIds.add(license.getLicenseId());
         }
-
         return uniqueIds;
     }
 
     @Override
     public Set<String> getAllContentIds(boolean decrypted) throws LicenseManagementException {
-        Set<String> allIds = new HashSet<>();
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            if (decrypted) {
-                Object decryptedValue = decrypt(entry, LicenseManagementEntry.COLUMN_CONTENTID);
-                String decryptedString = String.valueOf(decryptedValue);
-                allIds.add(decryptedString);
-            } else {
-                allIds.add(entry.getContentIdentifier());
-            }
-
-        }
-        return allIds;
+        return getLicenseIndex().getContentIds(decrypted);
     }
 
     @Override
@@ -599,6 +541,8 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
         } else {
             existingLicenses = Collections.synchronizedSet(new HashSet<LicenseManagementEntry>());
         }
+        // the index is created again when it is used the next time
+        resetLicenseIndex();
 
         try (DirectoryStream<Path> vlnFilesStream = Files.newDirectoryStream(
                 getVNLRepository().toPath(),
@@ -658,6 +602,62 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
         return existingLicenses;
     }
 
+    /**
+     * Returns the index of the decrypted values of the existing licenses. The
+     * index is created when it is used for the first time after the vnl files
+     * are read. If the index is reset while it is created, the new index is
+     * returned to the caller but not kept.
+     */
+    protected LicenseIndex getLicenseIndex() throws LicenseManagementException {
+        LicenseIndex index = licenseIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = licenseIndex;
+                if (index == null) {
+                    long generation = licenseIndexGeneration.get();
+                    index = createLicenseIndex();
+                    if (licenseIndexGeneration.get() == generation) {
+                        licenseIndex = index;
+                    }
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Discards the index of the decrypted values of the existing licenses,
+     * call this method after the existing licenses are read again. An index
+     * which is created at the same time is not kept.
+     */
+    protected synchronized void resetLicenseIndex() {
+        licenseIndexGeneration.incrementAndGet();
+        licenseIndex = null;
+    }
+
+    private LicenseIndex createLicenseIndex() throws LicenseManagementException {
+        long start = System.currentTimeMillis();
+        List<IndexedLicense> licenses = new ArrayList<>();
+        for (LicenseManagementEntry entry : new ArrayList<>(getExistingLicenses())) {
+            try {
+                String licenseId = decrypt(entry, LicenseManagementEntry.COLUMN_LICENSEID);
+                String contentId = decrypt(entry, LicenseManagementEntry.COLUMN_CONTENTID);
+                LocalDate validUntil = decrypt(entry, LicenseManagementEntry.COLUMN_VALIDUNTIL);
+                Integer validUsers = decrypt(entry, LicenseManagementEntry.COLUMN_VALIDUSERS);
+                licenses.add(new IndexedLicense(entry, licenseId, contentId, validUntil,
+                        validUsers, getUserPasswordAsString(entry)));
+            } catch (RuntimeException e) {
+                log.error("Error while decrypting license entry, licenseId (encrypted): "
+                        + entry.getLicenseID(), e);
+            }
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("License index of " + licenses.size() + " entries created in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+        return new LicenseIndex(licenses);
+    }
+
     @Override
     public File addVNLToRepository(File vnlFile) throws LicenseManagementException {
         File newVnlInRepo = new File(
@@ -676,9 +676,8 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
     @Override
     public String decryptRestrictedProperty(String encryptedContentId, String cypherText,
             String username) throws LicenseManagementException {
-        LicenseManagementEntry entry = null;
         String licenseIdToUse = getLicenseIdForDecryptionByUser(encryptedContentId, username);
-        return getDecryptedPropertyValue(encryptedContentId, cypherText, username, entry,
+        return getDecryptedPropertyValue(encryptedContentId, cypherText, username,
                 licenseIdToUse);
     }
 
@@ -695,29 +694,23 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
      * @param encryptedContentId
      * @param cypherText
      * @param username
-     * @param entry
      * @param licenseIdToUse
      * @return
      * @throws LicenseManagementException
      * @throws NoLicenseAssignedException
      */
     private String getDecryptedPropertyValue(String encryptedContentId, String cypherText,
-            String username, LicenseManagementEntry entry, String licenseIdToUse)
+            String username, String licenseIdToUse)
             throws LicenseManagementException {
         if (StringUtils.isNotEmpty(licenseIdToUse)) { // is user valid for
                                                       // content
             // get related licenceInformation
-            for (LicenseManagementEntry existingEntry : getExistingLicenses()) {
-                if (licenseIdToUse.equals(
-                        this.decrypt(existingEntry, LicenseManagementEntry.COLUMN_LICENSEID))) {
-                    entry = existingEntry;
-                }
-            }
+            IndexedLicense license = getLicenseIndex().getByLicenseId(licenseIdToUse);
             // decrypt
             try {
-                if (entry != null) {
-                    return getCryptoService().decryptLicenseRestrictedProperty(
-                            getUserPasswordAsString(entry), cypherText);
+                if (license != null) {
+                    return getCryptoService()
+                            .decryptLicenseRestrictedProperty(license.getPassword(), cypherText);
                 } else {
                     throw new NoLicenseAssignedException("License " + encryptedContentId
                             + " is not assigned to user: " + username);
@@ -774,26 +767,19 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
     @Override
     public boolean isLicenseInvalidSoon(String username, String encryptedContentId)
             throws LicenseManagementException {
-        LicenseManagementEntry longestValidEntry = null;
-        for (LicenseManagementEntry entry : getLicenseEntriesForContentId(encryptedContentId,
-                true)) {
-            if (isCurrentUserValidForLicense(username, entry.getLicenseID(), false)) {
-                if (longestValidEntry != null) {
-                    Object currentEntry = decrypt(entry, LicenseManagementEntry.COLUMN_VALIDUNTIL);
-                    Object longestLasting = decrypt(longestValidEntry,
-                            LicenseManagementEntry.COLUMN_VALIDUNTIL);
-                    LocalDate currentDate = (LocalDate) currentEntry;
-                    LocalDate longestDate = (LocalDate) longestLasting;
-                    if (currentDate.isAfter(longestDate)) {
-                        longestValidEntry = entry;
-                    }
-                } else { // for the first loop iteration
-                    longestValidEntry = entry;
+        IndexedLicense longestValidLicense = null;
+        for (IndexedLicense license : findLicensesForContentId(encryptedContentId, true)) {
+            if (isCurrentUserValidForLicense(username, license.getEntry().getLicenseID(),
+                    false)) {
+                if (longestValidLicense == null || license.getValidUntil()
+                        .isAfter(longestValidLicense.getValidUntil())) {
+                    longestValidLicense = license;
                 }
             }
         }
-        if (longestValidEntry != null) {
-            return invalidInTheNextMonth(longestValidEntry);
+        if (longestValidLicense != null) {
+            return longestValidLicense.getValidUntil()
+                    .isBefore(LocalDate.now().plusDays(DAYS_OF_MONTH));
         }
 
         return false; // false is default, show message only if difference is <
@@ -809,7 +795,7 @@ public class LicenseManagementServerModeService implements ILicenseManagementSer
     protected boolean invalidInTheNextMonth(LicenseManagementEntry entry) {
         LocalDate validUntil = decrypt(entry, LicenseManagementEntry.COLUMN_VALIDUNTIL);
         LocalDate currentDate = LocalDate.now();
-        LocalDate currentPlusOneMonth = currentDate.plusDays(31);
+        LocalDate currentPlusOneMonth = currentDate.plusDays(DAYS_OF_MONTH);
         return validUntil.isBefore(currentPlusOneMonth);
     }
 
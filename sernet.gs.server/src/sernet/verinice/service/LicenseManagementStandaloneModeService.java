@@ -46,6 +46,7 @@ import sernet.verinice.model.licensemanagement.LicenseManagementException;
 import sernet.verinice.model.licensemanagement.LicenseMessageInfos;
 import sernet.verinice.model.licensemanagement.NoLicenseAssignedException;
 import sernet.verinice.model.licensemanagement.VNLMapper;
+import sernet.verinice.service.LicenseIndex.IndexedLicense;
 
 /**
  * 
@@ -79,14 +80,8 @@ public class LicenseManagementStandaloneModeService extends LicenseManagementSer
     @Override
     public boolean isUserAssignedLicenseStillValid(String user, String encryptedLicenseId,
             boolean decrypt) throws LicenseManagementException {
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            if (entry.getLicenseID().equals(encryptedLicenseId)) {
-                long validUntil = decrypt(entry, LicenseManagementEntry.COLUMN_VALIDUNTIL);
-                long currentTime = System.currentTimeMillis();
-                return validUntil > currentTime;
-            }
-        }
-        return false;
+        IndexedLicense license = getLicenseIndex().getByCipherLicenseId(encryptedLicenseId);
+        return license != null && license.isValid();
     }
 
     /**
@@ -104,13 +99,8 @@ public class LicenseManagementStandaloneModeService extends LicenseManagementSer
     @Override
     public boolean hasLicenseIdAssignableSlots(String encryptedLicenseId)
             throws LicenseManagementException {
-        for (LicenseManagementEntry entry : getExistingLicenses()) {
-            if (entry.getLicenseID().equals(encryptedLicenseId)) {
-                int validUsers = decrypt(entry, LicenseManagementEntry.COLUMN_VALIDUSERS);
-                return validUsers > 0;
-            }
-        }
-        return true;
+        IndexedLicense license = getLicenseIndex().getByCipherLicenseId(encryptedLicenseId);
+        return license == null || license.getValidUsers() > 0;
     }
 
     /**
@@ -156,6 +146,8 @@ public class LicenseManagementStandaloneModeService extends LicenseManagementSer
         } else {
             existingLicenses = Collections.synchronizedSet(new HashSet<LicenseManagementEntry>());
         }
+        // the index is created again when it is used the next time
+        resetLicenseIndex();
 
         File location = getVNLRepository();
 
@@ -299,13 +291,12 @@ public class LicenseManagementStandaloneModeService extends LicenseManagementSer
     @Override
     public String decryptRestrictedProperty(String encryptedContentId, String cypherText,
             String username) throws LicenseManagementException {
-        LicenseManagementEntry entry = null;
-        entry = getLicenseEntryToUseForDecryption(encryptedContentId);
-        if (entry != null) {
+        IndexedLicense license = getLicenseToUseForDecryption(encryptedContentId);
+        if (license != null) {
             // decrypt
             try {
-                return getCryptoService().decryptLicenseRestrictedProperty(
-                        getUserPasswordAsString(entry), cypherText);
+                return getCryptoService()
+                        .decryptLicenseRestrictedProperty(license.getPassword(), cypherText);
             } catch (EncryptionException e) {
                 throw new LicenseManagementException(
                         "Problem while decrypting license restricted property", e);
@@ -317,33 +308,17 @@ public class LicenseManagementStandaloneModeService extends LicenseManagementSer
     }
 
     /**
-     * get first instance of {@link LicenseManagementEntry} that will be found
-     * matching a given contentId
+     * get first license that will be found matching a given contentId
      * 
-     * returns null if no matching entry can be found
+     * returns null if no matching license can be found
      * 
      * @param encryptedContentId
-     * @param entry
      * @throws LicenseManagementException
      */
-    private LicenseManagementEntry getLicenseEntryToUseForDecryption(String encryptedContentId)
+    private IndexedLicense getLicenseToUseForDecryption(String encryptedContentId)
             throws LicenseManagementException {
-        for (LicenseManagementEntry existingEntry : getExistingLicenses()) {
-            try {
-                String plainEntryContentId = decrypt(existingEntry,
-                        LicenseManagementEntry.COLUMN_CONTENTID);
-                String plainContentId = getCryptoService().decryptLicenseRestrictedProperty(
-                        getUserPasswordAsString(existingEntry), encryptedContentId);
-                if (plainContentId.equals(plainEntryContentId)) {
-                    return existingEntry;
-                }
-            } catch (EncryptionException e) {
-                // encryption failed, so try the next licenseEntry
-                // no error handling needed (try&error(/next))
-                continue;
-            }
-        }
-        return null;
+        List<IndexedLicense> licenses = findLicensesForContentId(encryptedContentId, true);
+        return licenses.isEmpty() ? null : licenses.get(0);
     }
 
     @Override
@@ -0,0 +1,440 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.apache.log4j.Logger;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import sernet.verinice.interfaces.IElementChangeListener;
+import sernet.verinice.interfaces.IPermissionCache;
+import sernet.verinice.model.catalog.CatalogModel;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Caches the permission decisions of each user: the roles, the allowed scope
+ * ids of scope-only users and the write permission for elements. The write
+ * decisions are stored in two primitive int sets per user, the writable and
+ * the not writable element ids.
+ *
+ * The decisions for elements are removed when elements are saved or deleted
+ * by the daos and when the permissions of elements are updated. All
+ * decisions are removed when user configurations or the rights
+ * configuration change. If a transaction is active the decisions are removed
+ * again after the transaction is committed. Decisions loaded while the cache
+ * was invalidated are not stored.
+ *
+ * In verify mode each cached decision is checked against the database and
+ * differences are logged as errors. Use this mode in tests only.
+ */
+public class PermissionCache implements IPermissionCache, IElementChangeListener {
+
+    private static final Logger LOG = Logger.getLogger(PermissionCache.class);
+
+    private static final int DEFAULT_MAX_DECISIONS_PER_USER = 200000;
+
+    private boolean enabled = true;
+    private boolean verify = false;
+    private int maxDecisionsPerUser = DEFAULT_MAX_DECISIONS_PER_USER;
+
+    private final Map<String, UserPermissions> users = new ConcurrentHashMap<>();
+    private volatile List<Integer> catalogScopeIds;
+
+    private final AtomicLong version = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong verifyErrors = new AtomicLong();
+
+    /**
+     * Returns the roles of a user. If the roles are not in the cache, they
+     * are loaded by the loader.
+     */
+    public String[] getRoles(String username, Function<String, String[]> loader) {
+        UserPermissions user = getUser(username);
+        String[] roles = user.roles;
+        if (roles != null) {
+            hits.incrementAndGet();
+            if (verify) {
+                verifyRoles(username, roles, loader.apply(username));
+            }
+            return roles;
+        }
+        misses.incrementAndGet();
+        long versionBefore = version.get();
+        roles = loader.apply(username);
+        if (roles != null && version.get() == versionBefore) {
+            user.roles = roles;
+        }
+        return roles;
+    }
+
+    /**
+     * Returns the ids of the scopes a scope-only user is allowed to access:
+     * the scopes of the catalogs and the scope of the user.
+     *
+     * @param catalogScopeIdLoader
+     *            Loads the scope ids of the catalogs if they are not in the
+     *            cache
+     */
+    public List<Integer> getAllowedScopeIds(String username, Integer userScopeId,
+            Supplier<List<Integer>> catalogScopeIdLoader) {
+        UserPermissions user = getUser(username);
+        AllowedScopes allowedScopes = user.allowedScopes;
+        if (allowedScopes != null && Objects.equals(allowedScopes.userScopeId, userScopeId)) {
+            hits.incrementAndGet();
+            if (verify) {
+                verifyCatalogScopeIds(allowedScopes.scopeIds, catalogScopeIdLoader.get(),
+                        userScopeId);
+            }
+            return allowedScopes.scopeIds;
+        }
+        misses.incrementAndGet();
+        long versionBefore = version.get();
+        List<Integer> catalogIds = catalogScopeIds;
+        if (catalogIds == null) {
+            catalogIds = Collections.unmodifiableList(new ArrayList<>(catalogScopeIdLoader.get()));
+        }
+        List<Integer> scopeIds = new ArrayList<>(catalogIds.size() + 1);
+        scopeIds.addAll(catalogIds);
+        scopeIds.add(userScopeId);
+        scopeIds = Collections.unmodifiableList(scopeIds);
+        if (version.get() == versionBefore) {
+            catalogScopeIds = catalogIds;
+            user.allowedScopes = new AllowedScopes(userScopeId, scopeIds);
+        }
+        return scopeIds;
+    }
+
+    /**
+     * Returns the ids of all elements the user is allowed to write. The
+     * decisions which are not in the cache are made by the loader.
+     *
+     * @param loader
+     *            Returns the writable ids of a list of element ids
+     */
+    public Set<Integer> filterWritableElements(String username, Collection<Integer> dbIds,
+            Function<List<Integer>, Set<Integer>> loader) {
+        UserPermissions user = getUser(username);
+        Set<Integer> result = new HashSet<>(dbIds.size());
+        List<Integer> cachedIds = new ArrayList<>();
+        List<Integer> unknownIds = new ArrayList<>();
+        synchronized (user) {
+            for (Integer dbId : dbIds) {
+                if (!isCacheable(dbId)) {
+                    unknownIds.add(dbId);
+                } else if (user.writable.contains(dbId)) {
+                    result.add(dbId);
+                    cachedIds.add(dbId);
+                } else if (user.notWritable.contains(dbId)) {
+                    cachedIds.add(dbId);
+                } else {
+                    unknownIds.add(dbId);
+                }
+            }
+        }
+        hits.addAndGet(cachedIds.size());
+        misses.addAndGet(unknownIds.size());
+        if (verify && !cachedIds.isEmpty()) {
+            verifyWritableElements(username, user, cachedIds, result, loader.apply(cachedIds));
+        }
+        if (!unknownIds.isEmpty()) {
+            long versionBefore = version.get();
+            Set<Integer> writableIds = loader.apply(unknownIds);
+            result.addAll(writableIds);
+            synchronized (user) {
+                if (version.get() == versionBefore) {
+                    user.addDecisions(unknownIds, writableIds, maxDecisionsPerUser);
+                }
+            }
+        }
+        return result;
+    }
+
+    private UserPermissions getUser(String username) {
+        return users.computeIfAbsent(username, name -> new UserPermissions());
+    }
+
+    private static boolean isCacheable(Integer dbId) {
+        return dbId != null && dbId > 0;
+    }
+
+    @Override
+    public void invalidateElements(Collection<Integer> dbIds) {
+        invalidateNowAndAfterCommit(dbIds, false);
+    }
+
+    private void invalidate(Collection<Integer> dbIds, boolean scopesChanged) {
+        version.incrementAndGet();
+        if (scopesChanged) {
+            catalogScopeIds = null;
+        }
+        for (UserPermissions user : users.values()) {
+            synchronized (user) {
+                if (scopesChanged) {
+                    user.allowedScopes = null;
+                }
+                for (Integer dbId : dbIds) {
+                    if (isCacheable(dbId)) {
+                        user.writable.remove(dbId);
+                        user.notWritable.remove(dbId);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void invalidateAll() {
+        version.incrementAndGet();
+        catalogScopeIds = null;
+        users.clear();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("All permission decisions removed, " + getStatistics());
+        }
+    }
+
+    @Override
+    public void invalidateAllNowAndAfterCommit() {
+        invalidateAll();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            getTransactionChanges().all = true;
+        }
+    }
+
+    /**
+     * Removes the decisions for the changed elements. If a scope is changed
+     * the allowed scopes of the scope-only users are removed as well.
+     */
+    @Override
+    public void elementsChanged(Collection<? extends CnATreeElement> elements) {
+        invalidateNowAndAfterCommit(getDbIds(elements), containsScope(elements));
+    }
+
+    @Override
+    public void elementsDeleted(Collection<? extends CnATreeElement> elements) {
+        invalidateNowAndAfterCommit(getDbIds(elements), containsScope(elements));
+    }
+
+    private static List<Integer> getDbIds(Collection<? extends CnATreeElement> elements) {
+        List<Integer> dbIds = new ArrayList<>(elements.size());
+        for (CnATreeElement element : elements) {
+            dbIds.add(element.getDbId());
+        }
+        return dbIds;
+    }
+
+    /**
+     * @return True if the elements contain a catalog, a scope or an element
+     *         whose scope is unknown
+     */
+    private static boolean containsScope(Collection<? extends CnATreeElement> elements) {
+        for (CnATreeElement element : elements) {
+            if (element instanceof CatalogModel || element.getScopeId() == null
+                    || element.getScopeId().equals(element.getDbId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void invalidateNowAndAfterCommit(Collection<Integer> dbIds, boolean scopesChanged) {
+        if (dbIds.isEmpty() && !scopesChanged) {
+            return;
+        }
+        invalidate(dbIds, scopesChanged);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionChanges changes = getTransactionChanges();
+            changes.dbIds.addAll(dbIds);
+            changes.scopesChanged |= scopesChanged;
+        }
+    }
+
+    /**
+     * Returns the changes of the current transaction. If there are no
+     * changes yet, a synchronization is registered which invalidates the
+     * changes after commit.
+     */
+    private TransactionChanges getTransactionChanges() {
+        TransactionChanges changes = (TransactionChanges) TransactionSynchronizationManager
+                .getResource(this);
+        if (changes == null) {
+            TransactionChanges newChanges = new TransactionChanges();
+            TransactionSynchronizationManager.bindResource(this, newChanges);
+            TransactionSynchronizationManager
+                    .registerSynchronization(new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCommit() {
+                            if (newChanges.all) {
+                                invalidateAll();
+                            } else {
+                                invalidate(newChanges.dbIds, newChanges.scopesChanged);
+                            }
+                        }
+
+                        @Override
+                        public void afterCompletion(int status) {
+                            TransactionSynchronizationManager
+                                    .unbindResourceIfPossible(PermissionCache.this);
+                        }
+                    });
+            changes = newChanges;
+        }
+        return changes;
+    }
+
+    private void verifyRoles(String username, String[] cachedRoles, String[] roles) {
+        if (roles == null || !new HashSet<>(Arrays.asList(cachedRoles))
+                .equals(new HashSet<>(Arrays.asList(roles)))) {
+            verifyErrors.incrementAndGet();
+            LOG.error("Cached roles of user " + username + " differ from the configuration");
+        }
+    }
+
+    private void verifyCatalogScopeIds(List<Integer> cachedScopeIds, List<Integer> catalogIds,
+            Integer userScopeId) {
+        Set<Integer> scopeIds = new HashSet<>(catalogIds);
+        scopeIds.add(userScopeId);
+        if (!scopeIds.equals(new HashSet<>(cachedScopeIds))) {
+            verifyErrors.incrementAndGet();
+            LOG.error("Cached scope ids " + cachedScopeIds + " differ from the database: "
+                    + scopeIds);
+        }
+    }
+
+    private void verifyWritableElements(String username, UserPermissions user,
+            List<Integer> cachedIds, Set<Integer> result, Set<Integer> writableIds) {
+        for (Integer dbId : cachedIds) {
+            boolean writable = writableIds.contains(dbId);
+            if (result.contains(dbId) != writable) {
+                verifyErrors.incrementAndGet();
+                LOG.error("Cached write permission of user " + username + " for element "
+                        + dbId + " differs from the database, cached: " + !writable);
+                if (writable) {
+                    result.add(dbId);
+                } else {
+                    result.remove(dbId);
+                }
+                synchronized (user) {
+                    user.writable.remove(dbId);
+                    user.notWritable.remove(dbId);
+                }
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of cached decisions which differed from the
+     *         database in verify mode
+     */
+    public long getVerifyErrors() {
+        return verifyErrors.get();
+    }
+
+    public String getStatistics() {
+        return "hits: " + hits.get() + ", misses: " + misses.get() + ", users: "
+                + users.size() + (verify ? ", verify errors: " + verifyErrors.get() : "");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isVerify() {
+        return verify;
+    }
+
+    public void setVerify(boolean verify) {
+        this.verify = verify;
+    }
+
+    public void setMaxDecisionsPerUser(int maxDecisionsPerUser) {
+        this.maxDecisionsPerUser = maxDecisionsPerUser;
+    }
+
+    private static final class UserPermissions {
+
+        private volatile String[] roles;
+        private volatile AllowedScopes allowedScopes;
+        private final IntHashSet writable = new IntHashSet();
+        private final IntHashSet notWritable = new IntHashSet();
+
+        private void addDecisions(List<Integer> dbIds, Set<Integer> writableIds,
+                int maxDecisions) {
+            if (writable.size() + notWritable.size() + dbIds.size() > maxDecisions) {
+                writable.clear();
+                notWritable.clear();
+            }
+            for (Integer dbId : dbIds) {
+                if (!isCacheable(dbId)) {
+                    continue;
+                }
+                if (writableIds.contains(dbId)) {
+                    writable.add(dbId);
+                } else {
+                    notWritable.add(dbId);
+                }
+            }
+        }
+    }
+
+    private static final class AllowedScopes {
+
+        private final Integer userScopeId;
+        private final List<Integer> scopeIds;
+
+        private AllowedScopes(Integer userScopeId, List<Integer> scopeIds) {
+            this.userScopeId = userScopeId;
+            this.scopeIds = scopeIds;
+        }
+    }
+
+    private static final class TransactionChanges {
+
+        private final Set<Integer> dbIds = new HashSet<>();
+        private boolean scopesChanged = false;
+        private boolean all = false;
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.log4j.Logger;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationContextAware;
 
+import sernet.verinice.interfaces.IPermissionCache;
 import sernet.verinice.interfaces.IRightsChangeListener;
 import sernet.verinice.interfaces.IRightsServerHandler;
 import sernet.verinice.interfaces.IRightsService;
@@ -65,6 +66,8 @@ public class RightsServerHandler
 
     private ApplicationContext appContext;
 
+    private IPermissionCache permissionCache;
+
     public RightsServerHandler() {
         super();
     }
@@ -159,6 +162,9 @@ public class RightsServerHandler
     @Override
     public void configurationChanged(Auth auth) {
         discardData();
+        if (permissionCache != null) {
+            permissionCache.invalidateAll();
+        }
     }
 
     @Override
@@ -192,6 +198,10 @@ public class RightsServerHandler
         }
     }
 
+    public void setPermissionCache(IPermissionCache permissionCache) {
+        this.permissionCache = permissionCache;
+    }
+
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) {
         appContext = applicationContext;
@@ -0,0 +1,470 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parent-child structure of all elements in primitive arrays.
+ *
+ * Every element occupies a slot. The slot arrays contain the database ID, the
+ * slot of the parent, the first child, the next and previous sibling, the
+ * scope ID and the index of the interned object type of the element. Database
+ * IDs are mapped to slots by an open addressing hash table with linear
+ * probing. Slots of removed elements are reused.
+ *
+ * Memory: An element needs 26 bytes in the slot arrays (six int arrays and
+ * one short array) and 8 bytes per entry of the hash table which is at most
+ * half full. For 1,000,000 elements the slot arrays need 26 MB and the hash
+ * table needs 16.8 MB (capacity 2^21), i.e. about 43 MB. The arrays grow by
+ * factor 1.5, after growing up to 56 MB are used.
+ *
+ * A parent which is not known yet is added as a placeholder without type
+ * and scope. The placeholder is completed when the parent is added.
+ *
+ * This class is not thread-safe.
+ */
+public final class TreeTopology {
+
+    private static final int NONE = -1;
+    private static final int NO_SCOPE = Integer.MIN_VALUE;
+    private static final short NO_TYPE = -1;
+    private static final int EMPTY_KEY = 0;
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    private int[] dbIds;
+    private int[] parents;
+    private int[] firstChildren;
+    private int[] nextSiblings;
+    private int[] previousSiblings;
+    private int[] scopeIds;
+    private short[] types;
+
+    /** Number of slots used so far including free slots */
+    private int slotCount = 0;
+    /** First free slot, free slots are linked by nextSiblings */
+    private int freeSlot = NONE;
+    private int size = 0;
+
+    private int[] hashKeys;
+    private int[] hashSlots;
+    private int hashShift;
+
+    private final List<String> typeNames = new ArrayList<>();
+    private final Map<String, Short> typeIndex = new HashMap<>();
+
+    public TreeTopology() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize
+     *            The expected number of elements
+     */
+    public TreeTopology(int expectedSize) {
+        int capacity = Math.max(expectedSize, 16);
+        dbIds = new int[capacity];
+        parents = new int[capacity];
+        firstChildren = new int[capacity];
+        nextSiblings = new int[capacity];
+        previousSiblings = new int[capacity];
+        scopeIds = new int[capacity];
+        types = new short[capacity];
+        initHashTable(capacity);
+    }
+
+    /**
+     * Adds an element or updates the parent, the scope and the type of an
+     * element.
+     *
+     * @param dbId
+     *            The database ID of the element, not 0
+     * @param parentId
+     *            The database ID of the parent or null for a root element
+     * @param scopeId
+     *            The scope ID or null
+     * @param type
+     *            The object type of the element
+     */
+    public void put(int dbId, Integer parentId, Integer scopeId, String type) {
+        if (dbId == EMPTY_KEY) {
+            throw new IllegalArgumentException("Database ID 0 is not supported.");
+        }
+        int slot = getOrAddSlot(dbId);
+        scopeIds[slot] = (scopeId != null) ? scopeId : NO_SCOPE;
+        types[slot] = internType(type);
+        int parentSlot = NONE;
+        if (parentId != null && parentId != EMPTY_KEY && parentId != dbId) {
+            parentSlot = getOrAddSlot(parentId);
+        }
+        if (parents[slot] != parentSlot) {
+            if (parentSlot != NONE && isAncestorOrSelf(slot, parentSlot)) {
+                throw new IllegalArgumentException(
+                        "Element " + parentId + " is a descendant of element " + dbId);
+            }
+            unlink(slot);
+            link(slot, parentSlot);
+        }
+    }
+
+    /**
+     * Removes an element and all of its descendants.
+     */
+    public void remove(int dbId) {
+        int root = getSlot(dbId);
+        if (root == NONE) {
+            return;
+        }
+        unlink(root);
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int slot = stack[--top];
+            for (int child = firstChildren[slot]; child != NONE; child = nextSiblings[child]) {
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = child;
+            }
+            freeSlot(slot);
+        }
+    }
+
+    /**
+     * @return True if the element was added and is not a placeholder
+     */
+    public boolean contains(int dbId) {
+        int slot = getSlot(dbId);
+        return slot != NONE && types[slot] != NO_TYPE;
+    }
+
+    /**
+     * Adds the database IDs of the descendants of an element to a set. The
+     * element itself is not added.
+     *
+     * @param dbId
+     *            The database ID of the element
+     * @param type
+     *            Only descendants of this type are added, null for all types
+     * @param scopeIds
+     *            Descendants which are not in one of these scopes are not
+     *            added and not traversed, null for all scopes
+     * @param result
+     *            The set the IDs are added to
+     * @return False if the element is unknown
+     */
+    public boolean addDescendants(int dbId, String type, Set<Integer> scopeIds,
+            Set<Integer> result) {
+        int root = getSlot(dbId);
+        if (root == NONE || types[root] == NO_TYPE) {
+            return false;
+        }
+        short typeFilter = NO_TYPE;
+        if (type != null) {
+            Short index = typeIndex.get(type);
+            if (index == null) {
+                // there are no elements of this type
+                return true;
+            }
+            typeFilter = index;
+        }
+        int[] stack = new int[16];
+        int top = 0;
+        stack[top++] = root;
+        while (top > 0) {
+            int slot = stack[--top];
+            for (int child = firstChildren[slot]; child != NONE; child = nextSiblings[child]) {
+                if (scopeIds != null && !scopeIds.contains(this.scopeIds[child])) {
+                    continue;
+                }
+                if (type == null || types[child] == typeFilter) {
+                    result.add(dbIds[child]);
+                }
+                if (top == stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                }
+                stack[top++] = child;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The database IDs of the ancestors of an element starting with
+     *         the parent, or null if the element is unknown
+     */
+    public int[] getAncestorIds(int dbId) {
+        int slot = getSlot(dbId);
+        if (slot == NONE || types[slot] == NO_TYPE) {
+            return null;
+        }
+        int[] ancestors = new int[8];
+        int count = 0;
+        for (int parent = parents[slot]; parent != NONE; parent = parents[parent]) {
+            if (count == ancestors.length) {
+                ancestors = Arrays.copyOf(ancestors, ancestors.length * 2);
+            }
+            ancestors[count++] = dbIds[parent];
+        }
+        return Arrays.copyOf(ancestors, count);
+    }
+
+    /**
+     * @return The database ID of the parent, null if the element is a root
+     *         element or unknown
+     */
+    public Integer getParentId(int dbId) {
+        int slot = getSlot(dbId);
+        if (slot == NONE || parents[slot] == NONE) {
+            return null;
+        }
+        return dbIds[parents[slot]];
+    }
+
+    /**
+     * @return The scope ID of an element, null if the element has no scope or
+     *         is unknown
+     */
+    public Integer getScopeId(int dbId) {
+        int slot = getSlot(dbId);
+        if (slot == NONE || scopeIds[slot] == NO_SCOPE) {
+            return null;
+        }
+        return scopeIds[slot];
+    }
+
+    /**
+     * @return The object type of an element, null if the element is unknown
+     */
+    public String getType(int dbId) {
+        int slot = getSlot(dbId);
+        if (slot == NONE || types[slot] == NO_TYPE) {
+            return null;
+        }
+        return typeNames.get(types[slot]);
+    }
+
+    /**
+     * @return The number of elements including placeholders for parents
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The number of bytes used by the arrays of this topology
+     */
+    public long getMemoryUsage() {
+        long slotBytes = (long) dbIds.length * (6 * Integer.BYTES + Short.BYTES);
+        long hashBytes = (long) hashKeys.length * 2 * Integer.BYTES;
+        return slotBytes + hashBytes;
+    }
+
+    private void link(int slot, int parentSlot) {
+        parents[slot] = parentSlot;
+        previousSiblings[slot] = NONE;
+        if (parentSlot == NONE) {
+            nextSiblings[slot] = NONE;
+            return;
+        }
+        int first = firstChildren[parentSlot];
+        nextSiblings[slot] = first;
+        if (first != NONE) {
+            previousSiblings[first] = slot;
+        }
+        firstChildren[parentSlot] = slot;
+    }
+
+    private void unlink(int slot) {
+        int parentSlot = parents[slot];
+        if (parentSlot == NONE) {
+            return;
+        }
+        int previous = previousSiblings[slot];
+        int next = nextSiblings[slot];
+        if (previous != NONE) {
+            nextSiblings[previous] = next;
+        } else {
+            firstChildren[parentSlot] = next;
+        }
+        if (next != NONE) {
+            previousSiblings[next] = previous;
+        }
+        parents[slot] = NONE;
+        nextSiblings[slot] = NONE;
+        previousSiblings[slot] = NONE;
+    }
+
+    private boolean isAncestorOrSelf(int ancestor, int slot) {
+        for (int current = slot; current != NONE; current = parents[current]) {
+            if (current == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private short internType(String type) {
+        if (type == null) {
+            return NO_TYPE;
+        }
+        Short index = typeIndex.get(type);
+        if (index == null) {
+            if (typeNames.size() == Short.MAX_VALUE) {
+                throw new IllegalStateException("Too many object types.");
+            }
+            index = (short) typeNames.size();
+            typeNames.add(type);
+            typeIndex.put(type, index);
+        }
+        return index;
+    }
+
+    private int getOrAddSlot(int dbId) {
+        int slot = getSlot(dbId);
+        if (slot != NONE) {
+            return slot;
+        }
+        slot = allocateSlot();
+        dbIds[slot] = dbId;
+        parents[slot] = NONE;
+        firstChildren[slot] = NONE;
+        nextSiblings[slot] = NONE;
+        previousSiblings[slot] = NONE;
+        scopeIds[slot] = NO_SCOPE;
+        types[slot] = NO_TYPE;
+        size++;
+        if (size * 2 > hashKeys.length) {
+            rehash(hashKeys.length * 2);
+        }
+        hashPut(dbId, slot);
+        return slot;
+    }
+
+    private int allocateSlot() {
+        if (freeSlot != NONE) {
+            int slot = freeSlot;
+            freeSlot = nextSiblings[slot];
+            return slot;
+        }
+        if (slotCount == dbIds.length) {
+            growSlots(dbIds.length + (dbIds.length >> 1));
+        }
+        return slotCount++;
+    }
+
+    private void freeSlot(int slot) {
+        hashRemove(dbIds[slot]);
+        dbIds[slot] = EMPTY_KEY;
+        parents[slot] = NONE;
+        firstChildren[slot] = NONE;
+        previousSiblings[slot] = NONE;
+        nextSiblings[slot] = freeSlot;
+        freeSlot = slot;
+        size--;
+    }
+
+    private void growSlots(int capacity) {
+        dbIds = Arrays.copyOf(dbIds, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        firstChildren = Arrays.copyOf(firstChildren, capacity);
+        nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+        previousSiblings = Arrays.copyOf(previousSiblings, capacity);
+        scopeIds = Arrays.copyOf(scopeIds, capacity);
+        types = Arrays.copyOf(types, capacity);
+    }
+
+    private void initHashTable(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1;
+        hashKeys = new int[capacity];
+        hashSlots = new int[capacity];
+        hashShift = Integer.numberOfLeadingZeros(capacity) + 1;
+    }
+
+    private int hashIndex(int dbId) {
+        return (dbId * HASH_MULTIPLIER) >>> hashShift;
+    }
+
+    private int getSlot(int dbId) {
+        int mask = hashKeys.length - 1;
+        for (int i = hashIndex(dbId); hashKeys[i] != EMPTY_KEY; i = (i + 1) & mask) {
+            if (hashKeys[i] == dbId) {
+                return hashSlots[i];
+            }
+        }
+        return NONE;
+    }
+
+    private void hashPut(int dbId, int slot) {
+        int mask = hashKeys.length - 1;
+        int i = hashIndex(dbId);
+        while (hashKeys[i] != EMPTY_KEY) {
+            i = (i + 1) & mask;
+        }
+        hashKeys[i] = dbId;
+        hashSlots[i] = slot;
+    }
+
+    /**
+     * Removes a key by shifting the following entries of the probe sequence
+     * backwards, no tombstones are needed.
+     */
+    private void hashRemove(int dbId) {
+        int mask = hashKeys.length - 1;
+        int i = hashIndex(dbId);
+        while (hashKeys[i] != dbId) {
+            if (hashKeys[i] == EMPTY_KEY) {
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        int gap = i;
+        for (int j = (gap + 1) & mask; hashKeys[j] != EMPTY_KEY; j = (j + 1) & mask) {
+            int home = hashIndex(hashKeys[j]);
+            // move the entry if its home is not in the range (gap, j]
+            if (((j - home) & mask) >= ((j - gap) & mask)) {
+                hashKeys[gap] = hashKeys[j];
+                hashSlots[gap] = hashSlots[j];
+                gap = j;
+            }
+        }
+        hashKeys[gap] = EMPTY_KEY;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = hashKeys;
+        int[] oldSlots = hashSlots;
+        hashKeys = new int[capacity];
+        hashSlots = new int[capacity];
+        hashShift = Integer.numberOfLeadingZeros(capacity) + 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY_KEY) {
+                hashPut(oldKeys[i], oldSlots[i]);
+            }
+        }
+    }
+}
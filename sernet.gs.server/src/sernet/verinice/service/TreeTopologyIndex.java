@@ -0,0 +1,422 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Hibernate;
+import org.hibernate.Query;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import sernet.verinice.concurrency.CustomNamedThreadGroupFactory;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.IElementChangeListener;
+import sernet.verinice.interfaces.ITreeTopologyIndex;
+import sernet.verinice.interfaces.graph.HibernateTypeIdManager;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Holds the parent-child structure of all elements in a {@link TreeTopology}.
+ *
+ * The topology is loaded in a background thread when the server starts. The
+ * daos notify the index about saved, merged and deleted elements and about
+ * subtrees moved to another scope by {@code UpdateScopeId}. The changes of a
+ * transaction are applied after the transaction is committed. Changes
+ * committed while the topology is loaded are applied after loading.
+ *
+ * The index is not available while it is loaded and in transactions which
+ * changed elements. Set veriniceserver.tree.index to false to disable the
+ * index. If the index is not available, the commands load the tree structure
+ * from the database.
+ */
+public class TreeTopologyIndex implements ITreeTopologyIndex, IElementChangeListener {
+
+    private static final Logger LOG = Logger.getLogger(TreeTopologyIndex.class);
+
+    private static final String HQL_COUNT = "select count(*) from CnATreeElement"; //$NON-NLS-1$
+    private static final String HQL_TOPOLOGY = "select e.dbId, e.parentId, e.scopeId, e.objectType "
+            + "from CnATreeElement e"; //$NON-NLS-1$
+
+    private IBaseDao<CnATreeElement, Integer> elementDao;
+    private boolean enabled = true;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Guarded by lock */
+    private TreeTopology topology;
+    /** Changes committed while the topology is loaded, guarded by lock */
+    private List<Change> changesWhileLoading;
+    private ExecutorService executor;
+
+    public void init() {
+        if (!isEnabled()) {
+            LOG.info("Tree topology index is disabled.");
+            return;
+        }
+        executor = Executors
+                .newSingleThreadExecutor(new CustomNamedThreadGroupFactory("tree-topology-index"));
+        rebuild();
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Loads the topology again in the background. The index is not available
+     * until loading is finished.
+     */
+    public void rebuild() {
+        if (executor == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            topology = null;
+            changesWhileLoading = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        executor.execute(this::load);
+    }
+
+    private void load() {
+        try {
+            long start = System.currentTimeMillis();
+            TreeTopology loadedTopology = loadTopology();
+            lock.writeLock().lock();
+            try {
+                for (Change change : changesWhileLoading) {
+                    change.applyTo(loadedTopology);
+                }
+                changesWhileLoading = null;
+                topology = loadedTopology;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (LOG.isInfoEnabled()) {
+                LOG.info("Tree topology index loaded, elements: " + loadedTopology.size()
+                        + ", memory: " + (loadedTopology.getMemoryUsage() / (1024 * 1024))
+                        + " MB, runtime: " + (System.currentTimeMillis() - start) + " ms");
+            }
+        } catch (Exception e) {
+            LOG.error("Error while loading tree topology index, index is not available.", e);
+        }
+    }
+
+    private TreeTopology loadTopology() {
+        return (TreeTopology) getElementDao().executeCallback(session -> {
+            Number count = (Number) session.createQuery(HQL_COUNT).uniqueResult();
+            TreeTopology loadedTopology = new TreeTopology(count.intValue());
+            Query query = session.createQuery(HQL_TOPOLOGY);
+            query.setReadOnly(true);
+            query.setFetchSize(1000);
+            ScrollableResults results = query.scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while (results.next()) {
+                    loadedTopology.put(results.getInteger(0), results.getInteger(1),
+                            results.getInteger(2), results.getString(3));
+                }
+            } finally {
+                results.close();
+            }
+            return loadedTopology;
+        });
+    }
+
+    @Override
+    public boolean isAvailable() {
+        if (!isEnabled()) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && TransactionSynchronizationManager.hasResource(this)) {
+            // changes of this transaction are not in the index yet
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return topology != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<Integer> getDescendantIds(Collection<Integer> rootIds, String objectType,
+            Collection<Integer> scopeIds) {
+        if (!isAvailable()) {
+            return null;
+        }
+        Set<Integer> scopeIdSet = (scopeIds != null) ? new HashSet<>(scopeIds) : null;
+        Set<Integer> descendantIds = new HashSet<>();
+        lock.readLock().lock();
+        try {
+            if (topology == null) {
+                return null;
+            }
+            for (Integer rootId : rootIds) {
+                if (rootId == null
+                        || !topology.addDescendants(rootId, objectType, scopeIdSet,
+                                descendantIds)) {
+                    return null;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return descendantIds;
+    }
+
+    @Override
+    public List<Integer> getAncestorIds(Integer dbId) {
+        if (dbId == null || !isAvailable()) {
+            return null;
+        }
+        int[] ancestorIds;
+        lock.readLock().lock();
+        try {
+            if (topology == null) {
+                return null;
+            }
+            ancestorIds = topology.getAncestorIds(dbId);
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (ancestorIds == null) {
+            return null;
+        }
+        List<Integer> result = new ArrayList<>(ancestorIds.length);
+        for (int ancestorId : ancestorIds) {
+            result.add(ancestorId);
+        }
+        return result;
+    }
+
+    /**
+     * @return The number of bytes used by the topology, 0 if the index is
+     *         not loaded
+     */
+    public long getMemoryUsage() {
+        lock.readLock().lock();
+        try {
+            return (topology != null) ? topology.getMemoryUsage() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void elementsChanged(Collection<? extends CnATreeElement> elements) {
+        if (!isEnabled()) {
+            return;
+        }
+        List<Change> changes = new ArrayList<>(elements.size());
+        for (CnATreeElement element : elements) {
+            changes.add(new Change(element, false));
+        }
+        addChanges(changes);
+    }
+
+    @Override
+    public void elementsDeleted(Collection<? extends CnATreeElement> elements) {
+        if (!isEnabled()) {
+            return;
+        }
+        List<Change> changes = new ArrayList<>(elements.size());
+        for (CnATreeElement element : elements) {
+            changes.add(new Change(element, true));
+        }
+        addChanges(changes);
+    }
+
+    private void addChanges(List<Change> changes) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            getTransactionChanges().addAll(changes);
+        } else {
+            apply(changes);
+        }
+    }
+
+    /**
+     * Returns the changes of the current transaction. If there are no changes
+     * yet, a synchronization is registered which applies the changes after
+     * commit.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Change> getTransactionChanges() {
+        List<Change> changes = (List<Change>) TransactionSynchronizationManager.getResource(this);
+        if (changes == null) {
+            List<Change> newChanges = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, newChanges);
+            TransactionSynchronizationManager
+                    .registerSynchronization(new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCommit() {
+                            apply(newChanges);
+                        }
+
+                        @Override
+                        public void afterCompletion(int status) {
+                            TransactionSynchronizationManager
+                                    .unbindResourceIfPossible(TreeTopologyIndex.this);
+                        }
+                    });
+            changes = newChanges;
+        }
+        return changes;
+    }
+
+    /**
+     * Applies the changes in the order they were made. The values of saved
+     * elements are read when the changes are applied.
+     */
+    private void apply(List<Change> changes) {
+        List<Change> resolvedChanges = new ArrayList<>(changes.size());
+        for (Change change : changes) {
+            change.resolve(resolvedChanges);
+        }
+        lock.writeLock().lock();
+        try {
+            if (changesWhileLoading != null) {
+                changesWhileLoading.addAll(resolvedChanges);
+            } else if (topology != null) {
+                for (Change change : resolvedChanges) {
+                    change.applyTo(topology);
+                }
+            }
+        } catch (Exception e) {
+            LOG.error("Error while updating tree topology index, reloading index.", e);
+            rebuild();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A saved or deleted element.
+     */
+    private static final class Change {
+
+        private final CnATreeElement element;
+        private final boolean deleted;
+        private Integer dbId;
+        private Integer parentId;
+        private Integer scopeId;
+        private String objectType;
+
+        private Change(CnATreeElement element, boolean deleted) {
+            this.element = element;
+            this.deleted = deleted;
+            // the id of a deleted element is not available after commit
+            this.dbId = element.getDbId();
+        }
+
+        private Change(Integer dbId, Integer parentId, Integer scopeId, String objectType) {
+            this.element = null;
+            this.deleted = false;
+            this.dbId = dbId;
+            this.parentId = parentId;
+            this.scopeId = scopeId;
+            this.objectType = objectType;
+        }
+
+        /**
+         * Reads the values of a saved element. Children which were saved by
+         * cascading are added as well if the children of the element are
+         * loaded.
+         */
+        private void resolve(List<Change> resolvedChanges) {
+            if (deleted) {
+                if (dbId != null) {
+                    resolvedChanges.add(this);
+                }
+                return;
+            }
+            List<CnATreeElement> elements = new ArrayList<>();
+            elements.add(element);
+            Set<CnATreeElement> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            while (!elements.isEmpty()) {
+                CnATreeElement current = elements.remove(elements.size() - 1);
+                if (current.getDbId() == null || !visited.add(current)) {
+                    continue;
+                }
+                resolvedChanges.add(new Change(current.getDbId(), getParentId(current),
+                        current.getScopeId(), getObjectType(current)));
+                if (Hibernate.isInitialized(current.getChildren())) {
+                    elements.addAll(current.getChildren());
+                }
+            }
+        }
+
+        private static Integer getParentId(CnATreeElement element) {
+            if (element.getParentId() == null && element.getParent() != null) {
+                return element.getParent().getDbId();
+            }
+            return element.getParentId();
+        }
+
+        private static String getObjectType(CnATreeElement element) {
+            if (element.getObjectType() != null) {
+                return element.getObjectType();
+            }
+            return HibernateTypeIdManager.getHibernateTypeId(element.getTypeId());
+        }
+
+        private void applyTo(TreeTopology topology) {
+            if (deleted) {
+                topology.remove(dbId);
+            } else {
+                topology.put(dbId, parentId, scopeId, objectType);
+            }
+        }
+    }
+
+    public IBaseDao<CnATreeElement, Integer> getElementDao() {
+        return elementDao;
+    }
+
+    public void setElementDao(IBaseDao<CnATreeElement, Integer> elementDao) {
+        this.elementDao = elementDao;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+}
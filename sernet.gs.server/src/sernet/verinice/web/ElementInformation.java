@@ -19,17 +19,27 @@
  ******************************************************************************/
 package sernet.verinice.web;
 
+import java.util.function.Function;
+
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.iso27k.IISO27kGroup;
+import sernet.verinice.service.tree.TreeNode;
 
 /**
  * Wrapper class for web frontend to show information about a {@link CnATreeElement}
  * 
+ * An instance created for a {@link TreeNode} loads the element when it is
+ * requested the first time.
+ * 
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  */
 public class ElementInformation {
 
     private CnATreeElement element;
+
+    private TreeNode node;
+
+    private Function<TreeNode, CnATreeElement> loader;
     
     private static final int MAX_TITLE_LENGTH = 100;
 
@@ -40,8 +50,24 @@ public class ElementInformation {
         }
         this.element = element;
     }
+
+    /**
+     * @param node A tree node
+     * @param loader Loads the element of the node
+     */
+    public ElementInformation(TreeNode node, Function<TreeNode, CnATreeElement> loader) {
+        super();
+        if(node==null) {
+            throw new IllegalArgumentException("Node must not be null.");
+        }
+        this.node = node;
+        this.loader = loader;
+    }
     
     public CnATreeElement getElement() {
+        if(element==null && node!=null) {
+            element = loader.apply(node);
+        }
         return element;
     }
 
@@ -49,8 +75,16 @@ public class ElementInformation {
         this.element = element;
     }
 
+    public Integer getDbId() {
+        return (element != null) ? element.getDbId() : node.getDbId();
+    }
+
+    private String getUuid() {
+        return (element != null) ? element.getUuid() : node.getUuid();
+    }
+
     public String getTitle() {
-        String title = element.getTitle();
+        String title = (element != null) ? element.getTitle() : node.getTitle();
         if(title.length()>MAX_TITLE_LENGTH) {
             title = title.substring(0, MAX_TITLE_LENGTH - 1) + "...";
         }
@@ -58,8 +92,10 @@ public class ElementInformation {
     }
     
     public String getIcon() {
-        String path = Icons.ICONS.get(element.getTypeId());
-        if(path==null && element instanceof IISO27kGroup) {
+        String typeId = (element != null) ? element.getTypeId() : node.getTypeId();
+        boolean group = (element != null) ? element instanceof IISO27kGroup : node.isGroup();
+        String path = Icons.ICONS.get(typeId);
+        if(path==null && group) {
             path = Icons.FOLDER;
         }
         return "/resources/verinice-layout" + path;
@@ -69,7 +105,8 @@ public class ElementInformation {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((element == null) ? 0 : element.hashCode());
+        String uuid = getUuid();
+        result = prime * result + ((uuid == null) ? 0 : uuid.hashCode());
         return result;
     }
 
@@ -85,11 +122,12 @@ public class ElementInformation {
             return false;
         }
         ElementInformation other = (ElementInformation) obj;
-        if (element == null) {
-            if (other.element != null){
+        String uuid = getUuid();
+        if (uuid == null) {
+            if (other.getUuid() != null){
                 return false;
             }
-        } else if (!element.equals(other.element)){
+        } else if (!uuid.equals(other.getUuid())){
             return false;
         }
         return true;
@@ -45,6 +45,7 @@ import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.bpm.ITask;
 import sernet.verinice.interfaces.bpm.ITaskParameter;
 import sernet.verinice.interfaces.bpm.ITaskService;
+import sernet.verinice.interfaces.bpm.TaskSortOrder;
 import sernet.verinice.model.bp.elements.BpRequirement;
 import sernet.verinice.model.bp.elements.BpThreat;
 import sernet.verinice.model.bp.elements.Safeguard;
@@ -119,8 +120,8 @@ public class TaskBean {
         if (selectedAudit != null) {
             parameter.setAuditUuid(selectedAudit.getUuid());
         }
+        parameter.setSortOrder(TaskSortOrder.NATURAL);
         taskList = getTaskService().getCurrentUserTaskList(parameter);
-        Collections.sort(taskList);
         for (ITask task : taskList) {
             String controlTitle = task.getElementTitle();
             if (controlTitle != null && controlTitle.length() > MAX_TITLE_LENGTH) {
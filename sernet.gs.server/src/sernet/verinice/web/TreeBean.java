@@ -55,6 +55,7 @@ import sernet.verinice.model.samt.SamtTopic;
 import sernet.verinice.service.commands.RemoveElement;
 import sernet.verinice.service.model.LoadModel;
 import sernet.verinice.service.tree.ElementManager;
+import sernet.verinice.service.tree.TreeNode;
 
 /**
  * 
@@ -68,10 +69,10 @@ public class TreeBean implements IElementListener {
     
     public static final String BOUNDLE_NAME = "sernet.verinice.web.TreeMessages"; //$NON-NLS-1$
     
-    private static final ElementComparator<CnATreeElement> COMPARATOR = new ElementComparator<CnATreeElement>(new ITitleAdaptor<CnATreeElement>() {
+    private static final ElementComparator<TreeNode> COMPARATOR = new ElementComparator<TreeNode>(new ITitleAdaptor<TreeNode>() {
         @Override
-        public String getTitle(CnATreeElement element) {
-            return element.getTitle();
+        public String getTitle(TreeNode node) {
+            return node.getTitle();
         }
     });
     
@@ -125,14 +126,21 @@ public class TreeBean implements IElementListener {
     }
 
     private void loadChildren() {
-        CnATreeElement[] elementArray = manager.getChildren(this.element);
-        Arrays.sort(elementArray, COMPARATOR);
-        children = new ArrayList<ElementInformation>(elementArray.length);
-        for (CnATreeElement e : elementArray) {
-            children.add(new ElementInformation(e));
+        final CnATreeElement parent = this.element;
+        List<TreeNode> nodes = manager.getChildNodes(parent.getDbId(), 0, 0);
+        Collections.sort(nodes, COMPARATOR);
+        children = new ArrayList<ElementInformation>(nodes.size());
+        for (TreeNode node : nodes) {
+            children.add(new ElementInformation(node, n -> loadElement(n, parent)));
         }
     }
 
+    private CnATreeElement loadElement(TreeNode node, CnATreeElement parent) {
+        CnATreeElement loadedElement = manager.getElement(node);
+        loadedElement.setParent(parent);
+        return loadedElement;
+    }
+
     private void createHandlers() {
         List<IActionHandler> handlerList = new LinkedList<IActionHandler>();
         if(getAuthBean().getAddGroup()) {
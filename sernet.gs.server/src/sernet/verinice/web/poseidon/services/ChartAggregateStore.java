@@ -0,0 +1,265 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.web.poseidon.services;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import sernet.verinice.interfaces.IElementChangeListener;
+import sernet.verinice.model.bsi.BausteinUmsetzung;
+import sernet.verinice.model.bsi.ITVerbund;
+import sernet.verinice.model.bsi.MassnahmenUmsetzung;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.iso27k.Control;
+import sernet.verinice.model.iso27k.ControlGroup;
+import sernet.verinice.model.iso27k.Organization;
+
+/**
+ * Materialized aggregates for the charts of verinice web, stored per scope.
+ *
+ * The aggregate of a scope is created when it is requested for the first
+ * time and is read from memory afterwards. The store is notified by the DAOs
+ * when elements are saved, deleted or moved to another scope. If an element
+ * which is used in the charts is changed, the aggregates of its scope are
+ * removed and rebuilt on the next request. Deleted and moved subtrees
+ * invalidate their scopes regardless of the type of the root element, moved
+ * subtrees invalidate the old and the new scope. Aggregates of other scopes
+ * are not affected. The aggregates are removed again after the transaction
+ * is committed, so an aggregate created from uncommitted data is not kept.
+ *
+ * An aggregate contains the states of all elements of a scope which are
+ * visible with the scope restriction of the user who created it. Aggregates
+ * are stored per scope and restriction. The restriction is the scope id of a
+ * user restricted to one scope or {@link #ALL_SCOPES}. Use the aggregates
+ * only for users who can read all elements of the scope.
+ */
+public class ChartAggregateStore implements IElementChangeListener {
+
+    private static final Logger LOG = Logger.getLogger(ChartAggregateStore.class);
+
+    private static final Set<String> AGGREGATED_TYPE_IDS = Set.of(ITVerbund.TYPE_ID,
+            BausteinUmsetzung.TYPE_ID, MassnahmenUmsetzung.TYPE_ID, Organization.TYPE_ID,
+            ControlGroup.TYPE_ID, Control.TYPE_ID);
+
+    /**
+     * The restriction of users who are not restricted to one scope
+     */
+    public static final String ALL_SCOPES = "all";
+
+    /**
+     * Key: scope id, value: the aggregates of the scope by restriction
+     */
+    private final Map<Integer, Map<String, ItNetworkAggregate>> itNetworkAggregates = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<String, OrganizationAggregate>> organizationAggregates = new ConcurrentHashMap<>();
+
+    /**
+     * Key: scope id, value: the number of times the aggregates of the scope
+     * were invalidated
+     */
+    private final Map<Integer, Long> scopeVersions = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * Returns the aggregate of an IT network. If there is no aggregate in the
+     * store, it is created by the loader.
+     *
+     * @param restriction
+     *            The scope id of a user restricted to one scope or
+     *            {@link #ALL_SCOPES}
+     */
+    public ItNetworkAggregate getItNetworkAggregate(Integer scopeId, String restriction,
+            Function<Integer, ItNetworkAggregate> loader) {
+        return getAggregate(itNetworkAggregates, scopeId, restriction, loader);
+    }
+
+    /**
+     * Returns the aggregate of an organization. If there is no aggregate in
+     * the store, it is created by the loader.
+     *
+     * @param restriction
+     *            The scope id of a user restricted to one scope or
+     *            {@link #ALL_SCOPES}
+     */
+    public OrganizationAggregate getOrganizationAggregate(Integer scopeId, String restriction,
+            Function<Integer, OrganizationAggregate> loader) {
+        return getAggregate(organizationAggregates, scopeId, restriction, loader);
+    }
+
+    private <T> T getAggregate(Map<Integer, Map<String, T>> aggregates, Integer scopeId,
+            String restriction, Function<Integer, T> loader) {
+        Map<String, T> aggregatesOfScope = aggregates.get(scopeId);
+        T aggregate = (aggregatesOfScope != null) ? aggregatesOfScope.get(restriction) : null;
+        if (aggregate != null) {
+            return aggregate;
+        }
+        long versionBefore = getVersion(scopeId);
+        long start = System.currentTimeMillis();
+        aggregate = loader.apply(scopeId);
+        aggregatesOfScope = aggregates.computeIfAbsent(scopeId, id -> new ConcurrentHashMap<>());
+        aggregatesOfScope.put(restriction, aggregate);
+        if (getVersion(scopeId) != versionBefore) {
+            // the scope was changed while the aggregate was created
+            aggregatesOfScope.remove(restriction, aggregate);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Aggregate of scope " + scopeId + " and restriction " + restriction
+                    + " created in " + (System.currentTimeMillis() - start) + " ms");
+        }
+        return aggregate;
+    }
+
+    private long getVersion(Integer scopeId) {
+        return version.get() + scopeVersions.getOrDefault(scopeId, 0L);
+    }
+
+    /**
+     * Removes the aggregates of a scope. The aggregates are rebuilt on the
+     * next request.
+     */
+    public void invalidate(Integer scopeId) {
+        scopeVersions.merge(scopeId, 1L, Long::sum);
+        itNetworkAggregates.remove(scopeId);
+        organizationAggregates.remove(scopeId);
+    }
+
+    /**
+     * Removes all aggregates. The aggregates are rebuilt on the next request.
+     */
+    public void invalidateAll() {
+        version.incrementAndGet();
+        itNetworkAggregates.clear();
+        organizationAggregates.clear();
+        LOG.info("All chart aggregates removed.");
+    }
+
+    /**
+     * Invalidates the scopes of the changed elements. If a transaction is
+     * active the scopes are invalidated again after the transaction is
+     * committed.
+     */
+    @Override
+    public void elementsChanged(Collection<? extends CnATreeElement> elements) {
+        Set<Integer> scopeIds = new HashSet<>();
+        for (CnATreeElement element : elements) {
+            if (AGGREGATED_TYPE_IDS.contains(element.getTypeId())) {
+                // null if the scope of an element is unknown
+                scopeIds.add(element.getScopeId());
+            }
+        }
+        invalidateNowAndAfterCommit(scopeIds);
+    }
+
+    /**
+     * Invalidates the scopes of the deleted elements regardless of their
+     * type, the deleted descendants of an element may be aggregated.
+     */
+    @Override
+    public void elementsDeleted(Collection<? extends CnATreeElement> elements) {
+        Set<Integer> scopeIds = new HashSet<>();
+        for (CnATreeElement element : elements) {
+            scopeIds.add(element.getScopeId());
+        }
+        invalidateNowAndAfterCommit(scopeIds);
+    }
+
+    /**
+     * Invalidates the old and the new scopes of the moved subtrees regardless
+     * of the type of the roots, the descendants may be aggregated.
+     */
+    @Override
+    public void elementsMoved(Collection<? extends CnATreeElement> elements,
+            Set<Integer> previousScopeIds) {
+        Set<Integer> scopeIds = new HashSet<>(previousScopeIds);
+        for (CnATreeElement element : elements) {
+            scopeIds.add(element.getScopeId());
+        }
+        invalidateNowAndAfterCommit(scopeIds);
+    }
+
+    private void invalidateNowAndAfterCommit(Set<Integer> scopeIds) {
+        if (scopeIds.isEmpty()) {
+            return;
+        }
+        invalidate(scopeIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            getTransactionScopeIds().addAll(scopeIds);
+        }
+    }
+
+    private void invalidate(Set<Integer> scopeIds) {
+        if (scopeIds.contains(null)) {
+            invalidateAll();
+            return;
+        }
+        for (Integer scopeId : scopeIds) {
+            invalidate(scopeId);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Chart aggregates of scopes " + scopeIds + " removed.");
+        }
+    }
+
+    /**
+     * Returns the scope ids changed in the current transaction. If there are
+     * no scope ids yet, a synchronization is registered which invalidates the
+     * scopes after commit.
+     */
+    @SuppressWarnings("unchecked")
+    private Set<Integer> getTransactionScopeIds() {
+        Set<Integer> scopeIds = (Set<Integer>) TransactionSynchronizationManager.getResource(this);
+        if (scopeIds == null) {
+            Set<Integer> newScopeIds = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, newScopeIds);
+            TransactionSynchronizationManager
+                    .registerSynchronization(new TransactionSynchronizationAdapter() {
+                        @Override
+                        public void afterCommit() {
+                            invalidate(newScopeIds);
+                        }
+
+                        @Override
+                        public void afterCompletion(int status) {
+                            TransactionSynchronizationManager
+                                    .unbindResourceIfPossible(ChartAggregateStore.this);
+                        }
+                    });
+            scopeIds = newScopeIds;
+        }
+        return scopeIds;
+    }
+
+    /**
+     * @return The number of aggregates in the store
+     */
+    public int getNumberOfAggregates() {
+        return Stream.concat(itNetworkAggregates.values().stream(),
+                organizationAggregates.values().stream()).mapToInt(Map::size).sum();
+    }
+}
@@ -22,7 +22,10 @@ package sernet.verinice.web.poseidon.services;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.faces.bean.ManagedBean;
 import javax.faces.bean.ManagedProperty;
@@ -47,6 +50,7 @@ import sernet.verinice.web.poseidon.services.strategy.AggregateIsmsControlsStrat
 import sernet.verinice.web.poseidon.services.strategy.AggregateIsmsControlsStrategyImpl;
 import sernet.verinice.web.poseidon.services.strategy.CalculateSafeguardImplementationStrategy;
 import sernet.verinice.web.poseidon.services.strategy.GroupByStrategy;
+import sernet.verinice.web.poseidon.services.strategy.ModuleChapterStates;
 import sernet.verinice.web.poseidon.services.strategy.SimpleSumOfStates;
 
 /**
@@ -55,6 +59,12 @@ import sernet.verinice.web.poseidon.services.strategy.SimpleSumOfStates;
  * The user must have at least read access to the verinice object, otherwise it
  * is not used for the data aggregation.
  *
+ * For users who can read all objects the data is read from the materialized
+ * aggregates of the {@link ChartAggregateStore}. The aggregates of a scope
+ * are only created again after an object of the scope was changed. For all
+ * other users the data is calculated from the objects which are readable by
+ * the user.
+ *
  *
  * @author Benjamin Weißenfels <bw[at]sernet[dot]de>
  *
@@ -90,6 +100,11 @@ public class ChartService extends GenericChartService {
      *                If no it network is given.
      */
     public StateData aggregateSafeguardStates(Integer scopeId) {
+        if (isChartAggregateStoreReadable()) {
+            List<ItNetworkAggregate> aggregates = getItNetworkAggregates(scopeId);
+            return new StateData(getItNetworkTitle(aggregates),
+                    ItNetworkAggregate.sumSafeguardStates(aggregates));
+        }
         VeriniceGraph g = loadSafeguards(scopeId,
                 new String[] { ITVerbund.TYPE_ID, MassnahmenUmsetzung.TYPE_ID });
         CalculateSafeguardImplementationStrategy strategy = new SimpleSumOfStates();
@@ -101,6 +116,10 @@ public class ChartService extends GenericChartService {
         return g.getElements(ITVerbund.class).iterator().next().getTitle();
     }
 
+    private String getItNetworkTitle(List<ItNetworkAggregate> aggregates) {
+        return aggregates.isEmpty() ? null : aggregates.get(0).getTitle();
+    }
+
     /**
      * Returns states of all {@link MassnahmenUmsetzung} of all it networks. All
      * {@link ITVerbund} which are readable by the user are taken into account.
@@ -178,6 +197,16 @@ public class ChartService extends GenericChartService {
     public ModuleStateData groupByModuleChapterSafeguardStates(String scopeId,
             GroupByStrategy groupByStrategie) {
         Integer scope = checkScopeId(scopeId);
+        if (isChartAggregateStoreReadable()) {
+            List<ItNetworkAggregate> aggregates = getItNetworkAggregates(scope);
+            ModuleChapterStates states = ItNetworkAggregate.sumModuleChapterStates(aggregates);
+            if (states.isEmpty()) {
+                return new ModuleStateData(getItNetworkTitle(aggregates));
+            } else {
+                return new ModuleStateData(getItNetworkTitle(aggregates),
+                        groupByStrategie.aggregateMassnahmen(states));
+            }
+        }
         VeriniceGraph g = loadSafeguards(scope, new String[] { ITVerbund.TYPE_ID,
                 BausteinUmsetzung.HIBERNATE_TYPE_ID, MassnahmenUmsetzung.HIBERNATE_TYPE_ID });
 
@@ -203,6 +232,15 @@ public class ChartService extends GenericChartService {
      */
     public StateData aggregateControlStates(int scopeId, int catalogId) {
 
+        if (isChartAggregateStoreReadable()) {
+            OrganizationAggregate aggregate = getOrganizationAggregate(scopeId);
+            List<Integer> catalogIds = Collections.singletonList(catalogId);
+            if (aggregate.containsCatalogs(catalogIds)) {
+                return new StateData(aggregate.getTitle(),
+                        aggregate.getControlStates(catalogIds));
+            }
+        }
+
         IGraphService graphService = getGraphService();
         IGraphElementLoader graphElementLoader = new GraphElementLoader();
         graphElementLoader.setTypeIds(
@@ -230,22 +268,32 @@ public class ChartService extends GenericChartService {
      */
     public StateData aggregateControlStates(int scopeId) {
 
-        IGraphService graphService = getGraphService();
-        IGraphElementLoader graphElementLoader = new GraphElementLoader();
-        graphElementLoader.setTypeIds(
-                new String[] { Organization.TYPE_ID, ControlGroup.TYPE_ID, Control.TYPE_ID });
-
-        VeriniceGraph veriniceGraph = graphService
-                .createDirectedGraph(Collections.singletonList(graphElementLoader), false);
-
         List<ControlGroup> catalogs = menuService.getCatalogs();
         List<ControlGroup> catalogsOfScopeId = new ArrayList<>();
+        List<Integer> catalogIds = new ArrayList<>();
         for (ControlGroup catalog : catalogs) {
             if (catalog.getScopeId().equals(scopeId)) {
                 catalogsOfScopeId.add(catalog);
+                catalogIds.add(catalog.getDbId());
+            }
+        }
+
+        if (isChartAggregateStoreReadable()) {
+            OrganizationAggregate aggregate = getOrganizationAggregate(scopeId);
+            if (aggregate.containsCatalogs(catalogIds)) {
+                return new StateData(aggregate.getTitle(),
+                        aggregate.getControlStates(catalogIds));
             }
         }
 
+        IGraphService graphService = getGraphService();
+        IGraphElementLoader graphElementLoader = new GraphElementLoader();
+        graphElementLoader.setTypeIds(
+                new String[] { Organization.TYPE_ID, ControlGroup.TYPE_ID, Control.TYPE_ID });
+
+        VeriniceGraph veriniceGraph = graphService
+                .createDirectedGraph(Collections.singletonList(graphElementLoader), false);
+
         AggregateIsmsControlsStrategy strategy = new AggregateIsmsControlsStrategyImpl(
                 veriniceGraph, catalogsOfScopeId);
         return new StateData(getOrganizationTitle(veriniceGraph), strategy.getData());
@@ -255,6 +303,62 @@ public class ChartService extends GenericChartService {
         return veriniceGraph.getElements(Organization.class).iterator().next().getTitle();
     }
 
+    /**
+     * Returns the aggregates of an IT network or of all IT networks which are
+     * readable by the user if no scope id is given.
+     */
+    private List<ItNetworkAggregate> getItNetworkAggregates(Integer scopeId) {
+        ChartAggregateStore store = getChartAggregateStore();
+        String restriction = getScopeRestriction();
+        List<ItNetworkAggregate> aggregates = new ArrayList<>();
+        if (scopeId != null) {
+            aggregates.add(store.getItNetworkAggregate(scopeId, restriction,
+                    this::loadItNetworkAggregate));
+        } else {
+            for (ITVerbund itVerbund : menuService.getVisibleItNetworks()) {
+                aggregates.add(store.getItNetworkAggregate(itVerbund.getScopeId(), restriction,
+                        this::loadItNetworkAggregate));
+            }
+        }
+        return aggregates;
+    }
+
+    private ItNetworkAggregate loadItNetworkAggregate(Integer scopeId) {
+        IGraphElementLoader graphElementLoader = new GraphElementLoader();
+        graphElementLoader.setTypeIds(new String[] { ITVerbund.TYPE_ID,
+                BausteinUmsetzung.TYPE_ID, MassnahmenUmsetzung.TYPE_ID });
+        graphElementLoader.setScopeId(scopeId);
+        Map<String, Set<String>> propertyTypeIds = new HashMap<>();
+        propertyTypeIds.put(ITVerbund.TYPE_ID, Collections.singleton(ITVerbund.PROP_NAME));
+        propertyTypeIds.put(BausteinUmsetzung.TYPE_ID,
+                Collections.singleton(BausteinUmsetzung.P_NR));
+        propertyTypeIds.put(MassnahmenUmsetzung.TYPE_ID,
+                Collections.singleton(MassnahmenUmsetzung.P_UMSETZUNG));
+        graphElementLoader.setPropertyTypeIds(propertyTypeIds);
+        return ItNetworkAggregate.create(getGraphService()
+                .create(Collections.singletonList(graphElementLoader), false));
+    }
+
+    private OrganizationAggregate getOrganizationAggregate(Integer scopeId) {
+        return getChartAggregateStore().getOrganizationAggregate(scopeId, getScopeRestriction(),
+                this::loadOrganizationAggregate);
+    }
+
+    private OrganizationAggregate loadOrganizationAggregate(Integer scopeId) {
+        IGraphElementLoader graphElementLoader = new GraphElementLoader();
+        graphElementLoader.setTypeIds(
+                new String[] { Organization.TYPE_ID, ControlGroup.TYPE_ID, Control.TYPE_ID });
+        graphElementLoader.setScopeId(scopeId);
+        Map<String, Set<String>> propertyTypeIds = new HashMap<>();
+        propertyTypeIds.put(Organization.TYPE_ID, Collections.singleton(Organization.PROP_NAME));
+        propertyTypeIds.put(ControlGroup.TYPE_ID,
+                Collections.singleton(ControlGroup.PROP_IS_CATALOG));
+        propertyTypeIds.put(Control.TYPE_ID, Collections.singleton(Control.PROP_IMPL));
+        graphElementLoader.setPropertyTypeIds(propertyTypeIds);
+        return OrganizationAggregate.create(getGraphService()
+                .createDirectedGraph(Collections.singletonList(graphElementLoader), false));
+    }
+
     private VeriniceGraph loadSafeguards(Integer scopeId, String... typeIds) {
         IGraphService graphService = getGraphService();
         IGraphElementLoader graphElementLoader = new GraphElementLoader();
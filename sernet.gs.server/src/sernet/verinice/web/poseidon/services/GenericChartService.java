@@ -22,6 +22,9 @@ package sernet.verinice.web.poseidon.services;
 import java.io.Serializable;
 
 import sernet.hui.common.VeriniceContext;
+import sernet.verinice.interfaces.ApplicationRoles;
+import sernet.verinice.interfaces.IAuthService;
+import sernet.verinice.interfaces.IConfigurationService;
 import sernet.verinice.interfaces.graph.IGraphService;
 import sernet.verinice.service.model.IObjectModelService;
 
@@ -41,4 +44,61 @@ public abstract class GenericChartService implements Serializable {
     IGraphService getGraphService() {
         return (IGraphService) VeriniceContext.get(VeriniceContext.GRAPH_SERVICE);
     }
+
+    ChartAggregateStore getChartAggregateStore() {
+        return (ChartAggregateStore) VeriniceContext.get(VeriniceContext.CHART_AGGREGATE_STORE);
+    }
+
+    IAuthService getAuthService() {
+        return (IAuthService) VeriniceContext.get(VeriniceContext.AUTH_SERVICE);
+    }
+
+    IConfigurationService getConfigurationService() {
+        return (IConfigurationService) VeriniceContext
+                .get(VeriniceContext.CONFIGURATION_SERVICE);
+    }
+
+    /**
+     * Returns the scope restriction of the current user for the
+     * {@link ChartAggregateStore}: the scope id if the user can only read the
+     * elements of one scope, {@link ChartAggregateStore#ALL_SCOPES} otherwise.
+     */
+    String getScopeRestriction() {
+        IAuthService authService = getAuthService();
+        if (!authService.isPermissionHandlingNeeded()) {
+            return ChartAggregateStore.ALL_SCOPES;
+        }
+        String username = authService.getUsername();
+        IConfigurationService configurationService = getConfigurationService();
+        if (configurationService != null && configurationService.isScopeOnly(username)) {
+            return String.valueOf(configurationService.getScopeId(username));
+        }
+        return ChartAggregateStore.ALL_SCOPES;
+    }
+
+    /**
+     * Returns true if the materialized aggregates of the
+     * {@link ChartAggregateStore} can be used for the current user. The
+     * aggregates contain all elements of a scope, hence they are only used
+     * for users who can read all elements.
+     */
+    boolean isChartAggregateStoreReadable() {
+        if (getChartAggregateStore() == null) {
+            return false;
+        }
+        IAuthService authService = getAuthService();
+        if (!authService.isPermissionHandlingNeeded()
+                || authService.getAdminUsername().equals(authService.getUsername())) {
+            return true;
+        }
+        String[] roles = authService.getRoles();
+        if (roles != null) {
+            for (String role : roles) {
+                if (ApplicationRoles.ROLE_ADMIN.equals(role)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
 }
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.web.poseidon.services;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import sernet.verinice.interfaces.graph.VeriniceGraph;
+import sernet.verinice.model.bsi.ITVerbund;
+import sernet.verinice.model.bsi.MassnahmenUmsetzung;
+import sernet.verinice.web.poseidon.services.strategy.ModuleChapterStates;
+import sernet.verinice.web.poseidon.services.strategy.SimpleSumOfStates;
+
+/**
+ * The materialized chart data of an IT network: the number of
+ * {@link MassnahmenUmsetzung} per implementation state and the counts per
+ * module chapter.
+ *
+ * Instances are immutable and are shared by all users, see
+ * {@link ChartAggregateStore}.
+ */
+public final class ItNetworkAggregate {
+
+    private final String title;
+    private final Map<String, Number> safeguardStates;
+    private final ModuleChapterStates moduleChapterStates;
+
+    private ItNetworkAggregate(String title, Map<String, Number> safeguardStates,
+            ModuleChapterStates moduleChapterStates) {
+        this.title = title;
+        this.safeguardStates = safeguardStates;
+        this.moduleChapterStates = moduleChapterStates;
+    }
+
+    /**
+     * @param g
+     *            A graph which contains the {@link ITVerbund}, the modules and
+     *            the safeguards of one IT network
+     */
+    public static ItNetworkAggregate create(VeriniceGraph g) {
+        Collection<ITVerbund> itNetworks = g.getElements(ITVerbund.class);
+        String title = itNetworks.isEmpty() ? null : itNetworks.iterator().next().getTitle();
+        Map<String, Number> safeguardStates = new HashMap<>(
+                new SimpleSumOfStates().aggregateData(g.getElements(MassnahmenUmsetzung.class)));
+        return new ItNetworkAggregate(title, safeguardStates, ModuleChapterStates.create(g));
+    }
+
+    /**
+     * @return The sum of the safeguard states of all aggregates
+     */
+    public static Map<String, Number> sumSafeguardStates(
+            Collection<ItNetworkAggregate> aggregates) {
+        Map<String, Number> sum = new HashMap<>();
+        for (ItNetworkAggregate aggregate : aggregates) {
+            aggregate.safeguardStates.forEach(
+                    (state, number) -> sum.merge(state, number, ItNetworkAggregate::add));
+        }
+        return sum;
+    }
+
+    /**
+     * @return The sum of the module chapter states of all aggregates
+     */
+    public static ModuleChapterStates sumModuleChapterStates(
+            Collection<ItNetworkAggregate> aggregates) {
+        ModuleChapterStates sum = new ModuleChapterStates();
+        for (ItNetworkAggregate aggregate : aggregates) {
+            sum.addAll(aggregate.moduleChapterStates);
+        }
+        return sum;
+    }
+
+    private static Number add(Number n1, Number n2) {
+        return n1.intValue() + n2.intValue();
+    }
+
+    public String getTitle() {
+        return title;
+    }
+}
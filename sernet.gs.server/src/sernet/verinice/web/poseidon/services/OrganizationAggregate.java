@@ -0,0 +1,101 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.web.poseidon.services;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+import sernet.verinice.interfaces.graph.VeriniceGraph;
+import sernet.verinice.model.iso27k.Control;
+import sernet.verinice.model.iso27k.ControlGroup;
+import sernet.verinice.model.iso27k.Organization;
+import sernet.verinice.web.poseidon.services.strategy.AggregateIsmsControlsStrategyImpl;
+
+/**
+ * The materialized chart data of an organization: the number of
+ * {@link Control} per implementation state for every catalog of the
+ * organization. A catalog is a {@link ControlGroup} which is tagged with
+ * property {@link ControlGroup#PROP_IS_CATALOG}.
+ *
+ * Instances are immutable and are shared by all users, see
+ * {@link ChartAggregateStore}.
+ */
+public final class OrganizationAggregate {
+
+    private final String title;
+
+    /**
+     * Key: db-id of a catalog, value: number of controls by implementation
+     * state
+     */
+    private final Map<Integer, Map<String, Number>> controlStatesByCatalog;
+
+    private OrganizationAggregate(String title,
+            Map<Integer, Map<String, Number>> controlStatesByCatalog) {
+        this.title = title;
+        this.controlStatesByCatalog = controlStatesByCatalog;
+    }
+
+    /**
+     * @param g
+     *            A directed graph which contains the {@link Organization},
+     *            the control groups and the controls of one organization
+     */
+    public static OrganizationAggregate create(VeriniceGraph g) {
+        Collection<Organization> organizations = g.getElements(Organization.class);
+        String title = organizations.isEmpty() ? null
+                : organizations.iterator().next().getTitle();
+        Map<Integer, Map<String, Number>> controlStatesByCatalog = new HashMap<>();
+        for (ControlGroup controlGroup : g.getElements(ControlGroup.class)) {
+            if ("1".equals(controlGroup.getEntity().getPropertyValue(ControlGroup.PROP_IS_CATALOG))) {
+                controlStatesByCatalog.put(controlGroup.getDbId(), new HashMap<>(
+                        new AggregateIsmsControlsStrategyImpl(g, controlGroup).getData()));
+            }
+        }
+        return new OrganizationAggregate(title, controlStatesByCatalog);
+    }
+
+    /**
+     * @return True if the aggregate contains the states of all catalogs
+     */
+    public boolean containsCatalogs(Collection<Integer> catalogIds) {
+        return controlStatesByCatalog.keySet().containsAll(catalogIds);
+    }
+
+    /**
+     * @return The sum of the control states of the catalogs
+     */
+    public Map<String, Number> getControlStates(Collection<Integer> catalogIds) {
+        Map<String, Number> sum = new HashMap<>();
+        for (Integer catalogId : catalogIds) {
+            Map<String, Number> states = controlStatesByCatalog.get(catalogId);
+            if (states != null) {
+                states.forEach((state, number) -> sum.merge(state, number,
+                        (n1, n2) -> n1.intValue() + n2.intValue()));
+            }
+        }
+        return sum;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+}
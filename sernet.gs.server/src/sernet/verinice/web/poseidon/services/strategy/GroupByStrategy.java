@@ -46,6 +46,19 @@ public interface GroupByStrategy {
      *         chapter names to the sum of all states of the key of the wrapping
      *         map.
      */
-    Map<String, Map<String, Number>> aggregateMassnahmen(VeriniceGraph g);
+    default Map<String, Map<String, Number>> aggregateMassnahmen(VeriniceGraph g) {
+        return aggregateMassnahmen(ModuleChapterStates.create(g));
+    }
+
+    /**
+     * Returns a map which contains the sum of the states of all
+     * {@link MassnahmenUmsetzung} grouped by the {@link BausteinUmsetzung}.
+     *
+     * @param states
+     *            The counted states of the {@link MassnahmenUmsetzung}, e.g.
+     *            from a materialized aggregate of an IT network.
+     * @return The same map as {@link #aggregateMassnahmen(VeriniceGraph)}
+     */
+    Map<String, Map<String, Number>> aggregateMassnahmen(ModuleChapterStates states);
 
 }
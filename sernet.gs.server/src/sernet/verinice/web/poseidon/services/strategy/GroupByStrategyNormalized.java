@@ -19,13 +19,9 @@
  ******************************************************************************/
 package sernet.verinice.web.poseidon.services.strategy;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
-import sernet.verinice.interfaces.graph.VeriniceGraph;
-import sernet.verinice.model.bsi.BausteinUmsetzung;
-
 /**
  *
  * @author Benjamin Weißenfels <bw[at]sernet[dot]de>
@@ -35,40 +31,24 @@ public class GroupByStrategyNormalized implements GroupByStrategy{
 
     public static final String GET_PARAM_IDENTIFIER = "normalized";
 
-    private Map<String, Map<String, Number>> aggregateMassnahmen;
-    private VeriniceGraph graph;
-    private Map<String,Integer> modul2Occurences;
-
     @Override
-    public Map<String, Map<String, Number>> aggregateMassnahmen(VeriniceGraph g) {
-        graph = g;
+    public Map<String, Map<String, Number>> aggregateMassnahmen(ModuleChapterStates states) {
         GroupByStrategy groupByStrategySum = new GroupByStrategySum();
-        aggregateMassnahmen = groupByStrategySum.aggregateMassnahmen(g);
-        counterOccurenceOfChapter();
-        normalize();
+        Map<String, Map<String, Number>> aggregateMassnahmen = groupByStrategySum
+                .aggregateMassnahmen(states);
+        normalize(aggregateMassnahmen, states);
         return aggregateMassnahmen;
     }
 
-    private void normalize() {
+    private void normalize(Map<String, Map<String, Number>> aggregateMassnahmen,
+            ModuleChapterStates states) {
       for(Map<String,Number> chapter2Massnahmen : aggregateMassnahmen.values()) {
           for(Entry<String,Number> e : chapter2Massnahmen.entrySet()){
-             int chapterOccurences =  modul2Occurences.get(e.getKey());
+             int chapterOccurences = states.getNumberOfModules(e.getKey());
              int numberOfStates = e.getValue().intValue();
              chapter2Massnahmen.put(e.getKey(), numberOfStates / chapterOccurences);
           }
       }
     }
 
-    private void counterOccurenceOfChapter() {
-        modul2Occurences = new HashMap<>();
-        for(BausteinUmsetzung bauU : graph.getElements(BausteinUmsetzung.class)){
-            if(!modul2Occurences.containsKey(bauU.getKapitel())){
-                modul2Occurences.put(bauU.getKapitel(), 1);
-            } else {
-                int count = modul2Occurences.get(bauU.getKapitel()) + 1;
-                modul2Occurences.put(bauU.getKapitel(), count);
-            }
-        }
-    }
-
 }
@@ -19,18 +19,13 @@
  ******************************************************************************/
 package sernet.verinice.web.poseidon.services.strategy;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
 
 import org.apache.log4j.Logger;
 
-import sernet.verinice.interfaces.graph.VeriniceGraph;
 import sernet.verinice.model.bsi.BausteinUmsetzung;
 import sernet.verinice.model.bsi.MassnahmenUmsetzung;
 import sernet.verinice.web.poseidon.services.CompareByTitle;
@@ -49,12 +44,10 @@ public class GroupByStrategySum implements GroupByStrategy {
     private static final Logger LOG = Logger.getLogger(GroupByStrategySum.class);
 
     @Override
-    public final Map<String, Map<String, Number>> aggregateMassnahmen(VeriniceGraph g) {
+    public final Map<String, Map<String, Number>> aggregateMassnahmen(ModuleChapterStates states) {
 
-        List<DataPoint> dataPoints = createDataPoints(g);
-        Map<String, List<DataPoint>> state2DataPoint = mapStatesToDataPoints(dataPoints);
-        Map<String, Map<String, Number>> data = aggregateDataPoints(state2DataPoint);
-        Set<String> moduleChapterNames = getStates(dataPoints);
+        Map<String, Map<String, Number>> data = aggregateDataPoints(states);
+        Set<String> moduleChapterNames = states.getChapters();
         fillUpStates(data, moduleChapterNames);
 
         return data;
@@ -86,67 +79,12 @@ public class GroupByStrategySum implements GroupByStrategy {
         }
     }
 
-    private Set<String> getStates(List<DataPoint> dataPoints) {
-        Set<String> ticks = new HashSet<>();
-        for (DataPoint d : dataPoints) {
-            ticks.add(d.getChapter());
-        }
-        return ticks;
-    }
-
-    private Map<String, Map<String, Number>> aggregateDataPoints(Map<String, List<DataPoint>> state2DataPoint) {
+    private Map<String, Map<String, Number>> aggregateDataPoints(ModuleChapterStates states) {
         Map<String, Map<String, Number>> data = new TreeMap<>(new CompareByTitle());
-        for (Entry<String, List<DataPoint>> e : state2DataPoint.entrySet()) {
-            data.put(e.getKey(), new HashMap<String, Number>());
-            for (DataPoint p : e.getValue()) {
-                Number number = data.get(e.getKey()).get(p.getChapter());
-                number = number == null ? 1 : number.intValue() + 1;
-                data.get(e.getKey()).put(p.getChapter(), number);
-            }
+        for (String state : states.getStates()) {
+            data.put(state, new HashMap<String, Number>(states.getNumberOfSafeguards(state)));
         }
         return data;
     }
 
-    private Map<String, List<DataPoint>> mapStatesToDataPoints(List<DataPoint> dataPoints) {
-        Map<String, List<DataPoint>> state2DataPoint = new HashMap<>();
-        for (DataPoint p : dataPoints) {
-            if (!state2DataPoint.containsKey(p.getState())) {
-                state2DataPoint.put(p.getState(), new ArrayList<DataPoint>());
-            }
-
-            state2DataPoint.get(p.getState()).add(p);
-        }
-        return state2DataPoint;
-    }
-
-    private List<DataPoint> createDataPoints(VeriniceGraph g) {
-        List<DataPoint> dataPoints = new ArrayList<>();
-
-        for (MassnahmenUmsetzung maU : g.getElements(MassnahmenUmsetzung.class)) {
-
-            dataPoints.add(new DataPoint((BausteinUmsetzung) g.getParent(maU), maU));
-        }
-        return dataPoints;
-    }
-
-    private static class DataPoint {
-
-        private BausteinUmsetzung bst;
-
-        private MassnahmenUmsetzung massnahmenUmsetzung;
-
-        public DataPoint(BausteinUmsetzung bst, MassnahmenUmsetzung massUms) {
-            this.bst = bst;
-            this.massnahmenUmsetzung = massUms;
-        }
-
-        public String getState() {
-            return massnahmenUmsetzung.getUmsetzung();
-        }
-
-        public String getChapter() {
-            return bst.getKapitel();
-        }
-    }
-
 }
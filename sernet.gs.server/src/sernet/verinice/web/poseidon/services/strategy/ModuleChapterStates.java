@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.web.poseidon.services.strategy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import sernet.verinice.interfaces.graph.VeriniceGraph;
+import sernet.verinice.model.bsi.BausteinUmsetzung;
+import sernet.verinice.model.bsi.MassnahmenUmsetzung;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Counts the {@link MassnahmenUmsetzung} per state and
+ * {@link BausteinUmsetzung#getKapitel()} value and the number of
+ * {@link BausteinUmsetzung} per chapter. The counts are the data from which
+ * the {@link GroupByStrategy} implementations calculate the chart data.
+ *
+ * Counts of several IT networks can be added with {@link #addAll(ModuleChapterStates)}.
+ */
+public class ModuleChapterStates {
+
+    /**
+     * Key: state, value: map of chapter to number of safeguards
+     */
+    private final Map<String, Map<String, Integer>> numberOfSafeguards = new HashMap<>();
+
+    /**
+     * Key: chapter, value: number of modules
+     */
+    private final Map<String, Integer> numberOfModules = new HashMap<>();
+
+    /**
+     * Counts the {@link MassnahmenUmsetzung} and {@link BausteinUmsetzung}
+     * of a graph. Safeguards which are not children of a module, e.g.
+     * safeguards of a risk analysis, are ignored.
+     */
+    public static ModuleChapterStates create(VeriniceGraph g) {
+        ModuleChapterStates states = new ModuleChapterStates();
+        for (MassnahmenUmsetzung maU : g.getElements(MassnahmenUmsetzung.class)) {
+            CnATreeElement parent = g.getParent(maU);
+            if (parent instanceof BausteinUmsetzung) {
+                states.addSafeguard(((BausteinUmsetzung) parent).getKapitel(), maU.getUmsetzung());
+            }
+        }
+        for (BausteinUmsetzung bauU : g.getElements(BausteinUmsetzung.class)) {
+            states.addModule(bauU.getKapitel());
+        }
+        return states;
+    }
+
+    public void addSafeguard(String chapter, String state) {
+        numberOfSafeguards.computeIfAbsent(state, s -> new HashMap<>()).merge(chapter, 1,
+                Integer::sum);
+    }
+
+    public void addModule(String chapter) {
+        numberOfModules.merge(chapter, 1, Integer::sum);
+    }
+
+    public void addAll(ModuleChapterStates other) {
+        for (Map.Entry<String, Map<String, Integer>> entry : other.numberOfSafeguards
+                .entrySet()) {
+            Map<String, Integer> chapters = numberOfSafeguards.computeIfAbsent(entry.getKey(),
+                    s -> new HashMap<>());
+            entry.getValue().forEach((chapter, n) -> chapters.merge(chapter, n, Integer::sum));
+        }
+        other.numberOfModules.forEach((chapter, n) -> numberOfModules.merge(chapter, n,
+                Integer::sum));
+    }
+
+    /**
+     * @return All states which occur at least once
+     */
+    public Set<String> getStates() {
+        return Collections.unmodifiableSet(numberOfSafeguards.keySet());
+    }
+
+    /**
+     * @return All chapters of modules with at least one safeguard
+     */
+    public Set<String> getChapters() {
+        Set<String> chapters = new HashSet<>();
+        for (Map<String, Integer> chapterToNumber : numberOfSafeguards.values()) {
+            chapters.addAll(chapterToNumber.keySet());
+        }
+        return chapters;
+    }
+
+    /**
+     * @return The number of safeguards of a state by chapter
+     */
+    public Map<String, Integer> getNumberOfSafeguards(String state) {
+        return Collections
+                .unmodifiableMap(numberOfSafeguards.getOrDefault(state, Collections.emptyMap()));
+    }
+
+    /**
+     * @return The number of modules with the given chapter
+     */
+    public int getNumberOfModules(String chapter) {
+        return numberOfModules.getOrDefault(chapter, 0);
+    }
+
+    /**
+     * @return True if no safeguard was counted
+     */
+    public boolean isEmpty() {
+        return numberOfSafeguards.isEmpty();
+    }
+}
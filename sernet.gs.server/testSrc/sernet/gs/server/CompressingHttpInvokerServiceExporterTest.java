@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.gs.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.remoting.support.RemoteInvocation;
+import org.springframework.remoting.support.RemoteInvocationResult;
+
+import sernet.gs.service.TransportStatistics;
+import sernet.gs.service.TransportStatistics.Measurement;
+
+public class CompressingHttpInvokerServiceExporterTest {
+
+    private static final String GZIP = TransportStatistics.ENCODING_GZIP;
+
+    // compresses well, the compressed requests and responses are smaller
+    private static final String TEXT = new String(new char[10000]).replace('\0', 'x');
+
+    private CompressingHttpInvokerServiceExporter exporter;
+
+    @Before
+    public void setUp() {
+        exporter = new CompressingHttpInvokerServiceExporter();
+        exporter.setService(new EchoServiceImpl());
+        exporter.setServiceInterface(EchoService.class);
+        exporter.afterPropertiesSet();
+    }
+
+    @Test
+    public void uncompressedRoundTrip() throws Exception {
+        MockHttpServletResponse response = invoke(false, false);
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertEquals(GZIP,
+                response.getHeader(TransportStatistics.HEADER_ACCEPT_REQUEST_ENCODING));
+        Assert.assertEquals(TEXT, readResult(response, false));
+        Measurement request = getMeasurement(exporter.getRequestStatistics());
+        Assert.assertEquals(request.getPayloadBytes(), request.getWireBytes());
+        Measurement result = getMeasurement(exporter.getResponseStatistics());
+        Assert.assertEquals(result.getPayloadBytes(), result.getWireBytes());
+    }
+
+    @Test
+    public void compressedRoundTrip() throws Exception {
+        MockHttpServletResponse response = invoke(true, true);
+        Assert.assertEquals(GZIP, response.getHeader("Content-Encoding"));
+        Assert.assertEquals(TEXT, readResult(response, true));
+        Measurement request = getMeasurement(exporter.getRequestStatistics());
+        Assert.assertTrue(request.getWireBytes() < request.getPayloadBytes());
+        Measurement result = getMeasurement(exporter.getResponseStatistics());
+        Assert.assertTrue(result.getWireBytes() < result.getPayloadBytes());
+    }
+
+    @Test
+    public void responseIsNotCompressedIfDisabled() throws Exception {
+        exporter.setCompressResponses(false);
+        MockHttpServletResponse response = invoke(true, true);
+        Assert.assertNull(response.getHeader("Content-Encoding"));
+        Assert.assertEquals(TEXT, readResult(response, false));
+    }
+
+    private MockHttpServletResponse invoke(boolean compressRequest, boolean acceptGzip)
+            throws Exception {
+        RemoteInvocation invocation = new RemoteInvocation("echo",
+                new Class[] { String.class }, new Object[] { TEXT });
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        OutputStream out = compressRequest ? new GZIPOutputStream(body) : body;
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+            objectOut.writeObject(invocation);
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/service/echo");
+        request.setContent(body.toByteArray());
+        if (compressRequest) {
+            request.addHeader("Content-Encoding", GZIP);
+        }
+        if (acceptGzip) {
+            request.addHeader("Accept-Encoding", GZIP);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        exporter.handleRequest(request, response);
+        return response;
+    }
+
+    private static Object readResult(MockHttpServletResponse response, boolean compressed)
+            throws IOException, ClassNotFoundException {
+        InputStream in = new ByteArrayInputStream(response.getContentAsByteArray());
+        if (compressed) {
+            in = new GZIPInputStream(in);
+        }
+        try (ObjectInputStream objectIn = new ObjectInputStream(in)) {
+            RemoteInvocationResult result = (RemoteInvocationResult) objectIn.readObject();
+            Assert.assertFalse(result.hasException());
+            return result.getValue();
+        }
+    }
+
+    private static Measurement getMeasurement(TransportStatistics statistics) {
+        Assert.assertEquals(1, statistics.getMeasurements().size());
+        return statistics.getMeasurements().values().iterator().next();
+    }
+
+    public interface EchoService {
+        String echo(String text);
+    }
+
+    private static final class EchoServiceImpl implements EchoService {
+
+        @Override
+        public String echo(String text) {
+            return text;
+        }
+    }
+}
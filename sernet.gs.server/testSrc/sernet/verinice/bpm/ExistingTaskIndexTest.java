@@ -0,0 +1,110 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.bpm;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sernet.verinice.interfaces.bpm.ITask;
+import sernet.verinice.model.bpm.TaskInformation;
+
+public class ExistingTaskIndexTest {
+
+    private static final String TITLE = "Implementation required";
+
+    @Test
+    public void getLogin() {
+        Assert.assertEquals("jdoe", ExistingTaskIndex.getLogin("John Doe [jdoe]"));
+        Assert.assertEquals("jdoe", ExistingTaskIndex.getLogin("Doe [IT] [jdoe]"));
+        Assert.assertNull(ExistingTaskIndex.getLogin("jdoe"));
+        Assert.assertNull(ExistingTaskIndex.getLogin(null));
+    }
+
+    @Test
+    public void containsTasksByElementTitleAndLogin() {
+        ExistingTaskIndex index = new ExistingTaskIndex(Arrays.asList(
+                createTask("uuid-1", TITLE, "John Doe [jdoe]"),
+                createTask("uuid-1", "Review required", "Jane Roe [jroe]"),
+                createTask("uuid-2", TITLE, "Jane Roe [jroe]")));
+
+        Assert.assertTrue(index.contains("uuid-1", TITLE, "jdoe"));
+        Assert.assertTrue(index.contains("uuid-1", "Review required", "jroe"));
+        Assert.assertTrue(index.contains("uuid-2", TITLE, "jroe"));
+        Assert.assertFalse(index.contains("uuid-1", TITLE, "jroe"));
+        Assert.assertFalse(index.contains("uuid-2", TITLE, "jdoe"));
+        Assert.assertFalse(index.contains("uuid-3", TITLE, "jdoe"));
+    }
+
+    @Test
+    public void detectsChangedTasks() {
+        ITask task1 = createTask("uuid-1", TITLE, "John Doe [jdoe]");
+        ITask task2 = createTask("uuid-1", TITLE, "Jane Roe [jroe]");
+        ITask task3 = createTask("uuid-2", TITLE, "Jane Roe [jroe]");
+        Map<String, Integer> lastRun = new ExistingTaskIndex(Arrays.asList(task1, task2, task3))
+                .getTaskHashes();
+        // task 2 was completed
+        Map<String, Integer> thisRun = new ExistingTaskIndex(Arrays.asList(task1, task3))
+                .getTaskHashes();
+
+        BpTaskCreatorState state = new BpTaskCreatorState(0, 0, 0, Collections.emptyMap(),
+                Collections.emptyMap(), lastRun);
+        Set<String> changed = state.getElementUuidsWithChangedTasks(thisRun);
+        Assert.assertEquals(Collections.singleton("uuid-1"), changed);
+    }
+
+    @Test
+    public void nextStateReplacesDueTimesOfHandledElements() {
+        Map<Integer, Long> dueTimes = new HashMap<>();
+        dueTimes.put(1, 100L);
+        dueTimes.put(2, 200L);
+        dueTimes.put(3, 300L);
+        Map<Integer, Integer> linkHashes = new HashMap<>();
+        linkHashes.put(1, 11);
+        linkHashes.put(2, 22);
+        BpTaskCreatorState state = new BpTaskCreatorState(0, 0, 0, linkHashes, dueTimes,
+                Collections.emptyMap());
+
+        Assert.assertEquals(Collections.singleton(1), state.getDueElementIds(150L));
+
+        Map<Integer, Integer> currentLinkHashes = new HashMap<>();
+        currentLinkHashes.put(1, 11);
+        currentLinkHashes.put(3, 33);
+        Assert.assertEquals(Set.of(2, 3), state.getElementIdsWithChangedLinks(currentLinkHashes));
+
+        BpTaskCreatorState next = state.next(1000L, 0, currentLinkHashes, Set.of(1, 2),
+                Collections.singletonMap(2, 500L), Collections.emptyMap());
+        Assert.assertEquals(1000L, next.getRunStart());
+        Assert.assertEquals(Map.of(2, 500L, 3, 300L), next.getDueTimes());
+    }
+
+    private static ITask createTask(String uuid, String title, String assignee) {
+        TaskInformation task = new TaskInformation();
+        task.setUuid(uuid);
+        task.setName(title);
+        task.setAssignee(assignee);
+        return task;
+    }
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sernet.verinice.model.licensemanagement.LicenseManagementEntry;
+
+public class LicenseIndexResetTest {
+
+    @Test
+    public void indexIsNotKeptIfResetWhileCreated() throws Exception {
+        ResettingService service = new ResettingService();
+        service.resetWhileReading = true;
+        LicenseIndex indexCreatedDuringReset = service.getLicenseIndex();
+
+        service.resetWhileReading = false;
+        LicenseIndex index = service.getLicenseIndex();
+
+        Assert.assertNotSame(indexCreatedDuringReset, index);
+        Assert.assertSame(index, service.getLicenseIndex());
+    }
+
+    @Test
+    public void resetDiscardsIndex() throws Exception {
+        ResettingService service = new ResettingService();
+        LicenseIndex index = service.getLicenseIndex();
+
+        service.resetLicenseIndex();
+
+        Assert.assertNotSame(index, service.getLicenseIndex());
+    }
+
+    private static final class ResettingService extends LicenseManagementServerModeService {
+
+        private boolean resetWhileReading;
+
+        @Override
+        public Set<LicenseManagementEntry> getExistingLicenses() {
+            if (resetWhileReading) {
+                // the vnl files are read again while the index is created
+                resetLicenseIndex();
+            }
+            return Collections.emptySet();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.test.context.transaction.TransactionConfiguration;
+import org.springframework.transaction.annotation.Transactional;
+
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.model.bp.elements.BpRequirement;
+import sernet.verinice.model.bp.elements.ItNetwork;
+import sernet.verinice.model.bp.groups.BpRequirementGroup;
+import sernet.verinice.service.test.AbstractModernizedBaseProtection;
+import sernet.verinice.service.tree.TreeNode;
+
+@TransactionConfiguration(transactionManager = "txManager")
+@Transactional
+public class LoadTreeNodesTest extends AbstractModernizedBaseProtection {
+
+    @Test
+    public void loadNodesOfChildren() throws CommandException {
+        ItNetwork itNetwork = createNewBPOrganization();
+        BpRequirementGroup requirementGroup = createRequirementGroup(itNetwork);
+        BpRequirement requirement = createBpRequirement(requirementGroup, "Requirement 1");
+
+        LoadTreeNodes command = commandService
+                .executeCommand(new LoadTreeNodes(itNetwork.getDbId()));
+        List<TreeNode> nodes = command.getNodes();
+        assertEquals(1, nodes.size());
+        assertEquals(1, command.getTotalNumberOfNodes());
+        TreeNode groupNode = nodes.get(0);
+        assertEquals(requirementGroup.getUuid(), groupNode.getUuid());
+        assertEquals(BpRequirementGroup.TYPE_ID, groupNode.getTypeId());
+        assertEquals(itNetwork.getDbId(), groupNode.getParentId());
+        assertEquals(itNetwork.getScopeId(), groupNode.getScopeId());
+        assertTrue(groupNode.isGroup());
+        assertTrue(groupNode.hasChildren());
+
+        command = commandService
+                .executeCommand(new LoadTreeNodes(requirementGroup.getDbId()));
+        TreeNode requirementNode = command.getNodes().get(0);
+        assertEquals(requirement.getDbId(), requirementNode.getDbId());
+        assertTrue(requirementNode.getTitle().contains("Requirement 1"));
+        assertFalse(requirementNode.isGroup());
+        assertFalse(requirementNode.hasChildren());
+    }
+
+    @Test
+    public void loadPagesOfNodes() throws CommandException {
+        ItNetwork itNetwork = createNewBPOrganization();
+        BpRequirementGroup requirementGroup = createRequirementGroup(itNetwork);
+        for (int i = 0; i < 5; i++) {
+            createBpRequirement(requirementGroup, "Requirement " + i);
+        }
+
+        LoadTreeNodes command = commandService
+                .executeCommand(new LoadTreeNodes(requirementGroup.getDbId(), 0, 2, null));
+        List<TreeNode> firstPage = command.getNodes();
+        assertEquals(2, firstPage.size());
+        assertEquals(5, command.getTotalNumberOfNodes());
+        assertTrue(command.hasMoreNodes());
+
+        command = commandService
+                .executeCommand(new LoadTreeNodes(requirementGroup.getDbId(), 4, 2, null));
+        List<TreeNode> lastPage = command.getNodes();
+        assertEquals(1, lastPage.size());
+        assertFalse(command.hasMoreNodes());
+        assertTrue(firstPage.get(1).getDbId() < lastPage.get(0).getDbId());
+    }
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.annotation.Resource;
+import javax.sql.DataSource;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import sernet.gs.service.RetrieveInfo;
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.IAttachmentStore;
+import sernet.verinice.model.bsi.Attachment;
+import sernet.verinice.model.bsi.AttachmentStoreStatistics;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.iso27k.Asset;
+import sernet.verinice.model.iso27k.Group;
+import sernet.verinice.model.iso27k.Organization;
+import sernet.verinice.service.AttachmentStore;
+import sernet.verinice.service.commands.AttachmentFileCreationFactory;
+import sernet.verinice.service.commands.CopyCommand;
+import sernet.verinice.service.commands.LoadAttachmentFile;
+import sernet.verinice.service.commands.LoadAttachments;
+import sernet.verinice.service.commands.SaveNote;
+
+/**
+ * Tests the attachment store: A copy of an attachment references the content
+ * of the attachment and the content is removed when the last attachment
+ * referencing it is deleted. The file of a new content is removed if the
+ * transaction which stored it is rolled back.
+ */
+public class AttachmentStoreTest extends CommandServiceProvider {
+
+    private static final int FILE_SIZE = 100000;
+
+    @Resource(name = "attachmentStore")
+    private IAttachmentStore attachmentStore;
+
+    @Resource(name = "dataSource")
+    private DataSource dataSource;
+
+    @Resource(name = "txManager")
+    private PlatformTransactionManager txManager;
+
+    @Test
+    public void copyReferencesContentOfAttachment() throws Exception {
+        Organization organization = createOrganization(
+                AttachmentStoreTest.class.getSimpleName());
+        Group<CnATreeElement> assetGroup = getGroupForClass(organization, Asset.class);
+        CnATreeElement asset = createNewElement(assetGroup, Asset.class);
+        byte[] fileData = new byte[FILE_SIZE];
+        new Random().nextBytes(fileData);
+        Attachment attachment = createAttachment(asset);
+        AttachmentFileCreationFactory.createAttachmentFile(attachment, fileData);
+        AttachmentStoreStatistics before = attachmentStore.getStatistics();
+
+        CopyCommand copyCommand = new CopyCommand(assetGroup.getUuid(),
+                Collections.singletonList(asset.getUuid()));
+        copyCommand.setCopyAttachments(true);
+        copyCommand = commandService.executeCommand(copyCommand);
+
+        AttachmentStoreStatistics afterCopy = attachmentStore.getStatistics();
+        assertEquals(before.getContents(), afterCopy.getContents());
+        assertEquals(before.getReferences() + 1, afterCopy.getReferences());
+        assertEquals(before.getSavedBytes() + FILE_SIZE, afterCopy.getSavedBytes());
+        CnATreeElement copy = elementDao.findByUuid(copyCommand.getNewElements().get(0),
+                RetrieveInfo.getPropertyInstance());
+        List<Attachment> attachmentsOfCopy = loadAttachments(copy);
+        assertEquals(1, attachmentsOfCopy.size());
+        assertArrayEquals(fileData, loadFileData(attachmentsOfCopy.get(0)));
+        assertArrayEquals(fileData, loadFileData(attachment));
+
+        removeElement(copy);
+        AttachmentStoreStatistics afterRemovingCopy = attachmentStore.getStatistics();
+        assertEquals(before.getContents(), afterRemovingCopy.getContents());
+        assertEquals(before.getReferences(), afterRemovingCopy.getReferences());
+        assertArrayEquals(fileData, loadFileData(attachment));
+
+        removeElement(organization);
+        AttachmentStoreStatistics afterRemovingOriginal = attachmentStore.getStatistics();
+        assertEquals(before.getContents() - 1, afterRemovingOriginal.getContents());
+        assertEquals(before.getStoredBytes() - FILE_SIZE, afterRemovingOriginal.getStoredBytes());
+    }
+
+    @Test
+    public void rollbackRemovesFileOfNewContent() throws Exception {
+        File directory = File.createTempFile("attachment-store-test", "");
+        FileUtils.forceDelete(directory);
+        try {
+            final AttachmentStore fileSystemStore = new AttachmentStore();
+            fileSystemStore.setDataSource(dataSource);
+            fileSystemStore.setDirectory(directory.getAbsolutePath());
+            fileSystemStore.init();
+            final byte[] fileData = new byte[FILE_SIZE];
+            new Random().nextBytes(fileData);
+
+            String hash = (String) new TransactionTemplate(txManager).execute(status -> {
+                status.setRollbackOnly();
+                try {
+                    return fileSystemStore.store(new ByteArrayInputStream(fileData));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+
+            assertFalse(new File(new File(directory, hash.substring(0, 2)), hash).exists());
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    private Attachment createAttachment(CnATreeElement element) throws CommandException {
+        Attachment attachment = new Attachment();
+        attachment.setCnATreeElement(element);
+        attachment.setCnAElementTitel(element.getTitle());
+        attachment.setTitel("attachment-store-test.bin");
+        attachment.setDate(Calendar.getInstance().getTime());
+        attachment.setFileSize(String.valueOf(FILE_SIZE));
+        SaveNote command = new SaveNote(attachment);
+        command = commandService.executeCommand(command);
+        return (Attachment) command.getAddition();
+    }
+
+    private List<Attachment> loadAttachments(CnATreeElement element) throws CommandException {
+        LoadAttachments command = new LoadAttachments(element.getDbId());
+        command = commandService.executeCommand(command);
+        return command.getAttachmentList();
+    }
+
+    private byte[] loadFileData(Attachment attachment) throws CommandException {
+        LoadAttachmentFile command = new LoadAttachmentFile(attachment.getDbId());
+        command = commandService.executeCommand(command);
+        assertNotNull(command.getAttachmentFile());
+        return command.getAttachmentFile().getFileData();
+    }
+}
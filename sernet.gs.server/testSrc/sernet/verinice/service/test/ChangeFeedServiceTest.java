@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.test;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import sernet.verinice.model.bsi.MassnahmenUmsetzung;
+import sernet.verinice.model.common.ChangeLogEntry;
+import sernet.verinice.model.common.ChangeSet;
+import sernet.verinice.service.ChangeFeedService;
+
+public class ChangeFeedServiceTest {
+
+    private static final String STATION = "station";
+    private static final String OTHER_STATION = "other-station";
+
+    private ChangeFeedService changeFeed;
+
+    @Before
+    public void setUp() {
+        changeFeed = new ChangeFeedService();
+        changeFeed.setCapacity(5);
+    }
+
+    @Test
+    public void firstRequestReturnsCurrentSequence() {
+        changeFeed.publish(Arrays.asList(entry(1, ChangeLogEntry.TYPE_UPDATE, OTHER_STATION)));
+        ChangeSet changeSet = changeFeed.getChanges(-1, STATION, 1000);
+        Assert.assertTrue(changeSet.isComplete());
+        Assert.assertTrue(changeSet.isEmpty());
+        Assert.assertEquals(1, changeSet.getSequence());
+        Assert.assertEquals(changeFeed.getFeedId(), changeSet.getFeedId());
+    }
+
+    @Test
+    public void changesAreCoalesced() {
+        changeFeed.publish(Arrays.asList(entry(1, ChangeLogEntry.TYPE_INSERT, OTHER_STATION),
+                entry(1, ChangeLogEntry.TYPE_UPDATE, OTHER_STATION),
+                entry(2, ChangeLogEntry.TYPE_UPDATE, OTHER_STATION),
+                entry(2, ChangeLogEntry.TYPE_UPDATE, OTHER_STATION),
+                entry(2, ChangeLogEntry.TYPE_PERMISSION, OTHER_STATION)));
+        ChangeSet changeSet = changeFeed.getChanges(0, STATION, 0);
+        Assert.assertEquals(5, changeSet.getSequence());
+        Assert.assertEquals(3, changeSet.getEntries().size());
+        Assert.assertEquals(ChangeLogEntry.TYPE_INSERT, changeSet.getEntries().get(0).getChange());
+        Assert.assertEquals(ChangeLogEntry.TYPE_UPDATE, changeSet.getEntries().get(1).getChange());
+        Assert.assertEquals(ChangeLogEntry.TYPE_PERMISSION,
+                changeSet.getEntries().get(2).getChange());
+    }
+
+    @Test
+    public void changesOfOwnStationAreSkipped() {
+        changeFeed.publish(Arrays.asList(entry(1, ChangeLogEntry.TYPE_UPDATE, STATION)));
+        ChangeSet changeSet = changeFeed.getChanges(0, STATION, 0);
+        Assert.assertTrue(changeSet.isComplete());
+        Assert.assertTrue(changeSet.isEmpty());
+        Assert.assertEquals(1, changeSet.getSequence());
+    }
+
+    @Test
+    public void lostChangesAreReported() {
+        for (int i = 1; i <= 7; i++) {
+            changeFeed.publish(Arrays.asList(entry(i, ChangeLogEntry.TYPE_UPDATE, OTHER_STATION)));
+        }
+        Assert.assertFalse(changeFeed.getChanges(1, STATION, 0).isComplete());
+        ChangeSet changeSet = changeFeed.getChanges(2, STATION, 0);
+        Assert.assertTrue(changeSet.isComplete());
+        Assert.assertEquals(5, changeSet.getEntries().size());
+        Assert.assertFalse(changeFeed.getChanges(8, STATION, 0).isComplete());
+    }
+
+    @Test
+    public void waitingRequestReturnsPublishedChanges() throws InterruptedException {
+        Thread publisher = new Thread(() -> {
+            while (changeFeed.getWaitingRequests() == 0) {
+                Thread.yield();
+            }
+            changeFeed.publish(Arrays.asList(entry(1, ChangeLogEntry.TYPE_UPDATE, OTHER_STATION)));
+        });
+        publisher.start();
+        ChangeSet changeSet = changeFeed.getChanges(0, STATION, 10000);
+        publisher.join();
+        Assert.assertEquals(1, changeSet.getEntries().size());
+        Assert.assertEquals(Integer.valueOf(1), changeSet.getEntries().get(0).getElementId());
+        Assert.assertFalse(changeSet.isRejected());
+        Assert.assertEquals(0, changeFeed.getWaitingRequests());
+    }
+
+    @Test
+    public void requestsDoNotWaitIfLimitIsReached() {
+        changeFeed.setMaxWaitingRequests(0);
+        long start = System.currentTimeMillis();
+        ChangeSet changeSet = changeFeed.getChanges(0, STATION, 10000);
+        Assert.assertTrue(changeSet.isEmpty());
+        Assert.assertTrue(changeSet.isRejected());
+        Assert.assertTrue(System.currentTimeMillis() - start < 5000);
+    }
+
+    private static ChangeLogEntry entry(int elementId, int change, String stationId) {
+        MassnahmenUmsetzung element = new MassnahmenUmsetzung();
+        element.setDbId(elementId);
+        return new ChangeLogEntry(element, change, "jdoe", stationId, new Date());
+    }
+}
@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.test;
+
+import static sernet.verinice.web.poseidon.services.ChartAggregateStore.ALL_SCOPES;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import sernet.verinice.interfaces.graph.UndirectedVeriniceGraph;
+import sernet.verinice.model.bsi.MassnahmenUmsetzung;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.iso27k.Document;
+import sernet.verinice.web.poseidon.services.ChartAggregateStore;
+import sernet.verinice.web.poseidon.services.OrganizationAggregate;
+
+public class ChartAggregateStoreTest {
+
+    private ChartAggregateStore store;
+    private AtomicInteger numberOfLoads;
+    private Function<Integer, OrganizationAggregate> loader;
+
+    @Before
+    public void setUp() {
+        store = new ChartAggregateStore();
+        numberOfLoads = new AtomicInteger();
+        loader = scopeId -> {
+            numberOfLoads.incrementAndGet();
+            return OrganizationAggregate.create(new UndirectedVeriniceGraph());
+        };
+    }
+
+    @Test
+    public void aggregateIsCreatedOnce() {
+        OrganizationAggregate aggregate = store.getOrganizationAggregate(1, ALL_SCOPES, loader);
+        Assert.assertSame(aggregate, store.getOrganizationAggregate(1, ALL_SCOPES, loader));
+        Assert.assertEquals(1, numberOfLoads.get());
+        store.getOrganizationAggregate(2, ALL_SCOPES, loader);
+        Assert.assertEquals(2, numberOfLoads.get());
+    }
+
+    @Test
+    public void changedElementInvalidatesItsScope() {
+        store.getOrganizationAggregate(1, ALL_SCOPES, loader);
+        store.getOrganizationAggregate(2, ALL_SCOPES, loader);
+        store.elementsChanged(Collections.singleton(createElement(new MassnahmenUmsetzung(), 1)));
+        store.getOrganizationAggregate(1, ALL_SCOPES, loader);
+        store.getOrganizationAggregate(2, ALL_SCOPES, loader);
+        Assert.assertEquals(3, numberOfLoads.get());
+    }
+
+    @Test
+    public void elementsOfOtherTypesAreIgnored() {
+        store.getOrganizationAggregate(1, ALL_SCOPES, loader);
+        store.elementsChanged(Collections.singleton(createElement(new Document(), 1)));
+        store.getOrganizationAggregate(1, ALL_SCOPES, loader);
+        Assert.assertEquals(1, numberOfLoads.get());
+    }
+
+    @Test
+    public void elementWithoutScopeInvalidatesAll() {
+        store.getOrganizationAggregate(1, ALL_SCOPES, loader);
+        store.getOrganizationAggregate(2, ALL_SCOPES, loader);
+        store.elementsChanged(Arrays.asList(createElement(new Document(), 1),
+                createElement(new MassnahmenUmsetzung(), null)));
+        Assert.assertEquals(0, store.getNumberOfAggregates());
+    }
+
+    @Test
+    public void aggregateChangedWhileLoadingIsNotStored() {
+        Function<Integer, OrganizationAggregate> changingLoader = scopeId -> {
+            OrganizationAggregate aggregate = loader.apply(scopeId);
+            store.elementsChanged(Collections.singleton(createElement(new MassnahmenUmsetzung(), scopeId)));
+            return aggregate;
+        };
+        Assert.assertNotNull(store.getOrganizationAggregate(1, ALL_SCOPES, changingLoader));
+        Assert.assertEquals(0, store.getNumberOfAggregates());
+        store.getOrganizationAggregate(1, ALL_SCOPES, loader);
+        Assert.assertEquals(1, store.getNumberOfAggregates());
+        Assert.assertEquals(2, numberOfLoads.get());
+    }
+
+    @Test
+    public void aggregatesAreStoredPerRestriction() {
+        OrganizationAggregate aggregate = store.getOrganizationAggregate(1, ALL_SCOPES, loader);
+        Assert.assertNotSame(aggregate, store.getOrganizationAggregate(1, "2", loader));
+        Assert.assertSame(aggregate, store.getOrganizationAggregate(1, ALL_SCOPES, loader));
+        Assert.assertEquals(2, numberOfLoads.get());
+        store.elementsChanged(Collections.singleton(createElement(new MassnahmenUmsetzung(), 1)));
+        Assert.assertEquals(0, store.getNumberOfAggregates());
+    }
+
+    @Test
+    public void deletedElementInvalidatesItsScopeRegardlessOfType() {
+        store.getOrganizationAggregate(1, ALL_SCOPES, loader);
+        store.getOrganizationAggregate(2, ALL_SCOPES, loader);
+        store.elementsDeleted(Collections.singleton(createElement(new Document(), 1)));
+        Assert.assertEquals(1, store.getNumberOfAggregates());
+    }
+
+    @Test
+    public void movedSubtreeInvalidatesOldAndNewScope() {
+        store.getOrganizationAggregate(1, ALL_SCOPES, loader);
+        store.getOrganizationAggregate(2, ALL_SCOPES, loader);
+        store.getOrganizationAggregate(3, ALL_SCOPES, loader);
+        store.elementsMoved(Collections.singleton(createElement(new Document(), 2)), Set.of(1));
+        Assert.assertEquals(1, store.getNumberOfAggregates());
+        store.getOrganizationAggregate(3, ALL_SCOPES, loader);
+        Assert.assertEquals(3, numberOfLoads.get());
+    }
+
+    @Test
+    public void invalidateAll() {
+        store.getOrganizationAggregate(1, ALL_SCOPES, loader);
+        store.invalidateAll();
+        store.getOrganizationAggregate(1, ALL_SCOPES, loader);
+        Assert.assertEquals(2, numberOfLoads.get());
+    }
+
+    private static CnATreeElement createElement(CnATreeElement element, Integer scopeId) {
+        element.setScopeId(scopeId);
+        return element;
+    }
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.hibernate.event.PostLoadEvent;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.ICachedCommand;
+import sernet.verinice.model.bsi.MassnahmenUmsetzung;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.service.CommandResultCache;
+import sernet.verinice.service.CommandResultCacheLoadListener;
+
+public class CommandResultCacheTest {
+
+    private static final String USER = "jdoe";
+
+    private CommandResultCache cache;
+    private CommandResultCacheLoadListener loadListener;
+
+    @Before
+    public void setUp() {
+        cache = new CommandResultCache();
+        loadListener = new CommandResultCacheLoadListener();
+        loadListener.setCommandResultCache(cache);
+    }
+
+    @Test
+    public void resultIsCopied() {
+        execute(new TitleCommand(1), USER, 10);
+        TitleCommand command = new TitleCommand(1);
+        Assert.assertTrue(cache.injectCachedResult(command, USER));
+        Assert.assertEquals(Arrays.asList("Title 1"), command.titles);
+        command.titles.add("changed");
+        TitleCommand otherCommand = new TitleCommand(1);
+        cache.injectCachedResult(otherCommand, USER);
+        Assert.assertEquals(Arrays.asList("Title 1"), otherCommand.titles);
+    }
+
+    @Test
+    public void resultsAreCachedPerPermissionContext() {
+        execute(new TitleCommand(1), USER, 10);
+        Assert.assertFalse(cache.injectCachedResult(new TitleCommand(1), "admin"));
+        Assert.assertFalse(cache.injectCachedResult(new TitleCommand(2), USER));
+        Assert.assertTrue(cache.injectCachedResult(new TitleCommand(1), USER));
+        CommandResultCache.CommandStatistics statistics = cache.getStatistics()
+                .get(TitleCommand.class.getName());
+        Assert.assertEquals(1, statistics.getHits());
+        Assert.assertEquals(2, statistics.getMisses());
+    }
+
+    @Test
+    public void changedScopeInvalidatesResults() {
+        execute(new TitleCommand(1), USER, 10);
+        execute(new TitleCommand(2), USER, 20);
+        cache.elementsChanged(Collections.singleton(createElement(10)));
+        Assert.assertFalse(cache.injectCachedResult(new TitleCommand(1), USER));
+        Assert.assertTrue(cache.injectCachedResult(new TitleCommand(2), USER));
+        cache.elementsDeleted(Collections.singleton(createElement(20)));
+        Assert.assertEquals(0, cache.getNumberOfResults());
+    }
+
+    @Test
+    public void resultWithoutScopeIsInvalidatedByEveryChange() {
+        execute(new TitleCommand(1), USER, null);
+        execute(new TitleCommand(2), USER, 20);
+        cache.elementsChanged(Collections.singleton(createElement(30)));
+        Assert.assertFalse(cache.injectCachedResult(new TitleCommand(1), USER));
+        Assert.assertTrue(cache.injectCachedResult(new TitleCommand(2), USER));
+        cache.elementsChanged(Collections.singleton(createElement(null)));
+        Assert.assertEquals(0, cache.getNumberOfResults());
+    }
+
+    @Test
+    public void changedLinkInvalidatesResultsOfItsScopes() {
+        execute(new TitleCommand(1), USER, 10);
+        execute(new TitleCommand(2), USER, 20);
+        cache.relatedObjectsChanged(new HashSet<>(Arrays.asList(10, 30)));
+        Assert.assertFalse(cache.injectCachedResult(new TitleCommand(1), USER));
+        Assert.assertTrue(cache.injectCachedResult(new TitleCommand(2), USER));
+        cache.relatedObjectsChanged(Collections.singleton(null));
+        Assert.assertEquals(0, cache.getNumberOfResults());
+    }
+
+    @Test
+    public void expiredResultIsExecutedAgain() throws InterruptedException {
+        execute(new TitleCommand(1), USER, 10);
+        Assert.assertTrue(cache.injectCachedResult(new TitleCommand(1), USER));
+        cache.setMaxAgeSeconds(0);
+        Thread.sleep(10);
+        Assert.assertFalse(cache.injectCachedResult(new TitleCommand(1), USER));
+        Assert.assertEquals(0, cache.getNumberOfResults());
+    }
+
+    @Test
+    public void resultChangedWhileExecutingIsNotStored() {
+        TitleCommand command = new TitleCommand(1);
+        cache.startRecording();
+        try {
+            load(10);
+            command.execute();
+            cache.elementsChanged(Collections.singleton(createElement(10)));
+            cache.store(command, USER);
+        } finally {
+            cache.stopRecording();
+        }
+        Assert.assertEquals(0, cache.getNumberOfResults());
+    }
+
+    @Test
+    public void leastRecentlyUsedResultsAreEvicted() {
+        cache.setMaxMegabytes(1);
+        for (int i = 0; i < 200; i++) {
+            execute(new TitleCommand(i, 10000), USER, 10);
+        }
+        Assert.assertTrue(cache.getBytes() <= 1024 * 1024);
+        Assert.assertTrue(cache.getEvictions() > 0);
+        Assert.assertFalse(cache.injectCachedResult(new TitleCommand(0, 10000), USER));
+        Assert.assertTrue(cache.injectCachedResult(new TitleCommand(199, 10000), USER));
+    }
+
+    private void execute(TitleCommand command, String permissionContext, Integer scopeId) {
+        cache.startRecording();
+        try {
+            load(scopeId);
+            command.execute();
+            cache.store(command, permissionContext);
+        } finally {
+            cache.stopRecording();
+        }
+    }
+
+    private void load(Integer scopeId) {
+        CnATreeElement element = createElement(scopeId);
+        loadListener.onPostLoad(new PostLoadEvent(null).setEntity(element));
+    }
+
+    private static CnATreeElement createElement(Integer scopeId) {
+        CnATreeElement element = new MassnahmenUmsetzung();
+        element.setScopeId(scopeId);
+        return element;
+    }
+
+    private static final class TitleCommand extends GenericCommand implements ICachedCommand {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int number;
+        private final int length;
+        private ArrayList<String> titles;
+
+        private TitleCommand(int number) {
+            this(number, 0);
+        }
+
+        private TitleCommand(int number, int length) {
+            this.number = number;
+            this.length = length;
+        }
+
+        @Override
+        public void execute() {
+            titles = new ArrayList<>();
+            titles.add("Title " + number);
+            if (length > 0) {
+                titles.add(new String(new char[length]));
+            }
+        }
+
+        @Override
+        public String getCacheID() {
+            return number + "/" + length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void injectCacheResult(Object result) {
+            titles = (ArrayList<String>) result;
+        }
+
+        @Override
+        public Object getCacheableResult() {
+            return titles;
+        }
+    }
+}
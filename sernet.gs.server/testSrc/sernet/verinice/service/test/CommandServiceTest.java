@@ -44,6 +44,7 @@ import sernet.hui.common.connect.Entity;
 import sernet.hui.common.connect.EntityType;
 import sernet.hui.common.connect.HUITypeFactory;
 import sernet.hui.common.connect.PropertyType;
+import sernet.verinice.interfaces.CommandBatch;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.model.bp.elements.IBpRoot;
 import sernet.verinice.model.bsi.BSIModel;
@@ -167,6 +168,29 @@ public class CommandServiceTest extends CommandServiceProvider {
         }
     }
 
+    /**
+     * Loads elements by a command batch and checks that the results are
+     * returned in the order of the commands.
+     */
+    @Test
+    public void testLoadElementsInBatch() throws Exception {
+        List<String> uuidList = getAllUuids();
+        if (uuidList.size() > NUMBER_OF_ELEMENTS) {
+            uuidList = uuidList.subList(0, NUMBER_OF_ELEMENTS);
+        }
+        CommandBatch batch = new CommandBatch(commandService);
+        List<CommandBatch.Result<LoadElementByUuid<CnATreeElement>>> results = new LinkedList<>();
+        for (String uuid : uuidList) {
+            results.add(batch.add(new LoadElementByUuid<CnATreeElement>(uuid)));
+        }
+        assertEquals(uuidList.size(), batch.size());
+        batch.flush();
+        assertEquals(0, batch.size());
+        for (int i = 0; i < uuidList.size(); i++) {
+            assertEquals(uuidList.get(i), results.get(i).get().getElement().getUuid());
+        }
+    }
+
     /**
      * Creates a new organization and for every group in it NUMBER_PER_GROUP
      * elements.
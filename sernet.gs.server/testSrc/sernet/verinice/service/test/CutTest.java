@@ -19,6 +19,7 @@
  ******************************************************************************/
 package sernet.verinice.service.test;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
@@ -27,16 +28,21 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
 
+import javax.annotation.Resource;
+
 import org.apache.log4j.Logger;
 import org.junit.Test;
 
 import sernet.gs.service.RetrieveInfo;
 import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.ITreeTopologyIndex;
 import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.iso27k.Asset;
 import sernet.verinice.model.iso27k.Group;
 import sernet.verinice.model.iso27k.Organization;
 import sernet.verinice.service.commands.CutCommand;
 import sernet.verinice.service.commands.LoadElementByUuid;
+import sernet.verinice.service.commands.LoadSubtreeIds;
 import sernet.verinice.service.commands.RemoveElement;
 
 /**
@@ -50,6 +56,11 @@ public class CutTest extends CommandServiceProvider {
 
     private static final int NUMBER_PER_GROUP = 1;
 
+    private static final long INDEX_TIMEOUT_MS = 30000;
+
+    @Resource(name = "treeTopologyIndex")
+    private ITreeTopologyIndex treeTopologyIndex;
+
     private List<String> uuidList;
 
     @Test
@@ -77,6 +88,59 @@ public class CutTest extends CommandServiceProvider {
         }
     }
 
+    /**
+     * Moves a group with a sub-group and an asset to another organization and
+     * checks that the subtree of the target organization which is loaded from
+     * the tree topology index contains the moved elements.
+     */
+    @Test
+    public void testCutAcrossScopes() throws Exception {
+        Organization source = createOrganization();
+        Organization target = createOrganization();
+        Group<CnATreeElement> sourceGroup = getGroupForClass(source, Asset.class);
+        @SuppressWarnings("unchecked")
+        Group<CnATreeElement> movedGroup = (Group<CnATreeElement>) createNewNamedGroup(
+                sourceGroup, 0);
+        @SuppressWarnings("unchecked")
+        Group<CnATreeElement> subGroup = (Group<CnATreeElement>) createNewNamedGroup(movedGroup,
+                1);
+        CnATreeElement asset = createNewElement(subGroup, Asset.class);
+        waitForTreeTopologyIndex();
+
+        List<String> cutUuidList = new LinkedList<>();
+        cutUuidList.add(movedGroup.getUuid());
+        CutCommand cutCommand = new CutCommand(getGroupForClass(target, Asset.class).getUuid(),
+                cutUuidList);
+        commandService.executeCommand(cutCommand);
+
+        assertTrue("Tree topology index is not available.", treeTopologyIndex.isAvailable());
+        Set<Integer> targetSubtree = loadSubtreeIds(target);
+        assertTrue("Moved group not in target subtree.",
+                targetSubtree.contains(movedGroup.getDbId()));
+        assertTrue("Sub-group not in target subtree.",
+                targetSubtree.contains(subGroup.getDbId()));
+        assertTrue("Asset not in target subtree.", targetSubtree.contains(asset.getDbId()));
+        assertFalse("Asset still in source subtree.",
+                loadSubtreeIds(source).contains(asset.getDbId()));
+
+        removeElement(source);
+        removeElement(target);
+    }
+
+    private Set<Integer> loadSubtreeIds(Organization organization) throws CommandException {
+        CnATreeElement element = elementDao.findByUuid(organization.getUuid(), null);
+        return commandService.executeCommand(new LoadSubtreeIds(element)).getDbIdsOfSubtree();
+    }
+
+    private void waitForTreeTopologyIndex() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        while (!treeTopologyIndex.isAvailable()) {
+            assertTrue("Tree topology index not loaded.",
+                    System.currentTimeMillis() - start < INDEX_TIMEOUT_MS);
+            Thread.sleep(100);
+        }
+    }
+
     /**
      * @param organization
      * @throws CommandException
@@ -24,8 +24,12 @@ import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 
 import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.Resource;
 
@@ -35,6 +39,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.matchers.JUnitMatchers;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import sernet.gs.service.RetrieveInfo;
 import sernet.verinice.interfaces.CommandException;
@@ -51,6 +57,8 @@ import sernet.verinice.model.search.VeriniceSearchResult;
 import sernet.verinice.model.search.VeriniceSearchResultRow;
 import sernet.verinice.model.search.VeriniceSearchResultTable;
 import sernet.verinice.search.IElementSearchDao;
+import sernet.verinice.search.ISearchDao;
+import sernet.verinice.search.IndexUpdateQueue;
 import sernet.verinice.search.Indexer;
 import sernet.verinice.service.commands.SyncCommand;
 import sernet.verinice.service.commands.SyncParameter;
@@ -71,6 +79,8 @@ public class ElasticsearchTest extends AbstractModernizedBaseProtection {
 
     private static final String VNA_FILENAME = "ElasticsearchTest.vna";
 
+    private static final long CHANGE_LOG_BACKDATE_MS = 60L * 60L * 1000L;
+
     @Resource(name = "searchIndexer")
     protected Indexer searchIndexer;
 
@@ -83,6 +93,9 @@ public class ElasticsearchTest extends AbstractModernizedBaseProtection {
     @Resource(name = "jsonBuilder")
     protected IJsonBuilder jsonBuilder;
 
+    @Resource(name = "txManager")
+    protected PlatformTransactionManager txManager;
+
     final String NEW_TITEL = "SerNet NOT defined yet";
     final String TITEL = "Cryptography";
 
@@ -243,6 +256,95 @@ public class ElasticsearchTest extends AbstractModernizedBaseProtection {
 
     }
 
+    @Test
+    public void incrementalIndexing() throws CommandException {
+        searchIndexer.blockingIndexing();
+        // the change log entries of the VNA import are indexed already, move
+        // them out of the transaction overlap of the incremental indexing
+        new TransactionTemplate(txManager)
+                .execute(status -> elementDao.updateByQuery(
+                        "update ChangeLogEntry set changetime = ?", new Object[] {
+                                new Date(System.currentTimeMillis() - CHANGE_LOG_BACKDATE_MS) }));
+        String title = "Organization incremental indexing";
+        Organization org = createOrganization(title);
+        searchDao.clear();
+
+        searchIndexer.blockingIncrementalIndexing();
+
+        VeriniceSearchResult result = findByTitle(title);
+        assertThat("Changed element not found after incremental indexing", result.getHits(),
+                CoreMatchers.not(CoreMatchers.equalTo(0)));
+        // elements without change log entries are not reindexed
+        findAllElementsFromVna(false);
+
+        removeElement(org);
+    }
+
+    @Test
+    public void indexUpdateQueueDeletesAfterUpdate() throws CommandException {
+        String title = "Organization index update queue";
+        Organization org = createOrganization(title);
+        searchDao.clear();
+
+        IndexUpdateQueue queue = createIndexUpdateQueue(searchDao);
+        queue.add(Set.of(org));
+        queue.shutdown();
+        assertThat("Element not found after queued update", findByTitle(title).getHits(),
+                CoreMatchers.not(CoreMatchers.equalTo(0)));
+
+        // the update must not create the document again after the delete
+        queue = createIndexUpdateQueue(searchDao);
+        queue.add(Set.of(org));
+        queue.delete(Set.of(org));
+        queue.shutdown();
+        assertEquals("Element found after queued update and delete", 0,
+                findByTitle(title).getHits());
+        assertEquals(1, queue.getNumberOfDeletedElements());
+
+        removeElement(org);
+    }
+
+    @Test
+    public void indexUpdateQueueRetriesFailedBatch() throws CommandException {
+        String title = "Organization index update retry";
+        Organization org = createOrganization(title);
+        searchDao.clear();
+
+        AtomicInteger failures = new AtomicInteger();
+        ISearchDao failingDao = (ISearchDao) Proxy.newProxyInstance(
+                ISearchDao.class.getClassLoader(), new Class<?>[] { ISearchDao.class },
+                (proxy, method, args) -> {
+                    if ("update".equals(method.getName()) && failures.getAndIncrement() == 0) {
+                        throw new IllegalStateException("Index not available");
+                    }
+                    try {
+                        return method.invoke(searchDao, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        IndexUpdateQueue queue = createIndexUpdateQueue(failingDao);
+        queue.add(Set.of(org));
+        queue.shutdown();
+
+        assertEquals(1, queue.getNumberOfFailedBatches());
+        assertEquals(0, queue.getNumberOfDroppedElements());
+        assertThat("Element not found after retry", findByTitle(title).getHits(),
+                CoreMatchers.not(CoreMatchers.equalTo(0)));
+
+        removeElement(org);
+    }
+
+    private IndexUpdateQueue createIndexUpdateQueue(ISearchDao dao) {
+        IndexUpdateQueue queue = new IndexUpdateQueue();
+        queue.setElementDao(elementDao);
+        queue.setSearchDao(dao);
+        queue.setJsonBuilder(jsonBuilder);
+        queue.setRefreshIntervalMs(100);
+        queue.init();
+        return queue;
+    }
+
     private void findAllElementsFromVna(boolean expectedResult) {
         List<Object> elementList = elementDao.findByQuery(
                 "select e.uuid from CnATreeElement e where e.sourceId = '1460b5'", new String[] {});
@@ -20,9 +20,17 @@
 package sernet.verinice.service.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -32,11 +40,13 @@ import javax.xml.bind.JAXB;
 import org.apache.log4j.Logger;
 import org.junit.Test;
 
+import de.sernet.sync.data.SyncFile;
 import de.sernet.sync.data.SyncObject;
 import de.sernet.sync.sync.SyncRequest;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.service.commands.ExportCommand;
+import sernet.verinice.service.commands.LoadExportResult;
 import sernet.verinice.service.commands.SyncParameterException;
 import sernet.verinice.service.sync.VeriniceArchive;
 import sernet.verinice.service.test.helper.vnaimport.VNAImportHelper;
@@ -119,6 +129,96 @@ public class ExportCommandTest extends CommandServiceProvider {
         removeElement(org);
     }
 
+    @Test
+    public void exportScopeWithAttachmentsInChunks()
+            throws CommandException, IOException, SyncParameterException {
+
+        // Given:
+        VNAImportHelper.importFile(VNA_FILENAME_testVnaImport);
+        CnATreeElement org = loadElement(SOURCE_ID_testVnaImport, EXT_ID_ORGANIZATION_testVnaImport,
+                false, false, false);
+        File file = File.createTempFile("ExportCommandTest",
+                VeriniceArchive.EXTENSION_VERINICE_ARCHIVE);
+
+        try {
+            // When:
+            ExportCommand cmd = new ExportCommand(Arrays.asList(org), "testSourceId", false);
+            cmd.setResultInFile(true);
+            cmd = commandService.executeCommand(cmd);
+            try (OutputStream out = new FileOutputStream(file)) {
+                LoadExportResult.copyTo(commandService, cmd, out);
+            }
+
+            // Then:
+            assertNull("Result must not be returned if it is stored in a file.",
+                    cmd.getResult());
+            assertEquals(cmd.getResultFileSize(), file.length());
+            assertResultFileDeleted(cmd.getResultFileId());
+            VeriniceArchive vna;
+            try (InputStream in = new FileInputStream(file)) {
+                vna = new VeriniceArchive(in);
+            }
+
+            SyncRequest syncRequest = JAXB.unmarshal(vna.getVeriniceXml(), SyncRequest.class);
+            List<SyncObject> allSyncObjects = getAllSyncObjects(syncRequest);
+            assertEquals(29, allSyncObjects.size());
+            assertEquals(20, syncRequest.getSyncData().getSyncLink().size());
+            List<SyncFile> files = new ArrayList<>();
+            allSyncObjects.forEach(o -> files.addAll(o.getFile()));
+            assertEquals(2, files.size());
+            for (SyncFile syncFile : files) {
+                try (InputStream fileData = vna.getFileData(syncFile.getFile())) {
+                    assertNotNull("File not found in archive: " + syncFile.getFile(), fileData);
+                }
+            }
+            vna.clear();
+        } finally {
+            file.delete();
+            removeElement(org);
+        }
+    }
+
+    @Test
+    public void exportRootWithoutScopeId()
+            throws CommandException, IOException, SyncParameterException {
+        // Given:
+        VNAImportHelper.importFile(VNA_FILENAME_testVnaImport);
+        CnATreeElement org = loadElement(SOURCE_ID_testVnaImport, EXT_ID_ORGANIZATION_testVnaImport,
+                false, false, false);
+        org.setScopeId(null);
+
+        // When:
+        ExportCommand cmd = new ExportCommand(Arrays.asList(org), "testSourceId", false);
+        cmd = commandService.executeCommand(cmd);
+
+        // Then: the successors are found without the scope id
+        VeriniceArchive vna = new VeriniceArchive(cmd.getResult());
+        SyncRequest syncRequest = JAXB.unmarshal(vna.getVeriniceXml(), SyncRequest.class);
+        List<SyncObject> allSyncObjects = getAllSyncObjects(syncRequest);
+        assertEquals(29, allSyncObjects.size());
+        assertEquals(20, syncRequest.getSyncData().getSyncLink().size());
+        removeElement(org);
+    }
+
+    @Test
+    public void loadExportResultRejectsPath() {
+        try {
+            commandService.executeCommand(new LoadExportResult("../../etc/passwd", 0));
+            fail("Result file outside of the export directory loaded.");
+        } catch (Exception e) {
+            LOG.debug("Invalid result id rejected", e);
+        }
+    }
+
+    private void assertResultFileDeleted(String resultFileId) {
+        try {
+            commandService.executeCommand(new LoadExportResult(resultFileId, 0));
+            fail("Result file not deleted after loading the last chunk.");
+        } catch (Exception e) {
+            LOG.debug("Result file deleted", e);
+        }
+    }
+
     @Test
     public void exportModplast() throws CommandException, SyncParameterException, IOException {
         // Given:
@@ -19,10 +19,13 @@
  ******************************************************************************/
 package sernet.verinice.service.test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.Resource;
@@ -129,9 +132,43 @@ public class GraphServiceTest extends BeforeAllVNAImportHelper {
         assertTrue("Number od links targets is not 3", targets.size() == 3);
     }
 
+    @Test
+    public void testLoadPropertyProjection() throws Exception {
+        CnATreeElement org = loadElement(SOURCE_ID, EXT_ID_ORG);
+        String[] typeIds = new String[] { Asset.TYPE_ID, IncidentScenario.TYPE_ID };
+        Map<String, Set<String>> propertyTypeIds = new HashMap<>();
+        propertyTypeIds.put(Asset.TYPE_ID, Collections.singleton(Asset.PROP_NAME));
+        propertyTypeIds.put(IncidentScenario.TYPE_ID,
+                Collections.singleton(IncidentScenario.PROP_NAME));
+        VeriniceGraph projectedGraph = createGraph(org.getDbId(), typeIds, null,
+                propertyTypeIds);
+        VeriniceGraph graph = createGraph(org.getDbId(), typeIds, null);
+
+        assertEquals(graph.getElements().size(), projectedGraph.getElements().size());
+        assertTrue(projectedGraph.getElements(Asset.TYPE_ID).size() > 0);
+        for (CnATreeElement element : graph.getElements()) {
+            CnATreeElement projected = projectedGraph.getElement(element.getUuid());
+            assertEquals(element.getTitle(), projected.getTitle());
+            assertEquals(graph.getLinkTargets(element).size(),
+                    projectedGraph.getLinkTargets(projected).size());
+            assertTrue(projected.getEntity().getTypedPropertyLists().size() <= 1);
+            if (element instanceof Asset) {
+                assertEquals(element.getEntity().getPropertyValue(Asset.PROP_NAME),
+                        projected.getEntity().getPropertyValue(Asset.PROP_NAME));
+                assertTrue(projected.getEntity().getProperties(Asset.PROP_ABBR).isEmpty());
+            }
+        }
+    }
+
     private VeriniceGraph createGraph(Integer scopeId, String[] typeIds, String[] relationsTypeIds)
             throws CommandException {
+        return createGraph(scopeId, typeIds, relationsTypeIds, null);
+    }
+
+    private VeriniceGraph createGraph(Integer scopeId, String[] typeIds, String[] relationsTypeIds,
+            Map<String, Set<String>> propertyTypeIds) throws CommandException {
         IGraphElementLoader loader = new GraphElementLoader();
+        loader.setPropertyTypeIds(propertyTypeIds);
         if (typeIds != null) {
             loader.setTypeIds(typeIds);
         }
@@ -30,6 +30,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -223,6 +224,27 @@ public class LicenseManagementTier3Test extends CommandServiceProvider {
         }
     }
 
+    @Test
+    public void licenseIndexIsUpdatedWithRepository()
+            throws IOException, LicenseManagementException {
+        LicenseManagementEntry entry = getSingleCryptedEntry();
+        File repoFile = addLicenseToRepository(entry);
+        try {
+            Assert.assertEquals(entry,
+                    licenseManagementService.getLicenseEntryForLicenseId(LICENSE_ID, true));
+            Assert.assertTrue(licenseManagementService.getAllContentIds(true).contains(CONTENT_ID));
+            Assert.assertTrue(licenseManagementService.getAllLicenseIds(false)
+                    .contains(entry.getLicenseID()));
+            Assert.assertEquals(Collections.singleton(LICENSE_ID), licenseManagementService
+                    .getLicenseIdsForContentId(entry.getContentIdentifier(), false));
+        } finally {
+            FileUtils.forceDelete(repoFile);
+        }
+        licenseManagementService.readVNLFiles();
+        Assert.assertNull(
+                licenseManagementService.getLicenseEntryForLicenseId(entry.getLicenseID(), false));
+    }
+
     private File addLicenseToRepository(LicenseManagementEntry entry)
             throws LicenseManagementException, IOException {
         File vnlFile = null;
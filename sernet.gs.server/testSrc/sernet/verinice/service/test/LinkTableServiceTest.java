@@ -49,6 +49,7 @@ import sernet.verinice.service.commands.SyncParameterException;
 import sernet.verinice.service.linktable.ILinkTableConfiguration;
 import sernet.verinice.service.linktable.ILinkTableService;
 import sernet.verinice.service.linktable.LinkTableConfiguration;
+import sernet.verinice.service.linktable.LinkTablePage;
 import sernet.verinice.service.linktable.LinkTableService;
 import sernet.verinice.service.linktable.generator.GraphLinkedTableCreator;
 import sernet.verinice.service.linktable.vlt.VeriniceLinkTableIO;
@@ -198,6 +199,87 @@ public class LinkTableServiceTest extends BeforeAllVNAImportHelper {
         FileUtils.deleteQuietly(new File(tempVltPath));
     }
 
+    @Test
+    public void testParallelSzenarioReport() throws CommandException {
+        CnATreeElement org = loadElement(SOURCE_ID, EXT_ID_ORG);
+
+        LinkTableConfiguration.Builder builder = new LinkTableConfiguration.Builder();
+        builder.addScopeId(org.getScopeId())
+                .addColumnPath("incident_scenario.incident_scenario_name")
+                .addColumnPath("incident_scenario:person-iso.title")
+                .addColumnPath("incident_scenario/asset.asset_name")
+                .addColumnPath("incident_scenario/asset/person-iso.person-iso_name")
+                .addColumnPath("incident_scenario/control.control_name")
+                .addColumnPath("incident_scenario/control/person-iso.person-iso_surname");
+        ILinkTableConfiguration configuration = builder.build();
+
+        List<List<String>> expected = service.createTable(configuration, false);
+        List<List<String>> actual = service.createTable(configuration, true);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void testParallelCreateWithVltFile() throws CommandException {
+        CnATreeElement org = loadElement(SOURCE_ID, EXT_ID_ORG);
+        LinkTableConfiguration configuration = cloneConfiguration(
+                VeriniceLinkTableIO.readLinkTableConfiguration(getVltFilePath()));
+        configuration.addScopeId(org.getScopeId());
+
+        List<List<String>> resultTable = service.createTable(configuration, true);
+        checkTable(resultTable);
+        assertEquals(service.createTable(configuration, false), resultTable);
+    }
+
+    @Test
+    public void testParallelColumnPathes() throws CommandException {
+        CnATreeElement org = loadElement(SOURCE_ID, EXT_ID_ORG);
+        LinkTableConfiguration.Builder builder = new LinkTableConfiguration.Builder();
+        builder.addScopeId(org.getScopeId()).setColumnPathes(COLUMN_PATHES);
+        ILinkTableConfiguration configuration = builder.build();
+
+        assertEquals(service.createTable(configuration, false),
+                service.createTable(configuration, true));
+    }
+
+    @Test
+    public void testPagedTable() throws CommandException {
+        CnATreeElement org = loadElement(SOURCE_ID, EXT_ID_ORG);
+        LinkTableConfiguration configuration = cloneConfiguration(
+                VeriniceLinkTableIO.readLinkTableConfiguration(getVltFilePath()));
+        configuration.addScopeId(org.getScopeId());
+        List<List<String>> table = service.createTable(configuration);
+
+        List<List<String>> pagedTable = new LinkedList<>();
+        LinkTablePage page = service.createTable(configuration, 0, 100);
+        pagedTable.add(page.getHeader());
+        pagedTable.addAll(page.getRows());
+        while (page.hasMoreRows()) {
+            assertEquals(100, page.getRows().size());
+            page = service.createTable(configuration, page.getFirstRow() + 100, 100);
+            pagedTable.addAll(page.getRows());
+        }
+        assertEquals(table.size() - 1, page.getTotalRows());
+        assertEquals(table, pagedTable);
+        checkTable(pagedTable);
+    }
+
+    @Test
+    public void testRowLimit() throws CommandException {
+        CnATreeElement org = loadElement(SOURCE_ID, EXT_ID_ORG);
+        LinkTableConfiguration configuration = cloneConfiguration(
+                VeriniceLinkTableIO.readLinkTableConfiguration(getVltFilePath()));
+        configuration.addScopeId(org.getScopeId());
+        List<List<String>> table = service.createTable(configuration);
+
+        LinkTablePage preview = service.createTable(configuration, 0, 10);
+        assertEquals(table.subList(0, 11), preview.getTable());
+        assertTrue(preview.hasMoreRows());
+
+        ILinkTableService localService = new LinkTableService();
+        localService.setLinkTableCreator(new GraphLinkedTableCreator());
+        assertEquals(preview.getTable(), localService.createTable(configuration, 0, 10).getTable());
+    }
+
     private void checkTable(List<List<String>> resultTable) {
         // assertEquals(325, resultTable.size());
         assertEquals(12, resultTable.get(0).size());
@@ -0,0 +1,222 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import sernet.verinice.model.bsi.MassnahmenUmsetzung;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.service.PermissionCache;
+
+public class PermissionCacheTest {
+
+    private static final String USER = "jdoe";
+
+    private PermissionCache cache;
+    private Set<Integer> writableIds;
+    private AtomicInteger numberOfLoadedIds;
+    private Function<List<Integer>, Set<Integer>> loader;
+
+    @Before
+    public void setUp() {
+        cache = new PermissionCache();
+        writableIds = new HashSet<>(Arrays.asList(1, 3));
+        numberOfLoadedIds = new AtomicInteger();
+        loader = dbIds -> {
+            numberOfLoadedIds.addAndGet(dbIds.size());
+            return dbIds.stream().filter(writableIds::contains).collect(Collectors.toSet());
+        };
+    }
+
+    @Test
+    public void decisionsAreLoadedOnce() {
+        Assert.assertEquals(Set.of(1, 3), cache.filterWritableElements(USER, ids(1, 2, 3), loader));
+        Assert.assertEquals(Set.of(1, 3), cache.filterWritableElements(USER, ids(1, 2, 3), loader));
+        Assert.assertEquals(Set.of(3), cache.filterWritableElements(USER, ids(2, 3, 4), loader));
+        Assert.assertEquals(4, numberOfLoadedIds.get());
+        Assert.assertEquals(5, cache.getHits());
+        Assert.assertEquals(4, cache.getMisses());
+    }
+
+    @Test
+    public void decisionsAreCachedPerUser() {
+        cache.filterWritableElements(USER, ids(1, 2), loader);
+        cache.filterWritableElements("admin", ids(1, 2), loader);
+        Assert.assertEquals(4, numberOfLoadedIds.get());
+    }
+
+    @Test
+    public void changedElementsAreInvalidated() {
+        cache.filterWritableElements(USER, ids(1, 2, 3), loader);
+        writableIds.add(2);
+        writableIds.remove(3);
+        cache.elementsChanged(Arrays.asList(createElement(2, 10), createElement(3, 10)));
+        Assert.assertEquals(Set.of(1, 2), cache.filterWritableElements(USER, ids(1, 2, 3), loader));
+        Assert.assertEquals(5, numberOfLoadedIds.get());
+    }
+
+    @Test
+    public void invalidateElements() {
+        cache.filterWritableElements(USER, ids(1, 2), loader);
+        writableIds.add(2);
+        cache.invalidateElements(ids(2));
+        Assert.assertEquals(Set.of(1, 2), cache.filterWritableElements(USER, ids(1, 2), loader));
+    }
+
+    @Test
+    public void decisionsLoadedWhileInvalidatingAreNotStored() {
+        Function<List<Integer>, Set<Integer>> changingLoader = dbIds -> {
+            Set<Integer> result = loader.apply(dbIds);
+            cache.invalidateElements(dbIds);
+            return result;
+        };
+        cache.filterWritableElements(USER, ids(1, 2), changingLoader);
+        cache.filterWritableElements(USER, ids(1, 2), loader);
+        Assert.assertEquals(4, numberOfLoadedIds.get());
+    }
+
+    @Test
+    public void elementsWithoutIdAreNotCached() {
+        cache.filterWritableElements(USER, ids(0, 1), loader);
+        cache.filterWritableElements(USER, ids(0, 1), loader);
+        Assert.assertEquals(3, numberOfLoadedIds.get());
+    }
+
+    @Test
+    public void manyDecisions() {
+        List<Integer> dbIds = IntStream.rangeClosed(1, 10000).boxed().collect(Collectors.toList());
+        writableIds = dbIds.stream().filter(id -> id % 7 == 0).collect(Collectors.toSet());
+        Set<Integer> expected = new HashSet<>(writableIds);
+        Assert.assertEquals(expected, cache.filterWritableElements(USER, dbIds, loader));
+        cache.invalidateElements(dbIds.subList(0, 5000));
+        Assert.assertEquals(expected, cache.filterWritableElements(USER, dbIds, loader));
+        Assert.assertEquals(15000, numberOfLoadedIds.get());
+    }
+
+    @Test
+    public void rolesAreInvalidatedByInvalidateAll() {
+        AtomicInteger numberOfLoads = new AtomicInteger();
+        Function<String, String[]> roleLoader = username -> {
+            numberOfLoads.incrementAndGet();
+            return new String[] { username };
+        };
+        Assert.assertArrayEquals(new String[] { USER }, cache.getRoles(USER, roleLoader));
+        cache.getRoles(USER, roleLoader);
+        Assert.assertEquals(1, numberOfLoads.get());
+        cache.filterWritableElements(USER, ids(1), loader);
+        cache.invalidateAll();
+        cache.getRoles(USER, roleLoader);
+        cache.filterWritableElements(USER, ids(1), loader);
+        Assert.assertEquals(2, numberOfLoads.get());
+        Assert.assertEquals(2, numberOfLoadedIds.get());
+    }
+
+    @Test
+    public void allowedScopeIds() {
+        AtomicInteger numberOfLoads = new AtomicInteger();
+        Assert.assertEquals(Arrays.asList(5, 6, 10), cache.getAllowedScopeIds(USER, 10, () -> {
+            numberOfLoads.incrementAndGet();
+            return Arrays.asList(5, 6);
+        }));
+        Assert.assertEquals(Arrays.asList(5, 6, 11), cache.getAllowedScopeIds("other", 11, () -> {
+            numberOfLoads.incrementAndGet();
+            return Arrays.asList(5, 6);
+        }));
+        Assert.assertEquals(1, numberOfLoads.get());
+    }
+
+    @Test
+    public void changedScopeInvalidatesAllowedScopeIds() {
+        AtomicInteger numberOfLoads = new AtomicInteger();
+        cache.getAllowedScopeIds(USER, 10, () -> {
+            numberOfLoads.incrementAndGet();
+            return Arrays.asList(5, 6);
+        });
+        cache.elementsChanged(Collections.singleton(createElement(1, 10)));
+        cache.getAllowedScopeIds(USER, 10, () -> {
+            numberOfLoads.incrementAndGet();
+            return Arrays.asList(5, 6);
+        });
+        Assert.assertEquals(1, numberOfLoads.get());
+        cache.elementsDeleted(Collections.singleton(createElement(7, 7)));
+        Assert.assertEquals(Arrays.asList(5, 6, 10), cache.getAllowedScopeIds(USER, 10, () -> {
+            numberOfLoads.incrementAndGet();
+            return Arrays.asList(5, 6);
+        }));
+        Assert.assertEquals(2, numberOfLoads.get());
+    }
+
+    @Test
+    public void invalidateAllNowAndAfterCommit() {
+        cache.filterWritableElements(USER, ids(1, 2), loader);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidateAllNowAndAfterCommit();
+            // decisions loaded in the transaction before the commit
+            cache.filterWritableElements(USER, ids(1, 2), loader);
+            Assert.assertEquals(4, numberOfLoadedIds.get());
+            writableIds.add(2);
+            for (Object synchronization : TransactionSynchronizationManager
+                    .getSynchronizations()) {
+                ((TransactionSynchronization) synchronization).afterCommit();
+                ((TransactionSynchronization) synchronization)
+                        .afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        Assert.assertEquals(Set.of(1, 2), cache.filterWritableElements(USER, ids(1, 2), loader));
+        Assert.assertEquals(6, numberOfLoadedIds.get());
+    }
+
+    @Test
+    public void verifyCorrectsWrongDecisions() {
+        cache.setVerify(true);
+        cache.filterWritableElements(USER, ids(1, 2), loader);
+        writableIds.add(2);
+        Assert.assertEquals(Set.of(1, 2), cache.filterWritableElements(USER, ids(1, 2), loader));
+        Assert.assertEquals(1, cache.getVerifyErrors());
+    }
+
+    private static List<Integer> ids(Integer... dbIds) {
+        return Arrays.asList(dbIds);
+    }
+
+    private static CnATreeElement createElement(Integer dbId, Integer scopeId) {
+        CnATreeElement element = new MassnahmenUmsetzung();
+        element.setDbId(dbId);
+        element.setScopeId(scopeId);
+        return element;
+    }
+}
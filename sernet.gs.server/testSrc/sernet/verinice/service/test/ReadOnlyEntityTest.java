@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.SerializationUtils;
+import org.junit.Test;
+
+import sernet.gs.service.RetrieveInfo;
+import sernet.hui.common.connect.Entity;
+import sernet.hui.common.connect.Property;
+import sernet.hui.common.connect.ReadOnlyEntity;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.iso27k.Audit;
+import sernet.verinice.model.iso27k.Organization;
+import sernet.verinice.model.iso27k.Process;
+import sernet.verinice.service.ReadOnlyEntityLoader;
+
+/**
+ * Tests that a {@link ReadOnlyEntity} loaded by {@link ReadOnlyEntityLoader}
+ * returns the same values as the loaded {@link Entity}.
+ */
+public class ReadOnlyEntityTest extends CommandServiceProvider {
+
+    private static final String PROP_CONFIDENTIALITY = "process_value_confidentiality";
+
+    @Test
+    public void readOnlyEntityReturnsValuesOfEntity() throws Exception {
+        Organization organization = createOrganization(ReadOnlyEntityTest.class.getSimpleName());
+        CnATreeElement process = createNewElement(getGroupForClass(organization, Process.class),
+                Process.class);
+        process.setTitel("Read-only process");
+        process.getEntity().setPropertyValue(Process.PROP_USER,
+                Process.PROP_VALUE_USER_1 + "," + Process.PROP_VALUE_USER_3);
+        process.getEntity().setNumericValue(
+                process.getEntityType().getPropertyType(PROP_CONFIDENTIALITY), 2);
+        process = updateElement(process);
+        CnATreeElement audit = createNewElement(getGroupForClass(organization, Audit.class),
+                Audit.class);
+        audit.getEntity().setSimpleValue(audit.getEntityType().getPropertyType(Audit.PROP_STARTDATE),
+                Property.convertCalendarToString(Calendar.getInstance()));
+        audit = updateElement(audit);
+
+        for (CnATreeElement element : new CnATreeElement[] { process, audit }) {
+            Entity entity = elementDao
+                    .findByUuid(element.getUuid(), RetrieveInfo.getPropertyInstance())
+                    .getEntity();
+            Map<Integer, ReadOnlyEntity> readOnlyEntities = ReadOnlyEntityLoader
+                    .loadEntities(elementDao, Collections.singletonList(entity.getDbId()));
+            ReadOnlyEntity readOnlyEntity = readOnlyEntities.get(entity.getDbId());
+            assertNotNull(readOnlyEntity);
+            assertEquals(entity.getUuid(), readOnlyEntity.getUuid());
+            assertEquals(entity.getEntityType(), readOnlyEntity.getEntityType());
+            assertSameValues(entity, readOnlyEntity);
+            assertSameValues(entity,
+                    (ReadOnlyEntity) SerializationUtils.clone(readOnlyEntity));
+        }
+        removeElement(organization);
+    }
+
+    @Test
+    public void setReadOnlyEntitiesOfElements() throws Exception {
+        Organization organization = createOrganization(ReadOnlyEntityTest.class.getSimpleName());
+        CnATreeElement process = createNewElement(getGroupForClass(organization, Process.class),
+                Process.class);
+        process.setTitel("Indexed process");
+        process = updateElement(process);
+        elementDao.flush();
+        elementDao.clear();
+
+        CnATreeElement element = elementDao.findByUuid(process.getUuid(), new RetrieveInfo());
+        List<CnATreeElement> elements = Collections.singletonList(element);
+        ReadOnlyEntityLoader.setReadOnlyEntities(elementDao, elements);
+
+        assertTrue(element.getEntity() instanceof ReadOnlyEntity);
+        assertEquals("Indexed process", element.getTitle());
+        removeElement(organization);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnlyEntityCannotBeChanged() throws Exception {
+        Entity entity = new Entity(Process.TYPE_ID);
+        entity.setDbId(1);
+        entity.createNewProperty(Process.PROP_NAME, "Process");
+        ReadOnlyEntity readOnlyEntity = ReadOnlyEntity.copyOf(entity);
+        assertEquals("Process", readOnlyEntity.getPropertyValue(Process.PROP_NAME));
+        readOnlyEntity.setPropertyValue(Process.PROP_NAME, "Changed");
+    }
+
+    private void assertSameValues(Entity entity, ReadOnlyEntity readOnlyEntity) {
+        for (String propertyTypeId : entity.getTypedPropertyLists().keySet()) {
+            assertEquals(propertyTypeId, entity.getPropertyValue(propertyTypeId),
+                    readOnlyEntity.getPropertyValue(propertyTypeId));
+            assertEquals(propertyTypeId, entity.getRawPropertyValue(propertyTypeId),
+                    readOnlyEntity.getRawPropertyValue(propertyTypeId));
+            assertEquals(propertyTypeId, entity.getNumericValue(propertyTypeId),
+                    readOnlyEntity.getNumericValue(propertyTypeId));
+        }
+        assertEquals(entity.getPropertyValue("unknown_property"),
+                readOnlyEntity.getPropertyValue("unknown_property"));
+    }
+}
@@ -29,7 +29,15 @@ import org.junit.Test;
 import org.springframework.test.context.transaction.TransactionConfiguration;
 import org.springframework.transaction.annotation.Transactional;
 
+import sernet.verinice.interfaces.CommandBatch;
 import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.iso27k.Asset;
+import sernet.verinice.model.iso27k.AssetGroup;
+import sernet.verinice.model.iso27k.Group;
+import sernet.verinice.model.iso27k.Organization;
+import sernet.verinice.model.iso27k.Process;
+import sernet.verinice.service.commands.crud.LoadCnAElementById;
 import sernet.verinice.service.commands.crud.LoadReportElementWithLinks;
 
 /**
@@ -37,7 +45,7 @@ import sernet.verinice.service.commands.crud.LoadReportElementWithLinks;
  */
 @TransactionConfiguration(transactionManager = "txManager")
 @Transactional
-@SuppressWarnings("restriction")
+@SuppressWarnings({ "restriction", "unchecked" })
 public class ReportElementWithLinksCommandTest extends HibernateInstanceOfInterfaceTest {
 
     private static final Logger log = Logger.getLogger(ReportElementWithLinksCommandTest.class);
@@ -64,6 +72,69 @@ public class ReportElementWithLinksCommandTest extends HibernateInstanceOfInterf
         assertTrue(abbreviationList.contains(asset2.getAbbreviation()));
     }
 
+    /**
+     * Checks that a link created after the result was cached is part of the
+     * result of the next execution.
+     */
+    @Test
+    public void testCreatedLinkIsInCachedResult() throws CommandException {
+        beforeTestInstanceOfLinks();
+        LoadReportElementWithLinks command = commandService
+                .executeCommand(new LoadReportElementWithLinks(null, process.getDbId()));
+        assertEquals(2, command.getResult().size());
+
+        Asset asset3 = (Asset) createNewElement(
+                (Group<CnATreeElement>) asset1.getParent(), Asset.class);
+        asset3.setAbbreviation("a3");
+        updateElement(asset3);
+        createLink(process, asset3, Process.REL_PROCESS_ASSET);
+
+        command = commandService
+                .executeCommand(new LoadReportElementWithLinks(null, process.getDbId()));
+        List<String> abbreviationList = getAbbreviationList(command.getResult());
+        assertEquals(3, abbreviationList.size());
+        assertTrue(abbreviationList.contains(asset3.getAbbreviation()));
+    }
+
+    /**
+     * Checks that the result of a batched command is computed again after an
+     * element is changed which an earlier command of the batch has loaded.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBatchedResultIsRecomputedAfterChange() throws CommandException {
+        beforeTestInstanceOfLinks();
+        Organization otherOrganization = createOrganization();
+        Asset otherAsset = (Asset) createNewElement(
+                (Group<CnATreeElement>) otherOrganization.getGroup(AssetGroup.TYPE_ID),
+                Asset.class);
+        otherAsset.setAbbreviation("o1");
+        otherAsset = (Asset) updateElement(otherAsset);
+        createLink(process, otherAsset, Process.REL_PROCESS_ASSET);
+        elementDao.flush();
+        elementDao.clear();
+
+        // the first command loads the asset of the other organization into
+        // the session shared by the commands of the batch
+        CommandBatch batch = new CommandBatch(commandService);
+        batch.add(new LoadCnAElementById(Asset.TYPE_ID, otherAsset.getDbId()));
+        CommandBatch.Result<LoadReportElementWithLinks> batchedCommand = batch
+                .add(new LoadReportElementWithLinks(null, process.getDbId()));
+        batch.flush();
+        assertTrue(getAbbreviationList(batchedCommand.get().getResult()).contains("o1"));
+
+        otherAsset.setAbbreviation("o2");
+        updateElement(otherAsset);
+        elementDao.flush();
+        elementDao.clear();
+
+        LoadReportElementWithLinks command = commandService
+                .executeCommand(new LoadReportElementWithLinks(null, process.getDbId()));
+        List<String> abbreviationList = getAbbreviationList(command.getResult());
+        assertEquals(3, abbreviationList.size());
+        assertTrue(abbreviationList.contains("o2"));
+    }
+
     public void beforeTestCommandLoadReportElementWithLinks() throws CommandException {
         createOrganizationWithLinkedProcessAndAssets();
     }
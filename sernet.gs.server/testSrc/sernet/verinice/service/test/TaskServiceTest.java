@@ -20,10 +20,13 @@
 package sernet.verinice.service.test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -49,6 +52,7 @@ import sernet.verinice.interfaces.bpm.ITask;
 import sernet.verinice.interfaces.bpm.ITaskParameter;
 import sernet.verinice.interfaces.bpm.ITaskService;
 import sernet.verinice.interfaces.bpm.IndividualServiceParameter;
+import sernet.verinice.interfaces.bpm.TaskSortOrder;
 import sernet.verinice.model.bpm.TaskParameter;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.common.configuration.Configuration;
@@ -222,6 +226,90 @@ public class TaskServiceTest extends CommandServiceProvider {
         assertEquals("Size of task list is not 2", 2, taskListCheck.size());
     }
 
+    @Test
+    public void testPagingInNaturalOrder() {
+        ITaskParameter searchParameter = createSearchParameter(TaskSortOrder.NATURAL);
+        List<ITask> allTasks = taskService.getTaskList(searchParameter);
+        assertEquals(NUMBER_OF_ASSETS, allTasks.size());
+        List<ITask> sortedTasks = new ArrayList<>(allTasks);
+        Collections.sort(sortedTasks);
+        assertEquals(sortedTasks, allTasks);
+
+        List<ITask> pagedTasks = loadAllPages(searchParameter, 3);
+        assertEquals(getIds(allTasks), getIds(pagedTasks));
+
+        searchParameter.setSortDescending(true);
+        searchParameter.setFirstResult(0);
+        searchParameter.setMaxResults(0);
+        List<ITask> descendingTasks = taskService.getTaskList(searchParameter);
+        Collections.reverse(descendingTasks);
+        assertEquals(getIds(allTasks), getIds(descendingTasks));
+    }
+
+    @Test
+    public void testPagingByCreateDate() {
+        ITaskParameter searchParameter = createSearchParameter(TaskSortOrder.CREATE_DATE);
+        List<ITask> pagedTasks = loadAllPages(searchParameter, 4);
+        assertEquals(NUMBER_OF_ASSETS, pagedTasks.size());
+        assertEquals(NUMBER_OF_ASSETS, new HashSet<>(getIds(pagedTasks)).size());
+        for (int i = 1; i < pagedTasks.size(); i++) {
+            assertFalse("Tasks are not sorted by create date", pagedTasks.get(i - 1)
+                    .getCreateDate().after(pagedTasks.get(i).getCreateDate()));
+        }
+    }
+
+    @Test
+    public void testSortByDueDate() {
+        IndividualServiceParameter parameter = createParameter();
+        parameter.setUuid(organization.getUuid());
+        Calendar dueDate = Calendar.getInstance();
+        dueDate.add(Calendar.DATE, 28);
+        parameter.setDueDate(dueDate.getTime());
+        individualService.startProcess(parameter);
+
+        ITaskParameter searchParameter = createSearchParameter(TaskSortOrder.DUE_DATE);
+        searchParameter.setSortDescending(true);
+        searchParameter.setMaxResults(1);
+        List<ITask> taskList = taskService.getTaskList(searchParameter);
+        assertEquals(1, taskList.size());
+        assertEquals(organization.getUuid(), taskList.get(0).getUuid());
+
+        searchParameter.setSortDescending(false);
+        searchParameter.setMaxResults(0);
+        taskList = taskService.getTaskList(searchParameter);
+        assertEquals(NUMBER_OF_ASSETS + 1, taskList.size());
+        assertEquals(organization.getUuid(), taskList.get(NUMBER_OF_ASSETS).getUuid());
+    }
+
+    private ITaskParameter createSearchParameter(TaskSortOrder sortOrder) {
+        ITaskParameter searchParameter = new TaskParameter();
+        searchParameter.setProcessKey(IIndividualProcess.KEY);
+        searchParameter.setAllUser(true);
+        searchParameter.setSortOrder(sortOrder);
+        return searchParameter;
+    }
+
+    private List<ITask> loadAllPages(ITaskParameter searchParameter, int pageSize) {
+        List<ITask> tasks = new ArrayList<>();
+        searchParameter.setMaxResults(pageSize);
+        List<ITask> page;
+        do {
+            searchParameter.setFirstResult(tasks.size());
+            page = taskService.getTaskList(searchParameter);
+            assertTrue("Page is too large", page.size() <= pageSize);
+            tasks.addAll(page);
+        } while (page.size() == pageSize);
+        return tasks;
+    }
+
+    private static List<String> getIds(List<ITask> tasks) {
+        List<String> ids = new ArrayList<>(tasks.size());
+        for (ITask task : tasks) {
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
     private List<ITask> getTaskListForPerson(String login) {
         ITaskParameter searchParameter = new TaskParameter();
         searchParameter.setUsername(login);
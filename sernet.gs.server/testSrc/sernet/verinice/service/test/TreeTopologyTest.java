@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import sernet.verinice.service.TreeTopology;
+
+public class TreeTopologyTest {
+
+    private static final Logger LOG = Logger.getLogger(TreeTopologyTest.class);
+
+    private static final String GROUP = "asset-group";
+    private static final String ASSET = "asset";
+
+    private TreeTopology topology;
+
+    /**
+     * Creates the tree 1 > (2 > (4, 5), 3 > 6) in scope 1 and the tree 10 >
+     * 11 in scope 10.
+     */
+    @Before
+    public void setUp() {
+        topology = new TreeTopology();
+        topology.put(4, 2, 1, ASSET);
+        topology.put(1, null, 1, GROUP);
+        topology.put(2, 1, 1, GROUP);
+        topology.put(3, 1, 1, GROUP);
+        topology.put(5, 2, 1, ASSET);
+        topology.put(6, 3, 1, ASSET);
+        topology.put(10, null, 10, GROUP);
+        topology.put(11, 10, 10, ASSET);
+    }
+
+    @Test
+    public void descendants() {
+        Assert.assertEquals(ids(2, 3, 4, 5, 6), descendants(1, null, null));
+        Assert.assertEquals(ids(4, 5), descendants(2, null, null));
+        Assert.assertEquals(ids(), descendants(4, null, null));
+        Assert.assertEquals(ids(4, 5, 6), descendants(1, ASSET, null));
+        Assert.assertEquals(ids(), descendants(1, "unknown-type", null));
+        Assert.assertEquals(ids(2, 3, 4, 5, 6), descendants(1, null, ids(1)));
+        Assert.assertEquals(ids(), descendants(1, null, ids(10)));
+        Assert.assertFalse(topology.addDescendants(42, null, null, new HashSet<>()));
+    }
+
+    @Test
+    public void ancestors() {
+        Assert.assertArrayEquals(new int[] { 2, 1 }, topology.getAncestorIds(4));
+        Assert.assertArrayEquals(new int[0], topology.getAncestorIds(1));
+        Assert.assertNull(topology.getAncestorIds(42));
+        Assert.assertEquals(Integer.valueOf(1), topology.getScopeId(4));
+        Assert.assertEquals(ASSET, topology.getType(4));
+    }
+
+    @Test
+    public void moveElement() {
+        topology.put(2, 3, 1, GROUP);
+        Assert.assertEquals(ids(2, 4, 5, 6), descendants(3, null, null));
+        Assert.assertArrayEquals(new int[] { 2, 3, 1 }, topology.getAncestorIds(5));
+        topology.put(2, 10, 10, GROUP);
+        Assert.assertEquals(ids(6), descendants(3, null, null));
+        Assert.assertEquals(ids(2, 4, 5, 11), descendants(10, null, null));
+        Assert.assertEquals(Integer.valueOf(10), topology.getParentId(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void moveElementBelowDescendant() {
+        topology.put(2, 4, 1, GROUP);
+    }
+
+    @Test
+    public void removeSubtree() {
+        topology.remove(2);
+        Assert.assertFalse(topology.contains(2));
+        Assert.assertFalse(topology.contains(4));
+        Assert.assertFalse(topology.contains(5));
+        Assert.assertEquals(ids(3, 6), descendants(1, null, null));
+        Assert.assertEquals(5, topology.size());
+        topology.remove(42);
+        Assert.assertEquals(5, topology.size());
+    }
+
+    @Test
+    public void slotsAreReused() {
+        long memoryUsage = topology.getMemoryUsage();
+        for (int i = 0; i < 10000; i++) {
+            topology.put(100, 1, 1, GROUP);
+            topology.put(101, 100, 1, ASSET);
+            topology.remove(100);
+        }
+        Assert.assertEquals(memoryUsage, topology.getMemoryUsage());
+        Assert.assertEquals(ids(2, 3, 4, 5, 6), descendants(1, null, null));
+    }
+
+    @Test
+    public void placeholderParent() {
+        topology.put(21, 20, 20, ASSET);
+        Assert.assertFalse(topology.contains(20));
+        Assert.assertFalse(topology.addDescendants(20, null, null, new HashSet<>()));
+        topology.put(20, null, 20, GROUP);
+        Assert.assertEquals(ids(21), descendants(20, null, null));
+    }
+
+    @Test
+    public void memoryUsageOfOneMillionElements() {
+        int numberOfElements = 1000000;
+        long start = System.currentTimeMillis();
+        TreeTopology largeTopology = new TreeTopology(numberOfElements);
+        // 1000 scopes with 9 groups with 110 elements each
+        int dbId = 1;
+        while (dbId <= numberOfElements) {
+            int scopeId = dbId++;
+            largeTopology.put(scopeId, null, scopeId, GROUP);
+            for (int group = 0; group < 9 && dbId <= numberOfElements; group++) {
+                int groupId = dbId++;
+                largeTopology.put(groupId, scopeId, scopeId, GROUP);
+                for (int i = 0; i < 110 && dbId <= numberOfElements; i++) {
+                    largeTopology.put(dbId++, groupId, scopeId, ASSET);
+                }
+            }
+        }
+        long loadTime = System.currentTimeMillis() - start;
+        start = System.currentTimeMillis();
+        Set<Integer> descendants = new HashSet<>();
+        Assert.assertTrue(largeTopology.addDescendants(1, null, null, descendants));
+        long queryTime = System.currentTimeMillis() - start;
+        long memoryUsage = largeTopology.getMemoryUsage();
+        LOG.info("Tree topology with " + largeTopology.size() + " elements, memory: "
+                + memoryUsage + " bytes, load: " + loadTime + " ms, subtree of "
+                + descendants.size() + " elements: " + queryTime + " ms");
+        Assert.assertEquals(numberOfElements, largeTopology.size());
+        Assert.assertEquals(999, descendants.size());
+        Assert.assertArrayEquals(new int[] { 999002, 999001 },
+                largeTopology.getAncestorIds(999003));
+        Assert.assertTrue(memoryUsage < 45 * 1000 * 1000);
+    }
+
+    private Set<Integer> descendants(int dbId, String type, Set<Integer> scopeIds) {
+        Set<Integer> result = new HashSet<>();
+        Assert.assertTrue(topology.addDescendants(dbId, type, scopeIds, result));
+        return result;
+    }
+
+    private static Set<Integer> ids(Integer... ids) {
+        return new HashSet<>(Arrays.asList(ids));
+    }
+}
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces.graph;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import sernet.gs.service.AbstractRequiresHUITypeFactoryTest;
+import sernet.verinice.model.bp.elements.ItSystem;
+import sernet.verinice.model.bp.groups.ItSystemGroup;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Tests the secondary indexes of {@link AbstractVeriniceGraph}. The lookups
+ * in a synthetic graph with about 100.000 vertices are compared with a scan
+ * of the vertex set. The runtime of both is logged but not asserted.
+ */
+public class VeriniceGraphIndexTest extends AbstractRequiresHUITypeFactoryTest {
+
+    private static final Logger LOG = Logger.getLogger(VeriniceGraphIndexTest.class);
+
+    private static final int NUMBER_OF_GROUPS = 100;
+    private static final int NUMBER_OF_SYSTEMS_PER_GROUP = 1000;
+    private static final int NUMBER_OF_LOOKUPS = 1000;
+
+    private int nextDbId = 1;
+
+    @Test
+    public void lookupsInUndirectedGraph() {
+        VeriniceGraph graph = createGraph(new UndirectedVeriniceGraph(), 3, 5);
+        assertLookupsEqualScan(graph);
+    }
+
+    @Test
+    public void lookupsInDirectedGraph() {
+        VeriniceGraph graph = createGraph(new DirectedVeriniceGraph(), 3, 5);
+        assertLookupsEqualScan(graph);
+    }
+
+    @Test
+    public void parentAndChildren() {
+        VeriniceGraph graph = createGraph(new UndirectedVeriniceGraph(), 2, 3);
+        for (CnATreeElement group : graph.getElements(ItSystemGroup.TYPE_ID)) {
+            Set<CnATreeElement> children = graph.getChildren(group);
+            Assert.assertEquals(3, children.size());
+            Assert.assertEquals(children, graph.getChildren(group, ItSystem.TYPE_ID));
+            Assert.assertEquals(3, graph.getChildren(group, ItSystem.class).size());
+            for (CnATreeElement child : children) {
+                Assert.assertEquals(group, graph.getParent(child));
+                Assert.assertTrue(graph.getChildren(child).isEmpty());
+            }
+        }
+    }
+
+    @Test
+    public void directedGraphHasNoParentOfTarget() {
+        VeriniceGraph graph = createGraph(new DirectedVeriniceGraph(), 1, 2);
+        CnATreeElement group = graph.getElements(ItSystemGroup.TYPE_ID).iterator().next();
+        Assert.assertEquals(2, graph.getChildren(group).size());
+        for (CnATreeElement child : graph.getChildren(group)) {
+            Assert.assertNull(graph.getParent(child));
+        }
+    }
+
+    @Test
+    public void returnedSetsAreModifiable() {
+        VeriniceGraph graph = createGraph(new UndirectedVeriniceGraph(), 1, 2);
+        Set<CnATreeElement> systems = graph.getElements(ItSystem.TYPE_ID);
+        systems.clear();
+        Assert.assertEquals(2, graph.getElements(ItSystem.TYPE_ID).size());
+        Assert.assertTrue(graph.getElements("unknown_type").isEmpty());
+        Assert.assertNull(graph.getElement((String) null));
+        Assert.assertNull(graph.getElement((Integer) null));
+    }
+
+    @Test
+    public void indexIsRebuiltAfterDeserialization() throws IOException, ClassNotFoundException {
+        VeriniceGraph graph = createGraph(new UndirectedVeriniceGraph(), 2, 3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+            objectOut.writeObject(graph);
+        }
+        try (ObjectInputStream objectIn = new ObjectInputStream(
+                new ByteArrayInputStream(out.toByteArray()))) {
+            VeriniceGraph copy = (VeriniceGraph) objectIn.readObject();
+            assertLookupsEqualScan(copy);
+            Assert.assertEquals(6, copy.getElements(ItSystem.TYPE_ID).size());
+        }
+    }
+
+    @Test
+    public void lookupsInLargeGraph() {
+        VeriniceGraph graph = createGraph(new UndirectedVeriniceGraph(), NUMBER_OF_GROUPS,
+                NUMBER_OF_SYSTEMS_PER_GROUP);
+        List<CnATreeElement> elements = new ArrayList<>(graph.getElements());
+        Random random = new Random(4711);
+        List<CnATreeElement> samples = new ArrayList<>(NUMBER_OF_LOOKUPS);
+        for (int i = 0; i < NUMBER_OF_LOOKUPS; i++) {
+            samples.add(elements.get(random.nextInt(elements.size())));
+        }
+
+        long start = System.nanoTime();
+        for (CnATreeElement sample : samples) {
+            Assert.assertEquals(sample, scanByUuid(graph, sample.getUuid()));
+            Assert.assertEquals(sample, scanByDbId(graph, sample.getDbId()));
+        }
+        long scanTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (CnATreeElement sample : samples) {
+            Assert.assertEquals(sample, graph.getElement(sample.getUuid()));
+            Assert.assertEquals(sample, graph.getElement(sample.getDbId()));
+        }
+        long indexTime = System.nanoTime() - start;
+
+        LOG.info(2 * NUMBER_OF_LOOKUPS + " lookups in graph with " + elements.size()
+                + " vertices, scan: " + scanTime / 1000000 + " ms, index: "
+                + indexTime / 1000000 + " ms");
+    }
+
+    private void assertLookupsEqualScan(VeriniceGraph graph) {
+        for (CnATreeElement element : graph.getElements()) {
+            Assert.assertSame(scanByUuid(graph, element.getUuid()),
+                    graph.getElement(element.getUuid()));
+            Assert.assertSame(scanByDbId(graph, element.getDbId()),
+                    graph.getElement(element.getDbId()));
+        }
+        Assert.assertEquals(scanByTypeId(graph, ItSystem.TYPE_ID),
+                graph.getElements(ItSystem.TYPE_ID));
+        Assert.assertEquals(scanByTypeId(graph, ItSystemGroup.TYPE_ID),
+                graph.getElements(ItSystemGroup.TYPE_ID));
+        Assert.assertEquals(scanByTypeId(graph, ItSystem.TYPE_ID),
+                graph.getElements(ItSystem.class));
+    }
+
+    private VeriniceGraph createGraph(VeriniceGraph graph, int numberOfGroups,
+            int numberOfSystemsPerGroup) {
+        for (int i = 0; i < numberOfGroups; i++) {
+            ItSystemGroup group = new ItSystemGroup(null);
+            group.setDbId(nextDbId++);
+            graph.addVertex(group);
+            for (int j = 0; j < numberOfSystemsPerGroup; j++) {
+                ItSystem system = new ItSystem(null);
+                system.setDbId(nextDbId++);
+                system.setParentId(group.getDbId());
+                graph.addVertex(system);
+                graph.addEdge(new Edge(group, system));
+            }
+        }
+        return graph;
+    }
+
+    private static CnATreeElement scanByUuid(VeriniceGraph graph, String uuid) {
+        for (CnATreeElement element : graph.getElements()) {
+            if (uuid.equals(element.getUuid())) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private static CnATreeElement scanByDbId(VeriniceGraph graph, Integer dbId) {
+        for (CnATreeElement element : graph.getElements()) {
+            if (dbId.equals(element.getDbId())) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    private static Set<CnATreeElement> scanByTypeId(VeriniceGraph graph, String typeId) {
+        Set<CnATreeElement> result = new HashSet<>();
+        for (CnATreeElement element : graph.getElements()) {
+            if (typeId.equals(element.getTypeId())) {
+                result.add(element);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.model.common;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import sernet.gs.service.AbstractRequiresHUITypeFactoryTest;
+import sernet.verinice.interfaces.IReevaluator;
+import sernet.verinice.model.bp.elements.ItSystem;
+import sernet.verinice.model.bsi.Schutzbedarf;
+import sernet.verinice.model.bsi.Server;
+import sernet.verinice.model.iso27k.AssetValueService;
+
+/**
+ * Compares the results of the {@link ProtectionRequirementsPropagator} with
+ * the results of the recursive {@link ILinkChangeListener}s on random
+ * dependency graphs with and without cycles.
+ */
+public class ProtectionRequirementsPropagatorTest extends AbstractRequiresHUITypeFactoryTest {
+
+    private static final Logger LOG = Logger.getLogger(ProtectionRequirementsPropagatorTest.class);
+
+    private static final String REL_ITSYSTEM_ITSYSTEM = "rel_bp_itsystem_bp_itsystem";
+    private static final String REL_SERVER_SERVER = "server_server_dep";
+
+    private static final int NUMBER_OF_GRAPHS = 20;
+    private static final int NUMBER_OF_ELEMENTS = 40;
+    private static final int NUMBER_OF_LINKS = 80;
+
+    @Test
+    public void acyclicGraphs() {
+        for (int seed = 0; seed < NUMBER_OF_GRAPHS; seed++) {
+            assertSameResultForSingleElement(seed, false, false);
+        }
+    }
+
+    @Test
+    public void cyclicGraphs() {
+        for (int seed = 0; seed < NUMBER_OF_GRAPHS; seed++) {
+            assertSameResultForSingleElement(seed, true, false);
+        }
+    }
+
+    @Test
+    public void acyclicGraphsOfBsiElements() {
+        for (int seed = 0; seed < NUMBER_OF_GRAPHS; seed++) {
+            assertSameResultForSingleElement(seed, false, true);
+        }
+    }
+
+    @Test
+    public void cyclicGraphsOfBsiElements() {
+        for (int seed = 0; seed < NUMBER_OF_GRAPHS; seed++) {
+            assertSameResultForSingleElement(seed, true, true);
+        }
+    }
+
+    @Test
+    public void batchOnAcyclicGraph() {
+        for (int seed = 0; seed < NUMBER_OF_GRAPHS; seed++) {
+            List<CnATreeElement> expected = createGraph(seed, false, false);
+            List<CnATreeElement> actual = createGraph(seed, false, false);
+            Random random = new Random(seed);
+            List<CnATreeElement> changed = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                int index = random.nextInt(NUMBER_OF_ELEMENTS);
+                fireChanged(expected.get(index));
+                changed.add(actual.get(index));
+            }
+            ProtectionRequirementsPropagator.propagate(changed);
+            assertSameValues(expected, actual);
+        }
+    }
+
+    @Test
+    public void changedElementsAreReturned() {
+        List<CnATreeElement> before = createGraph(4711, false, false);
+        List<CnATreeElement> after = createGraph(4711, false, false);
+        Set<CnATreeElement> changed = ProtectionRequirementsPropagator.propagate(after);
+        Set<CnATreeElement> expected = new HashSet<>();
+        for (int i = 0; i < after.size(); i++) {
+            if (!getValues(before.get(i)).equals(getValues(after.get(i)))) {
+                expected.add(after.get(i));
+            }
+        }
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, changed);
+        Assert.assertTrue(ProtectionRequirementsPropagator.propagate(after).isEmpty());
+    }
+
+    @Test
+    public void longChain() {
+        int length = 10000;
+        List<CnATreeElement> chain = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            ItSystem element = createItSystem(i, 1, i > 0);
+            setValue(element, 0, false);
+            if (i > 0) {
+                new CnALink(chain.get(i - 1), element, REL_ITSYSTEM_ITSYSTEM, null);
+            }
+            chain.add(element);
+        }
+        setValue(chain.get(0), 3, false);
+        long start = System.currentTimeMillis();
+        Set<CnATreeElement> changed = ProtectionRequirementsPropagator.propagate(chain.subList(0, 1));
+        LOG.info("Chain of " + length + " elements propagated in "
+                + (System.currentTimeMillis() - start) + " ms");
+        Assert.assertEquals(length - 1, changed.size());
+        for (CnATreeElement element : chain) {
+            Assert.assertEquals(3, element.getProtectionRequirementsProvider().getIntegrity());
+        }
+    }
+
+    private void assertSameResultForSingleElement(int seed, boolean cyclic, boolean bsi) {
+        List<CnATreeElement> expected = createGraph(seed, cyclic, bsi);
+        List<CnATreeElement> actual = createGraph(seed, cyclic, bsi);
+        int index = new Random(seed).nextInt(NUMBER_OF_ELEMENTS);
+        fireChanged(expected.get(index));
+        ProtectionRequirementsPropagator.propagate(Set.of(actual.get(index)));
+        assertSameValues(expected, actual);
+    }
+
+    private static void fireChanged(CnATreeElement element) {
+        element.fireIntegritaetChanged(new CascadingTransaction());
+        element.fireVerfuegbarkeitChanged(new CascadingTransaction());
+        element.fireVertraulichkeitChanged(new CascadingTransaction());
+    }
+
+    private static void assertSameValues(List<CnATreeElement> expected,
+            List<CnATreeElement> actual) {
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals("Values of element " + i + " differ", getValues(expected.get(i)),
+                    getValues(actual.get(i)));
+        }
+    }
+
+    private static List<Integer> getValues(CnATreeElement element) {
+        IReevaluator provider = element.getProtectionRequirementsProvider();
+        return List.of(provider.getConfidentiality(), provider.getIntegrity(),
+                provider.getAvailability());
+    }
+
+    /**
+     * Creates a random graph. Graphs created with the same parameters are
+     * equal, including UUIDs and database ids.
+     */
+    private List<CnATreeElement> createGraph(long seed, boolean cyclic, boolean bsi) {
+        Random random = new Random(seed);
+        List<CnATreeElement> elements = new ArrayList<>(NUMBER_OF_ELEMENTS);
+        for (int i = 0; i < NUMBER_OF_ELEMENTS; i++) {
+            int value = random.nextInt(3) + 1;
+            boolean maximum = random.nextInt(5) > 0;
+            elements.add(bsi ? createServer(i, value, maximum)
+                    : createItSystem(i, value, maximum));
+        }
+        Set<String> links = new HashSet<>();
+        for (int i = 0; i < NUMBER_OF_LINKS; i++) {
+            int dependant = random.nextInt(NUMBER_OF_ELEMENTS);
+            int dependency = random.nextInt(NUMBER_OF_ELEMENTS);
+            if (!cyclic && dependant >= dependency) {
+                continue;
+            }
+            if (dependant != dependency && links.add(dependant + "-" + dependency)) {
+                new CnALink(elements.get(dependant), elements.get(dependency),
+                        bsi ? REL_SERVER_SERVER : REL_ITSYSTEM_ITSYSTEM, null);
+            }
+        }
+        return elements;
+    }
+
+    private static ItSystem createItSystem(int id, int value, boolean maximum) {
+        ItSystem element = new ItSystem(null);
+        init(element, id);
+        String method = maximum ? "1" : "0";
+        element.setPropertyValue(ItSystem.TYPE_ID + AssetValueService.METHOD_CONFIDENTIALITY,
+                method);
+        element.setPropertyValue(ItSystem.TYPE_ID + AssetValueService.METHOD_INTEGRITY, method);
+        element.setPropertyValue(ItSystem.TYPE_ID + AssetValueService.METHOD_AVAILABILITY,
+                method);
+        setValue(element, value, true);
+        return element;
+    }
+
+    private static Server createServer(int id, int value, boolean maximum) {
+        Server element = new Server(null);
+        init(element, id);
+        IReevaluator provider = element.getProtectionRequirementsProvider();
+        String description = maximum ? Schutzbedarf.MAXIMUM : "manual";
+        provider.setConfidentialityDescription(description);
+        provider.setIntegrityDescription(description);
+        provider.setAvailabilityDescription(description);
+        setValue(element, value, true);
+        return element;
+    }
+
+    private static void init(CnATreeElement element, int id) {
+        element.setDbId(id + 1);
+        element.setUuid("element-" + id);
+        element.getEntity().setUuid("entity-" + id);
+    }
+
+    /**
+     * Sets the values of an element, all values are between 1 and 3 if
+     * differentValues is true.
+     */
+    private static void setValue(CnATreeElement element, int value, boolean differentValues) {
+        IReevaluator provider = element.getProtectionRequirementsProvider();
+        provider.setConfidentiality(value);
+        provider.setIntegrity(differentValues ? value % 3 + 1 : value);
+        provider.setAvailability(differentValues ? (value + 1) % 3 + 1 : value);
+    }
+}
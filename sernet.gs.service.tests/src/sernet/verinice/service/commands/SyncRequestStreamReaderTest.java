@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.sernet.sync.data.SyncData;
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.data.SyncObject;
+import de.sernet.sync.mapping.SyncMapping;
+import de.sernet.sync.sync.SyncRequest;
+import de.sernet.sync.sync.SyncRequest.SyncVnaSchemaVersion;
+import sernet.verinice.interfaces.CommandException;
+
+/**
+ * Reads sync requests with the {@link SyncRequestStreamReader} and compares
+ * them with the requests they were created from.
+ */
+public class SyncRequestStreamReaderTest {
+
+    @Test
+    public void readRequestEqualsMarshaledRequest() throws Exception {
+        SyncRequest expected = SyncRequestStreamWriterTest.createSyncRequest();
+        SyncRequest actual = read(marshalToBytes(expected));
+        Assert.assertEquals(SyncRequestStreamWriterTest.marshal(expected),
+                SyncRequestStreamWriterTest.marshal(actual));
+    }
+
+    @Test
+    public void readRequestEqualsWrittenRequest() throws Exception {
+        SyncRequest expected = SyncRequestStreamWriterTest.createSyncRequest();
+        SyncRequest actual = read(SyncRequestStreamWriterTest.write(expected));
+        Assert.assertEquals(SyncRequestStreamWriterTest.marshal(expected),
+                SyncRequestStreamWriterTest.marshal(actual));
+    }
+
+    @Test
+    public void objectsAreReadParentFirst() throws Exception {
+        List<String> startedExtIds = new ArrayList<>();
+        List<String> endedExtIds = new ArrayList<>();
+        byte[] xml = marshalToBytes(SyncRequestStreamWriterTest.createSyncRequest());
+        new SyncRequestStreamReader(new ByteArrayInputStream(xml))
+                .read(new SyncRequestStreamReader.Handler() {
+                    @Override
+                    public void startSyncObject(SyncObject syncObject) {
+                        Assert.assertTrue(syncObject.getChildren().isEmpty());
+                        Assert.assertTrue(syncObject.getFile().isEmpty());
+                        startedExtIds.add(syncObject.getExtId());
+                    }
+
+                    @Override
+                    public void endSyncObject(SyncObject syncObject) {
+                        endedExtIds.add(syncObject.getExtId());
+                    }
+                });
+        Assert.assertEquals(List.of("root", "group", "asset", "asset-2", "root-2"),
+                startedExtIds);
+        Assert.assertEquals(List.of("asset", "asset-2", "group", "root", "root-2"),
+                endedExtIds);
+    }
+
+    @Test
+    public void metadataOnly() throws Exception {
+        SyncRequest expected = SyncRequestStreamWriterTest.createSyncRequest();
+        RequestBuilder builder = new RequestBuilder();
+        new SyncRequestStreamReader(new ByteArrayInputStream(marshalToBytes(expected)))
+                .readMetadata(builder);
+        Assert.assertEquals("source", builder.request.getSourceId());
+        Assert.assertTrue(builder.request.getSyncData().getSyncObject().isEmpty());
+        Assert.assertTrue(builder.request.getSyncData().getSyncLink().isEmpty());
+        Assert.assertEquals(1, builder.request.getSyncMapping().getMapObjectType().size());
+        Assert.assertEquals("1.1.0",
+                builder.request.getSyncVnaSchemaVersion().getVnaSchemaVersion());
+    }
+
+    private static SyncRequest read(byte[] xml) throws Exception {
+        RequestBuilder builder = new RequestBuilder();
+        new SyncRequestStreamReader(new ByteArrayInputStream(xml)).read(builder);
+        return builder.request;
+    }
+
+    private static byte[] marshalToBytes(SyncRequest syncRequest) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportFactory.marshal(syncRequest, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Creates a sync request from the content passed by the reader.
+     */
+    private static final class RequestBuilder implements SyncRequestStreamReader.Handler {
+
+        private final SyncRequest request = new SyncRequest();
+        private final Deque<SyncObject> openObjects = new ArrayDeque<>();
+
+        private RequestBuilder() {
+            request.setSyncData(new SyncData());
+        }
+
+        @Override
+        public void startSyncRequest(String sourceId) {
+            request.setSourceId(sourceId);
+        }
+
+        @Override
+        public void startSyncObject(SyncObject syncObject) throws CommandException {
+            if (openObjects.isEmpty()) {
+                request.getSyncData().getSyncObject().add(syncObject);
+            } else {
+                openObjects.peek().getChildren().add(syncObject);
+            }
+            openObjects.push(syncObject);
+        }
+
+        @Override
+        public void endSyncObject(SyncObject syncObject) {
+            Assert.assertSame(openObjects.pop(), syncObject);
+        }
+
+        @Override
+        public void syncLink(SyncLink syncLink) {
+            request.getSyncData().getSyncLink().add(syncLink);
+        }
+
+        @Override
+        public void syncMapping(SyncMapping syncMapping) {
+            request.setSyncMapping(syncMapping);
+        }
+
+        @Override
+        public void syncVnaSchemaVersion(SyncVnaSchemaVersion version) {
+            request.setSyncVnaSchemaVersion(version);
+        }
+    }
+}
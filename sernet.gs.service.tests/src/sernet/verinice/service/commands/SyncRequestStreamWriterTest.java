@@ -0,0 +1,185 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import javax.xml.bind.JAXB;
+import javax.xml.stream.XMLStreamException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import de.sernet.sync.data.SyncAttribute;
+import de.sernet.sync.data.SyncData;
+import de.sernet.sync.data.SyncFile;
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.data.SyncObject;
+import de.sernet.sync.mapping.SyncMapping;
+import de.sernet.sync.mapping.SyncMapping.MapObjectType;
+import de.sernet.sync.mapping.SyncMapping.MapObjectType.MapAttributeType;
+import de.sernet.sync.sync.SyncRequest;
+import de.sernet.sync.sync.SyncRequest.SyncVnaSchemaVersion;
+import sernet.gs.service.VeriniceCharset;
+
+/**
+ * Writes sync requests with the {@link SyncRequestStreamWriter} and compares
+ * them with the same requests marshaled by JAXB.
+ */
+public class SyncRequestStreamWriterTest {
+
+    @Test
+    public void writtenRequestEqualsMarshaledRequest() throws Exception {
+        SyncRequest expected = createSyncRequest();
+        SyncRequest actual = JAXB.unmarshal(new ByteArrayInputStream(write(expected)),
+                SyncRequest.class);
+        Assert.assertEquals(marshal(expected), marshal(actual));
+        Assert.assertEquals(2, actual.getSyncData().getSyncObject().size());
+        Assert.assertEquals(2,
+                actual.getSyncData().getSyncObject().get(0).getChildren().get(0)
+                        .getChildren().size());
+        Assert.assertEquals(1, actual.getSyncData().getSyncLink().size());
+    }
+
+    @Test
+    public void emptyRequest() throws Exception {
+        SyncRequest expected = new SyncRequest();
+        expected.setSourceId("empty");
+        expected.setSyncData(new SyncData());
+        expected.setSyncMapping(new SyncMapping());
+        expected.setSyncVnaSchemaVersion(createVersion());
+        SyncRequest actual = JAXB.unmarshal(new ByteArrayInputStream(write(expected)),
+                SyncRequest.class);
+        Assert.assertEquals(marshal(expected), marshal(actual));
+        Assert.assertEquals("empty", actual.getSourceId());
+    }
+
+    @Test
+    public void specialCharactersAreEscaped() throws Exception {
+        SyncRequest expected = createSyncRequest();
+        SyncObject syncObject = expected.getSyncData().getSyncObject().get(1);
+        syncObject.setExtId("<ext & id>");
+        syncObject.getSyncAttribute().get(0).getValue().set(0, "äöü \"&<>\"");
+        SyncRequest actual = JAXB.unmarshal(new ByteArrayInputStream(write(expected)),
+                SyncRequest.class);
+        Assert.assertEquals(marshal(expected), marshal(actual));
+    }
+
+    static byte[] write(SyncRequest syncRequest) throws XMLStreamException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SyncRequestStreamWriter writer = new SyncRequestStreamWriter(out);
+        writer.startSyncRequest(syncRequest.getSourceId());
+        for (SyncObject syncObject : syncRequest.getSyncData().getSyncObject()) {
+            write(writer, syncObject);
+        }
+        for (SyncLink syncLink : syncRequest.getSyncData().getSyncLink()) {
+            writer.writeSyncLink(syncLink);
+        }
+        writer.endSyncRequest(syncRequest.getSyncMapping(),
+                syncRequest.getSyncVnaSchemaVersion());
+        return out.toByteArray();
+    }
+
+    private static void write(SyncRequestStreamWriter writer, SyncObject syncObject)
+            throws XMLStreamException {
+        writer.startSyncObject(syncObject);
+        for (SyncObject child : syncObject.getChildren()) {
+            write(writer, child);
+        }
+        writer.endSyncObject(syncObject);
+    }
+
+    static String marshal(SyncRequest syncRequest) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExportFactory.marshal(syncRequest, out);
+        return new String(out.toByteArray(), VeriniceCharset.CHARSET_UTF_8);
+    }
+
+    static SyncRequest createSyncRequest() {
+        SyncObject root = createSyncObject("root", "org", "icon.png");
+        SyncObject group = createSyncObject("group", "assetgroup", null);
+        SyncObject asset = createSyncObject("asset", "asset", null);
+        SyncFile file = new SyncFile();
+        file.setExtId("file");
+        file.setFile("files/1-file.txt");
+        file.getSyncAttribute().add(createSyncAttribute("attachment_file_name", "file.txt"));
+        asset.getFile().add(file);
+        group.getChildren().add(asset);
+        group.getChildren().add(createSyncObject("asset-2", "asset", null));
+        root.getChildren().add(group);
+
+        SyncData syncData = new SyncData();
+        syncData.getSyncObject().add(root);
+        syncData.getSyncObject().add(createSyncObject("root-2", "itverbund", null));
+        SyncLink syncLink = new SyncLink();
+        syncLink.setDependant("asset");
+        syncLink.setDependency("asset-2");
+        syncLink.setRelationId("rel_asset_asset");
+        syncLink.setComment("comment");
+        syncData.getSyncLink().add(syncLink);
+
+        SyncMapping syncMapping = new SyncMapping();
+        MapObjectType mapObjectType = new MapObjectType();
+        mapObjectType.setIntId("asset");
+        mapObjectType.setExtId("asset");
+        MapAttributeType mapAttributeType = new MapAttributeType();
+        mapAttributeType.setIntId("asset_name");
+        mapAttributeType.setExtId("asset_name");
+        mapObjectType.getMapAttributeType().add(mapAttributeType);
+        syncMapping.getMapObjectType().add(mapObjectType);
+
+        SyncRequest syncRequest = new SyncRequest();
+        syncRequest.setSourceId("source");
+        syncRequest.setSyncData(syncData);
+        syncRequest.setSyncMapping(syncMapping);
+        syncRequest.setSyncVnaSchemaVersion(createVersion());
+        return syncRequest;
+    }
+
+    private static SyncObject createSyncObject(String extId, String type, String icon) {
+        SyncObject syncObject = new SyncObject();
+        syncObject.setExtId(extId);
+        syncObject.setExtObjectType(type);
+        syncObject.setIcon(icon);
+        syncObject.getSyncAttribute().add(createSyncAttribute(type + "_name", extId));
+        SyncAttribute multiValue = createSyncAttribute(type + "_tag", "a");
+        multiValue.getValue().add("b");
+        multiValue.setLimitedLicense(List.of(false, true));
+        multiValue.setLicenseContentId(List.of("", "license"));
+        syncObject.getSyncAttribute().add(multiValue);
+        return syncObject;
+    }
+
+    private static SyncAttribute createSyncAttribute(String name, String value) {
+        SyncAttribute syncAttribute = new SyncAttribute();
+        syncAttribute.setName(name);
+        syncAttribute.getValue().add(value);
+        return syncAttribute;
+    }
+
+    private static SyncVnaSchemaVersion createVersion() {
+        SyncVnaSchemaVersion version = new SyncVnaSchemaVersion();
+        version.setVnaSchemaVersion("1.1.0");
+        version.getCompatibleVersions().add("1.0.0");
+        return version;
+    }
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.linktable.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.log4j.Logger;
+import org.junit.Assert;
+import org.junit.Test;
+
+import sernet.gs.service.AbstractRequiresHUITypeFactoryTest;
+import sernet.verinice.interfaces.graph.Edge;
+import sernet.verinice.interfaces.graph.UndirectedVeriniceGraph;
+import sernet.verinice.interfaces.graph.VeriniceGraph;
+import sernet.verinice.model.bp.elements.ItSystem;
+import sernet.verinice.model.bp.groups.ItSystemGroup;
+import sernet.verinice.service.linktable.ILinkTableConfiguration;
+import sernet.verinice.service.linktable.LinkTableConfiguration;
+
+/**
+ * Compares the tables created by the {@link GraphLinkedTableCreator} in
+ * parallel mode with the tables created in sequential mode.
+ */
+public class GraphLinkedTableCreatorTest extends AbstractRequiresHUITypeFactoryTest {
+
+    private static final Logger LOG = Logger.getLogger(GraphLinkedTableCreatorTest.class);
+
+    private static final String REL_ITSYSTEM_ITSYSTEM = "rel_bp_itsystem_bp_itsystem";
+
+    private static final int NUMBER_OF_SYSTEMS_PER_GROUP = 5;
+    private static final int NUMBER_OF_LINKS_PER_SYSTEM = 2;
+
+    private int nextDbId = 1;
+
+    @Test
+    public void parallelTableEqualsSequentialTable() {
+        VeriniceGraph graph = createGraph(200, 4711);
+        ILinkTableConfiguration configuration = createConfiguration();
+
+        long start = System.currentTimeMillis();
+        List<List<String>> expected = new GraphLinkedTableCreator().createTable(graph,
+                configuration, false);
+        long sequentialTime = System.currentTimeMillis() - start;
+
+        start = System.currentTimeMillis();
+        List<List<String>> actual = new GraphLinkedTableCreator().createTable(graph,
+                configuration, true);
+        long parallelTime = System.currentTimeMillis() - start;
+
+        LOG.info("Table with " + expected.size() + " rows, sequential: " + sequentialTime
+                + " ms, parallel: " + parallelTime + " ms");
+        Assert.assertTrue(expected.size() > 200);
+        Assert.assertEquals(expected, actual);
+    }
+
+    @Test
+    public void parallelTableWithFewRootsEqualsSequentialTable() {
+        VeriniceGraph graph = createGraph(3, 42);
+        ILinkTableConfiguration configuration = createConfiguration();
+        Assert.assertEquals(new GraphLinkedTableCreator().createTable(graph, configuration),
+                new GraphLinkedTableCreator().createTable(graph, configuration, true));
+    }
+
+    @Test
+    public void parallelTableOfEmptyGraph() {
+        List<List<String>> table = new GraphLinkedTableCreator()
+                .createTable(new UndirectedVeriniceGraph(), createConfiguration(), true);
+        Assert.assertEquals(1, table.size());
+        Assert.assertEquals("group", table.get(0).get(0));
+    }
+
+    private static ILinkTableConfiguration createConfiguration() {
+        LinkTableConfiguration.Builder builder = new LinkTableConfiguration.Builder();
+        builder.addColumnPath(ItSystemGroup.TYPE_ID + "." + ItSystemGroup.PROP_NAME + " AS group")
+                .addColumnPath(ItSystemGroup.TYPE_ID + ">" + ItSystem.TYPE_ID + "."
+                        + ItSystem.PROP_NAME)
+                .addColumnPath(ItSystemGroup.TYPE_ID + ">" + ItSystem.TYPE_ID + "/"
+                        + ItSystem.TYPE_ID + "." + ItSystem.PROP_NAME)
+                .addLinkTypeId(REL_ITSYSTEM_ITSYSTEM);
+        return builder.build();
+    }
+
+    /**
+     * Creates groups of IT systems with random links between the systems.
+     * Graphs created with the same parameters are equal.
+     */
+    private VeriniceGraph createGraph(int numberOfGroups, long seed) {
+        Random random = new Random(seed);
+        VeriniceGraph graph = new UndirectedVeriniceGraph();
+        List<ItSystem> systems = new ArrayList<>();
+        for (int i = 0; i < numberOfGroups; i++) {
+            ItSystemGroup group = new ItSystemGroup(null);
+            group.setDbId(nextDbId++);
+            group.setTitel("Group " + i);
+            graph.addVertex(group);
+            for (int j = 0; j < NUMBER_OF_SYSTEMS_PER_GROUP; j++) {
+                ItSystem system = new ItSystem(null);
+                system.setDbId(nextDbId++);
+                system.setParentId(group.getDbId());
+                system.setTitel("System " + i + "-" + j);
+                graph.addVertex(system);
+                graph.addEdge(new Edge(group, system));
+                systems.add(system);
+            }
+        }
+        for (ItSystem system : systems) {
+            for (int i = 0; i < NUMBER_OF_LINKS_PER_SYSTEM; i++) {
+                ItSystem target = systems.get(random.nextInt(systems.size()));
+                if (target != system) {
+                    graph.addEdge(new Edge(system, target, REL_ITSYSTEM_ITSYSTEM));
+                }
+            }
+        }
+        return graph;
+    }
+}
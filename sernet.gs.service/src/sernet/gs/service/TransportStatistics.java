@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.gs.service;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the payloads of the HttpInvoker remoting between the verinice
+ * client and server: the size of the serialized payload, the size sent over
+ * the wire and the time of the (de)serialization. The measurements are
+ * collected per command class or per method of the remote service.
+ *
+ * The class contains the header names and values used by the client and
+ * server to negotiate the compression of requests and responses.
+ */
+public final class TransportStatistics {
+
+    /**
+     * Response header of the server which lists the encodings of request
+     * bodies it can read. Clients only compress requests for servers which
+     * send this header.
+     */
+    public static final String HEADER_ACCEPT_REQUEST_ENCODING = "X-Verinice-Accept-Request-Encoding";
+
+    public static final String ENCODING_GZIP = "gzip";
+
+    private static final String METHOD_EXECUTE_COMMAND = "executeCommand";
+    private static final String METHOD_EXECUTE_COMMANDS = "executeCommands";
+
+    private final Map<String, Measurement> measurements = new ConcurrentHashMap<>();
+
+    /**
+     * Adds a measurement of one request or response.
+     *
+     * @param payloadBytes
+     *            The size of the serialized payload
+     * @param wireBytes
+     *            The size of the payload sent over the wire
+     * @param nanos
+     *            The (de)serialization time in nanoseconds
+     */
+    public void add(String key, long payloadBytes, long wireBytes, long nanos) {
+        Measurement measurement = measurements.computeIfAbsent(key, k -> new Measurement());
+        measurement.count.incrementAndGet();
+        measurement.payloadBytes.addAndGet(payloadBytes);
+        measurement.wireBytes.addAndGet(wireBytes);
+        measurement.nanos.addAndGet(nanos);
+    }
+
+    /**
+     * @return The measurements by command class or method name
+     */
+    public Map<String, Measurement> getMeasurements() {
+        return Collections.unmodifiableMap(new TreeMap<>(measurements));
+    }
+
+    /**
+     * Returns the key of an invocation of a remote service: the class name
+     * of the command for the command service, the method name for all other
+     * invocations.
+     */
+    public static String getKey(String methodName, Object[] arguments) {
+        if (METHOD_EXECUTE_COMMAND.equals(methodName) && arguments != null
+                && arguments.length == 1 && arguments[0] != null) {
+            return arguments[0].getClass().getName();
+        }
+        if (METHOD_EXECUTE_COMMANDS.equals(methodName)) {
+            return METHOD_EXECUTE_COMMANDS;
+        }
+        return methodName;
+    }
+
+    /**
+     * @return True if the header value contains the gzip encoding
+     */
+    public static boolean containsGzip(String headerValue) {
+        return headerValue != null && headerValue.toLowerCase().contains(ENCODING_GZIP);
+    }
+
+    public static String format(String key, long payloadBytes, long wireBytes, long nanos) {
+        return key + ": " + payloadBytes + " bytes, " + wireBytes + " bytes on the wire, "
+                + (nanos / 1000000) + " ms";
+    }
+
+    /**
+     * The sum of all measurements of a key.
+     */
+    public static final class Measurement {
+
+        private final AtomicLong count = new AtomicLong();
+        private final AtomicLong payloadBytes = new AtomicLong();
+        private final AtomicLong wireBytes = new AtomicLong();
+        private final AtomicLong nanos = new AtomicLong();
+
+        public long getCount() {
+            return count.get();
+        }
+
+        public long getPayloadBytes() {
+            return payloadBytes.get();
+        }
+
+        public long getWireBytes() {
+            return wireBytes.get();
+        }
+
+        public long getMillis() {
+            return nanos.get() / 1000000;
+        }
+
+        /**
+         * @return The share of the payload saved by compression from 0 to 1
+         */
+        public double getSavedShare() {
+            long payload = getPayloadBytes();
+            return (payload == 0) ? 0 : 1 - (double) getWireBytes() / payload;
+        }
+
+        @Override
+        public String toString() {
+            return getCount() + " calls, " + getPayloadBytes() + " bytes, " + getWireBytes()
+                    + " bytes on the wire, " + getMillis() + " ms";
+        }
+    }
+
+    /**
+     * Counts the bytes read from a stream.
+     */
+    public static class CountingInputStream extends FilterInputStream {
+
+        private long count = 0;
+
+        public CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Counts the bytes written to a stream.
+     */
+    public static class CountingOutputStream extends FilterOutputStream {
+
+        private long count = 0;
+
+        public CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
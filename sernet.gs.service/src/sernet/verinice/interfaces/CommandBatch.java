@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queues commands and executes them together by
+ * {@link ICommandService#executeCommands(List)}. A remote client sends all
+ * queued commands in one request.
+ *
+ * <pre>
+ * CommandBatch batch = new CommandBatch(commandService);
+ * CommandBatch.Result&lt;LoadElementByUuid&gt; element = batch.add(loadElement);
+ * CommandBatch.Result&lt;LoadParentTitles&gt; titles = batch.add(loadTitles);
+ * batch.flush();
+ * element.get().getElement();
+ * </pre>
+ *
+ * Only queue commands which do not depend on each other. A batch is not
+ * thread-safe.
+ */
+public class CommandBatch {
+
+    private final ICommandService commandService;
+
+    private List<ICommand> commands = new ArrayList<>();
+    private List<Result<?>> results = new ArrayList<>();
+
+    public CommandBatch(ICommandService commandService) {
+        this.commandService = commandService;
+    }
+
+    /**
+     * Queues a command. The executed command is available from the returned
+     * result after {@link #flush()}.
+     */
+    public <T extends ICommand> Result<T> add(T command) {
+        Result<T> result = new Result<>();
+        commands.add(command);
+        results.add(result);
+        return result;
+    }
+
+    /**
+     * Executes all queued commands and clears the queue.
+     */
+    public void flush() throws CommandException {
+        if (commands.isEmpty()) {
+            return;
+        }
+        List<ICommand> queuedCommands = commands;
+        List<Result<?>> queuedResults = results;
+        commands = new ArrayList<>();
+        results = new ArrayList<>();
+        List<ICommand> executedCommands = commandService.executeCommands(queuedCommands);
+        for (int i = 0; i < queuedResults.size(); i++) {
+            queuedResults.get(i).command = executedCommands.get(i);
+        }
+    }
+
+    /**
+     * @return The number of queued commands
+     */
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * The executed command of a queued command.
+     */
+    public static final class Result<T extends ICommand> {
+
+        private ICommand command;
+
+        private Result() {
+            // created by the batch
+        }
+
+        /**
+         * @return The executed command
+         * @throws IllegalStateException
+         *             If the batch was not flushed yet
+         */
+        @SuppressWarnings("unchecked")
+        public T get() {
+            if (command == null) {
+                throw new IllegalStateException("Command batch was not flushed yet");
+            }
+            return (T) command;
+        }
+
+        public boolean isDone() {
+            return command != null;
+        }
+    }
+}
@@ -19,6 +19,8 @@
  ******************************************************************************/
 package sernet.verinice.interfaces;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 import sernet.verinice.model.bsi.Attachment;
@@ -30,4 +32,43 @@ import sernet.verinice.model.bsi.Attachment;
 public interface IAttachmentDao extends IBaseDao<Attachment, Integer> {
 
     List<Attachment> loadAttachmentList(Integer cnAElementId);
+
+    /**
+     * Passes the file data of an attachment as a stream to the reader
+     * without loading the complete file into memory. The file data is read
+     * from the attachment store if it is stored there.
+     *
+     * @param attachmentId
+     *            The db id of an attachment
+     * @param reader
+     *            A reader which is called if the attachment has file data
+     * @return true if the attachment has file data, false if not
+     */
+    boolean readFileData(Integer attachmentId, FileDataReader reader);
+
+    /**
+     * @return The hash of the file data of an attachment in the attachment
+     *         store or null if the file data is not in the store
+     */
+    String loadContentHash(Integer attachmentId);
+
+    /**
+     * @return The db ids of attachments with file data which is not in the
+     *         attachment store yet
+     */
+    List<Integer> loadIdsOfUnstoredFileData(int maxResults);
+
+    /**
+     * Reads the file data of an attachment, see
+     * {@link IAttachmentDao#readFileData(Integer, FileDataReader)}.
+     */
+    @FunctionalInterface
+    interface FileDataReader {
+
+        /**
+         * @param fileData
+         *            The file data, the stream is closed by the caller
+         */
+        void read(InputStream fileData) throws IOException;
+    }
 }
@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import sernet.verinice.interfaces.IAttachmentDao.FileDataReader;
+import sernet.verinice.model.bsi.AttachmentStoreStatistics;
+
+/**
+ * A content-addressed store for the file data of attachments on the server.
+ * The content is identified by the SHA-256 hash of the file data, the same
+ * file data is stored only once. The store counts the references to a
+ * content and removes the content when the last reference is released.
+ *
+ * File data is passed as a stream and is never loaded into memory
+ * completely. The references must be added and released in the transaction
+ * which saves or deletes the attachments.
+ */
+public interface IAttachmentStore {
+
+    /**
+     * Stores file data and adds a reference to the content. If the content
+     * is already in the store only the reference is added.
+     *
+     * @param fileData
+     *            The file data, the stream is not closed by the store
+     * @return The SHA-256 hash of the file data
+     */
+    String store(InputStream fileData) throws IOException;
+
+    /**
+     * Adds a reference to a content, e.g. for a copy of an attachment.
+     *
+     * @throws IllegalArgumentException
+     *             if the content is not in the store
+     */
+    void addReference(String hash);
+
+    /**
+     * Releases a reference to a content. The content is removed if it has no
+     * references after the transaction is committed.
+     */
+    void release(String hash);
+
+    /**
+     * Passes the file data of a content as a stream to the reader.
+     *
+     * @return true if the content is in the store, false if not
+     */
+    boolean read(String hash, FileDataReader reader) throws IOException;
+
+    /**
+     * @return The number of contents and references and the number of bytes
+     *         saved by storing every content only once
+     */
+    AttachmentStoreStatistics getStatistics();
+}
@@ -36,6 +36,30 @@ public interface IBaseDao<T, ID extends Serializable> extends IDao<T, ID> {
 
     T merge(T entity, boolean fireUpdates, boolean updateIndex);
 
+    /**
+     * Notifies the change listeners of all given elements and propagates the
+     * protection requirements of the elements once for the whole collection.
+     * Use this instead of {@link #merge(Object, boolean)} with fireUpdates
+     * for every element of a batch.
+     *
+     * @param elements
+     *            Changed elements attached to the current session
+     */
+    void notifyChangedElements(Collection<? extends CnATreeElement> elements);
+
+    /**
+     * Notifies the element change listeners that the scope id of subtrees was
+     * changed, e.g. by a query or by Hibernate dirty checking.
+     *
+     * @param elements
+     *            The roots of the subtrees, the children of the elements must
+     *            be loaded
+     * @param previousScopeIds
+     *            The scope ids of the elements before they were changed
+     */
+    void notifyElementsMoved(Collection<? extends CnATreeElement> elements,
+            Set<Integer> previousScopeIds);
+
     /**
      * @deprecated use {@link #retrieve(Serializable, IRetrieveInfo)}
      */
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces;
+
+import sernet.verinice.model.common.ChangeSet;
+
+/**
+ * Feed of the changes of elements for the rich clients. The server keeps the
+ * latest changes in memory, a client asks for the changes after the last
+ * change it received. The changes contain only the ids of the changed
+ * elements, clients load the elements they display.
+ *
+ * If there are no new changes the server waits for new changes before it
+ * answers (long polling). If too many requests are waiting already, the server
+ * answers at once with a change set marked as rejected.
+ */
+public interface IChangeFeedService {
+
+    /**
+     * Returns the changes after a sequence number which were not made by a
+     * station. Waits at most maxWaitMillis for new changes if there are none.
+     *
+     * @param lastSequence
+     *            The sequence number of the last change set the client
+     *            received, -1 if the client did not receive a change set yet
+     * @param stationId
+     *            The station id of the client, changes made by this station
+     *            are not returned
+     * @param maxWaitMillis
+     *            The maximum time to wait for changes, the server may use a
+     *            shorter time
+     * @return The coalesced changes after lastSequence
+     */
+    ChangeSet getChanges(long lastSequence, String stationId, long maxWaitMillis);
+}
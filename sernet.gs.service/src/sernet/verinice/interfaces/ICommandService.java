@@ -17,6 +17,7 @@
  ******************************************************************************/
 package sernet.verinice.interfaces;
 
+import java.util.List;
 import java.util.Properties;
 
 import sernet.verinice.service.sync.VnaSchemaVersion;
@@ -44,6 +45,18 @@ public interface ICommandService {
     
 	public  <T extends ICommand> T executeCommand(T command) throws CommandException;
 
+	/**
+	 * Executes the commands in one request and one transaction. The rights
+	 * of the user are checked for each command. If a command fails, the
+	 * transaction of all commands is rolled back.
+	 * 
+	 * Use this to execute independent commands which would otherwise cause
+	 * one request to a remote server each, see {@link CommandBatch}.
+	 * 
+	 * @return The executed commands in the order of the given commands
+	 */
+	public List<ICommand> executeCommands(List<? extends ICommand> commands) throws CommandException;
+
 	public void configureFilter(IBaseDao dao);
 	
 	public void disableFilter(IBaseDao dao);
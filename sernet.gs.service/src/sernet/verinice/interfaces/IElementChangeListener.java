@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces;
+
+import java.util.Collection;
+import java.util.Set;
+
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * A listener which is notified by the DAOs when elements are saved, merged
+ * or deleted.
+ *
+ * The listener is called in the thread and the transaction of the DAO
+ * operation. Implementations which need committed data must defer their work
+ * until the transaction is committed.
+ */
+public interface IElementChangeListener {
+
+    /**
+     * Called after elements were saved or merged.
+     */
+    void elementsChanged(Collection<? extends CnATreeElement> elements);
+
+    /**
+     * Called after elements were deleted. The descendants of the elements are
+     * deleted as well. The default implementation handles deleted elements
+     * like changed elements.
+     */
+    default void elementsDeleted(Collection<? extends CnATreeElement> elements) {
+        elementsChanged(elements);
+    }
+
+    /**
+     * Called after the scope id of subtrees was changed without saving the
+     * elements one by one. The default implementation handles the roots of
+     * the subtrees like changed elements.
+     *
+     * @param elements
+     *            The roots of the subtrees, the children of the elements are
+     *            loaded
+     * @param previousScopeIds
+     *            The scope ids of the elements before they were changed
+     */
+    default void elementsMoved(Collection<? extends CnATreeElement> elements,
+            Set<Integer> previousScopeIds) {
+        elementsChanged(elements);
+    }
+
+    /**
+     * Called after links, notes or attachments of elements were saved or
+     * deleted. The elements themselves are not changed. The default
+     * implementation does nothing.
+     *
+     * @param scopeIds
+     *            The scope ids of the elements, contains null if the scope of
+     *            an element is unknown
+     */
+    default void relatedObjectsChanged(Set<Integer> scopeIds) {
+    }
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces;
+
+import java.util.Collection;
+
+/**
+ * A cache of the permission decisions of the users on the server: the
+ * allowed scopes of scope-only users and the write permissions for elements.
+ *
+ * Code which changes permissions or user configurations invalidates the
+ * cache. The cache is available in the VeriniceContext on the server only.
+ */
+public interface IPermissionCache {
+
+    /**
+     * Removes the cached decisions for the elements of all users.
+     */
+    void invalidateElements(Collection<Integer> dbIds);
+
+    /**
+     * Removes all cached decisions, e.g. after the roles or the scope of a
+     * user changed.
+     */
+    void invalidateAll();
+
+    /**
+     * Removes all cached decisions now and again after the current
+     * transaction is committed, e.g. after permissions were changed by a bulk
+     * query. Decisions cached by other threads before the commit are removed
+     * as well.
+     */
+    void invalidateAllNowAndAfterCommit();
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An index of the parent-child structure of all elements which is held in
+ * memory on the server. The index answers subtree and ancestor queries
+ * without database queries.
+ *
+ * The index does not check permissions. Changes are applied to the index after
+ * a transaction is committed. Callers must check {@link #isAvailable()} and
+ * fall back to a database query if the index is not available.
+ */
+public interface ITreeTopologyIndex {
+
+    /**
+     * @return True if the index is enabled and loaded and the current
+     *         transaction has not changed elements which are not in the
+     *         index yet
+     */
+    boolean isAvailable();
+
+    /**
+     * Returns the database IDs of the descendants of elements. The root
+     * elements are not included.
+     *
+     * @param rootIds
+     *            The database IDs of the root elements
+     * @param objectType
+     *            Only descendants with this Hibernate object type are
+     *            returned, null for all types
+     * @param scopeIds
+     *            Descendants which are not in one of these scopes are not
+     *            returned and not traversed, null for all scopes
+     * @return The database IDs of the descendants or null if the index is not
+     *         available or a root element is unknown
+     */
+    Set<Integer> getDescendantIds(Collection<Integer> rootIds, String objectType,
+            Collection<Integer> scopeIds);
+
+    /**
+     * @return The database IDs of the ancestors of an element starting with
+     *         the parent, or null if the index is not available or the element
+     *         is unknown
+     */
+    List<Integer> getAncestorIds(Integer dbId);
+}
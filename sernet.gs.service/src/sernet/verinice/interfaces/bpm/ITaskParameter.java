@@ -77,4 +77,30 @@ public interface ITaskParameter extends Serializable {
     public void setBlacklist(Set<String> blacklist);
     
     public Set<String> getBlacklist();
+
+    /**
+     * @return The order of the tasks or null for the order of the database
+     */
+    TaskSortOrder getSortOrder();
+
+    void setSortOrder(TaskSortOrder sortOrder);
+
+    boolean isSortDescending();
+
+    void setSortDescending(boolean descending);
+
+    /**
+     * @return The index of the first task which is returned
+     */
+    int getFirstResult();
+
+    void setFirstResult(int firstResult);
+
+    /**
+     * @return The maximum number of tasks which are returned, 0 or less for
+     *         all tasks
+     */
+    int getMaxResults();
+
+    void setMaxResults(int maxResults);
 }
@@ -23,6 +23,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 import org.apache.log4j.Logger;
+import org.jgrapht.Graph;
 
 import sernet.verinice.model.common.CnATreeElement;
 
@@ -37,9 +38,20 @@ public abstract  class AbstractVeriniceGraph implements VeriniceGraph {
 
     protected final Logger log = Logger.getLogger(getClass());
 
+    private volatile VeriniceGraphIndex index = new VeriniceGraphIndex();
+
+    @Override
+    public void addVertex(CnATreeElement element) {
+        if (getGraph().addVertex(element)) {
+            index.addVertex(element);
+        }
+    }
+
     @Override
     public void addEdge(Edge edge) {
-        getGraph().addEdge(edge.getSource(), edge.getTarget(), edge);
+        if (getGraph().addEdge(edge.getSource(), edge.getTarget(), edge)) {
+            index.addEdge(edge, isDirected());
+        }
     }
 
     @Override
@@ -49,71 +61,32 @@ public abstract  class AbstractVeriniceGraph implements VeriniceGraph {
 
     @Override
     public Set<CnATreeElement> getElements(String typeId) {
-        Set<CnATreeElement> elements = new HashSet<CnATreeElement>();
-        Set<CnATreeElement> allElements = getElements();
-
-        if (typeId == null || allElements == null) {
-            return elements;
+        if (typeId == null) {
+            return new HashSet<>();
         }
-
-        for (CnATreeElement element : allElements) {
-            if (typeId.equals(element.getTypeId())) {
-                elements.add(element);
-            }
-        }
-        return elements;
+        return new HashSet<>(getIndex().getElements(typeId));
     }
 
     @SuppressWarnings("unchecked")
     @Override
     public <T> Set<T> getElements(Class<T> clazz) {
-        Set<T> elements = new HashSet<T>();
-        Set<CnATreeElement> allElements = getElements();
-
-        for (CnATreeElement element : allElements) {
-            if (element.getClass().equals(clazz)) {
-
-                elements.add((T) element);
-            }
-        }
-
-        return elements;
+        return new HashSet<>((Set<T>) getIndex().getElements(clazz));
     }
 
     @Override
     public CnATreeElement getElement(String uuid) {
-        CnATreeElement result = null;
-        Set<CnATreeElement> allElements = getElements();
-        if (uuid == null || allElements == null) {
-            return result;
+        if (uuid == null) {
+            return null;
         }
-
-        for (CnATreeElement element : allElements) {
-            if (uuid.equals(element.getUuid())) {
-                result = element;
-                break;
-            }
-        }
-
-        return result;
+        return getIndex().getElement(uuid);
     }
 
     @Override
     public CnATreeElement getElement(Integer dbId) {
-        CnATreeElement result = null;
-        Set<CnATreeElement> allElements = getElements();
-        if (dbId == null || allElements == null) {
-            return result;
+        if (dbId == null) {
+            return null;
         }
-
-        for (CnATreeElement element : allElements) {
-            if (dbId.equals(element.getDbId())) {
-                result = element;
-                break;
-            }
-        }
-
-        return result;
+        return getIndex().getElement(dbId);
     }
 
     @Override
@@ -122,32 +95,18 @@ public abstract  class AbstractVeriniceGraph implements VeriniceGraph {
             log.debug("Getting parent of element: " + element + ", parent DB ID is: "
                     + element.getParentId());
         }
-        CnATreeElement parent = null;
-        int parentId = element.getParentId();
-        Set<CnATreeElement> relatives = getLinkTargets(element, Edge.RELATIVES);
-        for (CnATreeElement parentOrChild : relatives) {
-            if (parentId == parentOrChild.getDbId()) {
-                parent = parentOrChild;
-                break;
-            }
-        }
-        return parent;
+        return getIndex().getParent(element);
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> Set<T> getChildren(CnATreeElement element, Class<T> type) {
         Set<T> children = new HashSet<>();
-        int parentId = element.getParentId();
-        Set<CnATreeElement> relatives = getLinkTargets(element, Edge.RELATIVES);
-        for (CnATreeElement parentOrChild : relatives) {
-            if (parentId != parentOrChild.getDbId()) {
-                if (type.equals(parentOrChild.getClass())) {
-                    children.add((T) parentOrChild);
-                }
+        for (CnATreeElement child : getIndex().getChildren(element)) {
+            if (type.equals(child.getClass())) {
+                children.add((T) child);
             }
         }
-
         return children;
     }
 
@@ -159,13 +118,9 @@ public abstract  class AbstractVeriniceGraph implements VeriniceGraph {
     @Override
     public Set<CnATreeElement> getChildren(CnATreeElement element, String elementTypeId) {
         Set<CnATreeElement> children = new HashSet<>();
-        int parentId = element.getParentId();
-        Set<CnATreeElement> relatives = getLinkTargets(element, Edge.RELATIVES);
-        for (CnATreeElement parentOrChild : relatives) {
-            if (parentId != parentOrChild.getDbId()) {
-                if (elementTypeId == "" || elementTypeId.equals(parentOrChild.getTypeId())) {
-                    children.add(parentOrChild);
-                }
+        for (CnATreeElement child : getIndex().getChildren(element)) {
+            if (elementTypeId.isEmpty() || elementTypeId.equals(child.getTypeId())) {
+                children.add(child);
             }
         }
         return children;
@@ -197,6 +152,41 @@ public abstract  class AbstractVeriniceGraph implements VeriniceGraph {
     }
 
 
+    /**
+     * Returns the index of this graph. If the index is not in sync with the
+     * graph, e.g. after deserialization, the index is rebuilt.
+     */
+    private VeriniceGraphIndex getIndex() {
+        Graph<CnATreeElement, Edge> graph = getGraph();
+        if (!index.isInSyncWith(graph.vertexSet().size(), graph.edgeSet().size())) {
+            rebuildIndex(graph);
+        }
+        return index;
+    }
+
+    private synchronized void rebuildIndex(Graph<CnATreeElement, Edge> graph) {
+        if (index.isInSyncWith(graph.vertexSet().size(), graph.edgeSet().size())) {
+            return;
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("Rebuilding index of graph with " + graph.vertexSet().size()
+                    + " vertices...");
+        }
+        VeriniceGraphIndex newIndex = new VeriniceGraphIndex();
+        boolean directed = isDirected();
+        for (CnATreeElement element : graph.vertexSet()) {
+            newIndex.addVertex(element);
+        }
+        for (Edge edge : graph.edgeSet()) {
+            newIndex.addEdge(edge, directed);
+        }
+        index = newIndex;
+    }
+
+    private boolean isDirected() {
+        return getGraph().getType().isDirected();
+    }
+
     public void log() {
         if (log.isInfoEnabled()) {
             logStatistics();
@@ -63,10 +63,11 @@ public final class FirstLinkedElementsLoader extends GraphElementLoader {
         DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class);
         criteria.add(Restrictions.in("uuid", uuidToLoad));
         criteria.setFetchMode("entity", FetchMode.JOIN);
-        criteria.setFetchMode("entity.typedPropertyLists", FetchMode.JOIN);
-        criteria.setFetchMode("entity.typedPropertyLists.properties", FetchMode.JOIN);
+        setPropertyFetchMode(criteria);
 
-        return getCnaTreeElementDao().findByCriteria(criteria);
+        List<CnATreeElement> elements = getCnaTreeElementDao().findByCriteria(criteria);
+        loadProjectedProperties(elements);
+        return elements;
     }
 
     /**
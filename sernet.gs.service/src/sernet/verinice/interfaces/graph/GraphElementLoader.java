@@ -21,8 +21,12 @@ package sernet.verinice.interfaces.graph;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 import org.hibernate.Criteria;
@@ -53,6 +57,12 @@ public class GraphElementLoader implements IGraphElementLoader, Serializable {
     private String[] hibernateTypeIds;
     
     private IElementFilter elementFilter;
+
+    /**
+     * Key: element type id, value: the property type ids loaded for elements
+     * of this type. If null all properties are loaded.
+     */
+    private HashMap<String, HashSet<String>> propertyTypeIds;
     
     private transient IBaseDao<CnATreeElement, ? extends Serializable> cnaTreeElementDao;
 
@@ -71,6 +81,7 @@ public class GraphElementLoader implements IGraphElementLoader, Serializable {
         @SuppressWarnings("unchecked") // daos does not use generics
         List<CnATreeElement> elementList = getCnaTreeElementDao().findByCriteria(crit);
         elementList = filterElements(elementList);
+        loadProjectedProperties(elementList);
         if (LOG.isInfoEnabled()) {
             LOG.info(elementList.size() + " relevant objects found");
         }
@@ -92,11 +103,32 @@ public class GraphElementLoader implements IGraphElementLoader, Serializable {
     
     private DetachedCriteria createDefaultCriteria() {
         DetachedCriteria crit = DetachedCriteria.forClass(CnATreeElement.class);
-        crit.setFetchMode("entity.typedPropertyLists", FetchMode.JOIN);
-        crit.setFetchMode("entity.typedPropertyLists.properties", FetchMode.JOIN);
+        setPropertyFetchMode(crit);
         crit.setResultTransformer(Criteria.DISTINCT_ROOT_ENTITY);
         return crit;
     }
+
+    /**
+     * Join-fetches all properties of the elements if no property projection
+     * is set.
+     */
+    protected void setPropertyFetchMode(DetachedCriteria crit) {
+        if (propertyTypeIds == null) {
+            crit.setFetchMode("entity.typedPropertyLists", FetchMode.JOIN);
+            crit.setFetchMode("entity.typedPropertyLists.properties", FetchMode.JOIN);
+        }
+    }
+
+    /**
+     * Loads the properties of the elements if a property projection is set.
+     * The elements are detached from the Hibernate session.
+     */
+    protected void loadProjectedProperties(List<CnATreeElement> elementList) {
+        if (propertyTypeIds != null) {
+            new ProjectedPropertyLoader(new HashMap<>(propertyTypeIds), getCnaTreeElementDao())
+                    .loadProperties(elementList);
+        }
+    }
     
     public Integer[] getScopeIds() {
         return scopeIds;
@@ -141,6 +173,36 @@ public class GraphElementLoader implements IGraphElementLoader, Serializable {
         this.hibernateTypeIds = hibernateTypeIdList.toArray(new String[hibernateTypeIdList.size()]);
     }
     
+    public Map<String, ? extends Set<String>> getPropertyTypeIds() {
+        return propertyTypeIds;
+    }
+
+    /**
+     * Sets a property projection for this loader. Only the properties of the
+     * given types are loaded. Elements of a type without an entry are loaded
+     * without properties.
+     * 
+     * Elements loaded with a property projection are detached from the
+     * Hibernate session. Do not save them.
+     * 
+     * @param propertyTypeIds
+     *            Key: element type id from SNCA.xml, value: the property type
+     *            ids loaded for elements of this type. Null to load all
+     *            properties.
+     * @see sernet.verinice.interfaces.graph.IGraphElementLoader#setPropertyTypeIds(java.util.Map)
+     */
+    @Override
+    public void setPropertyTypeIds(Map<String, ? extends Set<String>> propertyTypeIds) {
+        if (propertyTypeIds == null) {
+            this.propertyTypeIds = null;
+            return;
+        }
+        this.propertyTypeIds = new HashMap<>(propertyTypeIds.size());
+        for (Map.Entry<String, ? extends Set<String>> entry : propertyTypeIds.entrySet()) {
+            this.propertyTypeIds.put(entry.getKey(), new HashSet<>(entry.getValue()));
+        }
+    }
+
     public IElementFilter getElementFilter() {
         return elementFilter;
     }
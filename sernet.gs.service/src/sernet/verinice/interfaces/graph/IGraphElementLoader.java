@@ -21,6 +21,8 @@ package sernet.verinice.interfaces.graph;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.model.common.CnATreeElement;
@@ -58,6 +60,15 @@ public interface IGraphElementLoader extends Serializable {
      * @param typeIds Type-ids such as Asset.TYPE_ID or Control.TYPE_ID
      */
     void setTypeIds(String[] typeIds);
+
+    /**
+     * If this parameter is set only the properties of the given types
+     * are loaded. Elements of a type without an entry are loaded
+     * without properties.
+     * 
+     * @param propertyTypeIds Key: element type id, value: property type ids
+     */
+    void setPropertyTypeIds(Map<String, ? extends Set<String>> propertyTypeIds);
     
     /**
      * If this parameter is set. Elements are filtered 
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces.graph;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Hibernate;
+import org.hibernate.Query;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.hui.common.connect.Entity;
+import sernet.hui.common.connect.ReadOnlyEntity;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.IDao;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Loads selected properties of elements loaded without properties.
+ *
+ * The properties are loaded with a query which selects only the values of
+ * the requested property types. The elements are removed from the Hibernate
+ * session and their entities are replaced by {@link ReadOnlyEntity} instances
+ * with the loaded properties. Hence the entities are never flushed with
+ * incomplete properties. The children of the elements are initialized before
+ * the elements are removed from the session. Entities whose properties were
+ * already loaded in the session keep all their properties.
+ */
+final class ProjectedPropertyLoader {
+
+    private static final Logger LOG = Logger.getLogger(ProjectedPropertyLoader.class);
+
+    private static final String HQL_QUERY = "select entity.dbId, props.propertyType, "
+            + "index(props), props.propertyValue "
+            + "from Entity entity " + "join entity.typedPropertyLists as propertyList "
+            + "join propertyList.properties as props " + "where entity.dbId in (:dbIds) "
+            + "and props.propertyType in (:propertyTypeIds)"; //$NON-NLS-1$
+
+    private final Map<String, Set<String>> propertyTypeIds;
+    private final IBaseDao<CnATreeElement, ? extends Serializable> dao;
+
+    /**
+     * @param propertyTypeIds
+     *            Key: element type id, value: the property type ids loaded
+     *            for elements of this type
+     */
+    ProjectedPropertyLoader(Map<String, Set<String>> propertyTypeIds,
+            IBaseDao<CnATreeElement, ? extends Serializable> dao) {
+        this.propertyTypeIds = propertyTypeIds;
+        this.dao = dao;
+    }
+
+    /**
+     * Removes the elements from the session and replaces their entities by
+     * {@link ReadOnlyEntity} instances with the projected properties.
+     */
+    void loadProperties(List<CnATreeElement> elements) {
+        if (elements.isEmpty()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        detach(elements);
+        Map<Integer, ReadOnlyEntity.Builder> buildersByDbId = new HashMap<>(elements.size());
+        for (CnATreeElement element : elements) {
+            Entity entity = element.getEntity();
+            // entities loaded with all properties before are not changed
+            if (entity != null && !Hibernate.isInitialized(entity.getTypedPropertyLists())) {
+                buildersByDbId.put(entity.getDbId(),
+                        new ReadOnlyEntity.Builder(entity.getDbId(), entity.getUuid(),
+                                entity.getEntityType())
+                                        .setCreated(entity.getCreatedBy(), entity.getCreatedAt())
+                                        .setChanged(entity.getChangedBy(),
+                                                entity.getChangedAt()));
+            }
+        }
+        Set<String> allPropertyTypeIds = new HashSet<>();
+        for (Set<String> typeIds : propertyTypeIds.values()) {
+            allPropertyTypeIds.addAll(typeIds);
+        }
+        int numberOfProperties = 0;
+        if (!allPropertyTypeIds.isEmpty()) {
+            for (List<Integer> dbIds : CollectionUtil.partition(
+                    new ArrayList<>(buildersByDbId.keySet()), IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+                numberOfProperties += addProperties(buildersByDbId, elements,
+                        query(dbIds, allPropertyTypeIds));
+            }
+        }
+        Map<Integer, ReadOnlyEntity> entitiesByDbId = new HashMap<>(buildersByDbId.size());
+        for (CnATreeElement element : elements) {
+            Entity entity = element.getEntity();
+            if (entity != null && buildersByDbId.containsKey(entity.getDbId())) {
+                element.setEntity(entitiesByDbId.computeIfAbsent(entity.getDbId(),
+                        dbId -> buildersByDbId.get(dbId).build()));
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(numberOfProperties + " properties of " + elements.size()
+                    + " elements loaded in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    private void detach(List<CnATreeElement> elements) {
+        dao.executeCallback(session -> {
+            for (CnATreeElement element : elements) {
+                Hibernate.initialize(element.getChildren());
+            }
+            for (CnATreeElement element : elements) {
+                session.evict(element);
+            }
+            return null;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Object[]> query(Collection<Integer> dbIds, Collection<String> typeIds) {
+        return (List<Object[]>) dao.executeCallback(session -> {
+            Query query = session.createQuery(HQL_QUERY);
+            query.setParameterList("dbIds", dbIds);
+            query.setParameterList("propertyTypeIds", typeIds);
+            query.setReadOnly(true);
+            return query.list();
+        });
+    }
+
+    private int addProperties(Map<Integer, ReadOnlyEntity.Builder> buildersByDbId,
+            List<CnATreeElement> elements, List<Object[]> rows) {
+        Map<Integer, String> elementTypeIdsByEntityDbId = new HashMap<>(elements.size());
+        for (CnATreeElement element : elements) {
+            if (element.getEntity() != null) {
+                elementTypeIdsByEntityDbId.put(element.getEntity().getDbId(),
+                        element.getTypeId());
+            }
+        }
+        int numberOfProperties = 0;
+        for (Object[] row : rows) {
+            Integer dbId = (Integer) row[0];
+            String propertyTypeId = (String) row[1];
+            if (!buildersByDbId.containsKey(dbId)) {
+                continue;
+            }
+            Set<String> typeIds = propertyTypeIds.getOrDefault(
+                    elementTypeIdsByEntityDbId.get(dbId), Collections.emptySet());
+            if (!typeIds.contains(propertyTypeId)) {
+                continue;
+            }
+            buildersByDbId.get(dbId).addProperty(propertyTypeId, (Integer) row[2],
+                    (String) row[3]);
+            numberOfProperties++;
+        }
+        return numberOfProperties;
+    }
+}
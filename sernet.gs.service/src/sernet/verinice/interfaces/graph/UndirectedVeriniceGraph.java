@@ -51,13 +51,6 @@ public class UndirectedVeriniceGraph extends AbstractVeriniceGraph implements Se
         return graph;
     }
 
-    @Override
-    public void addVertex(CnATreeElement element) {
-        getGraph().addVertex(element);
-    }
-
-
-
     @Override
     public Set<CnATreeElement> getLinkTargets(CnATreeElement source, String linkTypeId) {
         if (log.isDebugEnabled()) {
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces.graph;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Secondary indexes of a {@link VeriniceGraph}. The index maps database ids,
+ * UUIDs, type ids and classes to the vertices of the graph and stores the
+ * parent and the children of each vertex defined by {@link Edge#RELATIVES}
+ * edges.
+ *
+ * The index is maintained by {@link AbstractVeriniceGraph#addVertex} and
+ * {@link AbstractVeriniceGraph#addEdge}. All lookups are O(1) instead of a
+ * scan of the whole vertex set.
+ *
+ * The index is not thread-safe for writing. Concurrent reads are safe once
+ * the graph is completely created.
+ */
+final class VeriniceGraphIndex {
+
+    private final Map<Integer, CnATreeElement> elementsByDbId = new HashMap<>();
+    private final Map<String, CnATreeElement> elementsByUuid = new HashMap<>();
+    private final Map<String, Set<CnATreeElement>> elementsByTypeId = new HashMap<>();
+    private final Map<Class<?>, Set<CnATreeElement>> elementsByClass = new HashMap<>();
+    private final Map<CnATreeElement, CnATreeElement> parentByElement = new HashMap<>();
+    private final Map<CnATreeElement, Set<CnATreeElement>> childrenByElement = new HashMap<>();
+
+    private int numberOfVertices = 0;
+    private int numberOfEdges = 0;
+
+    void addVertex(CnATreeElement element) {
+        if (element.getDbId() != null) {
+            elementsByDbId.put(element.getDbId(), element);
+        }
+        if (element.getUuid() != null) {
+            elementsByUuid.put(element.getUuid(), element);
+        }
+        if (element.getTypeId() != null) {
+            elementsByTypeId.computeIfAbsent(element.getTypeId(), k -> new HashSet<>())
+                    .add(element);
+        }
+        elementsByClass.computeIfAbsent(element.getClass(), k -> new HashSet<>()).add(element);
+        numberOfVertices++;
+    }
+
+    /**
+     * Adds an edge to the index.
+     *
+     * @param edge
+     *            An edge of the graph
+     * @param directed
+     *            If true the target of an edge is a relative of the source
+     *            only, if false source and target are relatives of each other
+     */
+    void addEdge(Edge edge, boolean directed) {
+        numberOfEdges++;
+        if (!Edge.RELATIVES.equals(edge.getType())) {
+            return;
+        }
+        addRelative(edge.getSource(), edge.getTarget());
+        if (!directed) {
+            addRelative(edge.getTarget(), edge.getSource());
+        }
+    }
+
+    private void addRelative(CnATreeElement element, CnATreeElement relative) {
+        if (Objects.equals(element.getParentId(), relative.getDbId())) {
+            parentByElement.put(element, relative);
+        } else {
+            childrenByElement.computeIfAbsent(element, k -> new HashSet<>()).add(relative);
+        }
+    }
+
+    CnATreeElement getElement(Integer dbId) {
+        return elementsByDbId.get(dbId);
+    }
+
+    CnATreeElement getElement(String uuid) {
+        return elementsByUuid.get(uuid);
+    }
+
+    Set<CnATreeElement> getElements(String typeId) {
+        return unmodifiable(elementsByTypeId.get(typeId));
+    }
+
+    Set<CnATreeElement> getElements(Class<?> clazz) {
+        return unmodifiable(elementsByClass.get(clazz));
+    }
+
+    CnATreeElement getParent(CnATreeElement element) {
+        return parentByElement.get(element);
+    }
+
+    Set<CnATreeElement> getChildren(CnATreeElement element) {
+        return unmodifiable(childrenByElement.get(element));
+    }
+
+    /**
+     * Returns true if the number of indexed vertices and edges matches the
+     * number of vertices and edges in the graph. After deserialization of a
+     * graph the index is empty and must be rebuilt.
+     */
+    boolean isInSyncWith(int numberOfGraphVertices, int numberOfGraphEdges) {
+        return numberOfVertices == numberOfGraphVertices && numberOfEdges == numberOfGraphEdges;
+    }
+
+    private static Set<CnATreeElement> unmodifiable(Set<CnATreeElement> elements) {
+        if (elements == null) {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(elements);
+    }
+}
@@ -0,0 +1,42 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.interfaces.report;
+
+import java.io.File;
+
+/**
+ * Receives the progress of a report batch, see
+ * {@link IReportService#createReports}. The methods are called by the
+ * threads rendering the reports, implementations must be thread-safe.
+ */
+public interface IReportBatchMonitor {
+
+    void reportStarted(Integer rootElement);
+
+    void reportFinished(Integer rootElement, File outputFile);
+
+    void reportFailed(Integer rootElement, Exception exception);
+
+    /**
+     * @return true if the reports of the batch which are not finished yet
+     *         should be canceled
+     */
+    boolean isCanceled();
+}
@@ -19,7 +19,9 @@ package sernet.verinice.interfaces.report;
 
 import static org.apache.commons.io.FilenameUtils.concat;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 
 import sernet.verinice.interfaces.IReportTemplateService;
 import sernet.verinice.interfaces.IVeriniceConstants;
@@ -47,4 +49,32 @@ public interface IReportService {
     public Object getRenderOptions(String format);
 
     String[] getClassificationHints();
+
+    /**
+     * Removes the parsed design of a report template from the cache of the
+     * report engine. Call this method after a template was added, updated or
+     * removed.
+     *
+     * @param filename
+     *            The file name of the report template
+     */
+    void invalidateReportTemplate(String filename);
+
+    /**
+     * Renders a report template once for every root element. The reports
+     * are rendered concurrently, each report is rendered with its own task
+     * and its own sandbox. The output file of a report is the output file of
+     * the options with the id of the root element appended to the file
+     * name.
+     *
+     * The method returns when all reports are rendered, the batch is canceled
+     * by the monitor or the time budget is exceeded. Reports which are not
+     * finished then are canceled.
+     *
+     * @param timeBudgetMillis
+     *            The maximum duration of the batch, 0 for no limit
+     * @return The output files of the rendered reports by root element
+     */
+    Map<Integer, File> createReports(ReportTemplateMetaData template, IReportOptions options,
+            Integer[] rootElements, long timeBudgetMillis, IReportBatchMonitor monitor);
 }
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Set;
 
 import sernet.verinice.interfaces.bpm.ITaskParameter;
+import sernet.verinice.interfaces.bpm.TaskSortOrder;
 
 /**
  * @author Daniel Murygin <dm[at]sernet[dot]de>
@@ -44,6 +45,10 @@ public class TaskParameter implements ITaskParameter, Serializable {
     private String processKey;
     private String taskId;
     private Set<String> blacklist;
+    private TaskSortOrder sortOrder;
+    private boolean sortDescending = false;
+    private int firstResult = 0;
+    private int maxResults = 0;
     
     public TaskParameter() {
         super();
@@ -175,5 +180,45 @@ public class TaskParameter implements ITaskParameter, Serializable {
         this.blacklist = blacklist;
     }
 
+    @Override
+    public TaskSortOrder getSortOrder() {
+        return sortOrder;
+    }
+
+    @Override
+    public void setSortOrder(TaskSortOrder sortOrder) {
+        this.sortOrder = sortOrder;
+    }
+
+    @Override
+    public boolean isSortDescending() {
+        return sortDescending;
+    }
+
+    @Override
+    public void setSortDescending(boolean sortDescending) {
+        this.sortDescending = sortDescending;
+    }
+
+    @Override
+    public int getFirstResult() {
+        return firstResult;
+    }
+
+    @Override
+    public void setFirstResult(int firstResult) {
+        this.firstResult = firstResult;
+    }
+
+    @Override
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    @Override
+    public void setMaxResults(int maxResults) {
+        this.maxResults = maxResults;
+    }
+
 
 }
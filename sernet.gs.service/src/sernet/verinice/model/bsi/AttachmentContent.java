@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.model.bsi;
+
+import java.io.Serializable;
+
+/**
+ * The file data of one or more attachments in the attachment store, see
+ * {@link sernet.verinice.interfaces.IAttachmentStore}. The content is
+ * identified by the SHA-256 hash of the file data. The reference count is the
+ * number of attachments with this content.
+ * 
+ * The file data is only set if the content is stored in the database. It is
+ * read and written by the attachment store with JDBC streams, instances of
+ * this class are never loaded with Hibernate. The mapping is used to create
+ * the table.
+ */
+@SuppressWarnings("serial")
+public class AttachmentContent implements Serializable {
+
+    private String hash;
+
+    private long fileSize;
+
+    private int refCount;
+
+    private byte[] fileData;
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public long getFileSize() {
+        return fileSize;
+    }
+
+    public void setFileSize(long fileSize) {
+        this.fileSize = fileSize;
+    }
+
+    public int getRefCount() {
+        return refCount;
+    }
+
+    public void setRefCount(int refCount) {
+        this.refCount = refCount;
+    }
+
+    public byte[] getFileData() {
+        return (fileData != null) ? fileData.clone() : null;
+    }
+
+    public void setFileData(byte[] fileData) {
+        this.fileData = (fileData != null) ? fileData.clone() : null;
+    }
+
+}
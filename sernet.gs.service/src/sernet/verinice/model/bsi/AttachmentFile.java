@@ -31,6 +31,10 @@ import sernet.hui.common.connect.ITypedElement;
 /**
  * File meta-data is loaded and saved by {@link Attachment}.
  * 
+ * The file data of an attachment is either stored in the attachment itself
+ * or, if a content hash is set, in the attachment store on the server, see
+ * {@link sernet.verinice.interfaces.IAttachmentStore}.
+ * 
  * @author Daniel <dm[at]sernet[dot]de>
  */
 @SuppressWarnings("serial")
@@ -40,6 +44,9 @@ public class AttachmentFile implements Serializable, ITypedElement {
 
     private byte[] fileData;
 
+    // SHA-256 hash of the file data in the attachment store
+    private String contentHash;
+
     public static final String TYPE_ID = "attachmentfile";
 
     public AttachmentFile() {
@@ -62,6 +69,14 @@ public class AttachmentFile implements Serializable, ITypedElement {
         this.fileData = (fileData != null) ? fileData.clone() : null;
     }
 
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
     public void writeFileData(String path) throws IOException {
         Files.write(Paths.get(path), fileData);
     }
@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.model.bsi;
+
+import java.io.Serializable;
+
+/**
+ * The number of contents and references in the attachment store, see
+ * {@link sernet.verinice.interfaces.IAttachmentStore}.
+ */
+@SuppressWarnings("serial")
+public class AttachmentStoreStatistics implements Serializable {
+
+    private final long contents;
+    private final long references;
+    private final long storedBytes;
+    private final long referencedBytes;
+
+    public AttachmentStoreStatistics(long contents, long references, long storedBytes,
+            long referencedBytes) {
+        this.contents = contents;
+        this.references = references;
+        this.storedBytes = storedBytes;
+        this.referencedBytes = referencedBytes;
+    }
+
+    /**
+     * @return The number of different contents
+     */
+    public long getContents() {
+        return contents;
+    }
+
+    /**
+     * @return The number of attachments referencing a content
+     */
+    public long getReferences() {
+        return references;
+    }
+
+    /**
+     * @return The size of all contents
+     */
+    public long getStoredBytes() {
+        return storedBytes;
+    }
+
+    /**
+     * @return The size of the file data of all attachments referencing a
+     *         content
+     */
+    public long getReferencedBytes() {
+        return referencedBytes;
+    }
+
+    /**
+     * @return The number of bytes saved by storing every content only once
+     */
+    public long getSavedBytes() {
+        return referencedBytes - storedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return contents + " contents with " + references + " references, stored: "
+                + AttachmentFile.formatByteToMB(storedBytes) + ", referenced: "
+                + AttachmentFile.formatByteToMB(referencedBytes) + ", saved: "
+                + AttachmentFile.formatByteToMB(getSavedBytes());
+    }
+}
@@ -54,7 +54,7 @@ public class MaximumProtectionRequirementsListener implements ILinkChangeListene
         int highestValue = 0;
         for (CnALink link : sbTarget.getLinksUp()) {
             CnATreeElement upwardElmt = link.getDependant();
-            if (upwardElmt.isProtectionRequirementsProvider()) {
+            if (isDeducedFrom(link)) {
                 // upwardElement might depend on maximum level itself, so
                 // recurse up:
                 upwardElmt.getLinkChangeListener().determineIntegrity(ta);
@@ -67,8 +67,7 @@ public class MaximumProtectionRequirementsListener implements ILinkChangeListene
         }
 
         // if we don't use the maximum principle, keep current level:
-        if (!Schutzbedarf.isMaximumPrinzip(
-                sbTarget.getProtectionRequirementsProvider().getIntegrityDescription())) {
+        if (!isMaximumIntegrity()) {
             return;
         }
         updateValue(sbTarget.getProtectionRequirementsProvider()::getIntegrity,
@@ -90,7 +89,7 @@ public class MaximumProtectionRequirementsListener implements ILinkChangeListene
         int highestValue = 0;
         for (CnALink link : sbTarget.getLinksUp()) {
             CnATreeElement upwardElmt = link.getDependant();
-            if (upwardElmt.isProtectionRequirementsProvider()) {
+            if (isDeducedFrom(link)) {
 
                 // upwardElement might depend on maximum level itself, so
                 // recurse up:
@@ -104,8 +103,7 @@ public class MaximumProtectionRequirementsListener implements ILinkChangeListene
         }
 
         // if we don't use the maximum principle, keep current level:
-        if (!Schutzbedarf.isMaximumPrinzip(
-                sbTarget.getProtectionRequirementsProvider().getAvailabilityDescription())) {
+        if (!isMaximumAvailability()) {
             return;
         }
         updateValue(sbTarget.getProtectionRequirementsProvider()::getAvailability,
@@ -125,7 +123,7 @@ public class MaximumProtectionRequirementsListener implements ILinkChangeListene
         int highestValue = 0;
         for (CnALink link : sbTarget.getLinksUp()) {
             CnATreeElement upwardElmt = link.getDependant();
-            if (upwardElmt.isProtectionRequirementsProvider()) {
+            if (isDeducedFrom(link)) {
 
                 // upwardElement might depend on maximum level itself, so
                 // recurse up:
@@ -138,14 +136,36 @@ public class MaximumProtectionRequirementsListener implements ILinkChangeListene
             }
         }
         // if we don't use the maximum principle, keep current level:
-        if (!Schutzbedarf.isMaximumPrinzip(
-                sbTarget.getProtectionRequirementsProvider().getConfidentialityDescription())) {
+        if (!isMaximumConfidentiality()) {
             return;
         }
         updateValue(sbTarget.getProtectionRequirementsProvider()::getConfidentiality,
                 sbTarget.getProtectionRequirementsProvider()::setConfidentiality, highestValue);
     }
 
+    @Override
+    public boolean isDeducedFrom(CnALink linkUp) {
+        return linkUp.getDependant().isProtectionRequirementsProvider();
+    }
+
+    @Override
+    public boolean isMaximumConfidentiality() {
+        return Schutzbedarf.isMaximumPrinzip(
+                sbTarget.getProtectionRequirementsProvider().getConfidentialityDescription());
+    }
+
+    @Override
+    public boolean isMaximumIntegrity() {
+        return Schutzbedarf.isMaximumPrinzip(
+                sbTarget.getProtectionRequirementsProvider().getIntegrityDescription());
+    }
+
+    @Override
+    public boolean isMaximumAvailability() {
+        return Schutzbedarf.isMaximumPrinzip(
+                sbTarget.getProtectionRequirementsProvider().getAvailabilityDescription());
+    }
+
     private void updateValue(IntSupplier getter, IntConsumer setter, int newValue) {
         int oldValue = getter.getAsInt();
         if (oldValue != newValue) {
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.model.common;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * The coalesced changes returned by
+ * {@link sernet.verinice.interfaces.IChangeFeedService}. Every element is
+ * contained at most once per change type.
+ */
+public class ChangeSet implements Serializable {
+
+    private static final long serialVersionUID = -2218470366316640129L;
+
+    private final String feedId;
+    private final long sequence;
+    private final boolean complete;
+    private final boolean rejected;
+    private final List<ChangeLogEntry> entries;
+
+    /**
+     * @param feedId
+     *            The id of the feed, a new id is created when the server
+     *            starts
+     * @param sequence
+     *            The sequence number of the last change contained in this set
+     * @param complete
+     *            False if changes after the requested sequence number are not
+     *            available anymore
+     * @param entries
+     *            The changes
+     */
+    public ChangeSet(String feedId, long sequence, boolean complete,
+            List<ChangeLogEntry> entries) {
+        this(feedId, sequence, complete, false, entries);
+    }
+
+    /**
+     * @param rejected
+     *            True if the request was answered without waiting because
+     *            too many requests are waiting already
+     * @see #ChangeSet(String, long, boolean, List)
+     */
+    public ChangeSet(String feedId, long sequence, boolean complete, boolean rejected,
+            List<ChangeLogEntry> entries) {
+        this.feedId = feedId;
+        this.sequence = sequence;
+        this.complete = complete;
+        this.rejected = rejected;
+        this.entries = entries;
+    }
+
+    public String getFeedId() {
+        return feedId;
+    }
+
+    /**
+     * @return The sequence number to pass with the next request
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    /**
+     * @return False if changes were lost, e.g. because the client did not ask
+     *         for a long time. The client must reload its data in this case.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return True if the request did not wait for changes because too many
+     *         requests are waiting on the server. The client should not send
+     *         the next request right away in this case.
+     */
+    public boolean isRejected() {
+        return rejected;
+    }
+
+    public List<ChangeLogEntry> getEntries() {
+        return entries;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+}
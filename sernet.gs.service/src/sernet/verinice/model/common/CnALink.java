@@ -356,9 +356,7 @@ public class CnALink implements Serializable, ITypedElement {
         dependency.linkRemoved(this);
 
         if (dependency.isProtectionRequirementsProvider()) {
-            dependency.fireIntegritaetChanged(new CascadingTransaction());
-            dependency.fireVerfuegbarkeitChanged(new CascadingTransaction());
-            dependency.fireVertraulichkeitChanged(new CascadingTransaction());
+            ProtectionRequirementsPropagator.propagate(Set.of(dependency));
         }
     }
 
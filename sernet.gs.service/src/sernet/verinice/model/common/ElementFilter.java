@@ -19,6 +19,7 @@
  ******************************************************************************/
 package sernet.verinice.model.common;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
@@ -62,27 +63,47 @@ public abstract class ElementFilter {
     public static void filterChildrenOfElement(CnATreeElement element,
             Map<String, Object> filterParameters) {
         if (filterParameters != null && element != null && !filterParameters.isEmpty()) {
-            Set<IFilter> filterSet = new HashSet<>();
-            Set<String[]> typeIdSet = (Set<String[]>) filterParameters.get(PARAM_TYPE_IDS);
-            if (typeIdSet != null && !typeIdSet.isEmpty()) {
-                filterSet.add(TypeFilter.createFilter(typeIdSet));
-            }
-            String[] tagArray = (String[]) filterParameters.get(PARAM_TAGS);
-            Object filterOrgsParam = filterParameters.get(PARAM_FILTER_ORGS);
-            boolean filterOrgs = filterOrgsParam != null
-                    && ((Boolean) filterOrgsParam).booleanValue();
-            if (tagArray != null && tagArray.length > 0) {
-                filterSet.add(TagFilter.createFilter(tagArray, filterOrgs));
-            }
-            Set<CnATreeElement> children = element.getChildren();
-            Set<CnATreeElement> childrenFiltered = new HashSet<>();
-            for (CnATreeElement child : children) {
-                if (checkElement(child, filterSet)) {
-                    childrenFiltered.add(child);
-                }
+            element.setChildren(
+                    new HashSet<>(filterElements(element.getChildren(), filterParameters)));
+        }
+    }
+
+    /**
+     * Returns the elements which pass the filter parameters.
+     * 
+     * @param elements
+     * @param filterParameters
+     * @return The elements which pass the filter in the order of the given
+     *         elements
+     */
+    public static List<CnATreeElement> filterElements(
+            Collection<? extends CnATreeElement> elements, Map<String, Object> filterParameters) {
+        List<CnATreeElement> elementsFiltered = new ArrayList<>(elements.size());
+        Set<IFilter> filterSet = createFilterSet(filterParameters);
+        for (CnATreeElement element : elements) {
+            if (checkElement(element, filterSet)) {
+                elementsFiltered.add(element);
             }
-            element.setChildren(childrenFiltered);
         }
+        return elementsFiltered;
+    }
+
+    private static Set<IFilter> createFilterSet(Map<String, Object> filterParameters) {
+        Set<IFilter> filterSet = new HashSet<>();
+        if (filterParameters == null || filterParameters.isEmpty()) {
+            return filterSet;
+        }
+        Set<String[]> typeIdSet = (Set<String[]>) filterParameters.get(PARAM_TYPE_IDS);
+        if (typeIdSet != null && !typeIdSet.isEmpty()) {
+            filterSet.add(TypeFilter.createFilter(typeIdSet));
+        }
+        String[] tagArray = (String[]) filterParameters.get(PARAM_TAGS);
+        Object filterOrgsParam = filterParameters.get(PARAM_FILTER_ORGS);
+        boolean filterOrgs = filterOrgsParam != null && ((Boolean) filterOrgsParam).booleanValue();
+        if (tagArray != null && tagArray.length > 0) {
+            filterSet.add(TagFilter.createFilter(tagArray, filterOrgs));
+        }
+        return filterSet;
     }
 
     public static Map<String, Object> convertToMap(List<IParameter> paramerterList) {
@@ -63,4 +63,39 @@ public interface ILinkChangeListener {
 	 * Determine an arbitrate value by going upwards through <code>CnALinks</code>.
 	 */
 	public void determineValue(CascadingTransaction ta) throws TransactionAbortedException ;
+
+	/**
+	 * Returns true if the protection requirements of the element of this
+	 * listener are deduced from the dependant of the given link.
+	 *
+	 * @param linkUp A link up of the element of this listener
+	 * @see ProtectionRequirementsPropagator
+	 */
+	default boolean isDeducedFrom(CnALink linkUp) {
+		return false;
+	}
+
+	/**
+	 * @return true if the confidentiality of the element of this listener is
+	 *         the maximum of the elements it is deduced from
+	 */
+	default boolean isMaximumConfidentiality() {
+		return false;
+	}
+
+	/**
+	 * @return true if the integrity of the element of this listener is the
+	 *         maximum of the elements it is deduced from
+	 */
+	default boolean isMaximumIntegrity() {
+		return false;
+	}
+
+	/**
+	 * @return true if the availability of the element of this listener is the
+	 *         maximum of the elements it is deduced from
+	 */
+	default boolean isMaximumAvailability() {
+		return false;
+	}
 }
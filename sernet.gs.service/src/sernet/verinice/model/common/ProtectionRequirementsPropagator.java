@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.model.common;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+
+import sernet.verinice.interfaces.IReevaluator;
+import sernet.verinice.model.iso27k.ProtectionRequirementUtils;
+
+/**
+ * Propagates the protection requirements (confidentiality, integrity and
+ * availability) of changed elements along their links in a single pass.
+ *
+ * The propagation is done in two steps:
+ * <ol>
+ * <li>Starting at the changed elements, the bottom nodes of the dependency
+ * graph are collected. A bottom node has no links down to another protection
+ * requirements provider.</li>
+ * <li>Starting at the bottom nodes, the graph is traversed upwards along the
+ * links which are accepted by
+ * {@link ILinkChangeListener#isDeducedFrom(CnALink)}. The elements are
+ * evaluated in post-order, i.e. after all elements they are deduced from.
+ * This is a topological order of the acyclic parts of the graph. All three
+ * values are determined in the same sweep.</li>
+ * </ol>
+ *
+ * The traversal visits the elements in the same order as the recursive
+ * determine methods of the {@link ILinkChangeListener}s. Each element is
+ * evaluated once. If there is a cycle the element which closes the cycle is
+ * still being evaluated and contributes its current value. For a single
+ * changed element the result is therefore the same as calling
+ * {@link CnATreeElement#fireIntegritaetChanged(CascadingTransaction)},
+ * {@link CnATreeElement#fireVerfuegbarkeitChanged(CascadingTransaction)} and
+ * {@link CnATreeElement#fireVertraulichkeitChanged(CascadingTransaction)}.
+ *
+ * The traversal is iterative, deep dependency chains do not overflow the
+ * stack. This class is not thread-safe, elements of a single session must be
+ * propagated by a single thread.
+ */
+public final class ProtectionRequirementsPropagator {
+
+    private static final Logger LOG = Logger.getLogger(ProtectionRequirementsPropagator.class);
+
+    private final Set<Integer> visitedDown = new HashSet<>();
+    private final Set<Integer> visitedUp = new HashSet<>();
+    private final Set<CnATreeElement> changedElements = new LinkedHashSet<>();
+    private int numberOfEvaluatedElements = 0;
+
+    private ProtectionRequirementsPropagator() {
+        super();
+    }
+
+    /**
+     * Propagates the protection requirements of the given elements to all
+     * elements which deduce their protection requirements from them. Elements
+     * which are not protection requirements providers are ignored.
+     *
+     * @param elements
+     *            Changed elements with initialized links
+     * @return All elements whose protection requirements were changed
+     */
+    public static Set<CnATreeElement> propagate(Collection<? extends CnATreeElement> elements) {
+        ProtectionRequirementsPropagator propagator = new ProtectionRequirementsPropagator();
+        long start = System.currentTimeMillis();
+        for (CnATreeElement element : elements) {
+            if (element != null && element.isProtectionRequirementsProvider()) {
+                for (CnATreeElement bottomNode : propagator.findBottomNodes(element)) {
+                    propagator.evaluateUpwards(bottomNode);
+                }
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Protection requirements of " + elements.size() + " element(s) propagated, "
+                    + propagator.numberOfEvaluatedElements + " evaluated, "
+                    + propagator.changedElements.size() + " changed, runtime: "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+        return propagator.changedElements;
+    }
+
+    /**
+     * Returns the bottom nodes below the given element which were not found
+     * by a previous element of this propagation. The set is a {@link HashSet}
+     * like the set of bottom nodes in the {@link IReevaluator}s so the nodes
+     * are evaluated in the same order.
+     */
+    private Set<CnATreeElement> findBottomNodes(CnATreeElement element) {
+        Set<CnATreeElement> bottomNodes = new HashSet<>();
+        Deque<CnATreeElement> stack = new ArrayDeque<>();
+        stack.push(element);
+        while (!stack.isEmpty()) {
+            CnATreeElement downwardElement = stack.pop();
+            if (!visitedDown.add(downwardElement.getDbId())) {
+                continue;
+            }
+            boolean isBottomNode = true;
+            for (CnALink link : downwardElement.getLinksDown()) {
+                if (ProtectionRequirementUtils.dependencyIsProtectionRequirementsProvider(link)) {
+                    isBottomNode = false;
+                    stack.push(link.getDependency());
+                }
+            }
+            if (isBottomNode) {
+                bottomNodes.add(downwardElement);
+            }
+        }
+        return bottomNodes;
+    }
+
+    private void evaluateUpwards(CnATreeElement bottomNode) {
+        if (!visitedUp.add(bottomNode.getDbId())) {
+            return;
+        }
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(bottomNode));
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            CnATreeElement upwardElement = frame.nextUnvisitedInput();
+            if (upwardElement != null) {
+                stack.push(new Frame(upwardElement));
+            } else {
+                stack.pop();
+                evaluate(frame.element, frame.listener);
+            }
+        }
+    }
+
+    private void evaluate(CnATreeElement element, ILinkChangeListener listener) {
+        IReevaluator provider = element.getProtectionRequirementsProvider();
+        if (provider == null) {
+            return;
+        }
+        numberOfEvaluatedElements++;
+        int confidentiality = 0;
+        int integrity = 0;
+        int availability = 0;
+        for (CnALink link : element.getLinksUp()) {
+            if (listener.isDeducedFrom(link)) {
+                IReevaluator input = link.getDependant().getProtectionRequirementsProvider();
+                confidentiality = Math.max(confidentiality, input.getConfidentiality());
+                integrity = Math.max(integrity, input.getIntegrity());
+                availability = Math.max(availability, input.getAvailability());
+            }
+        }
+        boolean changed = false;
+        if (listener.isMaximumConfidentiality()
+                && provider.getConfidentiality() != confidentiality) {
+            provider.setConfidentiality(confidentiality);
+            changed = true;
+        }
+        if (listener.isMaximumIntegrity() && provider.getIntegrity() != integrity) {
+            provider.setIntegrity(integrity);
+            changed = true;
+        }
+        if (listener.isMaximumAvailability() && provider.getAvailability() != availability) {
+            provider.setAvailability(availability);
+            changed = true;
+        }
+        if (changed) {
+            element.getEntity().trackChange("system");
+            changedElements.add(element);
+        }
+    }
+
+    /**
+     * An element on the stack of the upward traversal and the position in
+     * its links up.
+     */
+    private final class Frame {
+
+        private final CnATreeElement element;
+        private final ILinkChangeListener listener;
+        private final Iterator<CnALink> linksUp;
+
+        private Frame(CnATreeElement element) {
+            this.element = element;
+            this.listener = element.getLinkChangeListener();
+            this.linksUp = element.getLinksUp().iterator();
+        }
+
+        private CnATreeElement nextUnvisitedInput() {
+            while (linksUp.hasNext()) {
+                CnALink link = linksUp.next();
+                if (listener.isDeducedFrom(link)
+                        && visitedUp.add(link.getDependant().getDbId())) {
+                    return link.getDependant();
+                }
+            }
+            return null;
+        }
+    }
+}
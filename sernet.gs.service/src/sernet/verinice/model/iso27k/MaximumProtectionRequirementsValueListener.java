@@ -67,7 +67,7 @@ public class MaximumProtectionRequirementsValueListener extends AbstractLinkChan
         // get protection level from upward links:
         int highestValue = 0;
         for (CnALink link : sbTarget.getLinksUp()) {
-            if (ProtectionRequirementUtils.dependantIsProtectionRequirementsProvider(link)) {
+            if (isDeducedFrom(link)) {
 
                 CnATreeElement upwardElmt = link.getDependant();
 
@@ -83,7 +83,7 @@ public class MaximumProtectionRequirementsValueListener extends AbstractLinkChan
         }
 
         // if we don't use the maximum principle, keep current level:
-        if (!sbTarget.getProtectionRequirementsProvider().isCalculatedIntegrity()) {
+        if (!isMaximumIntegrity()) {
             if (LOG_INHERIT.isInfo()) {
                 LOG_INHERIT.info("Integrity is set manually: " //$NON-NLS-1$
                         + sbTarget.getProtectionRequirementsProvider().getIntegrity()
@@ -115,7 +115,7 @@ public class MaximumProtectionRequirementsValueListener extends AbstractLinkChan
         // otherwise get protection level from upward links:
         int highestValue = 0;
         for (CnALink link : sbTarget.getLinksUp()) {
-            if (ProtectionRequirementUtils.dependantIsProtectionRequirementsProvider(link)) {
+            if (isDeducedFrom(link)) {
                 CnATreeElement upwardElmt = link.getDependant();
 
                 // upwardElement might depend on maximum level itself, so
@@ -130,7 +130,7 @@ public class MaximumProtectionRequirementsValueListener extends AbstractLinkChan
         }
 
         // if we don't use the maximum principle, keep current level:
-        if (!sbTarget.getProtectionRequirementsProvider().isCalculatedAvailability()) {
+        if (!isMaximumAvailability()) {
             if (LOG_INHERIT.isInfo()) {
                 LOG_INHERIT.info("Availability is set manually: " //$NON-NLS-1$
                         + sbTarget.getProtectionRequirementsProvider().getAvailability()
@@ -163,7 +163,7 @@ public class MaximumProtectionRequirementsValueListener extends AbstractLinkChan
         // otherwise get protection level from upward links:
         int highestValue = 0;
         for (CnALink link : sbTarget.getLinksUp()) {
-            if (ProtectionRequirementUtils.dependantIsProtectionRequirementsProvider(link)) {
+            if (isDeducedFrom(link)) {
                 CnATreeElement upwardElmt = link.getDependant();
 
                 // upwardElement might depend on maximum level itself, so
@@ -177,7 +177,7 @@ public class MaximumProtectionRequirementsValueListener extends AbstractLinkChan
             }
         }
         // if we don't use the maximum principle, keep current level:
-        if (!sbTarget.getProtectionRequirementsProvider().isCalculatedConfidentiality()) {
+        if (!isMaximumConfidentiality()) {
             if (LOG_INHERIT.isInfo()) {
                 LOG_INHERIT.info("Confidentiality is set manually: " //$NON-NLS-1$
                         + sbTarget.getProtectionRequirementsProvider().getConfidentiality()
@@ -195,6 +195,26 @@ public class MaximumProtectionRequirementsValueListener extends AbstractLinkChan
 
     }
 
+    @Override
+    public boolean isDeducedFrom(CnALink linkUp) {
+        return ProtectionRequirementUtils.dependantIsProtectionRequirementsProvider(linkUp);
+    }
+
+    @Override
+    public boolean isMaximumConfidentiality() {
+        return sbTarget.getProtectionRequirementsProvider().isCalculatedConfidentiality();
+    }
+
+    @Override
+    public boolean isMaximumIntegrity() {
+        return sbTarget.getProtectionRequirementsProvider().isCalculatedIntegrity();
+    }
+
+    @Override
+    public boolean isMaximumAvailability() {
+        return sbTarget.getProtectionRequirementsProvider().isCalculatedAvailability();
+    }
+
     private void updateValue(IntSupplier getter, IntConsumer setter, int newValue) {
         int oldValue = getter.getAsInt();
         if (oldValue != newValue) {
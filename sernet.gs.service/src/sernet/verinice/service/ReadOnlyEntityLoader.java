@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Hibernate;
+import org.hibernate.Query;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.hui.common.connect.Entity;
+import sernet.hui.common.connect.ReadOnlyEntity;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.IDao;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Loads entities as {@link ReadOnlyEntity} for code which only reads
+ * property values of many elements.
+ *
+ * The entities are loaded with two scalar queries: one for the entity rows
+ * and one for the property rows of the tables propertylist and properties.
+ * No {@link Entity}, {@link sernet.hui.common.connect.PropertyList} or
+ * {@link sernet.hui.common.connect.Property} instances are created and
+ * nothing is added to the Hibernate session or the second level cache.
+ */
+public final class ReadOnlyEntityLoader {
+
+    private static final Logger LOG = Logger.getLogger(ReadOnlyEntityLoader.class);
+
+    private static final String HQL_ENTITIES = "select entity.dbId, entity.uuid, "
+            + "entity.entityType, entity.createdBy, entity.createdAt, entity.changedBy, "
+            + "entity.changedAt from Entity entity where entity.dbId in (:dbIds)"; //$NON-NLS-1$
+
+    private static final String HQL_PROPERTIES = "select propertyList.entityId, "
+            + "props.propertyType, index(props), props.propertyValue "
+            + "from PropertyList propertyList join propertyList.properties as props "
+            + "where propertyList.entityId in (:dbIds)"; //$NON-NLS-1$
+
+    private ReadOnlyEntityLoader() {
+        // do not instantiate this class
+    }
+
+    /**
+     * Loads the entities with the given db ids.
+     *
+     * @return The entities by db id, ids of entities which do not exist are
+     *         missing in the map
+     */
+    public static Map<Integer, ReadOnlyEntity> loadEntities(IBaseDao<?, ?> dao,
+            Collection<Integer> entityDbIds) {
+        long start = System.currentTimeMillis();
+        Map<Integer, ReadOnlyEntity> entities = new HashMap<>(entityDbIds.size());
+        for (List<Integer> dbIds : CollectionUtil.partition(
+                new ArrayList<>(new LinkedHashSet<>(entityDbIds)), IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            Map<Integer, ReadOnlyEntity.Builder> builders = new HashMap<>(dbIds.size());
+            for (Object[] row : query(dao, HQL_ENTITIES, dbIds)) {
+                builders.put((Integer) row[0],
+                        new ReadOnlyEntity.Builder((Integer) row[0], (String) row[1],
+                                (String) row[2]).setCreated((String) row[3], (Date) row[4])
+                                        .setChanged((String) row[5], (Date) row[6]));
+            }
+            for (Object[] row : query(dao, HQL_PROPERTIES, dbIds)) {
+                ReadOnlyEntity.Builder builder = builders.get(row[0]);
+                if (builder != null) {
+                    builder.addProperty((String) row[1], (Integer) row[2], (String) row[3]);
+                }
+            }
+            for (Map.Entry<Integer, ReadOnlyEntity.Builder> entry : builders.entrySet()) {
+                entities.put(entry.getKey(), entry.getValue().build());
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(entities.size() + " read-only entities loaded in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+        return entities;
+    }
+
+    /**
+     * Removes the elements from the Hibernate session and replaces their
+     * entities by {@link ReadOnlyEntity} instances. Entities whose properties
+     * were already loaded are not replaced. The elements must not be saved
+     * afterwards.
+     */
+    public static void setReadOnlyEntities(IBaseDao<?, ?> dao,
+            Collection<? extends CnATreeElement> elements) {
+        if (elements.isEmpty()) {
+            return;
+        }
+        Set<Integer> entityDbIds = new LinkedHashSet<>(elements.size());
+        dao.executeCallback(session -> {
+            for (CnATreeElement element : elements) {
+                if (session.contains(element)) {
+                    session.evict(element);
+                }
+                if (isReplaceable(element.getEntity())) {
+                    entityDbIds.add(element.getEntity().getDbId());
+                }
+            }
+            return null;
+        });
+        Map<Integer, ReadOnlyEntity> entities = loadEntities(dao, entityDbIds);
+        for (CnATreeElement element : elements) {
+            Entity entity = element.getEntity();
+            if (entity != null && entities.containsKey(entity.getDbId())) {
+                element.setEntity(entities.get(entity.getDbId()));
+            }
+        }
+    }
+
+    private static boolean isReplaceable(Entity entity) {
+        return entity != null && !(entity instanceof ReadOnlyEntity)
+                && (!Hibernate.isInitialized(entity)
+                        || !Hibernate.isInitialized(entity.getTypedPropertyLists()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object[]> query(IBaseDao<?, ?> dao, String hql,
+            Collection<Integer> dbIds) {
+        return (List<Object[]>) dao.executeCallback(session -> {
+            Query query = session.createQuery(hql);
+            query.setParameterList("dbIds", dbIds);
+            query.setReadOnly(true);
+            return query.list();
+        });
+    }
+}
@@ -23,6 +23,7 @@ import java.io.IOException;
 
 import sernet.hui.common.VeriniceContext;
 import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.IAttachmentStore;
 import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.model.bsi.Attachment;
 import sernet.verinice.model.bsi.AttachmentFile;
@@ -55,4 +56,30 @@ public class AttachmentFileCreationFactory {
         saveFileCommand.clear();
     }
 
+    /**
+     * Copies the file data of an attachment to another attachment, see
+     * {@link CopyAttachmentFile}.
+     * 
+     * @param sourceId
+     *            The db id of the copied attachment
+     * @param targetId
+     *            The db id of the saved copy
+     */
+    public static void copyAttachmentFile(Integer sourceId, Integer targetId)
+            throws CommandException {
+        ((ICommandService) VeriniceContext.get(VeriniceContext.COMMAND_SERVICE))
+                .executeCommand(new CopyAttachmentFile(sourceId, targetId));
+    }
+
+    /**
+     * @return The attachment store or null if the store is not available,
+     *         e.g. in a client
+     */
+    static IAttachmentStore getAttachmentStore() {
+        if (!VeriniceContext.exists(VeriniceContext.ATTACHMENT_STORE)) {
+            return null;
+        }
+        return (IAttachmentStore) VeriniceContext.get(VeriniceContext.ATTACHMENT_STORE);
+    }
+
 }
@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.Serializable;
+
+import org.apache.log4j.Logger;
+
+import sernet.gs.service.RuntimeCommandException;
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IAttachmentStore;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.bsi.Attachment;
+import sernet.verinice.model.bsi.AttachmentFile;
+
+/**
+ * Copies the file data of an attachment to another attachment. If the file
+ * data of the source is in the attachment store only a reference to the
+ * content is added for the target. Otherwise the file data is loaded and
+ * saved by {@link SaveAttachment}.
+ * 
+ * @see CopyCommand
+ */
+@SuppressWarnings("serial")
+public class CopyAttachmentFile extends GenericCommand {
+
+    private static final Logger log = Logger.getLogger(CopyAttachmentFile.class);
+
+    private Integer sourceId;
+
+    private Integer targetId;
+
+    /**
+     * @param sourceId
+     *            The db id of the copied {@link Attachment}
+     * @param targetId
+     *            The db id of the saved {@link Attachment} of the copy
+     */
+    public CopyAttachmentFile(Integer sourceId, Integer targetId) {
+        super();
+        this.sourceId = sourceId;
+        this.targetId = targetId;
+    }
+
+    @Override
+    public void execute() {
+        IAttachmentStore attachmentStore = AttachmentFileCreationFactory.getAttachmentStore();
+        String contentHash = (attachmentStore != null)
+                ? getDaoFactory().getAttachmentDao().loadContentHash(sourceId)
+                : null;
+        try {
+            if (contentHash != null) {
+                attachmentStore.addReference(contentHash);
+                AttachmentFile attachmentFile = new AttachmentFile();
+                attachmentFile.setDbId(targetId);
+                attachmentFile.setContentHash(contentHash);
+                IBaseDao<AttachmentFile, Serializable> dao = getDaoFactory()
+                        .getDAO(AttachmentFile.class);
+                dao.merge(attachmentFile);
+                if (log.isDebugEnabled()) {
+                    log.debug("Reference to content " + contentHash + " added for attachment "
+                            + targetId);
+                }
+            } else {
+                copyFileData();
+            }
+        } catch (CommandException e) {
+            throw new RuntimeCommandException(
+                    "Error while copying file data of attachment " + sourceId, e);
+        }
+    }
+
+    private void copyFileData() throws CommandException {
+        LoadAttachmentFile attachmentFileLoader = new LoadAttachmentFile(sourceId);
+        attachmentFileLoader = getCommandService().executeCommand(attachmentFileLoader);
+        AttachmentFile source = attachmentFileLoader.getAttachmentFile();
+        if (source == null || source.getFileData() == null) {
+            return;
+        }
+        AttachmentFile attachmentFile = new AttachmentFile();
+        attachmentFile.setDbId(targetId);
+        attachmentFile.setFileData(source.getFileData());
+        SaveAttachment saveFileCommand = new SaveAttachment(attachmentFile);
+        getCommandService().executeCommand(saveFileCommand);
+        saveFileCommand.clear();
+    }
+
+    public Integer getSourceId() {
+        return sourceId;
+    }
+
+    public Integer getTargetId() {
+        return targetId;
+    }
+
+}
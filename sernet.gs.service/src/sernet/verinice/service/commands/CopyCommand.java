@@ -363,7 +363,9 @@ public class CopyCommand extends GenericCommand {
     /**
      * creates a copy of a given @param attachment (including the
      * {@link AttachmentFile} and references it from the newly created
-     * {@link CnATreeElement} @param destinationElement
+     * {@link CnATreeElement} @param destinationElement. The copy references
+     * the content of the attachment in the attachment store, see
+     * {@link CopyAttachmentFile}.
      * 
      * @throws IOException
      */
@@ -372,10 +374,8 @@ public class CopyCommand extends GenericCommand {
             throws CommandException, IOException {
         final Attachment newAttachmentEntity = createAttachmentCopy(destinationElement, attachment);
         dao.saveOrUpdate(newAttachmentEntity);
-        LoadAttachmentFile attachmentFileLoader = new LoadAttachmentFile(attachment.getDbId());
-        attachmentFileLoader = getCommandService().executeCommand(attachmentFileLoader);
-        AttachmentFileCreationFactory.createAttachmentFile(newAttachmentEntity,
-                attachmentFileLoader.getAttachmentFile().getFileData());
+        getCommandService().executeCommand(
+                new CopyAttachmentFile(attachment.getDbId(), newAttachmentEntity.getDbId()));
     }
 
     /**
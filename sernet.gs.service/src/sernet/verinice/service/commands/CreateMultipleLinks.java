@@ -20,6 +20,7 @@
 package sernet.verinice.service.commands;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.log4j.Logger;
@@ -60,13 +61,16 @@ public class CreateMultipleLinks extends GenericCommand {
      */
     @Override
     public void execute() {
+        List<CnATreeElement> dependencies = new ArrayList<>(linkList.size());
         for (Link link : linkList) {
-            createLink(link);
+            dependencies.add(createLink(link).getDependency());
         }
+        // propagate protection requirements once for all links
+        getLinkDao().notifyChangedElements(dependencies);
         linkList = null;
     }
     
-    private void createLink(Link link) {
+    private CnALink createLink(Link link) {
         try {
             CnATreeElement dependency = link.getTo();            
             if(retrieve) {
@@ -88,7 +92,7 @@ public class CreateMultipleLinks extends GenericCommand {
             
             CnALink cnaLink = new CnALink(dependant, dependency, link.getRelationId(), link.getComment());
 
-            getLinkDao().merge(cnaLink, true);
+            return getLinkDao().merge(cnaLink, false);
         } catch (RuntimeException e) {
             log.error("RuntimeException while creating link.", e);
             throw e;
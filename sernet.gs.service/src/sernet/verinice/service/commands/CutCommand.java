@@ -22,6 +22,7 @@ package sernet.verinice.service.commands;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.LinkedList;
@@ -123,8 +124,11 @@ public class CutCommand extends GenericCommand implements IChangeLoggingCommand
         selectedGroup = getDao().findByUuid(uuidGroup,
                 RetrieveInfo.getChildrenInstance().setParent(true).setProperties(true));
         Map<Integer, Integer> sourceDestMap = new Hashtable<>();
+        // key: db-id of a moved element, value: scope-id before the move
+        Map<Integer, Integer> previousScopeIds = new HashMap<>();
         boolean isPersonMoved = false;
         for (CnATreeElement element : elementList) {
+            previousScopeIds.put(element.getDbId(), element.getScopeId());
             CnATreeElement movedElement = move(selectedGroup, element);
             // cut: source and dest is the same
             sourceDestMap.put(movedElement.getDbId(), movedElement.getDbId());
@@ -140,7 +144,7 @@ public class CutCommand extends GenericCommand implements IChangeLoggingCommand
             // we only need to remove the user-specific data
             getCommandService().discardUserData();
         }
-        updateScopeId(elementList);
+        updateScopeId(elementList, previousScopeIds);
         excecutePostProcessor(elementList, sourceDestMap);
     }
 
@@ -157,12 +161,13 @@ public class CutCommand extends GenericCommand implements IChangeLoggingCommand
         }
     }
 
-    private void updateScopeId(List<CnATreeElement> elementList) throws CommandException {
+    private void updateScopeId(List<CnATreeElement> elementList,
+            Map<Integer, Integer> previousScopeIds) throws CommandException {
         // set scope id of all elements and it's subtrees
         for (CnATreeElement element : elementList) {
             if (selectedGroup.getScopeId() != null) {
                 UpdateScopeId updateScopeId = new UpdateScopeId(element.getDbId(),
-                        selectedGroup.getScopeId());
+                        selectedGroup.getScopeId(), previousScopeIds.get(element.getDbId()));
                 getCommandService().executeCommand(updateScopeId);
             } else if (!selectedGroup.isScope()) {
                 log.warn("cut&paste target has no scopeID");
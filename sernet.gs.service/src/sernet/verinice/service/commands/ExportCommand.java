@@ -19,12 +19,17 @@
 
 package sernet.verinice.service.commands;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
@@ -32,21 +37,21 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
+import javax.xml.stream.XMLStreamException;
+
 import org.apache.log4j.Logger;
 import org.eclipse.jdt.annotation.NonNull;
 import org.hibernate.criterion.DetachedCriteria;
-import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 
-import de.sernet.sync.data.SyncData;
 import de.sernet.sync.data.SyncObject;
 import de.sernet.sync.mapping.SyncMapping;
 import de.sernet.sync.mapping.SyncMapping.MapObjectType;
 import de.sernet.sync.mapping.SyncMapping.MapObjectType.MapAttributeType;
 import de.sernet.sync.risk.Risk;
-import de.sernet.sync.sync.SyncRequest;
 import de.sernet.sync.sync.SyncRequest.SyncVnaSchemaVersion;
 import sernet.gs.service.CollectionUtil;
 import sernet.gs.service.RetrieveInfo;
@@ -58,6 +63,7 @@ import sernet.hui.common.connect.PropertyType;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.GenericCommand;
 import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.IAttachmentDao;
 import sernet.verinice.interfaces.IChangeLoggingCommand;
 import sernet.verinice.interfaces.IDao;
 import sernet.verinice.model.bsi.Attachment;
@@ -74,6 +80,13 @@ import sernet.verinice.service.sync.VnaSchemaVersion;
 /**
  * Creates an VNA or XML representation for the given list of CnATreeElements.
  * 
+ * The representation is written to a stream while the elements are loaded
+ * page by page. The hibernate session is cleared after each page, the sync
+ * objects and the file data of the attachments are never held in memory as a
+ * whole. If {@link #setResultInFile(boolean)} is set, the result is stored in
+ * a temporary file on the server and loaded in chunks by
+ * {@link LoadExportResult}. Otherwise it is returned by {@link #getResult()}.
+ * 
  * @author <andreas[at]becker[dot]name>
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  */
@@ -81,30 +94,49 @@ import sernet.verinice.service.sync.VnaSchemaVersion;
 public class ExportCommand extends GenericCommand implements IChangeLoggingCommand {
     private static final Logger log = Logger.getLogger(ExportCommand.class);
 
+    private static final String HQL_ELEMENT_TREE = "select e.dbId, e.parentId from "
+            + CnATreeElement.class.getName() + " e where e.scopeId = ?";
+
+    private static final String HQL_CHILDREN = "select e.dbId, e.parentId from "
+            + CnATreeElement.class.getName() + " e where e.parentId in (:ids)";
+
+    private static final String HQL_RISK_ANALYSES = "select ra.dbId from "
+            + FinishedRiskAnalysis.class.getName() + " ra where ra.scopeId = ?";
+
+    private static final String HQL_RISK_ANALYSES_BY_IDS = "select ra.dbId from "
+            + FinishedRiskAnalysis.class.getName() + " ra where ra.dbId in (:ids)";
+
+    private static final String HQL_LINKS = "select link.id.dependencyId, link.id.typeId,"
+            + " link.comment, dependant.extId, dependant.uuid, dependency.extId, dependency.uuid"
+            + " from " + CnALink.class.getName() + " link"
+            + " join link.dependant dependant join link.dependency dependency"
+            + " where link.id.dependantId in (:ids)";
+
     // Configuration fields set by client
     private final List<CnATreeElement> elements;
     private final String sourceId;
     private boolean reImport = false;
     private boolean exportRiskAnalysis = true;
     private Integer exportFormat;
+    private boolean resultInFile = false;
     private Map<String, String> entityTypesBlackList;
     private Map<Class, Class> entityClassBlackList;
 
     // Result fields
     private byte[] result;
+    private String resultFileId;
+    private long resultFileSize;
     private List<CnATreeElement> changedElements;
     private final String stationId;
 
     // Fields used on server only
-    private transient Set<CnALink> linkSet;
-    private transient Set<Attachment> attachmentSet;
     private transient Set<Integer> riskAnalysisIdSet;
     private transient Set<EntityType> exportedEntityTypes;
     private transient Set<String> exportedTypes;
     private transient Set<Integer> exportedElementIds;
-    private transient Map<Integer, List<Attachment>> attachmentsByElementId = null;
+    private transient Map<Integer, String> attachmentFileNames;
+    private transient List<CnATreeElement> unsavedElements;
     private transient IBaseDao<CnATreeElement, Serializable> dao;
-    private transient Map<Integer, Collection<CnATreeElement>> elementsByParentId;
 
     public ExportCommand(final List<CnATreeElement> elements, final String sourceId,
             final boolean reImport) {
@@ -121,19 +153,17 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
         } else {
             this.exportFormat = SyncParameter.EXPORT_FORMAT_DEFAULT;
         }
-        this.attachmentSet = new HashSet<>();
         this.stationId = ChangeLogEntry.STATION_ID;
     }
 
     private void createFields() {
         this.changedElements = new LinkedList<>();
-        this.linkSet = new HashSet<>();
-        this.attachmentSet = new HashSet<>();
+        this.unsavedElements = new LinkedList<>();
+        this.attachmentFileNames = new HashMap<>();
         this.exportedElementIds = new HashSet<>();
         this.riskAnalysisIdSet = new HashSet<>();
         this.exportedTypes = new HashSet<>();
         this.exportedEntityTypes = new HashSet<>();
-        this.elementsByParentId = new HashMap<>();
     }
 
     /*
@@ -145,22 +175,15 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
     public void execute() {
         try {
             createFields();
-            SyncRequest syncRequest = export();
-            Risk risk = exportRiskAnalyses();
-            if (isReImport()) {
-                if (log.isInfoEnabled()) {
-                    log.info("Prepare reimport is enabled. Saving the IDS of "
-                            + changedElements.size() + " elements ...");
-                }
-                saveChangedElements();
-            }
-
-            if (isVeriniceArchive()) {
-                result = createVeriniceArchive(syncRequest, risk);
+            if (isResultInFile()) {
+                exportToResultFile();
             } else {
-                try (final ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
-                    ExportFactory.marshal(syncRequest, bos);
-                    result = bos.toByteArray();
+                File tempFile = File.createTempFile("verinice-export", null);
+                try {
+                    exportToFile(tempFile);
+                    result = Files.readAllBytes(tempFile.toPath());
+                } finally {
+                    Files.deleteIfExists(tempFile.toPath());
                 }
             }
         } catch (final RuntimeException re) {
@@ -170,117 +193,271 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
             log.error("Exception while exporting", e);
             throw new RuntimeCommandException("Exception while exporting", e);
         } finally {
-            elementsByParentId = null;
-            attachmentsByElementId = null;
+            attachmentFileNames = null;
+            unsavedElements = null;
+        }
+
+    }
+
+    /**
+     * Exports to a new file in the export directory of the server. The file
+     * is loaded and deleted by {@link LoadExportResult}.
+     */
+    private void exportToResultFile() throws IOException, XMLStreamException, CommandException {
+        File file = LoadExportResult.createResultFile();
+        try {
+            exportToFile(file);
+        } catch (IOException | XMLStreamException | CommandException | RuntimeException e) {
+            Files.deleteIfExists(file.toPath());
+            throw e;
         }
+        resultFileId = LoadExportResult.getResultFileId(file);
+        resultFileSize = file.length();
+    }
 
+    private void exportToFile(File file) throws IOException, XMLStreamException, CommandException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+            if (isVeriniceArchive()) {
+                createVeriniceArchive(out);
+            } else {
+                export(out);
+            }
+        }
     }
 
     /**
      * Export (i.e. "create XML representation of" the given cnATreeElement and
-     * its successors. For this, child elements are exported recursively. All
-     * elements that have been processed are returned as a list of
+     * its successors. For this, child elements are exported in depth-first
+     * order. All elements that have been processed are written as
      * {@code syncObject}s with their respective attributes, represented as
      * {@code syncAttribute}s.
      * 
-     * @return XML representation of elements
+     * @param out
+     *            The stream the XML representation is written to
      * @throws CommandException
      */
-    private SyncRequest export() throws CommandException {
+    private void export(OutputStream out) throws XMLStreamException, CommandException {
 
         final SyncVnaSchemaVersion formatVersion = createVersionData();
 
-        final SyncData syncData = new SyncData();
+        final SyncRequestStreamWriter writer = new SyncRequestStreamWriter(out);
+        writer.startSyncRequest(sourceId);
 
         if (log.isInfoEnabled()) {
             log.info("Exporting elements...");
         }
 
         for (final CnATreeElement element : elements) {
-            loadData(element.getScopeId());
-            CnATreeElement elementWithProperties = elementsByParentId.get(element.getParentId())
-                    .stream().filter(e -> e.getDbId().equals(element.getDbId())).findFirst()
-                    .orElseThrow(() -> new RuntimeException(
-                            "Requested object with db ID " + element.getDbId() + " not found."));
-            SyncObject exported = exportElement(elementWithProperties);
-            syncData.getSyncObject().add(exported);
+            exportTree(element, writer);
+        }
+        if (isReImport() && log.isInfoEnabled()) {
+            log.info("Prepare reimport is enabled. IDS of " + changedElements.size()
+                    + " elements saved.");
         }
 
         if (log.isInfoEnabled()) {
             log.info("Exporting links...");
         }
-        elementsByParentId.clear();
-        exportLinks(syncData);
+        exportLinks(writer);
 
         final SyncMapping syncMapping = new SyncMapping();
         createMapping(syncMapping.getMapObjectType());
 
-        final SyncRequest syncRequest = new SyncRequest();
-        syncRequest.setSourceId(sourceId);
-        syncRequest.setSyncData(syncData);
-        syncRequest.setSyncMapping(syncMapping);
-        syncRequest.setSyncVnaSchemaVersion(formatVersion);
+        writer.endSyncRequest(syncMapping, formatVersion);
+    }
 
-        return syncRequest;
+    /**
+     * Exports an element and its successors. The ids of the elements are
+     * loaded first and brought into depth-first order. The elements are loaded
+     * in pages in this order and written to the stream. The hibernate session
+     * is cleared after each page.
+     */
+    private void exportTree(final CnATreeElement root, final SyncRequestStreamWriter writer)
+            throws XMLStreamException, CommandException {
+        final ElementTree tree = loadElementTree(root);
+        final Deque<OpenSyncObject> openSyncObjects = new ArrayDeque<>();
+        int skipDepth = Integer.MAX_VALUE;
+        int position = 0;
+        for (List<Integer> page : CollectionUtil.partition(tree.ids,
+                IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            final Map<Integer, CnATreeElement> elementsById = loadElements(page);
+            final Map<Integer, List<Attachment>> attachmentsByElementId = loadAttachments(page);
+            for (Integer id : page) {
+                int depth = tree.depths.get(position++);
+                if (depth > skipDepth) {
+                    continue;
+                }
+                skipDepth = Integer.MAX_VALUE;
+                while (!openSyncObjects.isEmpty() && openSyncObjects.peek().depth >= depth) {
+                    writer.endSyncObject(openSyncObjects.pop().syncObject);
+                }
+                final CnATreeElement element = elementsById.get(id);
+                if (element == null) {
+                    if (depth == 0) {
+                        throw new RuntimeException(
+                                "Requested object with db ID " + id + " not found.");
+                    }
+                    skipDepth = depth;
+                    continue;
+                }
+                final ExportTask task = new ExportTask(element);
+                configureTask(task, attachmentsByElementId.get(id));
+                final SyncObject syncObject = task.export();
+                getValuesFromTask(task);
+                if (syncObject == null) {
+                    skipDepth = depth;
+                    continue;
+                }
+                writer.startSyncObject(syncObject);
+                openSyncObjects.push(new OpenSyncObject(depth, syncObject));
+            }
+            saveChangedElements();
+            flushAndClearHibernateSession();
+        }
+        while (!openSyncObjects.isEmpty()) {
+            writer.endSyncObject(openSyncObjects.pop().syncObject);
+        }
     }
 
-    private void loadData(Integer scopeId) {
-        loadElements(scopeId);
-        attachmentsByElementId = loadAttachments(scopeId);
+    /**
+     * Loads the ids of an element and its successors in depth-first order.
+     * Children are sorted by id. The lost elements of a risk analysis are
+     * handled as additional children of the risk analysis.
+     * 
+     * The ids of the elements of the scope of the root are loaded in one
+     * query. If the root has no scope id, the successors are loaded level by
+     * level.
+     */
+    private ElementTree loadElementTree(final CnATreeElement root) throws CommandException {
+        final Map<Integer, List<Integer>> childIdsByParentId = new HashMap<>();
+        final int numberOfElements;
+        if (root.getScopeId() != null) {
+            @SuppressWarnings("unchecked")
+            final List<Object[]> idAndParentIdList = getDao().findByQuery(HQL_ELEMENT_TREE,
+                    new Object[] { root.getScopeId() });
+            addChildIds(idAndParentIdList, childIdsByParentId);
+            numberOfElements = idAndParentIdList.size();
+        } else {
+            numberOfElements = loadSubtreeChildIds(root.getDbId(), childIdsByParentId);
+        }
+        childIdsByParentId.values().forEach(Collections::sort);
+        if (isExportRiskAnalysis()) {
+            addRiskAnalysisOrphanElements(loadRiskAnalysisIds(root, childIdsByParentId),
+                    childIdsByParentId);
+        }
+
+        final ElementTree tree = new ElementTree(numberOfElements);
+        final Deque<Integer> idStack = new ArrayDeque<>();
+        final Deque<Integer> depthStack = new ArrayDeque<>();
+        idStack.push(root.getDbId());
+        depthStack.push(0);
+        while (!idStack.isEmpty()) {
+            Integer id = idStack.pop();
+            int depth = depthStack.pop();
+            tree.ids.add(id);
+            tree.depths.add(depth);
+            List<Integer> childIds = childIdsByParentId.getOrDefault(id,
+                    Collections.emptyList());
+            for (int i = childIds.size() - 1; i >= 0; i--) {
+                idStack.push(childIds.get(i));
+                depthStack.push(depth + 1);
+            }
+        }
+        return tree;
     }
 
-    private void loadElements(Integer scopeId) {
-        @SuppressWarnings("unchecked")
-        List<Integer> elementIDs = getDao().findByCriteria(DetachedCriteria
-                .forClass(CnATreeElement.class).add(Restrictions.eq("scopeId", scopeId))
-                .setProjection(Projections.property("id")));
-        Thread loadElementsThread = new Thread(() -> CollectionUtil
-                .partition(elementIDs, IDao.QUERY_MAX_ITEMS_IN_LIST).forEach(partition -> {
-                    DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class)
-                            .add(Restrictions.in("id", partition));
-                    RetrieveInfo retrieveInfo = RetrieveInfo.getPropertyInstance();
-                    retrieveInfo.configureCriteria(criteria);
-                    @SuppressWarnings("unchecked")
-                    List<CnATreeElement> elementsToCache = getDao().findByCriteria(criteria);
-                    elementsToCache.forEach(element -> elementsByParentId
-                            .computeIfAbsent(element.getParentId(), parentId -> new LinkedList<>())
-                            .add(element));
-                }), "export-" + scopeId + "-load-elements");
-        loadElementsThread.start();
-
-        loadLinks(elementIDs);
-        try {
-            loadElementsThread.join();
-        } catch (InterruptedException e) {
-            throw new RuntimeException("Interrupted while seeding caches for scopeId " + scopeId,
-                    e);
+    private static void addChildIds(List<Object[]> idAndParentIdList,
+            Map<Integer, List<Integer>> childIdsByParentId) {
+        for (Object[] idAndParentId : idAndParentIdList) {
+            childIdsByParentId.computeIfAbsent((Integer) idAndParentId[1], k -> new ArrayList<>())
+                    .add((Integer) idAndParentId[0]);
         }
     }
 
-    private Map<Integer, List<Attachment>> loadAttachments(Integer scopeId) {
+    /**
+     * Loads the ids of the successors of an element level by level.
+     * 
+     * @return The number of elements of the subtree including the root
+     */
+    private int loadSubtreeChildIds(Integer rootId,
+            Map<Integer, List<Integer>> childIdsByParentId) {
+        int numberOfElements = 1;
+        List<Integer> parentIds = Collections.singletonList(rootId);
+        while (!parentIds.isEmpty()) {
+            final List<Integer> childIds = new ArrayList<>();
+            for (List<Integer> page : CollectionUtil.partition(parentIds,
+                    IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+                @SuppressWarnings("unchecked")
+                final List<Object[]> idAndParentIdList = getDao().findByQuery(HQL_CHILDREN,
+                        new String[] { "ids" }, new Object[] { page });
+                addChildIds(idAndParentIdList, childIdsByParentId);
+                idAndParentIdList
+                        .forEach(idAndParentId -> childIds.add((Integer) idAndParentId[0]));
+            }
+            numberOfElements += childIds.size();
+            parentIds = childIds;
+        }
+        return numberOfElements;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Integer> loadRiskAnalysisIds(CnATreeElement root,
+            Map<Integer, List<Integer>> childIdsByParentId) {
+        if (root.getScopeId() != null) {
+            return getDao().findByQuery(HQL_RISK_ANALYSES, new Object[] { root.getScopeId() });
+        }
+        final List<Integer> subtreeIds = new ArrayList<>();
+        childIdsByParentId.values().forEach(subtreeIds::addAll);
+        final List<Integer> riskAnalysisIds = new ArrayList<>();
+        for (List<Integer> page : CollectionUtil.partition(subtreeIds,
+                IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            riskAnalysisIds.addAll(getDao().findByQuery(HQL_RISK_ANALYSES_BY_IDS,
+                    new String[] { "ids" }, new Object[] { page }));
+        }
+        return riskAnalysisIds;
+    }
+
+    private void addRiskAnalysisOrphanElements(List<Integer> riskAnalysisIds,
+            Map<Integer, List<Integer>> childIdsByParentId) throws CommandException {
+        for (Integer riskAnalysisId : riskAnalysisIds) {
+            FindRiskAnalysisListsByParentID loader = new FindRiskAnalysisListsByParentID(
+                    riskAnalysisId);
+            loader = getCommandService().executeCommand(loader);
+            FinishedRiskAnalysisLists lists = loader.getFoundLists();
+            if (lists != null) {
+                List<Integer> childIds = childIdsByParentId.computeIfAbsent(riskAnalysisId,
+                        k -> new ArrayList<>());
+                lists.getAssociatedGefaehrdungen()
+                        .forEach(orphan -> childIds.add(orphan.getDbId()));
+            }
+        }
+    }
+
+    private Map<Integer, CnATreeElement> loadElements(List<Integer> ids) {
+        DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class)
+                .add(Restrictions.in("id", ids));
+        RetrieveInfo retrieveInfo = RetrieveInfo.getPropertyInstance();
+        retrieveInfo.configureCriteria(criteria);
+        @SuppressWarnings("unchecked")
+        List<CnATreeElement> elementList = getDao().findByCriteria(criteria);
+        Map<Integer, CnATreeElement> elementsById = new HashMap<>(elementList.size());
+        elementList.forEach(element -> elementsById.put(element.getDbId(), element));
+        return elementsById;
+    }
+
+    private Map<Integer, List<Attachment>> loadAttachments(List<Integer> elementIds) {
+        if (!isVeriniceArchive()) {
+            return Collections.emptyMap();
+        }
         @NonNull
         IBaseDao<Attachment, Serializable> attachmentDao = getDaoFactory().getDAO(Attachment.class);
         @SuppressWarnings("unchecked")
-        List<Attachment> attachments = attachmentDao.findByCriteria(
-                DetachedCriteria.forClass(Attachment.class).createAlias("cnATreeElement", "element")
-                        .add(Restrictions.eq("element.scopeId", scopeId)));
+        List<Attachment> attachments = attachmentDao.findByCriteria(DetachedCriteria
+                .forClass(Attachment.class).add(Restrictions.in("cnATreeElement.dbId", elementIds)));
         return attachments.stream().collect(
                 Collectors.groupingBy(attachment -> attachment.getCnATreeElement().getDbId()));
     }
 
-    private void loadLinks(List<Integer> elementIDs) {
-        @NonNull
-        IBaseDao<CnALink, Serializable> linkDao = getDaoFactory().getDAO(CnALink.class);
-        CollectionUtil.partition(elementIDs, IDao.QUERY_MAX_ITEMS_IN_LIST).forEach(partition -> {
-            DetachedCriteria criteria = DetachedCriteria.forClass(CnALink.class)
-                    .add(Restrictions.in("id.dependantId", partition));
-            linkSet.addAll(linkDao.findByCriteria(criteria));
-            criteria = DetachedCriteria.forClass(CnALink.class)
-                    .add(Restrictions.in("id.dependencyId", partition));
-            linkSet.addAll(linkDao.findByCriteria(criteria));
-        });
-    }
-
     private SyncVnaSchemaVersion createVersionData() {
 
         final VnaSchemaVersion vnaSchemaVersion = getCommandService().getVnaSchemaVersion();
@@ -317,147 +494,80 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
         this.exportRiskAnalysis = exportRiskAnalysis;
     }
 
-    private SyncObject exportElement(final CnATreeElement element) throws CommandException {
-        final ExportTask task = new ExportTask(element);
-        configureTask(task);
-        SyncObject syncObject = task.export();
-        getValuesFromTask(task);
-        syncObject.getChildren().addAll(exportChildren(task.getElement()));
-        return syncObject;
-    }
-
-    private void exportLinks(final SyncData syncData) {
-        for (final CnALink link : linkSet) {
-            if (!exportedElementIds.contains(link.getId().getDependantId())) {
-                log.warn("Dependant of link not found. Check access rights. " + link.getId());
-                continue;
-            }
-            if (!exportedElementIds.contains(link.getId().getDependencyId())) {
-                log.warn("Dependency of link not found. Check access rights. " + link.getId());
-                continue;
-            }
-            ExportFactory.transform(link, syncData.getSyncLink());
-        }
-    }
-
-    private Collection<? extends SyncObject> exportChildren(final CnATreeElement element)
-            throws CommandException {
-        if (log.isDebugEnabled()) {
-            log.debug("Call exportChildren in ExportCommand hashcode " + this.hashCode()
-                    + "for object " + element.getTitle());
-        }
-        final Collection<CnATreeElement> children = getElementChildren(element);
-        if (FinishedRiskAnalysis.TYPE_ID.equals(element.getTypeId())) {
-            children.addAll(getRiskAnalysisOrphanElements(element));
-        }
-
-        if (children.isEmpty()) {
-            return Collections.emptySet();
-        }
-        final List<SyncObject> exportedChildren = new ArrayList<>(children.size());
-
-        for (final CnATreeElement child : children) {
-            if (log.isDebugEnabled()) {
-                log.debug("Create export job for child " + child.getDbId());
-            }
-            final ExportTask task = new ExportTask(child);
-            configureTask(task);
-
-            SyncObject exportedChild = task.export();
-            if (exportedChild != null) {
-                exportedChildren.add(exportedChild);
-                if (checkElement(child)) {
-                    exportedChild.getChildren().addAll(exportChildren(task.getElement()));
+    private void exportLinks(final SyncRequestStreamWriter writer) throws XMLStreamException {
+        for (List<Integer> page : CollectionUtil.partition(new ArrayList<>(exportedElementIds),
+                IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            @SuppressWarnings("unchecked")
+            List<Object[]> links = getDao().findByQuery(HQL_LINKS, new String[] { "ids" },
+                    new Object[] { page });
+            for (Object[] link : links) {
+                if (!exportedElementIds.contains(link[0])) {
+                    if (log.isDebugEnabled()) {
+                        log.debug("Dependency of link not exported. Check access rights. "
+                                + link[0]);
+                    }
+                    continue;
                 }
+                String relationId = CnALink.Id.NO_TYPE.equals(link[1]) ? "" : (String) link[1];
+                writer.writeSyncLink(ExportFactory.createSyncLink(
+                        ExportFactory.createExtId((String) link[3], (String) link[4]),
+                        ExportFactory.createExtId((String) link[5], (String) link[6]),
+                        relationId, (String) link[2]));
             }
-            getValuesFromTask(task);
-        }
-
-        return exportedChildren;
-    }
-
-    protected Collection<CnATreeElement> getElementChildren(final CnATreeElement element) {
-        return elementsByParentId.getOrDefault(element.getDbId(), Collections.emptySet());
-
-    }
-
-    private boolean checkElement(final CnATreeElement element) {
-        return getEntityTypesBlackList().get(element.getTypeId()) == null
-                && getEntityClassBlackList().get(element.getClass()) == null;
-    }
-
-    private Set<CnATreeElement> getRiskAnalysisOrphanElements(final CnATreeElement element)
-            throws CommandException {
-        final Set<CnATreeElement> returnValue = new HashSet<>();
-        FindRiskAnalysisListsByParentID loader = new FindRiskAnalysisListsByParentID(
-                element.getDbId());
-        loader = getCommandService().executeCommand(loader);
-        FinishedRiskAnalysisLists lists = loader.getFoundLists();
-        if (lists != null) {
-            returnValue.addAll(lists.getAssociatedGefaehrdungen());
         }
-        return returnValue;
     }
 
     /**
-     * Creates the verinice archive after createXmlData() was called.
+     * Creates the verinice archive. The XML representation of the elements
+     * and the file data of the attachments are streamed into the archive.
      * 
-     * @return the verinice archive as byte[]
      * @throws CommandException
      */
-    private byte[] createVeriniceArchive(SyncRequest syncRequest, Risk risk)
-            throws CommandException {
-        try (final ByteArrayOutputStream byteOut = new ByteArrayOutputStream()) {
-            try (final ZipOutputStream zipOut = new ZipOutputStream(byteOut)) {
-
-                ExportFactory.createZipEntry(zipOut, VeriniceArchive.VERINICE_XML, syncRequest);
-                if (isRiskAnalysis()) {
-                    ExportFactory.createZipEntry(zipOut, VeriniceArchive.RISK_XML, risk);
-                }
-                ExportFactory.createZipEntry(zipOut, VeriniceArchive.DATA_XSD,
-                        StreamFactory.getDataXsdAsStream());
-                ExportFactory.createZipEntry(zipOut, VeriniceArchive.MAPPING_XSD,
-                        StreamFactory.getMappingXsdAsStream());
-                ExportFactory.createZipEntry(zipOut, VeriniceArchive.SYNC_XSD,
-                        StreamFactory.getSyncXsdAsStream());
-                ExportFactory.createZipEntry(zipOut, VeriniceArchive.RISK_XSD,
-                        StreamFactory.getRiskXsdAsStream());
-                ExportFactory.createZipEntry(zipOut, VeriniceArchive.README_TXT,
-                        StreamFactory.getReadmeAsStream());
-
-                for (final Attachment attachment : getAttachmentSet()) {
-                    LoadAttachmentFile command = new LoadAttachmentFile(attachment.getDbId(), true);
-                    command = getCommandService().executeCommand(command);
-                    if (command.getAttachmentFile() != null
-                            && command.getAttachmentFile().getFileData() != null) {
-                        ExportFactory.createZipEntry(zipOut,
-                                ExportFactory.createZipFileName(attachment),
-                                command.getAttachmentFile().getFileData());
-                    }
-                    command.setAttachmentFile(null);
-                }
-                zipOut.closeEntry();
-            }
-            return byteOut.toByteArray();
-        } catch (final IOException e) {
-            log.error("Error while creating zip output stream", e);
-            throw new RuntimeCommandException(e);
+    private void createVeriniceArchive(OutputStream out)
+            throws IOException, XMLStreamException, CommandException {
+        final ZipOutputStream zipOut = new ZipOutputStream(out);
+        zipOut.putNextEntry(new ZipEntry(VeriniceArchive.VERINICE_XML));
+        export(zipOut);
+        zipOut.closeEntry();
+        final Risk risk = exportRiskAnalyses();
+        if (isRiskAnalysis()) {
+            ExportFactory.createZipEntry(zipOut, VeriniceArchive.RISK_XML, risk);
+        }
+        ExportFactory.createZipEntry(zipOut, VeriniceArchive.DATA_XSD,
+                StreamFactory.getDataXsdAsStream());
+        ExportFactory.createZipEntry(zipOut, VeriniceArchive.MAPPING_XSD,
+                StreamFactory.getMappingXsdAsStream());
+        ExportFactory.createZipEntry(zipOut, VeriniceArchive.SYNC_XSD,
+                StreamFactory.getSyncXsdAsStream());
+        ExportFactory.createZipEntry(zipOut, VeriniceArchive.RISK_XSD,
+                StreamFactory.getRiskXsdAsStream());
+        ExportFactory.createZipEntry(zipOut, VeriniceArchive.README_TXT,
+                StreamFactory.getReadmeAsStream());
+
+        final IAttachmentDao attachmentDao = getDaoFactory().getAttachmentDao();
+        for (final Map.Entry<Integer, String> attachment : attachmentFileNames.entrySet()) {
+            // The entry is created when the first bytes are available, an
+            // attachment without file data has no entry
+            attachmentDao.readFileData(attachment.getKey(),
+                    fileData -> ExportFactory.createZipEntry(zipOut, attachment.getValue(),
+                            fileData));
         }
+        zipOut.closeEntry();
+        zipOut.finish();
     }
 
+    /**
+     * Saves the elements changed by the tasks of the current page if reimport
+     * is enabled.
+     */
     private void saveChangedElements() {
-        int number = changedElements.size();
-        int i = 0;
-        for (CnATreeElement element : changedElements) {
+        for (CnATreeElement element : unsavedElements) {
             getDao().merge(element);
-            if (i % 50 == 0) { // Same as the JDBC batch size
-                flushAndClearHibernateSession();
-            }
-            i++;
-            if (log.isDebugEnabled()) {
-                log.debug(i + "/" + number + " elements saved");
-            }
         }
+        if (log.isDebugEnabled() && !unsavedElements.isEmpty()) {
+            log.debug(unsavedElements.size() + " elements saved");
+        }
+        unsavedElements.clear();
     }
 
     public void flushAndClearHibernateSession() {
@@ -513,9 +623,9 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
         }
     }
 
-    private void configureTask(final ExportTask task) {
+    private void configureTask(final ExportTask task, final List<Attachment> attachments) {
         task.setCommandService(getCommandService());
-        task.setAttachments(attachmentsByElementId.get(task.getElement().getDbId()));
+        task.setAttachments(attachments);
         task.setAttachmentDao(getDaoFactory().getDAO(Attachment.class));
         task.setHuiTypeFactory(getHuiTypeFactory());
         task.setSourceId(sourceId);
@@ -526,10 +636,14 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
     }
 
     private void getValuesFromTask(final ExportTask exportTask) {
-        attachmentSet.addAll(exportTask.getAttachmentSet());
+        for (Attachment attachment : exportTask.getAttachmentSet()) {
+            attachmentFileNames.put(attachment.getDbId(),
+                    ExportFactory.createZipFileName(attachment));
+        }
         exportedEntityTypes.addAll(exportTask.getExportedEntityTypes());
         exportedTypes.addAll(exportTask.getExportedTypes());
         changedElements.addAll(exportTask.getChangedElementList());
+        unsavedElements.addAll(exportTask.getChangedElementList());
         final CnATreeElement element = getElementFromTask(exportTask);
         if (element != null) {
             exportedElementIds.add(element.getDbId());
@@ -645,11 +759,63 @@ public class ExportCommand extends GenericCommand implements IChangeLoggingComma
         this.exportFormat = exportFormat;
     }
 
-    public Set<Attachment> getAttachmentSet() {
-        if (attachmentSet == null) {
-            attachmentSet = new HashSet<>();
+    public boolean isResultInFile() {
+        return resultInFile;
+    }
+
+    /**
+     * If true, the result is stored in a temporary file on the server and
+     * {@link #getResult()} returns null. Load the result with
+     * {@link LoadExportResult#copyTo(sernet.verinice.interfaces.ICommandService,
+     * ExportCommand, OutputStream)}.
+     */
+    public void setResultInFile(final boolean resultInFile) {
+        this.resultInFile = resultInFile;
+    }
+
+    /**
+     * @return The id of the file of the result on the server if
+     *         {@link #isResultInFile()} is true
+     */
+    public String getResultFileId() {
+        return resultFileId;
+    }
+
+    /**
+     * @return The size of the result in bytes if {@link #isResultInFile()} is
+     *         true
+     */
+    public long getResultFileSize() {
+        return resultFileSize;
+    }
+
+    /**
+     * Ids of the elements of a tree in depth-first order and their depth
+     * relative to the root of the tree.
+     */
+    private static final class ElementTree {
+
+        private final List<Integer> ids;
+        private final List<Integer> depths;
+
+        private ElementTree(int size) {
+            ids = new ArrayList<>(size);
+            depths = new ArrayList<>(size);
+        }
+    }
+
+    /**
+     * A sync object which was started but not finished yet.
+     */
+    private static final class OpenSyncObject {
+
+        private final int depth;
+        private final SyncObject syncObject;
+
+        private OpenSyncObject(int depth, SyncObject syncObject) {
+            this.depth = depth;
+            this.syncObject = syncObject;
         }
-        return attachmentSet;
     }
 
 }
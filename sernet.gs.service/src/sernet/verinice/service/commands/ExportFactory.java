@@ -68,14 +68,35 @@ public final class ExportFactory {
      * @param link
      */
     public static void transform(CnALink link, List<SyncLink> syncLinkXmlList) {
+        syncLinkXmlList.add(createSyncLink(ExportFactory.createExtId(link.getDependant()),
+                ExportFactory.createExtId(link.getDependency()), link.getRelationId(),
+                link.getComment()));
+    }
+
+    /**
+     * Creates a SyncLink instance out of the ext-ids of the linked elements
+     * without loading the link itself.
+     * 
+     * @param dependantExtId
+     *            The ext-id of the dependant, see
+     *            {@link #createExtId(String, String)}
+     * @param dependencyExtId
+     *            The ext-id of the dependency
+     * @param relationId
+     *            The relation id, see {@link CnALink#getRelationId()}
+     * @param comment
+     *            The comment of the link or null
+     */
+    public static SyncLink createSyncLink(String dependantExtId, String dependencyExtId,
+            String relationId, String comment) {
         SyncLink syncLink = new SyncLink();
-        syncLink.setDependant(ExportFactory.createExtId(link.getDependant()));
-        syncLink.setDependency(ExportFactory.createExtId(link.getDependency()));
-        syncLink.setRelationId(link.getRelationId());
-        if (link.getComment() != null && !link.getComment().isEmpty()) {
-            syncLink.setComment(link.getComment());
+        syncLink.setDependant(dependantExtId);
+        syncLink.setDependency(dependencyExtId);
+        syncLink.setRelationId(relationId);
+        if (comment != null && !comment.isEmpty()) {
+            syncLink.setComment(comment);
         }
-        syncLinkXmlList.add(syncLink);
+        return syncLink;
     }
 
     /**
@@ -192,9 +213,17 @@ public final class ExportFactory {
         if (element == null) {
             return null;
         }
-        String extId = element.getExtId();
+        return createExtId(element.getExtId(), element.getUuid());
+    }
+
+    /**
+     * Creates an ext-id for a tree-element out of its ext-id and uuid
+     * 
+     * @return the ext-id if it is not empty, the uuid otherwise
+     */
+    public static String createExtId(String extId, String uuid) {
         if (extId == null || extId.isEmpty()) {
-            extId = element.getUuid();
+            return uuid;
         }
         return extId;
     }
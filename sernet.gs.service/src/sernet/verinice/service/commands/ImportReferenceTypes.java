@@ -27,6 +27,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.apache.log4j.Logger;
 
@@ -53,24 +54,30 @@ public class ImportReferenceTypes {
 
     private static final Logger LOG = Logger.getLogger(ImportReferenceTypes.class);
 
-    private final Map<CnATreeElement, List<SyncAttribute>> cnaTreeElement2SyncAttributes;
+    private final Map<String, List<SyncAttribute>> cnaTreeElement2SyncAttributes;
 
     private final IBaseDao<CnATreeElement, Serializable> dao;
 
     private ICommandService iCommandService;
 
-    private Map<String, CnATreeElement> idElementMap;
+    private Function<String, Integer> entityDbIdByExtId;
 
-    ImportReferenceTypes(IBaseDao<CnATreeElement, Serializable> iBaseDao, ICommandService iCommandService, Map<String, CnATreeElement> idElementMap) {
+    /**
+     * @param entityDbIdByExtId
+     *            Returns the database id of the entity of an imported element
+     *            by the external id of the element or null if no element was
+     *            imported with this id
+     */
+    ImportReferenceTypes(IBaseDao<CnATreeElement, Serializable> iBaseDao, ICommandService iCommandService, Function<String, Integer> entityDbIdByExtId) {
         this.dao = iBaseDao;
         this.iCommandService = iCommandService;
-        this.idElementMap = idElementMap;
+        this.entityDbIdByExtId = entityDbIdByExtId;
         this.cnaTreeElement2SyncAttributes = new HashMap<>();
     }
 
     /**
-     * Keep a cnatreeelement along with its sync attributes in a kind of memory
-     * cache, so the references can be resolved by {
+     * Keep the uuid of a cnatreeelement along with its sync attributes in a
+     * kind of memory cache, so the references can be resolved by {
      * {@link #replaceExternalIdsWithDbIds()}.
      *
      * <p>
@@ -110,11 +117,8 @@ public class ImportReferenceTypes {
     }
 
     private void mapCnATreeElement2SyncAttributes(CnATreeElement cnaTreeElement, SyncAttribute syncAttribute) {
-        if (!cnaTreeElement2SyncAttributes.containsKey(cnaTreeElement)) {
-            cnaTreeElement2SyncAttributes.put(cnaTreeElement, new ArrayList<SyncAttribute>());
-        }
-
-        cnaTreeElement2SyncAttributes.get(cnaTreeElement).add(syncAttribute);
+        cnaTreeElement2SyncAttributes.computeIfAbsent(cnaTreeElement.getUuid(), uuid -> new ArrayList<>())
+                .add(syncAttribute);
     }
 
     /**
@@ -128,9 +132,9 @@ public class ImportReferenceTypes {
      */
     public void replaceExternalIdsWithDbIds() {
 
-        Set<Entry<CnATreeElement, List<SyncAttribute>>> entrySet = cnaTreeElement2SyncAttributes.entrySet();
+        Set<Entry<String, List<SyncAttribute>>> entrySet = cnaTreeElement2SyncAttributes.entrySet();
 
-        for (Map.Entry<CnATreeElement, List<SyncAttribute>> syncElement : entrySet) {
+        for (Map.Entry<String, List<SyncAttribute>> syncElement : entrySet) {
 
             CnATreeElement hydratedElement = hydrateCnaTreeElement(syncElement);
             List<SyncAttribute> syncAttributes = syncElement.getValue();
@@ -168,15 +172,14 @@ public class ImportReferenceTypes {
             Property prop = iterator.next();
 
             String cnaElementExtId = prop.getPropertyValue();
-            CnATreeElement referenceTarget = idElementMap.get(cnaElementExtId);
+            Integer entityDbId = entityDbIdByExtId.apply(cnaElementExtId);
 
-            if (referenceTarget != null) {
+            if (entityDbId != null) {
 
-                String entityDbId = "" + referenceTarget.getEntity().getDbId();
-                prop.setPropertyValue(entityDbId);
+                prop.setPropertyValue(String.valueOf(entityDbId));
 
                 LOG.debug(IMPORT_REFERENCES
-                        + " reference resolved: found target " + referenceTarget.getTitle()
+                        + " reference resolved: found target entity " + entityDbId
                         + " by extId " + cnaElementExtId
                         + " in memory cache: " + hydratedElement.getTitle());
             } else {
@@ -188,8 +191,8 @@ public class ImportReferenceTypes {
         }
     }
 
-    private CnATreeElement hydrateCnaTreeElement(Map.Entry<CnATreeElement, List<SyncAttribute>> syncElement) {
-        String uuid = syncElement.getKey().getUuid();
+    private CnATreeElement hydrateCnaTreeElement(Map.Entry<String, List<SyncAttribute>> syncElement) {
+        String uuid = syncElement.getKey();
         RetrieveInfo ri = RetrieveInfo.getPropertyChildrenInstance();
         return dao.findByUuid(uuid, ri);
     }
@@ -20,9 +20,18 @@
 package sernet.verinice.service.commands;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Restrictions;
 
 import sernet.gs.service.RetrieveInfo;
+import sernet.hui.common.VeriniceContext;
 import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.ITreeTopologyIndex;
 import sernet.verinice.model.common.CnATreeElement;
 
 /**
@@ -60,11 +69,53 @@ public class LoadAncestors extends LoadElementByUuid {
     @Override
     public void execute() {
         super.execute();
-        if (getElement() != null) {
+        if (getElement() != null && !loadAncestorsFromIndex(getElement())) {
             loadParent(getElement());
         }
     }
 
+    /**
+     * Loads all ancestors with one query if the tree topology index of the
+     * server is available. Like {@link #loadParent(CnATreeElement)} the path
+     * ends at the first ancestor the user is not allowed to read.
+     * 
+     * @return False if the index is not available
+     */
+    @SuppressWarnings("unchecked")
+    private boolean loadAncestorsFromIndex(CnATreeElement element) {
+        if (!VeriniceContext.exists(VeriniceContext.TREE_TOPOLOGY_INDEX)) {
+            return false;
+        }
+        ITreeTopologyIndex index = (ITreeTopologyIndex) VeriniceContext
+                .get(VeriniceContext.TREE_TOPOLOGY_INDEX);
+        List<Integer> ancestorIds = index.getAncestorIds(element.getDbId());
+        if (ancestorIds == null || !Objects.equals(element.getParentId(),
+                ancestorIds.isEmpty() ? null : ancestorIds.get(0))) {
+            return false;
+        }
+        if (ancestorIds.isEmpty()) {
+            return true;
+        }
+        DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class);
+        criteria.add(Restrictions.in("dbId", ancestorIds));
+        ri.configureCriteria(criteria);
+        Map<Integer, CnATreeElement> ancestorsById = new HashMap<>(ancestorIds.size());
+        List<CnATreeElement> ancestors = getElementDao().findByCriteria(criteria);
+        for (CnATreeElement ancestor : ancestors) {
+            ancestorsById.put(ancestor.getDbId(), ancestor);
+        }
+        CnATreeElement child = element;
+        for (Integer ancestorId : ancestorIds) {
+            CnATreeElement parent = ancestorsById.get(ancestorId);
+            if (parent == null) {
+                break;
+            }
+            child.setParent(parent);
+            child = parent;
+        }
+        return true;
+    }
+
     /**
      * @param parent
      */
@@ -33,9 +33,12 @@ import javax.imageio.ImageReader;
 import javax.imageio.ImageTypeSpecifier;
 import javax.imageio.stream.ImageInputStream;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 
+import sernet.gs.service.RuntimeCommandException;
 import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IAttachmentStore;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.model.bsi.AttachmentFile;
 import sernet.verinice.model.common.CnATreeElement;
@@ -90,6 +93,9 @@ public class LoadAttachmentFile extends GenericCommand {
 		if(getDbId()!=null) {
 			IBaseDao<AttachmentFile, Serializable> dao = getDaoFactory().getDAO(AttachmentFile.class);		
 			setAttachmentFile(dao.retrieve(getDbId(),null));	
+			if(getAttachmentFile()!=null && getAttachmentFile().getContentHash()!=null) {
+			    setAttachmentFile(loadFileDataFromStore(getAttachmentFile()));
+			}
 			if(flush) {
 			    dao.flush();
                 dao.clear();
@@ -103,6 +109,29 @@ public class LoadAttachmentFile extends GenericCommand {
 		
 	}
 
+    /**
+     * Returns a copy of an attachment file with the file data from the
+     * attachment store. The content hash is not passed to the client.
+     */
+    private AttachmentFile loadFileDataFromStore(AttachmentFile storedFile) {
+        AttachmentFile file = new AttachmentFile();
+        file.setDbId(storedFile.getDbId());
+        IAttachmentStore attachmentStore = AttachmentFileCreationFactory.getAttachmentStore();
+        if (attachmentStore == null) {
+            log.warn("Attachment store not available, can not load file data. Db-Id is: " + getDbId());
+            return file;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            if (attachmentStore.read(storedFile.getContentHash(), in -> IOUtils.copyLarge(in, out))) {
+                file.setFileData(out.toByteArray());
+            }
+        } catch (IOException e) {
+            throw new RuntimeCommandException("Error while loading file data of attachment " + getDbId(), e);
+        }
+        return file;
+    }
+
     /**
      * For images you can set a scale-size. If set images are scaled before send to the
      * client. Width or height is set to the scale-size by keeping the ratio.
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.Logger;
+
+import sernet.gs.service.RuntimeCommandException;
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.ICommandService;
+import sernet.verinice.interfaces.IVeriniceConstants;
+
+/**
+ * Loads a chunk of the result of an {@link ExportCommand} which was executed
+ * with {@link ExportCommand#setResultInFile(boolean)}. The result is stored in
+ * a temporary file on the server and deleted when the last chunk was loaded.
+ * Use {@link #copyTo(ICommandService, ExportCommand, OutputStream)} to load
+ * all chunks of a result.
+ *
+ * The temporary files are created by the server in its own directory. A file
+ * is identified by a random UUID which is known only to the client which
+ * executed the export. Files which were not loaded completely are deleted
+ * after {@link #MAX_AGE_HOURS} hours.
+ */
+@SuppressWarnings("serial")
+public class LoadExportResult extends GenericCommand {
+
+    private static final Logger log = Logger.getLogger(LoadExportResult.class);
+
+    public static final int CHUNK_SIZE = 1024 * 1024;
+
+    public static final int MAX_AGE_HOURS = 24;
+
+    private static final String DIRECTORY_NAME = "verinice-export";
+    private static final String FILE_PREFIX = "export-";
+    private static final String FILE_SUFFIX = ".tmp";
+
+    private final String resultFileId;
+    private final long offset;
+
+    private byte[] data;
+    private boolean last;
+
+    public LoadExportResult(String resultFileId, long offset) {
+        this.resultFileId = resultFileId;
+        this.offset = offset;
+    }
+
+    @Override
+    public void execute() {
+        File file = getResultFile(resultFileId);
+        if (!file.isFile()) {
+            throw new RuntimeCommandException("Export result not found: " + resultFileId);
+        }
+        try {
+            try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+                long length = in.length();
+                int size = (int) Math.max(0, Math.min(CHUNK_SIZE, length - offset));
+                data = new byte[size];
+                in.seek(offset);
+                in.readFully(data);
+                last = offset + size >= length;
+            }
+            if (last) {
+                Files.deleteIfExists(file.toPath());
+            }
+        } catch (IOException e) {
+            log.error("Error while loading export result: " + resultFileId, e);
+            throw new RuntimeCommandException("Error while loading export result", e);
+        }
+    }
+
+    /**
+     * Loads all chunks of the result of an export and writes them to a
+     * stream. The temporary file on the server is deleted afterwards.
+     */
+    public static void copyTo(ICommandService commandService, ExportCommand exportCommand,
+            OutputStream out) throws CommandException, IOException {
+        long offset = 0;
+        boolean last = false;
+        while (!last) {
+            LoadExportResult command = commandService
+                    .executeCommand(new LoadExportResult(exportCommand.getResultFileId(), offset));
+            out.write(command.getData());
+            offset += command.getData().length;
+            last = command.isLast();
+        }
+    }
+
+    /**
+     * Creates a new file for the result of an export. Files of older exports
+     * which were not loaded are deleted.
+     */
+    static File createResultFile() throws IOException {
+        File directory = getDirectory();
+        deleteExpiredFiles(directory);
+        File file = new File(directory, FILE_PREFIX + UUID.randomUUID() + FILE_SUFFIX);
+        if (!file.createNewFile()) {
+            throw new IOException("Export result file already exists: " + file);
+        }
+        return file;
+    }
+
+    static String getResultFileId(File file) {
+        String name = file.getName();
+        return name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length());
+    }
+
+    /**
+     * Returns the result file of an id. Only ids created by
+     * {@link #createResultFile()} are accepted, so the path of the file is
+     * always in the export directory of the server.
+     */
+    static File getResultFile(String resultFileId) {
+        if (resultFileId == null
+                || !UUID.fromString(resultFileId).toString().equals(resultFileId)) {
+            throw new IllegalArgumentException("Invalid export result id: " + resultFileId);
+        }
+        return new File(getDirectory(), FILE_PREFIX + resultFileId + FILE_SUFFIX);
+    }
+
+    private static File getDirectory() {
+        File directory = new File(System.getProperty(IVeriniceConstants.JAVA_IO_TMPDIR),
+                DIRECTORY_NAME);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new RuntimeCommandException("Could not create directory: " + directory);
+        }
+        return directory;
+    }
+
+    private static void deleteExpiredFiles(File directory) {
+        long expired = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(MAX_AGE_HOURS);
+        File[] files = directory.listFiles(
+                (dir, name) -> name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        for (File file : files) {
+            if (file.lastModified() < expired && !file.delete()) {
+                log.warn("Could not delete expired export result: " + file);
+            }
+        }
+    }
+
+    public byte[] getData() {
+        return data;
+    }
+
+    public boolean isLast() {
+        return last;
+    }
+}
@@ -31,15 +31,18 @@ import org.hibernate.criterion.ProjectionList;
 import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 
+import sernet.hui.common.VeriniceContext;
 import sernet.verinice.interfaces.GenericCommand;
 import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.ITreeTopologyIndex;
 import sernet.verinice.model.common.CnATreeElement;
 
 /**
  * Loads the database IDs of the subtree with the given element as root.
  * 
- * The command does not use recursion to load the IDs. The IDs are loaded with
- * only one SQL statement.
+ * The command does not use recursion to load the IDs. The IDs are taken from
+ * the tree topology index of the server if it is available and no permission
+ * filter is enabled. Otherwise the IDs are loaded with only one SQL statement.
  */
 public class LoadSubtreeIds extends GenericCommand {
 
@@ -74,6 +77,17 @@ public class LoadSubtreeIds extends GenericCommand {
         Set<Integer> scopeIDs = elements.stream().map(CnATreeElement::getScopeId)
                 .collect(Collectors.toSet());
 
+        Set<Integer> descendantIds = loadDescendantIdsFromIndex(scopeIDs);
+        if (descendantIds != null) {
+            for (CnATreeElement element : elements) {
+                if (typeId == null || typeId.equals(element.getTypeId())) {
+                    dbIdsOfSubtree.add(element.getDbId());
+                }
+            }
+            dbIdsOfSubtree.addAll(descendantIds);
+            return;
+        }
+
         List<Object[]> parentChildRelationships = loadDbAndParentIdsOfScope(scopeIDs);
         Map<Object, List<Object[]>> childIdsByParentId = parentChildRelationships.stream()
                 .collect(Collectors.groupingBy(item -> (Integer) item[1]));
@@ -98,6 +112,39 @@ public class LoadSubtreeIds extends GenericCommand {
         }
     }
 
+    /**
+     * @return The IDs of the descendants or null if the index is not
+     *         available
+     */
+    private Set<Integer> loadDescendantIdsFromIndex(Set<Integer> scopeIds) {
+        if (!VeriniceContext.exists(VeriniceContext.TREE_TOPOLOGY_INDEX)
+                || isPermissionFilterEnabled()) {
+            return null;
+        }
+        ITreeTopologyIndex index = (ITreeTopologyIndex) VeriniceContext
+                .get(VeriniceContext.TREE_TOPOLOGY_INDEX);
+        if (!index.isAvailable()) {
+            return null;
+        }
+        List<Integer> rootIds = elements.stream().map(CnATreeElement::getDbId)
+                .collect(Collectors.toList());
+        // the same scope restriction as in loadDbAndParentIdsOfScope
+        Collection<Integer> restrictedScopeIds = scopeIds.stream().allMatch(Objects::nonNull)
+                ? scopeIds
+                : null;
+        return index.getDescendantIds(rootIds, typeId, restrictedScopeIds);
+    }
+
+    /**
+     * The index does not check permissions, the SQL statement returns only
+     * the elements the user is allowed to read.
+     */
+    private boolean isPermissionFilterEnabled() {
+        return (Boolean) getElementDAO()
+                .executeCallback(session -> session.getEnabledFilter("userAccessReadFilter") != null
+                        || session.getEnabledFilter("scopeFilter") != null);
+    }
+
     private List<Object[]> loadDbAndParentIdsOfScope(Collection<Integer> scopeIds) {
         @SuppressWarnings("unchecked")
         List<Object[]> parentChildRelationships = (List<Object[]>) getElementDAO()
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.hibernate.Query;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.IDao;
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.ElementFilter;
+import sernet.verinice.service.ReadOnlyEntityLoader;
+import sernet.verinice.service.tree.TreeNode;
+
+/**
+ * Loads the children of an element as {@link TreeNode}s. Only the data
+ * needed to show the children in a tree is returned to the client, the
+ * grandchildren are not loaded.
+ * 
+ * The children are paged in the order of their database ids. Without filter
+ * parameters only the children of the requested page are loaded from the
+ * database. The property values needed for the labels are read with scalar
+ * queries by {@link ReadOnlyEntityLoader}, no property objects are created
+ * in the Hibernate session. Whether a child has children is determined by a
+ * grouped count query.
+ */
+public class LoadTreeNodes extends GenericCommand {
+
+    private static final long serialVersionUID = 4726180357164428095L;
+
+    private static final Logger LOG = Logger.getLogger(LoadTreeNodes.class);
+
+    private static final String HQL_COUNT_CHILDREN = "select count(element.dbId) "
+            + "from CnATreeElement element where element.parentId = :parentId"; //$NON-NLS-1$
+
+    private static final String HQL_CHILDREN_IDS = "select element.dbId "
+            + "from CnATreeElement element where element.parentId = :parentId "
+            + "order by element.dbId"; //$NON-NLS-1$
+
+    // the entity row is joined by the mapping, the properties are not loaded
+    private static final String HQL_ELEMENTS_BY_IDS = "from CnATreeElement element "
+            + "where element.dbId in (:dbIds)"; //$NON-NLS-1$
+
+    // the filters need all properties of the children
+    private static final String HQL_ELEMENTS_BY_PARENT = "select distinct element "
+            + "from CnATreeElement element " + "left join fetch element.entity as entity "
+            + "left join fetch entity.typedPropertyLists as propertyList "
+            + "left join fetch propertyList.properties as props "
+            + "where element.parentId = :parentId"; //$NON-NLS-1$
+
+    private static final String HQL_COUNT_GRANDCHILDREN = "select element.parentId, "
+            + "count(element.dbId) from CnATreeElement element "
+            + "where element.parentId in (:dbIds) group by element.parentId"; //$NON-NLS-1$
+
+    private static final Comparator<CnATreeElement> DB_ID_COMPARATOR = Comparator
+            .comparing(CnATreeElement::getDbId);
+
+    private Integer parentId;
+    private int firstResult;
+    private int maxResults;
+    private Map<String, Object> parameter;
+
+    private List<TreeNode> nodes;
+    private int totalNumberOfNodes;
+
+    /**
+     * Creates a command which loads all children of an element.
+     */
+    public LoadTreeNodes(Integer parentId) {
+        this(parentId, 0, 0, null);
+    }
+
+    /**
+     * @param parentId
+     *            The database id of the parent element
+     * @param firstResult
+     *            The index of the first child which is returned
+     * @param maxResults
+     *            The maximum number of children which are returned, 0 or
+     *            less for all children
+     * @param parameter
+     *            Filter parameters, see {@link ElementFilter}
+     */
+    public LoadTreeNodes(Integer parentId, int firstResult, int maxResults,
+            Map<String, Object> parameter) {
+        super();
+        this.parentId = parentId;
+        this.firstResult = Math.max(firstResult, 0);
+        this.maxResults = maxResults;
+        this.parameter = parameter;
+    }
+
+    @Override
+    public void execute() {
+        long start = System.currentTimeMillis();
+        List<CnATreeElement> children;
+        if (parameter == null || parameter.isEmpty()) {
+            children = loadPage();
+        } else {
+            children = loadFilteredPage();
+        }
+        Map<Integer, Long> numberOfGrandchildren = countGrandchildren(children);
+        nodes = new ArrayList<>(children.size());
+        for (CnATreeElement child : children) {
+            nodes.add(new TreeNode(child, numberOfGrandchildren.containsKey(child.getDbId())));
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(nodes.size() + " of " + totalNumberOfNodes + " nodes of parent " + parentId
+                    + " loaded in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CnATreeElement> loadPage() {
+        List<Integer> dbIds = (List<Integer>) getDao().executeCallback(session -> {
+            totalNumberOfNodes = ((Number) session.createQuery(HQL_COUNT_CHILDREN)
+                    .setParameter("parentId", parentId).uniqueResult()).intValue();
+            Query query = session.createQuery(HQL_CHILDREN_IDS);
+            query.setParameter("parentId", parentId);
+            query.setFirstResult(firstResult);
+            if (maxResults > 0) {
+                query.setMaxResults(maxResults);
+            }
+            return query.list();
+        });
+        List<CnATreeElement> children = new ArrayList<>(dbIds.size());
+        for (List<Integer> partition : CollectionUtil.partition(dbIds,
+                IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            children.addAll(getDao().findByQuery(HQL_ELEMENTS_BY_IDS, new String[] { "dbIds" },
+                    new Object[] { partition }));
+        }
+        ReadOnlyEntityLoader.setReadOnlyEntities(getDao(), children);
+        children.sort(DB_ID_COMPARATOR);
+        return children;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CnATreeElement> loadFilteredPage() {
+        List<CnATreeElement> children = ElementFilter.filterElements(getDao().findByQuery(
+                HQL_ELEMENTS_BY_PARENT, new String[] { "parentId" }, new Object[] { parentId }),
+                parameter);
+        children.sort(DB_ID_COMPARATOR);
+        totalNumberOfNodes = children.size();
+        int from = Math.min(firstResult, children.size());
+        int to = (maxResults > 0) ? Math.min(from + maxResults, children.size())
+                : children.size();
+        return new ArrayList<>(children.subList(from, to));
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Integer, Long> countGrandchildren(List<CnATreeElement> children) {
+        if (children.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        List<Integer> dbIds = new ArrayList<>(children.size());
+        for (CnATreeElement child : children) {
+            dbIds.add(child.getDbId());
+        }
+        Map<Integer, Long> numberOfGrandchildren = new HashMap<>();
+        for (List<Integer> partition : CollectionUtil.partition(dbIds,
+                IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            List<Object[]> rows = (List<Object[]>) getDao().executeCallback(session -> session
+                    .createQuery(HQL_COUNT_GRANDCHILDREN).setParameterList("dbIds", partition)
+                    .list());
+            for (Object[] row : rows) {
+                numberOfGrandchildren.put((Integer) row[0], ((Number) row[1]).longValue());
+            }
+        }
+        return numberOfGrandchildren;
+    }
+
+    private IBaseDao<CnATreeElement, Serializable> getDao() {
+        return getDaoFactory().getDAO(CnATreeElement.class);
+    }
+
+    /**
+     * @return The nodes of the requested page in the order of their database
+     *         ids
+     */
+    public List<TreeNode> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return The number of all children of the parent which pass the filter
+     */
+    public int getTotalNumberOfNodes() {
+        return totalNumberOfNodes;
+    }
+
+    /**
+     * @return True if the parent has more children after the returned page
+     */
+    public boolean hasMoreNodes() {
+        return firstResult + nodes.size() < totalNumberOfNodes;
+    }
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.InputStream;
+import java.util.List;
+
+import org.apache.commons.io.input.CountingInputStream;
+import org.apache.log4j.Logger;
+
+import sernet.gs.service.RuntimeCommandException;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IAttachmentDao;
+import sernet.verinice.interfaces.IAttachmentStore;
+import sernet.verinice.model.bsi.AttachmentFile;
+import sernet.verinice.model.bsi.AttachmentStoreStatistics;
+
+/**
+ * Moves the file data of existing attachments from table note to the
+ * attachment store. The file data is streamed from the database to the store
+ * attachment by attachment. Attachments with the same file data share one
+ * content in the store.
+ * 
+ * Execute this command repeatedly with a maximum number of attachments to
+ * migrate a large database in several transactions until
+ * {@link #getRemainingAttachments()} returns 0. The statistics of the store
+ * report the number of bytes saved by the deduplication.
+ */
+@SuppressWarnings("serial")
+public class MigrateAttachmentsToStore extends GenericCommand {
+
+    private static final Logger log = Logger.getLogger(MigrateAttachmentsToStore.class);
+
+    private static final String HQL_MOVE_TO_STORE = "update AttachmentFile set contentHash = ?, "
+            + "fileData = null where dbId = ?";
+
+    private int maxAttachments;
+
+    private int migratedAttachments = 0;
+
+    private long migratedBytes = 0;
+
+    private int remainingAttachments;
+
+    private AttachmentStoreStatistics statistics;
+
+    /**
+     * Migrates all attachments in one transaction.
+     */
+    public MigrateAttachmentsToStore() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param maxAttachments
+     *            The maximum number of attachments migrated by this command
+     */
+    public MigrateAttachmentsToStore(int maxAttachments) {
+        super();
+        this.maxAttachments = maxAttachments;
+    }
+
+    @Override
+    public void execute() {
+        IAttachmentStore attachmentStore = AttachmentFileCreationFactory.getAttachmentStore();
+        if (attachmentStore == null) {
+            throw new RuntimeCommandException("Attachment store is not available");
+        }
+        IAttachmentDao attachmentDao = getDaoFactory().getAttachmentDao();
+        List<Integer> ids = attachmentDao.loadIdsOfUnstoredFileData(maxAttachments);
+        for (Integer id : ids) {
+            migrate(attachmentDao, attachmentStore, id);
+        }
+        remainingAttachments = attachmentDao.loadIdsOfUnstoredFileData(Integer.MAX_VALUE)
+                .size();
+        statistics = attachmentStore.getStatistics();
+        if (log.isInfoEnabled()) {
+            log.info(migratedAttachments + " attachments with "
+                    + AttachmentFile.formatByteToMB(migratedBytes)
+                    + " moved to the attachment store, " + remainingAttachments
+                    + " remaining. Attachment store: " + statistics);
+        }
+    }
+
+    private void migrate(IAttachmentDao attachmentDao, IAttachmentStore attachmentStore,
+            Integer id) {
+        String[] hash = new String[1];
+        long[] size = new long[1];
+        attachmentDao.readFileData(id, (InputStream fileData) -> {
+            CountingInputStream countingFileData = new CountingInputStream(fileData);
+            hash[0] = attachmentStore.store(countingFileData);
+            size[0] = countingFileData.getByteCount();
+        });
+        if (hash[0] == null) {
+            return;
+        }
+        getDaoFactory().getDAO(AttachmentFile.class).updateByQuery(HQL_MOVE_TO_STORE,
+                new Object[] { hash[0], id });
+        migratedAttachments++;
+        migratedBytes += size[0];
+        if (log.isDebugEnabled()) {
+            log.debug("Attachment " + id + " moved to content " + hash[0] + ", size: " + size[0]);
+        }
+    }
+
+    public int getMigratedAttachments() {
+        return migratedAttachments;
+    }
+
+    public long getMigratedBytes() {
+        return migratedBytes;
+    }
+
+    /**
+     * @return The number of attachments with file data which is not in the
+     *         store yet
+     */
+    public int getRemainingAttachments() {
+        return remainingAttachments;
+    }
+
+    /**
+     * @return The statistics of the store after the migration including the
+     *         number of bytes saved by the deduplication
+     */
+    public AttachmentStoreStatistics getStatistics() {
+        return statistics;
+    }
+
+}
@@ -23,8 +23,8 @@ import java.io.Serializable;
 import java.sql.SQLException;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 
 import org.hibernate.Query;
 import org.hibernate.Session;
@@ -60,7 +60,7 @@ public class RiskAnalysisImporter {
     private List<SyncRiskAnalysis>  syncRiskAnalysisList;
     private List<SyncScenario> syncScenarioList;
     private List<SyncControl> syncControlList;
-    private Map<String, CnATreeElement> extIdElementMap;
+    private Function<String, CnATreeElement> extIdElementLookup;
     private IBaseDao<FinishedRiskAnalysisLists, Serializable> finishedRiskAnalysisListsDao;
     private IBaseDao<OwnGefaehrdung, Serializable> ownGefaehrdungDao;
     private IBaseDao<RisikoMassnahme, Serializable> risikoMassnahmeDao;
@@ -92,7 +92,7 @@ public class RiskAnalysisImporter {
     }
 
     private void importRiskAnalysis(SyncRiskAnalysis syncRiskAnalysis) {
-       CnATreeElement riskAnalysis = extIdElementMap.get(syncRiskAnalysis.getExtId());
+       CnATreeElement riskAnalysis = extIdElementLookup.apply(syncRiskAnalysis.getExtId());
        if(riskAnalysis==null) {
            return;
        }
@@ -233,7 +233,7 @@ public class RiskAnalysisImporter {
     private Set<GefaehrdungsUmsetzung> getScenarioSet(SyncScenarioList syncScenarioList) {
        Set<GefaehrdungsUmsetzung> scenarioSet = new HashSet<>();
        for (String extId : syncScenarioList.getExtId()) {
-           GefaehrdungsUmsetzung gefaehrdung = (GefaehrdungsUmsetzung) extIdElementMap.get(extId);
+           GefaehrdungsUmsetzung gefaehrdung = (GefaehrdungsUmsetzung) extIdElementLookup.apply(extId);
            if(gefaehrdung!=null) {
                scenarioSet.add(gefaehrdung);
            }
@@ -241,8 +241,12 @@ public class RiskAnalysisImporter {
        return scenarioSet;
     }
 
-    public void setExtIdElementMap(Map<String, CnATreeElement> extIdElementMap) {
-        this.extIdElementMap = extIdElementMap;
+    /**
+     * @param extIdElementLookup
+     *            Returns an imported element by its external id or null
+     */
+    public void setExtIdElementLookup(Function<String, CnATreeElement> extIdElementLookup) {
+        this.extIdElementLookup = extIdElementLookup;
     }
 
     public void setFinishedRiskAnalysisListsDao(IBaseDao<FinishedRiskAnalysisLists, Serializable> dao) {
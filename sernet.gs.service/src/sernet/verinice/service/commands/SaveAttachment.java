@@ -17,6 +17,11 @@
  ******************************************************************************/
 package sernet.verinice.service.commands;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+import sernet.gs.service.RuntimeCommandException;
+import sernet.verinice.interfaces.IAttachmentStore;
 import sernet.verinice.model.bsi.AttachmentFile;
 
 /**
@@ -24,6 +29,10 @@ import sernet.verinice.model.bsi.AttachmentFile;
  * Sets element to null in clear to remove
  * large file data.
  * 
+ * If the attachment store is available the file data is saved in the store
+ * and the content replaced by it is released. The content hash of the element
+ * is set by this command, a content hash set by a client is ignored.
+ * 
  * @see AttachmentEditor
  * @author Daniel <dm[at]sernet[dot]de>
  */
@@ -43,6 +52,37 @@ public class SaveAttachment extends SaveElement<AttachmentFile> {
         super();
     }
 
+    /*
+     * @see sernet.verinice.service.commands.SaveElement#execute()
+     */
+    @Override
+    public void execute() {
+        IAttachmentStore attachmentStore = AttachmentFileCreationFactory.getAttachmentStore();
+        if (attachmentStore == null) {
+            super.execute();
+            return;
+        }
+        String previousHash = getDaoFactory().getAttachmentDao()
+                .loadContentHash(element.getDbId());
+        byte[] fileData = element.getFileData();
+        if (fileData == null) {
+            element.setContentHash(previousHash);
+            super.execute();
+            return;
+        }
+        try {
+            element.setContentHash(attachmentStore.store(new ByteArrayInputStream(fileData)));
+        } catch (IOException e) {
+            throw new RuntimeCommandException(
+                    "Error while storing file data of attachment " + element.getDbId(), e);
+        }
+        element.setFileData(null);
+        super.execute();
+        if (previousHash != null) {
+            attachmentStore.release(previousHash);
+        }
+    }
+
     /* (non-Javadoc)
 	 * @see sernet.gs.ui.rcp.main.service.crudcommands.SaveElement#clear()
 	 */
@@ -76,7 +76,7 @@ public class SyncCommand extends GenericCommand
 
     private transient Set<CnATreeElement> importRootObjects;
 
-    private transient Set<CnATreeElement> elementSet = null;
+    private transient Set<String> importedExtIds;
 
     private Set<String> importedElementUUIDs;
 
@@ -141,11 +141,15 @@ public class SyncCommand extends GenericCommand
                         loadVeriniceArchive(is);
                     }
                     fileData = null;
-                } else if (path != null) {
+                } else if (path != null && isVeriniceArchive()) {
                     try (InputStream is = Files.newInputStream(Paths.get(path),
                             StandardOpenOption.READ)) {
                         loadVeriniceArchive(is);
                     }
+                } else if (path != null) {
+                    // pure XML is streamed from the file by the import
+                    veriniceArchive = new PureXml(Paths.get(path));
+                    logXml();
                 }
             }
 
@@ -184,10 +188,8 @@ public class SyncCommand extends GenericCommand
     }
 
     private void doInsertAndUpdate() throws CommandException {
-        SyncInsertUpdateCommand cmdInsertUpdate = new SyncInsertUpdateCommand(
-                veriniceArchive.getSourceId(), veriniceArchive.getSyncData(),
-                veriniceArchive.getSyncMapping(), getAuthService().getUsername(), parameter,
-                errors);
+        SyncInsertUpdateCommand cmdInsertUpdate = new SyncInsertUpdateCommand(veriniceArchive,
+                getAuthService().getUsername(), parameter, errors);
         cmdInsertUpdate.setRisk(veriniceArchive.getSyncRiskAnalysis());
         cmdInsertUpdate.setTempDirName(veriniceArchive.getTempDirName());
         cmdInsertUpdate = getCommandService().executeCommand(cmdInsertUpdate);
@@ -196,9 +198,9 @@ public class SyncCommand extends GenericCommand
         }
 
         importRootObjects = new HashSet<>(cmdInsertUpdate.getContainerMap().values());
-        elementSet = cmdInsertUpdate.getElementSet();
-        importedElementUUIDs = Collections.unmodifiableSet(
-                elementSet.stream().map(CnATreeElement::getUuid).collect(Collectors.toSet()));
+        importedExtIds = cmdInsertUpdate.getImportedExtIds();
+        importedElementUUIDs = Collections
+                .unmodifiableSet(cmdInsertUpdate.getImportedElementUuids());
         importRootObjectUUIDs = Collections.unmodifiableSet(importRootObjects.stream()
                 .map(CnATreeElement::getUuid).collect(Collectors.toSet()));
         inserted += cmdInsertUpdate.getInserted();
@@ -208,7 +210,7 @@ public class SyncCommand extends GenericCommand
     private void doDelete() throws CommandException {
         if (parameter.isDelete()) {
             SyncDeleteCommand cmdDelete = new SyncDeleteCommand(veriniceArchive.getSourceId(),
-                    veriniceArchive.getSyncData(), errors);
+                    importedExtIds, errors);
             cmdDelete = getCommandService().executeCommand(cmdDelete);
             deleted += cmdDelete.getDeleted();
         }
@@ -224,7 +226,7 @@ public class SyncCommand extends GenericCommand
             veriniceArchive.clear();
         }
         fileData = null;
-        elementSet = null;
+        importedExtIds = null;
         importRootObjects = null;
     }
 
@@ -278,7 +280,11 @@ public class SyncCommand extends GenericCommand
         return ChangeLogEntry.TYPE_INSERT;
     }
 
-    /*
+    /**
+     * Returns the import root objects only. The change log entries of the
+     * imported elements are written by {@link SyncInsertUpdateCommand} while
+     * importing.
+     * 
      * @see
      * sernet.verinice.interfaces.IChangeLoggingCommand#getChangedElements()
      */
@@ -288,9 +294,6 @@ public class SyncCommand extends GenericCommand
         if (importRootObjects != null) {
             changedElements.addAll(importRootObjects);
         }
-        if (elementSet != null) {
-            changedElements.addAll(elementSet);
-        }
         return changedElements;
     }
 
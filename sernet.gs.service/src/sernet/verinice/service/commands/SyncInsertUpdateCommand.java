@@ -21,10 +21,16 @@ package sernet.verinice.service.commands;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -32,12 +38,8 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.apache.log4j.Logger;
-import org.hibernate.FetchMode;
-import org.hibernate.Hibernate;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Restrictions;
 
@@ -51,14 +53,18 @@ import de.sernet.sync.mapping.SyncMapping.MapObjectType;
 import de.sernet.sync.mapping.SyncMapping.MapObjectType.MapAttributeType;
 import de.sernet.sync.risk.Risk;
 import de.sernet.sync.risk.SyncRiskAnalysis;
+import sernet.gs.service.CollectionUtil;
 import sernet.gs.service.RuntimeCommandException;
+import sernet.gs.service.TimeFormatter;
 import sernet.hui.common.VeriniceContext;
 import sernet.hui.common.connect.HUITypeFactory;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IAttachmentStore;
 import sernet.verinice.interfaces.IAuthAwareCommand;
 import sernet.verinice.interfaces.IAuthService;
 import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.IDao;
 import sernet.verinice.interfaces.IRightsService;
 import sernet.verinice.model.bp.IBpElement;
 import sernet.verinice.model.bp.elements.BpModel;
@@ -79,6 +85,7 @@ import sernet.verinice.model.bsi.risikoanalyse.GefaehrdungsUmsetzung;
 import sernet.verinice.model.bsi.risikoanalyse.OwnGefaehrdung;
 import sernet.verinice.model.bsi.risikoanalyse.RisikoMassnahme;
 import sernet.verinice.model.catalog.CatalogModel;
+import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.common.Permission;
@@ -97,6 +104,13 @@ import sernet.verinice.service.sync.VeriniceArchiveNotValidException;
  * 
  * It's not a standalone-command.
  * 
+ * The XML file of a verinice archive is read with a
+ * {@link SyncRequestStreamReader}, elements are imported parent-first while
+ * the file is read. Every {@link SyncParameter#getFlushInterval()} elements
+ * and links the Hibernate session is flushed and cleared. Only the database
+ * ids of the imported elements are kept in memory, links are resolved by these
+ * ids after all elements are imported.
+ * 
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  */
 @SuppressWarnings({ "serial" })
@@ -111,6 +125,7 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
     private boolean sourceIdExists;
     private transient SyncMapping syncMapping;
     private transient SyncData syncData;
+    private transient IVeriniceArchive veriniceArchive;
     private transient Risk risk;
     private String userName;
     private String tempDirName;
@@ -121,23 +136,49 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
 
     private int inserted = 0, potentiallyUpdated = 0, merged = 0;
 
+    private int processedElements = 0, importedLinks = 0;
+
     private long globalStart = 0;
 
     private Map<Class<?>, CnATreeElement> containerMap = new HashMap<>(3);
 
-    private Set<CnATreeElement> elementSet = new HashSet<>();
+    private Set<String> importedElementUuids = new HashSet<>();
+
+    private Set<String> importedExtIds = new HashSet<>();
 
-    private transient Map<String, CnATreeElement> idElementMap = new HashMap<>();
+    private transient List<CnATreeElement> changedElements = new ArrayList<>();
+
+    /**
+     * Database ids of the imported elements by external id
+     */
+    private transient Map<String, Integer> importedElementIds = new HashMap<>();
 
-    private transient Map<String, Attachment> attachmentMap;
+    /**
+     * Database ids of the entities of the imported elements by external id
+     */
+    private transient Map<String, Integer> importedEntityIds = new HashMap<>();
+
+    /**
+     * Database ids of the attachments by file name
+     */
+    private transient Map<String, Integer> attachmentMap = new HashMap<>();
 
     private transient IAuthService authService;
 
     private transient Map<Class<?>, IBaseDao> daoMap = new HashMap<>();
 
+    /**
+     * Relation ids of the existing and imported links by the database ids of
+     * dependant and dependency
+     */
     private transient Map<Integer, Map<Integer, Set<String>>> existingLinksForScope;
 
-    private transient Map<String, List<CnATreeElement>> existingElementsForScope;
+    /**
+     * Database ids of the existing elements of the source-id by external id
+     */
+    private transient Map<String, Integer> existingElementsForScope;
+
+    private transient Set<String> ambiguousExtIds;
 
     private ImportReferenceTypes importReferenceTypes;
 
@@ -150,7 +191,17 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         this.userName = userName;
         this.parameter = parameter;
         this.errorList = errorList;
-        attachmentMap = new HashMap<>();
+    }
+
+    /**
+     * Creates a command which streams the XML file of the archive. If the
+     * archive has no XML file the sync data of the archive is imported.
+     */
+    public SyncInsertUpdateCommand(IVeriniceArchive veriniceArchive, String userName,
+            SyncParameter parameter, List<String> errorList) {
+        this(veriniceArchive.getSourceId(), null, veriniceArchive.getSyncMapping(), userName,
+                parameter, errorList);
+        this.veriniceArchive = veriniceArchive;
     }
 
     /**
@@ -171,67 +222,34 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
 
         IBaseDao<CnATreeElement, Serializable> iBaseDao = getDao(CnATreeElement.class);
         importReferenceTypes = new ImportReferenceTypes(iBaseDao, getCommandService(),
-                idElementMap);
+                importedEntityIds::get);
 
         try {
-            if (logrt.isDebugEnabled()) {
-                globalStart = System.currentTimeMillis();
-            }
+            globalStart = System.currentTimeMillis();
             merged = 0;
+            existingLinksForScope = new HashMap<>();
             sourceIdExists = false;
             if (!parameter.isImportAsCatalog()) {
                 sourceIdExists = isSourceIdInDatabase(sourceId);
                 if (sourceIdExists) {
-                    existingLinksForScope = new HashMap<>();
-                    log.info("Loading existing links for scope " + sourceId);
-                    DetachedCriteria criteriaExistingLinks = DetachedCriteria
-                            .forClass(CnALink.class).createAlias("dependant", "dependant")
-                            .createAlias("dependency", "dependency")
-                            .add(Restrictions.or(Restrictions.eq("dependant.sourceId", sourceId),
-                                    Restrictions.eq("dependency.sourceId", sourceId)));
-                    @SuppressWarnings("unchecked")
-                    List<CnALink> resultExistingLinks = getDao(CnALink.class)
-                            .findByCriteria(criteriaExistingLinks);
-                    resultExistingLinks.forEach(link -> existingLinksForScope
-                            .computeIfAbsent(link.getDependant().getDbId(), id -> new HashMap<>())
-                            .computeIfAbsent(link.getDependency().getDbId(), id -> new HashSet<>())
-                            .add(link.getRelationId()));
-
-                    existingElementsForScope = loadExistingElements(sourceId);
+                    loadExistingLinks(sourceId);
+                    loadExistingElements(sourceId);
                 }
             }
-            List<SyncObject> soList = syncData.getSyncObject();
-            Set<String> idsOfObjectsWithLinks = syncData.getSyncLink().stream()
-                    .flatMap(l -> Stream.of(l.getDependant(), l.getDependency()))
-                    .collect(Collectors.toUnmodifiableSet());
-
-            for (SyncObject so : soList) {
-                importObject(null, so, idsOfObjectsWithLinks);
-            } // for <syncObject>
-
-            importReferenceTypes.replaceExternalIdsWithDbIds();
-
-            if (logrt.isDebugEnabled()) {
-                logrt.debug("Elements: " + merged);
-            }
 
-            Set<SyncLink> importedLinks = new HashSet<>(syncData.getSyncLink().size());
-            Set<CnALink> importedCnALinks = new HashSet<>(syncData.getSyncLink().size());
-            for (SyncLink syncLink : syncData.getSyncLink()) {
-                if (importedLinks.contains(syncLink)) {
-                    log.warn("Ignoring duplicate link " + syncLink);
-                    continue;
-                }
-                CnALink cnaLink = importLink(syncLink);
-                if (cnaLink != null) {
-                    importedCnALinks.add(cnaLink);
+            ImportHandler handler = new ImportHandler();
+            try (InputStream xml = (veriniceArchive != null) ? veriniceArchive.getVeriniceXml()
+                    : null) {
+                if (xml != null) {
+                    new SyncRequestStreamReader(xml).read(handler);
+                } else {
+                    handler.handle((syncData != null) ? syncData : veriniceArchive.getSyncData());
                 }
-                importedLinks.add(syncLink);
             }
 
-            IBaseDao<CnALink, Serializable> linkDao = getDao(CnALink.class);
-            linkDao.saveOrUpdateAll(importedCnALinks);
             importRiskAnalysis();
+            flushAndClear(Collections.emptyList());
+            logThroughput();
 
             finalizeDaos();
         } catch (RuntimeException e) {
@@ -243,25 +261,39 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         }
     }
 
-    protected Map<String, List<CnATreeElement>> loadExistingElements(String sourceId) {
-        log.info("Loading existing elements for scope " + sourceId);
-        DetachedCriteria criteriaExistingElements = DetachedCriteria.forClass(CnATreeElement.class)
-                .add(Restrictions.eq("sourceId", sourceId)).add(Restrictions.isNotNull("extId"))
-                .setFetchMode("linksDown", FetchMode.JOIN).setFetchMode("linksUp", FetchMode.JOIN);
+    private void loadExistingLinks(String sourceId) {
+        log.info("Loading existing links for scope " + sourceId);
+        @SuppressWarnings("unchecked")
+        List<Object[]> resultExistingLinks = getDao(CnALink.class).findByQuery(
+                "select link.id.dependantId, link.id.dependencyId, link.id.typeId"
+                        + " from CnALink link join link.dependant dependant"
+                        + " join link.dependency dependency"
+                        + " where dependant.sourceId = ? or dependency.sourceId = ?",
+                new Object[] { sourceId, sourceId });
+        for (Object[] row : resultExistingLinks) {
+            addLinkToScope((Integer) row[0], (Integer) row[1], (String) row[2]);
+        }
+    }
 
+    /**
+     * Loads the database ids of the existing elements of the source-id.
+     * External ids which are used more than once are stored in
+     * {@link #ambiguousExtIds}.
+     */
+    protected void loadExistingElements(String sourceId) {
+        log.info("Loading existing elements for scope " + sourceId);
         @SuppressWarnings("unchecked")
-        List<CnATreeElement> resultExistingElements = getDao(CnATreeElement.class)
-                .findByCriteria(criteriaExistingElements);
-        return resultExistingElements.stream().map(element -> {
-            Optional.ofNullable(element.getEntity()).ifPresent(entity -> {
-                Hibernate.initialize(entity);
-                Hibernate.initialize(entity.getTypedPropertyLists());
-                entity.getTypedPropertyLists().forEach((key, value) -> {
-                    value.getProperties().forEach(Hibernate::initialize);
-                });
-            });
-            return element;
-        }).collect(Collectors.groupingBy(CnATreeElement::getExtId));
+        List<Object[]> resultExistingElements = getDao(CnATreeElement.class).findByQuery(
+                "select element.extId, element.dbId from CnATreeElement element"
+                        + " where element.sourceId = ? and element.extId is not null",
+                new Object[] { sourceId });
+        existingElementsForScope = new HashMap<>(resultExistingElements.size());
+        ambiguousExtIds = new HashSet<>();
+        for (Object[] row : resultExistingElements) {
+            if (existingElementsForScope.put((String) row[0], (Integer) row[1]) != null) {
+                ambiguousExtIds.add((String) row[0]);
+            }
+        }
     }
 
     private boolean isSourceIdInDatabase(String id) throws CommandException {
@@ -274,8 +306,13 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         return isSourceIdInDatabase;
     }
 
-    private void importObject(CnATreeElement parent, SyncObject so,
-            Set<String> idsOfObjectsWithLinks) throws CommandException {
+    /**
+     * Imports a sync object without its children and files.
+     * 
+     * @return The imported element or null if the element was not imported
+     */
+    private CnATreeElement importObject(CnATreeElement parent, SyncObject so)
+            throws CommandException {
         String extId = so.getExtId();
         String extObjectType = so.getExtObjectType();
         long start = 0;
@@ -296,7 +333,7 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
                     + extObjectType;
             log.error(message);
             errorList.add(message);
-            return;
+            return null;
         }
 
         // this element "knows", which huientitytype is applicable and
@@ -353,10 +390,6 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
                     elementInDB.setExtId(extId);
                 }
 
-                if (elementInDB.isScope()) {
-                    addElement(elementInDB);
-                }
-
                 setAttributes = true;
                 inserted++;
                 if (log.isDebugEnabled()) {
@@ -412,7 +445,6 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
                 } catch (IndexOutOfBoundsException e) {
                     log.error("wrong number of arguments while importing", e);
                 }
-                addElement(elementInDB);
             } // for <syncAttribute>
             if (updatingExistingElement && propertyValueChanged) {
                 Optional.ofNullable(elementInDB.getEntity())
@@ -430,33 +462,21 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
             }
 
             merged++;
+            importedElementUuids.add(elementInDB.getUuid());
+            changedElements.add(elementInDB);
         }
 
-        if (isVeriniceArchive()) {
-            importFileList(elementInDB, so.getFile());
-        }
-
-        if (elementInDB != null && idsOfObjectsWithLinks.contains(extId)
-                || elementInDB instanceof IBSIStrukturElement) {
-            // we only need to look up elements with links and elements that
-            // have an old ITBP risk analysis
-            idElementMap.put(extId, elementInDB);
+        if (elementInDB != null) {
+            importedElementIds.put(extId, elementInDB.getDbId());
+            if (elementInDB.getEntity() != null) {
+                importedEntityIds.put(extId, elementInDB.getEntity().getDbId());
+            }
         }
 
         if (logrt.isDebugEnabled()) {
             logRuntime(start);
         }
-        // Handle all the child objects.
-        for (SyncObject child : so.getChildren()) {
-            // The object that was created or modified during the course of
-            // this method call is the parent for the import of the
-            // child elements.
-            if (log.isDebugEnabled() && child != null) {
-                log.debug("Child found, type: " + child.getExtObjectType() + ", extId: "
-                        + child.getExtId());
-            }
-            importObject(elementInDB, child, idsOfObjectsWithLinks);
-        }
+        return elementInDB;
     }
 
     /**
@@ -587,7 +607,6 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
                 attachment.setExtId(fileXml.getExtId());
                 attachment.setSourceId(sourceId);
             }
-            attachmentMap.put(fileXml.getFile(), attachment);
             attachment.setCnATreeElement(elementInDB);
             attachment.setCnAElementTitel(elementInDB.getTitle());
             attachment.setTitel(fileXml.getFile());
@@ -600,6 +619,7 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
             SaveNote command = new SaveNote(attachment);
             command = getCommandService().executeCommand(command);
             attachment = (Attachment) command.getAddition();
+            attachmentMap.put(fileXml.getFile(), attachment.getDbId());
 
             MapObjectType mot = getMap(Attachment.TYPE_ID);
             for (SyncAttribute sa : fileXml.getSyncAttribute()) {
@@ -639,7 +659,9 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
      * Imports all file data from a verinice Archive (zipFileData). Call
      * importFileList before calling this method!
      * 
-     * Danger: Out-of-memory trouble for large file...
+     * If the attachment store is available the file data is streamed into the
+     * store and only a reference is added for a content which is already in
+     * the store. Otherwise the file data is loaded into memory.
      * 
      * @param zipFileData
      *            a verinice Archive
@@ -649,10 +671,16 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
     public void importFileData(IVeriniceArchive veriniceArchive) throws CommandException {
         SaveAttachment saveFileCommand = new SaveAttachment();
         IBaseDao<AttachmentFile, Serializable> dao = getDao(AttachmentFile.class);
-        for (Entry<String, Attachment> entry : attachmentMap.entrySet()) {
+        IAttachmentStore attachmentStore = AttachmentFileCreationFactory.getAttachmentStore();
+        for (Entry<String, Integer> entry : attachmentMap.entrySet()) {
             String fileName = entry.getKey();
-            Attachment attachment = entry.getValue();
-            AttachmentFile attachmentFile = dao.findById(attachment.getDbId());
+            AttachmentFile attachmentFile = dao.findById(entry.getValue());
+            if (attachmentStore != null) {
+                importFileDataToStore(veriniceArchive, fileName, attachmentFile, attachmentStore);
+                dao.flush();
+                dao.clear();
+                continue;
+            }
             try {
                 attachmentFile.setFileData(veriniceArchive.getFileData(fileName).readAllBytes());
             } catch (IllegalArgumentException e) {
@@ -675,17 +703,76 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         }
     }
 
+    private void importFileDataToStore(IVeriniceArchive veriniceArchive, String fileName,
+            AttachmentFile attachmentFile, IAttachmentStore attachmentStore) {
+        String previousHash = attachmentFile.getContentHash();
+        try (InputStream fileData = veriniceArchive.getFileData(fileName)) {
+            if (fileData == null) {
+                log.warn("File was not imported. No file data: " + fileName);
+                return;
+            }
+            attachmentFile.setContentHash(attachmentStore.store(fileData));
+        } catch (IllegalArgumentException e) {
+            throw new VeriniceArchiveNotValidException(
+                    "Unable to retrieve file data for " + fileName + ", VNA file is corrupt", e);
+        } catch (IOException e) {
+            throw new RuntimeCommandException("Unable to retrieve file data for " + fileName, e);
+        }
+        attachmentFile.setFileData(null);
+        if (previousHash != null) {
+            attachmentStore.release(previousHash);
+        }
+    }
+
     /**
-     * @param syncLink
-     * @return
-     * @throws CommandException
+     * Imports a page of links. The elements of the links are loaded by the
+     * database ids of the imported and existing elements.
+     */
+    private void importLinks(List<SyncLink> syncLinks) {
+        Map<SyncLink, Integer[]> elementIdsByLink = new HashMap<>(syncLinks.size());
+        Set<Integer> elementIds = new HashSet<>();
+        for (SyncLink syncLink : syncLinks) {
+            Integer[] ids = getElementIds(syncLink);
+            if (ids != null) {
+                elementIdsByLink.put(syncLink, ids);
+                elementIds.addAll(Arrays.asList(ids));
+            }
+        }
+        Map<Integer, CnATreeElement> elementsById = loadElements(elementIds);
+        List<CnALink> newLinks = new ArrayList<>(syncLinks.size());
+        for (SyncLink syncLink : syncLinks) {
+            Integer[] ids = elementIdsByLink.get(syncLink);
+            if (ids == null) {
+                continue;
+            }
+            CnATreeElement dependant = elementsById.get(ids[0]);
+            CnATreeElement dependency = elementsById.get(ids[1]);
+            if (dependant == null || dependency == null) {
+                log.warn("Can not import link. Element not found in db, dependant ext-id: "
+                        + syncLink.getDependant() + " dependency ext-id: "
+                        + syncLink.getDependency());
+                continue;
+            }
+            CnALink link = importLink(syncLink, dependant, dependency);
+            if (link != null) {
+                newLinks.add(link);
+            }
+        }
+        IBaseDao<CnALink, Serializable> linkDao = getDao(CnALink.class);
+        linkDao.saveOrUpdateAll(newLinks);
+        importedLinks += newLinks.size();
+    }
+
+    /**
+     * @return The database ids of dependant and dependency or null if one of
+     *         them was neither imported nor found in the database
      */
-    private CnALink importLink(SyncLink syncLink) {
+    private Integer[] getElementIds(SyncLink syncLink) {
         String dependantId = syncLink.getDependant();
         String dependencyId = syncLink.getDependency();
-        CnATreeElement dependant = idElementMap.get(dependantId);
+        Integer dependant = importedElementIds.get(dependantId);
         if (dependant == null) {
-            dependant = getExistingElement(dependantId);
+            dependant = getExistingElementId(dependantId);
             if (dependant == null) {
                 log.warn("Can not import link. dependant not found in "
                         + "xml file and db, dependant ext-id: " + dependantId
@@ -695,9 +782,9 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
                 log.debug("dependant not found in XML file but in db, " + "ext-id: " + dependantId);
             }
         }
-        CnATreeElement dependency = idElementMap.get(dependencyId);
+        Integer dependency = importedElementIds.get(dependencyId);
         if (dependency == null) {
-            dependency = getExistingElement(dependencyId);
+            dependency = getExistingElementId(dependencyId);
             if (dependency == null) {
                 log.warn("Can not import link. dependency not found in "
                         + "xml file and db, dependency ext-id: " + dependencyId
@@ -708,7 +795,27 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
                         "dependency not found in XML file but in db, " + "ext-id: " + dependencyId);
             }
         }
+        return new Integer[] { dependant, dependency };
+    }
+
+    private Map<Integer, CnATreeElement> loadElements(Set<Integer> dbIds) {
+        Map<Integer, CnATreeElement> elementsById = new HashMap<>(dbIds.size());
+        for (List<Integer> partition : CollectionUtil.partition(new ArrayList<>(dbIds),
+                IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class)
+                    .add(Restrictions.in("dbId", partition));
+            @SuppressWarnings("unchecked")
+            List<CnATreeElement> elements = getDao(CnATreeElement.class)
+                    .findByCriteria(criteria);
+            for (CnATreeElement element : elements) {
+                elementsById.put(element.getDbId(), element);
+            }
+        }
+        return elementsById;
+    }
 
+    private CnALink importLink(SyncLink syncLink, CnATreeElement dependant,
+            CnATreeElement dependency) {
         CnALink link = new CnALink(dependant, dependency, syncLink.getRelationId(),
                 syncLink.getComment());
 
@@ -723,7 +830,9 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
             }
         }
 
-        if (parameter.isImportAsCatalog() || !sourceIdExists || isNew(link)) {
+        // links of the file are added to existingLinksForScope, this ignores
+        // duplicate links in the file as well
+        if (addLinkToScope(dependant.getDbId(), dependency.getDbId(), link.getRelationId())) {
             dependant.addLinkDown(link);
             dependency.addLinkUp(link);
             if (log.isDebugEnabled()) {
@@ -738,18 +847,14 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
 
     }
 
-    private boolean isNew(CnALink link) {
-        Map<Integer, Set<String>> linksForDependant = existingLinksForScope
-                .get(link.getDependant().getDbId());
-        if (linksForDependant == null) {
-            return true;
-        }
-        Set<String> linksBetweenDependencyAndDependant = linksForDependant
-                .get(link.getDependency().getDbId());
-        if (linksBetweenDependencyAndDependant == null) {
-            return true;
-        }
-        return !linksBetweenDependencyAndDependant.contains(link.getRelationId());
+    /**
+     * @return true if the link was not in {@link #existingLinksForScope}
+     */
+    private boolean addLinkToScope(Integer dependantId, Integer dependencyId, String typeId) {
+        String relationId = (typeId == null || CnALink.Id.NO_TYPE.equals(typeId)) ? ""
+                : typeId;
+        return existingLinksForScope.computeIfAbsent(dependantId, id -> new HashMap<>())
+                .computeIfAbsent(dependencyId, id -> new HashSet<>()).add(relationId);
     }
 
     private void importRiskAnalysis() {
@@ -763,7 +868,7 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         riskAnalysisImporter.setOwnGefaehrdungDao(getDaoFactory().getDAO(OwnGefaehrdung.class));
         riskAnalysisImporter.setRisikoMassnahmeDao(getDaoFactory().getDAO(RisikoMassnahme.class));
         riskAnalysisImporter.setElementDao(getDaoFactory().getDAO(CnATreeElement.class));
-        riskAnalysisImporter.setExtIdElementMap(idElementMap);
+        riskAnalysisImporter.setExtIdElementLookup(this::getImportedElement);
         riskAnalysisImporter.run();
 
         reOrphanizeAssociatedGefaehrdungen(filterOrphanElements());
@@ -815,8 +920,9 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
     private void reOrphanizeAssociatedGefaehrdungen(Set<String> orphanList) {
         if (!orphanList.isEmpty()) {
             for (String extId : orphanList) {
-                if (idElementMap.containsKey(extId)) {
-                    setScopeIdAndParentNull(idElementMap.get(extId));
+                CnATreeElement element = getImportedElement(extId);
+                if (element != null) {
+                    setScopeIdAndParentNull(element);
                 }
             }
         }
@@ -864,24 +970,90 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
     }
 
     private CnATreeElement getExistingElement(String externalId) {
+        Integer dbId = getExistingElementId(externalId);
+        if (dbId == null) {
+            return null;
+        }
+        IBaseDao<CnATreeElement, Serializable> dao = getDao(CnATreeElement.class);
+        return dao.findById(dbId);
+    }
+
+    private Integer getExistingElementId(String externalId) {
         // existingElementsForScope is null if the source ID of the imported
         // scope was not present in the DB previously.
         if (existingElementsForScope == null) {
             return null;
         }
-        List<CnATreeElement> foundElements = existingElementsForScope.get(externalId);
-        if (foundElements != null) {
-            if (foundElements.size() == 1) {
-                return foundElements.get(0);
-            }
-            if (foundElements.size() > 1) {
-                final String message = "Found more than one element with source-id: " + sourceId
-                        + " and external ID: " + externalId;
-                log.error(message);
-                throw new RuntimeCommandException(message);
+        if (ambiguousExtIds.contains(externalId)) {
+            final String message = "Found more than one element with source-id: " + sourceId
+                    + " and external ID: " + externalId;
+            log.error(message);
+            throw new RuntimeCommandException(message);
+        }
+        return existingElementsForScope.get(externalId);
+    }
+
+    private CnATreeElement getImportedElement(String externalId) {
+        Integer dbId = importedElementIds.get(externalId);
+        if (dbId == null) {
+            return null;
+        }
+        IBaseDao<CnATreeElement, Serializable> dao = getDao(CnATreeElement.class);
+        return dao.findById(dbId);
+    }
+
+    /**
+     * Writes the change log entries of the elements imported since the last
+     * call, flushes and clears the Hibernate session and reloads the elements
+     * which are still in use.
+     * 
+     * @param openElements
+     *            Elements whose children are currently imported
+     */
+    private void flushAndClear(Collection<ImportFrame> openElements) {
+        writeChangeLog();
+        IBaseDao<CnATreeElement, Serializable> dao = getDao(CnATreeElement.class);
+        dao.flush();
+        dao.clear();
+        for (ImportFrame frame : openElements) {
+            if (frame.element != null) {
+                frame.element = dao.findById(frame.element.getDbId());
             }
         }
-        return null;
+        containerMap.replaceAll((clazz, container) -> dao.findById(container.getDbId()));
+        if (log.isDebugEnabled()) {
+            log.debug(processedElements + " elements and " + importedLinks
+                    + " links processed, Hibernate session cleared.");
+        }
+    }
+
+    /**
+     * Writes the change log entries of the imported elements. The entries are
+     * written here and not by the {@link SyncCommand} because the elements are
+     * not kept in memory till the end of the import.
+     */
+    private void writeChangeLog() {
+        if (changedElements.isEmpty()) {
+            return;
+        }
+        IBaseDao<ChangeLogEntry, Serializable> dao = getDao(ChangeLogEntry.class);
+        Date now = new Date();
+        for (CnATreeElement element : changedElements) {
+            dao.saveOrUpdate(new ChangeLogEntry(element, ChangeLogEntry.TYPE_INSERT,
+                    authService.getUsername(), ChangeLogEntry.STATION_ID, now));
+        }
+        changedElements.clear();
+    }
+
+    private void logThroughput() {
+        if (log.isInfoEnabled()) {
+            long time = System.currentTimeMillis() - globalStart;
+            long elementsPerSecond = (time > 0) ? (processedElements * 1000L / time)
+                    : processedElements;
+            log.info(processedElements + " elements and " + importedLinks
+                    + " links imported in " + TimeFormatter.getHumanRedableTime(time) + ", "
+                    + elementsPerSecond + " elements/s");
+        }
     }
 
     /**
@@ -1021,13 +1193,6 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         throw new RuntimeCommandException(message, e);
     }
 
-    protected void addElement(CnATreeElement element) {
-        if (elementSet == null) {
-            elementSet = new HashSet<>();
-        }
-        elementSet.add(element);
-    }
-
     public Risk getSyncRisk() {
         return risk;
     }
@@ -1052,8 +1217,18 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         return containerMap;
     }
 
-    public Set<CnATreeElement> getElementSet() {
-        return elementSet;
+    /**
+     * @return The uuids of all inserted and updated elements
+     */
+    public Set<String> getImportedElementUuids() {
+        return importedElementUuids;
+    }
+
+    /**
+     * @return The external ids of all sync objects of the sync data
+     */
+    public Set<String> getImportedExtIds() {
+        return importedExtIds;
     }
 
     protected String getUserName() {
@@ -1114,6 +1289,112 @@ public class SyncInsertUpdateCommand extends GenericCommand implements IAuthAwar
         super.clear();
         existingLinksForScope = null;
         existingElementsForScope = null;
+        ambiguousExtIds = null;
+        importedElementIds = null;
+        importedEntityIds = null;
     }
 
+    /**
+     * An element whose children are imported, the element is replaced when
+     * the session is cleared.
+     */
+    private static final class ImportFrame {
+
+        private CnATreeElement element;
+
+        private ImportFrame(CnATreeElement element) {
+            this.element = element;
+        }
+    }
+
+    /**
+     * Imports the content of the sync data while it is read.
+     */
+    private final class ImportHandler implements SyncRequestStreamReader.Handler {
+
+        private final Deque<ImportFrame> openElements = new ArrayDeque<>();
+        private final List<SyncLink> links = new ArrayList<>();
+        private boolean elementsImported = false;
+
+        @Override
+        public void startSyncObject(SyncObject syncObject) throws CommandException {
+            importedExtIds.add(syncObject.getExtId());
+            // The object that was created or modified for the parent sync
+            // object is the parent for the import of the child elements.
+            CnATreeElement parent = openElements.isEmpty() ? null : openElements.peek().element;
+            openElements.push(new ImportFrame(importObject(parent, syncObject)));
+        }
+
+        @Override
+        public void endSyncObject(SyncObject syncObject) throws CommandException {
+            CnATreeElement element = openElements.pop().element;
+            if (isVeriniceArchive() && element != null) {
+                importFileList(element, syncObject.getFile());
+            }
+            processedElements++;
+            if (processedElements % parameter.getFlushInterval() == 0) {
+                flushAndClear(openElements);
+            }
+        }
+
+        @Override
+        public void syncLink(SyncLink syncLink) {
+            finishElements();
+            links.add(syncLink);
+            if (links.size() >= parameter.getFlushInterval()) {
+                importLinkPage();
+            }
+        }
+
+        @Override
+        public void endSyncData() {
+            finishElements();
+            if (!links.isEmpty()) {
+                importLinkPage();
+            }
+        }
+
+        private void importLinkPage() {
+            importLinks(links);
+            links.clear();
+            flushAndClear(openElements);
+        }
+
+        /**
+         * Replaces the references of the imported elements before the first
+         * link is imported.
+         */
+        private void finishElements() {
+            if (elementsImported) {
+                return;
+            }
+            elementsImported = true;
+            flushAndClear(openElements);
+            importReferenceTypes.replaceExternalIdsWithDbIds();
+            if (logrt.isDebugEnabled()) {
+                logrt.debug("Elements: " + merged);
+            }
+        }
+
+        /**
+         * Passes sync data which is already in memory to this handler.
+         */
+        private void handle(SyncData data) throws CommandException {
+            for (SyncObject syncObject : data.getSyncObject()) {
+                handle(syncObject);
+            }
+            for (SyncLink syncLink : data.getSyncLink()) {
+                syncLink(syncLink);
+            }
+            endSyncData();
+        }
+
+        private void handle(SyncObject syncObject) throws CommandException {
+            startSyncObject(syncObject);
+            for (SyncObject child : syncObject.getChildren()) {
+                handle(child);
+            }
+            endSyncObject(syncObject);
+        }
+    }
 }
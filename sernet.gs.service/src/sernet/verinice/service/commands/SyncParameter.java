@@ -42,10 +42,18 @@ public class SyncParameter implements Serializable {
     public static final Integer EXPORT_FORMAT_XML_PURE = 1;
     public static final Integer EXPORT_FORMAT_DEFAULT = EXPORT_FORMAT_VERINICE_ARCHIV;
 
+    /**
+     * Default number of imported elements after which the Hibernate session
+     * is flushed and cleared
+     */
+    public static final int DEFAULT_FLUSH_INTERVAL = 500;
+
     private Integer format = EXPORT_FORMAT_DEFAULT;
 
     private boolean importAsCatalog;
 
+    private int flushInterval = DEFAULT_FLUSH_INTERVAL;
+
     public SyncParameter(boolean insert, boolean update, boolean delete, boolean integrate,
             boolean importAsCatalog, Integer format) throws SyncParameterException {
         super();
@@ -130,4 +138,18 @@ public class SyncParameter implements Serializable {
     public void setImportAsCatalog(boolean importAsCatalog) {
         this.importAsCatalog = importAsCatalog;
     }
+
+    public int getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * @param flushInterval
+     *            Number of imported elements after which the Hibernate
+     *            session is flushed and cleared, values lower than 1 are
+     *            replaced by {@link #DEFAULT_FLUSH_INTERVAL}
+     */
+    public void setFlushInterval(int flushInterval) {
+        this.flushInterval = (flushInterval > 0) ? flushInterval : DEFAULT_FLUSH_INTERVAL;
+    }
 }
@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.InputStream;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import de.sernet.sync.data.SyncAttribute;
+import de.sernet.sync.data.SyncFile;
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.data.SyncObject;
+import de.sernet.sync.mapping.SyncMapping;
+import de.sernet.sync.sync.SyncRequest;
+import de.sernet.sync.sync.SyncRequest.SyncVnaSchemaVersion;
+import sernet.verinice.interfaces.CommandException;
+
+/**
+ * Reads a {@link SyncRequest} from an input stream element by element without
+ * creating the JAXB object tree in memory. This is the counterpart of the
+ * {@link SyncRequestStreamWriter}.
+ *
+ * The content of the document is passed to a {@link Handler} in document
+ * order. A sync object is passed to
+ * {@link Handler#startSyncObject(SyncObject)} before its children, i.e. in
+ * parent-first order. The children of the passed sync object are always
+ * empty, its files are passed with {@link Handler#endSyncObject(SyncObject)}
+ * after the children. The links follow after all sync objects, the mapping
+ * and the schema version follow at the end of the document.
+ */
+public class SyncRequestStreamReader {
+
+    private static final String SYNC_DATA = "syncData";
+    private static final String SYNC_OBJECT = "syncObject";
+    private static final String CHILDREN = "children";
+    private static final String SYNC_ATTRIBUTE = "syncAttribute";
+    private static final String EXT_ID = "extId";
+    private static final String EXT_OBJECT_TYPE = "extObjectType";
+    private static final String ICON = "icon";
+    private static final String FILE = "file";
+    private static final String SYNC_LINK = "syncLink";
+    private static final String SYNC_MAPPING = "syncMapping";
+    private static final String SYNC_VNA_SCHEMA_VERSION = "syncVnaSchemaVersion";
+
+    private static JAXBContext context;
+
+    private final InputStream in;
+    private final Unmarshaller unmarshaller;
+
+    /**
+     * Receives the content of a sync request.
+     */
+    public interface Handler {
+
+        default void startSyncRequest(String sourceId) throws CommandException {
+        }
+
+        /**
+         * @param syncObject
+         *            A sync object with attributes, ext-id, type and icon but
+         *            without children and files
+         */
+        default void startSyncObject(SyncObject syncObject) throws CommandException {
+        }
+
+        /**
+         * @param syncObject
+         *            The sync object passed to
+         *            {@link #startSyncObject(SyncObject)}, the files are added
+         */
+        default void endSyncObject(SyncObject syncObject) throws CommandException {
+        }
+
+        default void syncLink(SyncLink syncLink) throws CommandException {
+        }
+
+        /**
+         * Called after all sync objects and links were passed.
+         */
+        default void endSyncData() throws CommandException {
+        }
+
+        default void syncMapping(SyncMapping syncMapping) throws CommandException {
+        }
+
+        default void syncVnaSchemaVersion(SyncVnaSchemaVersion version)
+                throws CommandException {
+        }
+    }
+
+    /**
+     * @param in
+     *            The stream to read from, it is not closed by this reader
+     */
+    public SyncRequestStreamReader(InputStream in) throws XMLStreamException {
+        this.in = in;
+        try {
+            unmarshaller = getContext().createUnmarshaller();
+        } catch (JAXBException e) {
+            throw new XMLStreamException("Error while creating unmarshaller", e);
+        }
+    }
+
+    private static synchronized JAXBContext getContext() throws JAXBException {
+        if (context == null) {
+            context = JAXBContext.newInstance(SyncRequest.class);
+        }
+        return context;
+    }
+
+    /**
+     * Reads the complete document and passes the content to the handler.
+     */
+    public void read(Handler handler) throws XMLStreamException, CommandException {
+        read(handler, false);
+    }
+
+    /**
+     * Reads the source-id, the mapping and the schema version and skips the
+     * sync objects and links.
+     */
+    public void readMetadata(Handler handler) throws XMLStreamException, CommandException {
+        read(handler, true);
+    }
+
+    private void read(Handler handler, boolean skipSyncData)
+            throws XMLStreamException, CommandException {
+        XMLStreamReader reader = createInputFactory().createXMLStreamReader(in);
+        try {
+            reader.nextTag();
+            handler.startSyncRequest(reader.getAttributeValue(null, "sourceId"));
+            reader.next();
+            skipToTag(reader);
+            while (reader.isStartElement()) {
+                String name = reader.getLocalName();
+                if (SYNC_DATA.equals(name) && !skipSyncData) {
+                    readSyncData(reader, handler);
+                } else if (SYNC_MAPPING.equals(name)) {
+                    handler.syncMapping(unmarshal(reader, SyncMapping.class));
+                } else if (SYNC_VNA_SCHEMA_VERSION.equals(name)) {
+                    handler.syncVnaSchemaVersion(unmarshal(reader, SyncVnaSchemaVersion.class));
+                } else {
+                    skipElement(reader);
+                }
+                skipToTag(reader);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void readSyncData(XMLStreamReader reader, Handler handler)
+            throws XMLStreamException, CommandException {
+        reader.next();
+        skipToTag(reader);
+        while (reader.isStartElement()) {
+            String name = reader.getLocalName();
+            if (SYNC_OBJECT.equals(name)) {
+                readSyncObject(reader, handler);
+            } else if (SYNC_LINK.equals(name)) {
+                handler.syncLink(unmarshal(reader, SyncLink.class));
+            } else {
+                skipElement(reader);
+            }
+            skipToTag(reader);
+        }
+        reader.next();
+        handler.endSyncData();
+    }
+
+    private void readSyncObject(XMLStreamReader reader, Handler handler)
+            throws XMLStreamException, CommandException {
+        SyncObject syncObject = new SyncObject();
+        boolean started = false;
+        reader.next();
+        skipToTag(reader);
+        while (reader.isStartElement()) {
+            String name = reader.getLocalName();
+            if (SYNC_ATTRIBUTE.equals(name)) {
+                syncObject.getSyncAttribute().add(unmarshal(reader, SyncAttribute.class));
+            } else if (EXT_ID.equals(name)) {
+                syncObject.setExtId(readText(reader));
+            } else if (EXT_OBJECT_TYPE.equals(name)) {
+                syncObject.setExtObjectType(readText(reader));
+            } else if (ICON.equals(name)) {
+                syncObject.setIcon(readText(reader));
+            } else if (CHILDREN.equals(name) || FILE.equals(name)) {
+                if (!started) {
+                    handler.startSyncObject(syncObject);
+                    started = true;
+                }
+                if (CHILDREN.equals(name)) {
+                    readSyncObject(reader, handler);
+                } else {
+                    syncObject.getFile().add(unmarshal(reader, SyncFile.class));
+                }
+            } else {
+                skipElement(reader);
+            }
+            skipToTag(reader);
+        }
+        if (!started) {
+            handler.startSyncObject(syncObject);
+        }
+        handler.endSyncObject(syncObject);
+        reader.next();
+    }
+
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        String text = reader.getElementText();
+        reader.next();
+        return text;
+    }
+
+    private <T> T unmarshal(XMLStreamReader reader, Class<T> type) throws XMLStreamException {
+        try {
+            return unmarshaller.unmarshal(reader, type).getValue();
+        } catch (JAXBException e) {
+            throw new XMLStreamException("Error while reading element " + type.getSimpleName(),
+                    e);
+        }
+    }
+
+    /**
+     * Moves the reader to the next start or end tag if it is not positioned
+     * at a tag.
+     */
+    private static void skipToTag(XMLStreamReader reader) throws XMLStreamException {
+        while (!reader.isStartElement() && !reader.isEndElement() && reader.hasNext()) {
+            reader.next();
+        }
+    }
+
+    /**
+     * Skips the element the reader is positioned at including all descendants.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            reader.next();
+            if (reader.isStartElement()) {
+                depth++;
+            } else if (reader.isEndElement()) {
+                depth--;
+            }
+        }
+        reader.next();
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        return factory;
+    }
+}
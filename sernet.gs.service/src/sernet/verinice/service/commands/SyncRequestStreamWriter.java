@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands;
+
+import java.io.OutputStream;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import de.sernet.sync.data.SyncAttribute;
+import de.sernet.sync.data.SyncFile;
+import de.sernet.sync.data.SyncLink;
+import de.sernet.sync.data.SyncObject;
+import de.sernet.sync.mapping.SyncMapping;
+import de.sernet.sync.sync.SyncRequest;
+import de.sernet.sync.sync.SyncRequest.SyncVnaSchemaVersion;
+import sernet.gs.service.VeriniceCharset;
+
+/**
+ * Writes a {@link SyncRequest} to an output stream element by element
+ * without creating the JAXB object tree in memory.
+ *
+ * The enclosing elements are written with StAX, the content of every element
+ * is marshaled as a JAXB fragment. Call the methods in this order:
+ *
+ * <pre>
+ * startSyncRequest
+ *   (startSyncObject ... endSyncObject)*
+ *   writeSyncLink*
+ * endSyncRequest
+ * </pre>
+ *
+ * Calls of startSyncObject and endSyncObject can be nested to write the
+ * children of an object. The document produced is equal to a marshaled
+ * {@link SyncRequest} with the same content.
+ */
+public class SyncRequestStreamWriter {
+
+    public static final String NAMESPACE_SYNC = "http://www.sernet.de/sync/sync";
+    public static final String NAMESPACE_DATA = "http://www.sernet.de/sync/data";
+    public static final String NAMESPACE_MAPPING = "http://www.sernet.de/sync/mapping";
+
+    private static final QName SYNC_ATTRIBUTE = new QName(NAMESPACE_DATA, "syncAttribute");
+    private static final QName FILE = new QName(NAMESPACE_DATA, "file");
+    private static final QName SYNC_LINK = new QName(NAMESPACE_DATA, "syncLink");
+    private static final QName SYNC_VNA_SCHEMA_VERSION = new QName(NAMESPACE_SYNC,
+            "syncVnaSchemaVersion");
+
+    private static JAXBContext context;
+
+    private final XMLStreamWriter writer;
+    private final Marshaller marshaller;
+    private int depth = 0;
+
+    /**
+     * @param out
+     *            The stream to write to, it is not closed by this writer
+     */
+    public SyncRequestStreamWriter(OutputStream out) throws XMLStreamException {
+        try {
+            marshaller = getContext().createMarshaller();
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+        } catch (JAXBException e) {
+            throw new XMLStreamException("Error while creating marshaller", e);
+        }
+        writer = XMLOutputFactory.newInstance().createXMLStreamWriter(out,
+                VeriniceCharset.CHARSET_UTF_8.name());
+    }
+
+    private static synchronized JAXBContext getContext() throws JAXBException {
+        if (context == null) {
+            context = JAXBContext.newInstance(SyncRequest.class);
+        }
+        return context;
+    }
+
+    /**
+     * Writes the start of the document up to the first sync object.
+     */
+    public void startSyncRequest(String sourceId) throws XMLStreamException {
+        writer.writeStartDocument(VeriniceCharset.CHARSET_UTF_8.name(), "1.0");
+        writer.setPrefix("sync", NAMESPACE_SYNC);
+        writer.setPrefix("data", NAMESPACE_DATA);
+        writer.setPrefix("mapping", NAMESPACE_MAPPING);
+        writer.writeStartElement(NAMESPACE_SYNC, "syncRequest");
+        writer.writeNamespace("sync", NAMESPACE_SYNC);
+        writer.writeNamespace("data", NAMESPACE_DATA);
+        writer.writeNamespace("mapping", NAMESPACE_MAPPING);
+        writer.writeAttribute("sourceId", sourceId);
+        writer.writeStartElement(NAMESPACE_DATA, "syncData");
+    }
+
+    /**
+     * Writes the start of a sync object, its attributes, ext-id, type and
+     * icon. The children and files of the sync object are ignored. Children
+     * must be written by nested calls of this method, files are written by
+     * {@link #endSyncObject(SyncObject)}.
+     */
+    public void startSyncObject(SyncObject syncObject) throws XMLStreamException {
+        writer.writeStartElement(NAMESPACE_DATA, (depth == 0) ? "syncObject" : "children");
+        for (SyncAttribute syncAttribute : syncObject.getSyncAttribute()) {
+            marshal(new JAXBElement<>(SYNC_ATTRIBUTE, SyncAttribute.class, syncAttribute));
+        }
+        writeTextElement("extId", syncObject.getExtId());
+        writeTextElement("extObjectType", syncObject.getExtObjectType());
+        if (syncObject.getIcon() != null) {
+            writeTextElement("icon", syncObject.getIcon());
+        }
+        depth++;
+    }
+
+    /**
+     * Writes the files of a sync object and closes the sync object.
+     */
+    public void endSyncObject(SyncObject syncObject) throws XMLStreamException {
+        for (SyncFile file : syncObject.getFile()) {
+            marshal(new JAXBElement<>(FILE, SyncFile.class, file));
+        }
+        writer.writeEndElement();
+        depth--;
+    }
+
+    public void writeSyncLink(SyncLink syncLink) throws XMLStreamException {
+        marshal(new JAXBElement<>(SYNC_LINK, SyncLink.class, syncLink));
+    }
+
+    /**
+     * Writes the mapping and the schema version and closes the document.
+     */
+    public void endSyncRequest(SyncMapping syncMapping, SyncVnaSchemaVersion version)
+            throws XMLStreamException {
+        writer.writeEndElement();
+        marshal(syncMapping);
+        marshal(new JAXBElement<>(SYNC_VNA_SCHEMA_VERSION, SyncVnaSchemaVersion.class,
+                version));
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.flush();
+    }
+
+    private void writeTextElement(String localName, String text) throws XMLStreamException {
+        writer.writeStartElement(NAMESPACE_DATA, localName);
+        if (text != null) {
+            writer.writeCharacters(text);
+        }
+        writer.writeEndElement();
+    }
+
+    private void marshal(Object jaxbElement) throws XMLStreamException {
+        try {
+            marshaller.marshal(jaxbElement, writer);
+        } catch (JAXBException e) {
+            throw new XMLStreamException("Error while writing element", e);
+        }
+    }
+}
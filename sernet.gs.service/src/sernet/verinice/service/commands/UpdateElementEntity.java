@@ -50,10 +50,22 @@ public class UpdateElementEntity<T extends CnATreeElement> extends GenericComman
     private final T elementToUpdate;
     private T mergedElement;
     private String stationId;
+    private boolean fireUpdates;
 
     public UpdateElementEntity(T element, String stationId) {
+        this(element, true, stationId);
+    }
+
+    /**
+     * @param fireUpdates
+     *            If false the protection requirements are not propagated,
+     *            the caller must call
+     *            {@link IBaseDao#notifyChangedElements(java.util.Collection)}
+     */
+    public UpdateElementEntity(T element, boolean fireUpdates, String stationId) {
         this.elementToUpdate = element;
         this.mergedElement = null;
+        this.fireUpdates = fireUpdates;
         this.stationId = stationId;
     }
 
@@ -78,7 +90,8 @@ public class UpdateElementEntity<T extends CnATreeElement> extends GenericComman
         }
 
         IElementEntityDao elementEntityDao = getDaoFactory().getElementEntityDao();
-        this.mergedElement = (T) elementEntityDao.mergeEntityOfElement(elementToUpdate, true);
+        this.mergedElement = (T) elementEntityDao.mergeEntityOfElement(elementToUpdate,
+                fireUpdates);
     }
 
     /**
@@ -26,6 +26,8 @@ import org.apache.log4j.Logger;
 import sernet.hui.common.connect.ITypedElement;
 import sernet.verinice.interfaces.GenericCommand;
 import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.model.common.CnALink;
+import sernet.verinice.model.common.CnATreeElement;
 
 @SuppressWarnings("serial")
 public class UpdateElementsForGstoolImport<T extends ITypedElement> extends GenericCommand  {
@@ -46,9 +48,16 @@ public class UpdateElementsForGstoolImport<T extends ITypedElement> extends Gene
 		    int i = 0;
 		    int elementCount = 0;
 			IBaseDao<T, Serializable> dao = getDao();
+			List<CnATreeElement> changedElements = new ArrayList<>(elements.size());
 			for (T element : elements) {
 			    if(element != null){
-			        dao.merge(element, true);
+			        T mergedElement = dao.merge(element, false);
+			        if (mergedElement instanceof CnATreeElement) {
+			            changedElements.add((CnATreeElement) mergedElement);
+			        } else if (mergedElement instanceof CnALink) {
+			            // merge(link, true) propagated from the dependency
+			            changedElements.add(((CnALink) mergedElement).getDependency());
+			        }
 			    }
 				i++;
 				if(i>flushThreshold) {
@@ -60,6 +69,8 @@ public class UpdateElementsForGstoolImport<T extends ITypedElement> extends Gene
 				    dao.flush();
 				}
 			}
+			// propagate protection requirements once for all elements
+			dao.notifyChangedElements(changedElements);
 		}
 	}
 
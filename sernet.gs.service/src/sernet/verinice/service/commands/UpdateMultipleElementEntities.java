@@ -46,6 +46,9 @@ public class UpdateMultipleElementEntities extends GenericCommand implements ICh
     }
 
     /*
+     * The protection requirements are propagated once for all elements after
+     * all entities were saved.
+     * 
      * @see sernet.verinice.interfaces.ICommand#execute()
      */
     @Override
@@ -55,7 +58,7 @@ public class UpdateMultipleElementEntities extends GenericCommand implements ICh
             @SuppressWarnings("rawtypes")
             IBaseDao dao = getDaoFactory().getDAO(element.getTypeId());
             UpdateElementEntity<? extends CnATreeElement> command = new UpdateElementEntity<>(
-                    element, stationId);
+                    element, false, stationId);
             try {
                 command = getCommandService().executeCommand(command);
                 dao.flush();
@@ -65,6 +68,9 @@ public class UpdateMultipleElementEntities extends GenericCommand implements ICh
                 logger.error("Error while updating element entity", e);
             }
         }
+        if (!processed.isEmpty()) {
+            getDaoFactory().getDAO(CnATreeElement.class).notifyChangedElements(processed);
+        }
         this.changedElements = Collections.unmodifiableList(processed);
     }
 
@@ -42,6 +42,7 @@ import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.IChangeLoggingCommand;
 import sernet.verinice.interfaces.IConfigurationService;
 import sernet.verinice.interfaces.IDao;
+import sernet.verinice.interfaces.IPermissionCache;
 import sernet.verinice.model.common.ChangeLogEntry;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.common.Permission;
@@ -149,14 +150,14 @@ public class UpdatePermissions extends GenericCommand implements IChangeLoggingC
                 elementsByParentId = null;
 
                 getDao().saveOrUpdateAll(elementsToSave);
+                invalidatePermissionCache(elementsToSave);
+                // every updated element is logged, clients refresh or remove
+                // each of them
+                changedElements.addAll(elementsToSave);
                 elementsToSave = null;
-
+            } else {
+                changedElements.add(cte);
             }
-
-            // Since the result of a change to permissions is that the model is
-            // reloaded completely we only mark that one object has changed (
-            // otherwise there would be a reload for each changed object.)
-            changedElements.add(cte);
         } catch (CommandException e) {
             throw new RuntimeCommandException("Error updating permissions", e); //$NON-NLS-1$
         }
@@ -247,6 +248,12 @@ public class UpdatePermissions extends GenericCommand implements IChangeLoggingC
         return permissionDao;
     }
 
+    @Override
+    public void clear() {
+        // changedElements are used on server side only to log the changes
+        changedElements.clear();
+    }
+
     @Override
     public String getStationId() {
         return stationId;
@@ -278,6 +285,14 @@ public class UpdatePermissions extends GenericCommand implements IChangeLoggingC
         return changedElements;
     }
 
+    private static void invalidatePermissionCache(Set<CnATreeElement> elements) {
+        if (VeriniceContext.exists(VeriniceContext.PERMISSION_CACHE)) {
+            ((IPermissionCache) VeriniceContext.get(VeriniceContext.PERMISSION_CACHE))
+                    .invalidateElements(elements.stream().map(CnATreeElement::getDbId)
+                            .collect(Collectors.toList()));
+        }
+    }
+
     protected IConfigurationService getConfigurationService() {
         return (IConfigurationService) VeriniceContext.get(VeriniceContext.CONFIGURATION_SERVICE);
     }
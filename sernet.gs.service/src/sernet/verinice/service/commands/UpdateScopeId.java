@@ -20,6 +20,8 @@
 package sernet.verinice.service.commands;
 
 import java.io.Serializable;
+import java.util.HashSet;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 
@@ -48,6 +50,9 @@ import sernet.verinice.interfaces.INoAccessControl;
  * Command is used for update from Db-Version 0.98 to 0.99
  * and while moving elements from one scope to another.
  * 
+ * The elements are changed by Hibernate dirty checking. The element change
+ * listeners of the DAO are notified about the moved subtrees.
+ * 
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  */
 public class UpdateScopeId extends GenericCommand implements INoAccessControl {
@@ -58,6 +63,8 @@ public class UpdateScopeId extends GenericCommand implements INoAccessControl {
     
     private Integer scopeId;
 
+    private Integer previousScopeId;
+
     private transient IBaseDao<Organization, Serializable> orgDao;
     
     private transient IBaseDao<ITVerbund, Serializable> itverbundDao;
@@ -88,6 +95,19 @@ public class UpdateScopeId extends GenericCommand implements INoAccessControl {
         this.scopeId = scopeId;
     }
 
+    /**
+     * Use this constructor, if the scope-id of <code>element</code> was
+     * already set, e.g. while moving the element to another parent.
+     * 
+     * @param elementId Id of a subtree root. All scope-id in this subtree will be set.
+     * @param scopeId A scope-id (Db-Id of an organization or IT-Verbund)
+     * @param previousScopeId The scope-id of the element before it was moved
+     */
+    public UpdateScopeId(Integer elementId, Integer scopeId, Integer previousScopeId) {
+        this(elementId, scopeId);
+        this.previousScopeId = previousScopeId;
+    }
+
     /* (non-Javadoc)
      * @see sernet.verinice.interfaces.ICommand#execute()
      */
@@ -106,10 +126,10 @@ public class UpdateScopeId extends GenericCommand implements INoAccessControl {
      */
     private void updateAllElements() {
         for (Organization org : getOrgDao().findAll()) {
-            update(org,org.getDbId());            
+            updateAndNotify(org,org.getDbId());            
         }
         for (ITVerbund itverbund : getItverbundDao().findAll()) {
-            update(itverbund,itverbund.getDbId());            
+            updateAndNotify(itverbund,itverbund.getDbId());            
         }
     }
     
@@ -118,16 +138,26 @@ public class UpdateScopeId extends GenericCommand implements INoAccessControl {
      */
     private void updateSubtree() {
         CnATreeElement element = getCnaTreeElementDao().findById(getElementId());
-        update(element, getScopeId());
+        updateAndNotify(element, getScopeId());
+    }
+
+    private void updateAndNotify(CnATreeElement element, Integer scopeId) {
+        Set<Integer> previousScopeIds = new HashSet<>();
+        if (getPreviousScopeId() != null) {
+            previousScopeIds.add(getPreviousScopeId());
+        }
+        update(element, scopeId, previousScopeIds);
+        getCnaTreeElementDao().notifyElementsMoved(Set.of(element), previousScopeIds);
     }
 
-    private void update(CnATreeElement element, Integer scopeId) {
+    private void update(CnATreeElement element, Integer scopeId, Set<Integer> previousScopeIds) {
+        previousScopeIds.add(element.getScopeId());
         element.setScopeId(scopeId);
         if (log.isDebugEnabled()) {
             log.debug("Updating element: " + element.getTypeId() + " (" + element.getUuid() + ") to scope: " + scopeId);
         }
         for (CnATreeElement child : element.getChildren()) {
-            update(child, scopeId);
+            update(child, scopeId, previousScopeIds);
         }
     }
 
@@ -147,6 +177,13 @@ public class UpdateScopeId extends GenericCommand implements INoAccessControl {
         return scopeId;
     }
 
+    /**
+     * @return the scopeId of the element before it was moved or null
+     */
+    public Integer getPreviousScopeId() {
+        return previousScopeId;
+    }
+
 
     public IBaseDao<Organization, Serializable> getOrgDao() {
         if(orgDao==null) {
@@ -17,7 +17,6 @@
  ******************************************************************************/
 package sernet.verinice.service.commands.bp.converter;
 
-import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -56,7 +55,6 @@ import sernet.verinice.model.bsi.Addition;
 import sernet.verinice.model.bsi.Anwendung;
 import sernet.verinice.model.bsi.AnwendungenKategorie;
 import sernet.verinice.model.bsi.Attachment;
-import sernet.verinice.model.bsi.AttachmentFile;
 import sernet.verinice.model.bsi.ClientsKategorie;
 import sernet.verinice.model.bsi.GebaeudeKategorie;
 import sernet.verinice.model.bsi.IBSIStrukturElement;
@@ -297,18 +295,14 @@ public class MasterConverter {
                     if (addition instanceof Attachment) {
                         Attachment newAttachmeht = (Attachment) newAddition;
                         daoFactory.getAttachmentDao().saveOrUpdate(newAttachmeht);
-                        IBaseDao<AttachmentFile, Serializable> attachmentFileDao = daoFactory
-                                .getDAO(AttachmentFile.class);
-                        AttachmentFile attachmentFile = attachmentFileDao
-                                .findById(addition.getDbId());
-                        AttachmentFileCreationFactory.createAttachmentFile(newAttachmeht,
-                                attachmentFile.getFileData());
+                        AttachmentFileCreationFactory.copyAttachmentFile(addition.getDbId(),
+                                newAttachmeht.getDbId());
 
                     } else {
                         daoFactory.getDAO(addition.getTypeId()).saveOrUpdate(newAddition);
                     }
                 } catch (InstantiationError | InstantiationException | IllegalAccessException
-                        | IOException | CommandException e) {
+                        | CommandException e) {
                     throw new RuntimeException("Failed to copy " + addition, e);
                 }
             }
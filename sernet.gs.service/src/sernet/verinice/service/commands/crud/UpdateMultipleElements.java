@@ -26,6 +26,7 @@ import sernet.verinice.interfaces.GenericCommand;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.interfaces.IChangeLoggingCommand;
 import sernet.verinice.model.common.ChangeLogEntry;
+import sernet.verinice.model.common.CnALink;
 import sernet.verinice.model.common.CnATreeElement;
 
 @SuppressWarnings("serial")
@@ -51,10 +52,19 @@ public class UpdateMultipleElements<T extends ITypedElement> extends GenericComm
         if (elements.size() > 0) {
             IBaseDao<T, Serializable> dao = (IBaseDao<T, Serializable>) getDaoFactory()
                     .getDAO(elements.get(0).getTypeId());
+            List<CnATreeElement> changedElements = new ArrayList<>(elements.size());
             for (T element : elements) {
-                T mergedElement = dao.merge(element, true);
+                T mergedElement = dao.merge(element, false);
                 mergedElements.add(mergedElement);
+                if (mergedElement instanceof CnATreeElement) {
+                    changedElements.add((CnATreeElement) mergedElement);
+                } else if (mergedElement instanceof CnALink) {
+                    // merge(link, true) propagated from the dependency
+                    changedElements.add(((CnALink) mergedElement).getDependency());
+                }
             }
+            // propagate protection requirements once for all elements
+            dao.notifyChangedElements(changedElements);
         }
     }
 
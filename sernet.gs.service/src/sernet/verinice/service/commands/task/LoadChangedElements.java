@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.commands.task;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.criterion.DetachedCriteria;
+import org.hibernate.criterion.Restrictions;
+
+import sernet.gs.service.CollectionUtil;
+import sernet.gs.service.RetrieveInfo;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.IBaseDao;
+import sernet.verinice.interfaces.IDao;
+import sernet.verinice.model.common.CnATreeElement;
+
+/**
+ * Loads the elements of a change set with their properties, children and
+ * parent. Rich clients use this command to refresh the elements changed by
+ * other clients.
+ *
+ * In contrast to {@link GetChangesSince} the access control applies. Elements
+ * the user is not allowed to read are not contained in the result, a client
+ * removes them from its model.
+ */
+public class LoadChangedElements extends GenericCommand {
+
+    private static final long serialVersionUID = 3507418225263917460L;
+
+    private List<Integer> dbIds;
+
+    private Map<Integer, CnATreeElement> changedElements;
+
+    public LoadChangedElements(Collection<Integer> dbIds) {
+        this.dbIds = new ArrayList<>(new LinkedHashSet<>(dbIds));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void execute() {
+        changedElements = new HashMap<>(dbIds.size());
+        IBaseDao<CnATreeElement, Serializable> dao = getDaoFactory().getDAO(CnATreeElement.class);
+        for (List<Integer> chunk : CollectionUtil.partition(dbIds, IDao.QUERY_MAX_ITEMS_IN_LIST)) {
+            DetachedCriteria criteria = DetachedCriteria.forClass(CnATreeElement.class)
+                    .add(Restrictions.in("dbId", chunk));
+            RetrieveInfo.getPropertyChildrenInstance().setParent(true).configureCriteria(criteria);
+            for (CnATreeElement element : (List<CnATreeElement>) dao.findByCriteria(criteria)) {
+                changedElements.put(element.getDbId(), element);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        dbIds = null;
+    }
+
+    /**
+     * @return The loaded elements, key: db-id of the element
+     */
+    public Map<Integer, CnATreeElement> getChangedElements() {
+        return changedElements;
+    }
+}
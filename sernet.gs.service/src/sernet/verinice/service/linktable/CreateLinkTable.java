@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.linktable;
+
+import java.util.List;
+
+import org.apache.log4j.Logger;
+
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.GenericCommand;
+import sernet.verinice.interfaces.GraphCommand;
+import sernet.verinice.service.linktable.generator.GraphLinkedTableCreator;
+
+/**
+ * Creates a Link Table where the command is executed, i.e. on the server if
+ * verinice is connected to a server. The verinice graph is loaded and
+ * evaluated on the server and only a page of rows is returned to the client.
+ *
+ * Every execution evaluates the complete table. Set a maximum number of rows
+ * to limit the size of the result, e.g. for a preview of a table.
+ */
+public class CreateLinkTable extends GenericCommand {
+
+    private static final long serialVersionUID = -4273562301936524016L;
+
+    private static final Logger LOG = Logger.getLogger(CreateLinkTable.class);
+
+    private ILinkTableConfiguration configuration;
+    private int firstRow = 0;
+    private int maxRows = 0;
+    private boolean parallel = false;
+
+    private LinkTablePage page;
+
+    /**
+     * Creates a command which returns all rows of the table.
+     */
+    public CreateLinkTable(ILinkTableConfiguration configuration) {
+        this.configuration = configuration;
+    }
+
+    /**
+     * @param firstRow
+     *            The index of the first row which is returned
+     * @param maxRows
+     *            The maximum number of rows which are returned, 0 or less
+     *            for all rows
+     */
+    public CreateLinkTable(ILinkTableConfiguration configuration, int firstRow, int maxRows) {
+        this(configuration);
+        this.firstRow = firstRow;
+        this.maxRows = maxRows;
+    }
+
+    @Override
+    public void execute() {
+        GraphCommand graphCommand = LinkTableService.createGraphCommand(configuration);
+        try {
+            graphCommand = getCommandService().executeCommand(graphCommand);
+        } catch (CommandException e) {
+            LOG.error("Command exception while creating link table", e);
+            throw new LinkTableException("Error while creating link table: " + e.getMessage(), e);
+        }
+        long start = System.currentTimeMillis();
+        List<List<String>> table = new GraphLinkedTableCreator()
+                .createTable(graphCommand.getGraph(), configuration, parallel);
+        page = LinkTablePage.create(table, firstRow, maxRows);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Link table with " + page.getTotalRows() + " rows created in "
+                    + (System.currentTimeMillis() - start) + " ms, returning "
+                    + page.getRows().size() + " rows");
+        }
+    }
+
+    @Override
+    public void clear() {
+        configuration = null;
+    }
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public LinkTablePage getPage() {
+        return page;
+    }
+}
@@ -87,6 +87,30 @@ public interface ILinkTableService {
      */
     List<List<String>> createTable(ILinkTableConfiguration configuration);
 
+    /**
+     * Creates a Link Table with the configuration defined in
+     * a configuration. If parallel is true the loaded data is evaluated
+     * with more than one thread. The result is the same as the result of
+     * {@link #createTable(ILinkTableConfiguration)}.
+     *
+     * @param configuration A Link Table configuration
+     * @param parallel True if the table is created in parallel
+     * @return A Link Table
+     */
+    List<List<String>> createTable(ILinkTableConfiguration configuration, boolean parallel);
+
+    /**
+     * Creates a Link Table with the configuration defined in
+     * a configuration and returns a page of the rows.
+     * Use a maximum number of rows to create a preview of a table.
+     *
+     * @param configuration A Link Table configuration
+     * @param firstRow The index of the first row of the page, the header is not counted
+     * @param maxRows The maximum number of rows of the page, 0 or less for all rows
+     * @return A page of a Link Table
+     */
+    LinkTablePage createTable(ILinkTableConfiguration configuration, int firstRow, int maxRows);
+
     /**
      * Creates a Link Table with the configuration defined in VLT file
      * with path vltFilePath.
@@ -102,6 +126,7 @@ public interface ILinkTableService {
     
     /**
      * Sets strategy for calculating the linked table.
+     * If no strategy is set, the table is calculated on the server.
      * 
      * Must be called before {@link #createTable()};
      */
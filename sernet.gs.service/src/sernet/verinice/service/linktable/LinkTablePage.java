@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.linktable;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A page of the rows of a Link Table. A page contains the header of the
+ * table and the rows from {@link #getFirstRow()} up to a maximum number of
+ * rows. The first row of the table has index 0, the header is not counted.
+ */
+public class LinkTablePage implements Serializable {
+
+    private static final long serialVersionUID = 6245123089765614207L;
+
+    private final List<String> header;
+    private final List<List<String>> rows;
+    private final int firstRow;
+    private final int totalRows;
+
+    public LinkTablePage(List<String> header, List<List<String>> rows, int firstRow,
+            int totalRows) {
+        this.header = header;
+        this.rows = rows;
+        this.firstRow = firstRow;
+        this.totalRows = totalRows;
+    }
+
+    /**
+     * Creates a page of a Link Table.
+     *
+     * @param table
+     *            A Link Table, the first row is the header
+     * @param firstRow
+     *            The index of the first row of the page
+     * @param maxRows
+     *            The maximum number of rows of the page, 0 or less for all
+     *            rows
+     */
+    public static LinkTablePage create(List<List<String>> table, int firstRow, int maxRows) {
+        if (table.isEmpty()) {
+            return new LinkTablePage(Collections.emptyList(), Collections.emptyList(), 0, 0);
+        }
+        int totalRows = table.size() - 1;
+        int from = Math.min(Math.max(firstRow, 0), totalRows);
+        int to = (maxRows > 0) ? Math.min(from + maxRows, totalRows) : totalRows;
+        List<List<String>> rows = new ArrayList<>(table.subList(from + 1, to + 1));
+        return new LinkTablePage(new ArrayList<>(table.get(0)), rows, from, totalRows);
+    }
+
+    public List<String> getHeader() {
+        return header;
+    }
+
+    public List<List<String>> getRows() {
+        return rows;
+    }
+
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    /**
+     * @return The number of rows of the complete table without the header
+     */
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    /**
+     * @return True if the table contains rows after this page
+     */
+    public boolean hasMoreRows() {
+        return firstRow + rows.size() < totalRows;
+    }
+
+    /**
+     * @return The header and the rows of this page in the format returned by
+     *         {@link ILinkTableService#createTable(ILinkTableConfiguration)}
+     */
+    public List<List<String>> getTable() {
+        List<List<String>> table = new ArrayList<>(rows.size() + 1);
+        table.add(header);
+        table.addAll(rows);
+        return table;
+    }
+}
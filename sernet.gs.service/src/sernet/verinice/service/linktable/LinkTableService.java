@@ -19,7 +19,10 @@
  ******************************************************************************/
 package sernet.verinice.service.linktable;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.lang.ArrayUtils;
@@ -32,7 +35,6 @@ import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.graph.FirstLinkedElementsLoader;
 import sernet.verinice.interfaces.graph.GraphElementLoader;
 import sernet.verinice.interfaces.graph.VeriniceGraph;
-import sernet.verinice.service.linktable.generator.GraphLinkedTableCreator;
 import sernet.verinice.service.linktable.vlt.VeriniceLinkTableIO;
 
 /**
@@ -40,9 +42,14 @@ import sernet.verinice.service.linktable.vlt.VeriniceLinkTableIO;
  * reports or to export CSV data. See interface {@link ILinkTableService} for
  * documentation.
  *
- * This implementation uses verinice graphs to load data from the server. It
- * creates {@link GraphCommand}s and executes them with the
- * {@link ICommandService}.
+ * By default this implementation creates the tables on the server with
+ * command {@link CreateLinkTable}. The verinice graph is loaded and evaluated
+ * on the server and only the rows are returned.
+ *
+ * If a {@link LinkedTableCreator} is set, this implementation uses verinice
+ * graphs to load data from the server. It creates {@link GraphCommand}s and
+ * executes them with the {@link ICommandService}. The table is created by the
+ * {@link LinkedTableCreator} where this service runs.
  *
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  */
@@ -52,13 +59,46 @@ public class LinkTableService implements ILinkTableService {
 
     ICommandService commandService;
 
-    /** Default implementation of link creator */
-    private LinkedTableCreator linkedTableCreator = new GraphLinkedTableCreator();
+    /**
+     * Strategy to create the table from a graph loaded from the server, if
+     * null the table is created on the server
+     */
+    private LinkedTableCreator linkedTableCreator;
 
     @Override
     public List<List<String>> createTable(ILinkTableConfiguration configuration) {
+        return createTable(configuration, false);
+    }
+
+    @Override
+    public List<List<String>> createTable(ILinkTableConfiguration configuration,
+            boolean parallel) {
+        if (linkedTableCreator == null) {
+            CreateLinkTable command = new CreateLinkTable(configuration);
+            command.setParallel(parallel);
+            return executeCommand(command).getPage().getTable();
+        }
         VeriniceGraph graph = getVeriniceGraph(configuration);
-        return linkedTableCreator.createTable(graph, configuration);
+        return linkedTableCreator.createTable(graph, configuration, parallel);
+    }
+
+    @Override
+    public LinkTablePage createTable(ILinkTableConfiguration configuration, int firstRow,
+            int maxRows) {
+        if (linkedTableCreator == null) {
+            return executeCommand(new CreateLinkTable(configuration, firstRow, maxRows))
+                    .getPage();
+        }
+        return LinkTablePage.create(createTable(configuration), firstRow, maxRows);
+    }
+
+    private CreateLinkTable executeCommand(CreateLinkTable command) {
+        try {
+            return getCommandService().executeCommand(command);
+        } catch (CommandException e) {
+            LOG.error("Command exception while creating link table", e);
+            throw new LinkTableException("Error while creating link table: " + e.getMessage(), e);
+        }
     }
 
     private VeriniceGraph getVeriniceGraph(ILinkTableConfiguration configuration) {
@@ -81,16 +121,28 @@ public class LinkTableService implements ILinkTableService {
     }
 
     protected GraphCommand createCommand(ILinkTableConfiguration configuration) {
+        return createGraphCommand(configuration);
+    }
+
+    /**
+     * Creates a command to load the verinice graph with all elements and
+     * links of a link table configuration. Only the properties in the column
+     * paths of the configuration are loaded.
+     */
+    public static GraphCommand createGraphCommand(ILinkTableConfiguration configuration) {
         GraphCommand command = new GraphCommand();
+        Map<String, Set<String>> propertyTypeIds = getPropertyTypeIdsByObjectType(configuration);
         GraphElementLoader loader = new GraphElementLoader();
         loader.setScopeIds(configuration.getScopeIdArray());
         Set<String> objectTypeIds = configuration.getObjectTypeIds();
         loader.setTypeIds(objectTypeIds.toArray(new String[objectTypeIds.size()]));
+        loader.setPropertyTypeIds(propertyTypeIds);
         command.addLoader(loader);
         if (configuration.followLinksOutsideOfScope()
                 && !ArrayUtils.isEmpty(configuration.getScopeIdArray())) {
             FirstLinkedElementsLoader firstLinkedElementsLoader = new FirstLinkedElementsLoader();
             firstLinkedElementsLoader.setScopeIds(configuration.getScopeIdArray());
+            firstLinkedElementsLoader.setPropertyTypeIds(propertyTypeIds);
             command.addLoader(firstLinkedElementsLoader);
         }
         for (String relation : configuration.getLinkTypeIds()) {
@@ -99,6 +151,25 @@ public class LinkTableService implements ILinkTableService {
         return command;
     }
 
+    /**
+     * Returns the property type ids in the column paths of a configuration.
+     * Key: object type id, value: the property type ids of the object type.
+     */
+    private static Map<String, Set<String>> getPropertyTypeIdsByObjectType(
+            ILinkTableConfiguration configuration) {
+        Map<String, Set<String>> propertyTypeIds = new HashMap<>();
+        for (String columnPath : configuration.getColumnPaths()) {
+            List<String> pathElements = ColumnPathParser
+                    .removeAlias(ColumnPathParser.getColumnPathAsList(columnPath));
+            int size = pathElements.size();
+            if (size >= 3 && !pathElements.contains(":")) {
+                propertyTypeIds.computeIfAbsent(pathElements.get(size - 3), k -> new HashSet<>())
+                        .add(pathElements.get(size - 1));
+            }
+        }
+        return propertyTypeIds;
+    }
+
     protected ICommandService getCommandService() {
         if (commandService == null) {
             commandService = createCommandService();
@@ -97,4 +97,27 @@ public interface LinkedTableCreator {
      *         of strings.
      */
     List<List<String>> createTable(VeriniceGraph veriniceGraph, ILinkTableConfiguration conf);
+
+    /**
+     * Creates table which contains all column pathes for a given
+     * {@link VeriniceGraph}. If parallel is true the graph may be evaluated
+     * with more than one thread. The result is the same as the result of
+     * {@link #createTable(VeriniceGraph, ILinkTableConfiguration)}.
+     *
+     * The default implementation ignores the parameter parallel.
+     *
+     * @param veriniceGraph
+     *            The graph the table is created for.
+     * @param conf
+     *            The configuration. Contains the column pathes, which are the
+     *            header of the table.
+     * @param parallel
+     *            True if the graph is evaluated in parallel
+     * @return The table is represented as a list of rows. Every row is a list
+     *         of strings.
+     */
+    default List<List<String>> createTable(VeriniceGraph veriniceGraph,
+            ILinkTableConfiguration conf, boolean parallel) {
+        return createTable(veriniceGraph, conf);
+    }
 }
@@ -30,6 +30,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.log4j.Logger;
@@ -83,6 +85,18 @@ import sernet.verinice.service.linktable.generator.mergepath.VqlNode;
  * verinice graph are valid.
  * </p>
  *
+ * <h2>Parallel evaluation</h2>
+ *
+ * <p>
+ * The traversals of the starting points are independent of each other and
+ * only read the verinice graph. If the table is created in parallel mode the
+ * starting points are traversed concurrently in a bounded
+ * {@link ForkJoinPool}. The rows of the traversals are expanded and merged in
+ * the calling thread in the order of the starting points, because the
+ * property adapters may execute commands. The result is equal to the result
+ * of the sequential mode.
+ * </p>
+ *
  * 
  * @author Benjamin Weißenfels <bw[at]sernet[dot]de>
  *
@@ -95,11 +109,25 @@ public class GraphLinkedTableCreator implements LinkedTableCreator {
     private Map<String, Integer> columnPath2TablePosition;
 
     private static final Logger LOG = Logger.getLogger(GraphLinkedTableCreator.class);
-    private LtrPrintRowsTraversalListener traversalListener;
-    private LtrTraversalFilter filter;
+
+    /**
+     * Maximum number of threads used to traverse the graph in parallel mode
+     */
+    private static final int MAX_PARALLELISM = 8;
+
+    /**
+     * Number of starting points a single task traverses without splitting
+     */
+    private static final int ROOTS_PER_TASK = 16;
 
     @Override
     public List<List<String>> createTable(VeriniceGraph veriniceGraph, ILinkTableConfiguration conf) {
+        return createTable(veriniceGraph, conf, false);
+    }
+
+    @Override
+    public List<List<String>> createTable(VeriniceGraph veriniceGraph,
+            ILinkTableConfiguration conf, boolean parallel) {
 
         this.veriniceDataGraph = veriniceGraph;
         this.vqlAst = new VqlAst(conf);
@@ -108,9 +136,9 @@ public class GraphLinkedTableCreator implements LinkedTableCreator {
         String typeId = root.getPath();
 
         storeColumnHeaderOrderAndAlias(conf);
-        Set<CnATreeElement> roots = getRootNodes(typeId);
+        List<CnATreeElement> roots = new ArrayList<>(getRootNodes(typeId));
 
-        List<Map<String, String>> table = doCreateTable(roots);
+        List<Map<String, String>> table = doCreateTable(roots, parallel);
 
         return convertToTable(table);
     }
@@ -124,29 +152,97 @@ public class GraphLinkedTableCreator implements LinkedTableCreator {
         });
     }
 
-    private List<Map<String, String>> doCreateTable(Set<CnATreeElement> roots) {
-        List<Map<String, String>> table = new ArrayList<>();
+    private List<Map<String, String>> doCreateTable(List<CnATreeElement> roots,
+            boolean parallel) {
         RiskConfigurationCache riskConfigurationCache = new RiskConfigurationCache();
-        for (CnATreeElement potentialRoot : roots) {
-            VeriniceGraphResult scanVeriniceGraph = scanVeriniceGraph(potentialRoot,
-                    riskConfigurationCache);
-            table.addAll(scanVeriniceGraph.getResult());
+        List<VeriniceGraphResult> results;
+        if (parallel && roots.size() > ROOTS_PER_TASK) {
+            results = scanVeriniceGraphInParallel(roots, riskConfigurationCache);
+        } else {
+            results = new ArrayList<>(roots.size());
+            for (CnATreeElement potentialRoot : roots) {
+                results.add(scanVeriniceGraph(potentialRoot, riskConfigurationCache));
+            }
+        }
+        List<Map<String, String>> table = new ArrayList<>();
+        for (VeriniceGraphResult result : results) {
+            table.addAll(result.getResult());
         }
         return table;
     }
 
+    private List<VeriniceGraphResult> scanVeriniceGraphInParallel(List<CnATreeElement> roots,
+            RiskConfigurationCache riskConfigurationCache) {
+        int parallelism = Math.min(Runtime.getRuntime().availableProcessors(), MAX_PARALLELISM);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            long start = System.currentTimeMillis();
+            List<VeriniceGraphResult> results = pool
+                    .invoke(new ScanTask(roots, 0, roots.size(), riskConfigurationCache));
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(roots.size() + " starting points traversed with " + parallelism
+                        + " threads in " + (System.currentTimeMillis() - start) + " ms");
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
     private VeriniceGraphResult scanVeriniceGraph(CnATreeElement potentialRoot,
             RiskConfigurationCache riskConfigurationCache) {
 
         VqlContext vqlNavigator = new VqlContext(vqlAst);
-        filter = new LtrTraversalFilter(vqlNavigator);
+        LtrTraversalFilter filter = new LtrTraversalFilter(vqlNavigator);
         VeriniceGraphResult result = new VeriniceGraphResult(riskConfigurationCache);
-        traversalListener = new LtrPrintRowsTraversalListener(vqlNavigator, filter, veriniceDataGraph, result);
+        LtrPrintRowsTraversalListener traversalListener = new LtrPrintRowsTraversalListener(
+                vqlNavigator, filter, veriniceDataGraph, result);
 
         traverse(veriniceDataGraph, potentialRoot, filter, traversalListener);
         return traversalListener.getResult();
     }
 
+    /**
+     * Traverses a range of starting points and returns the results in the
+     * order of the starting points. Ranges with more than
+     * {@link #ROOTS_PER_TASK} starting points are split in two halves.
+     */
+    private final class ScanTask extends RecursiveTask<List<VeriniceGraphResult>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<CnATreeElement> roots;
+        private final int from;
+        private final int to;
+        private final transient RiskConfigurationCache riskConfigurationCache;
+
+        ScanTask(List<CnATreeElement> roots, int from, int to,
+                RiskConfigurationCache riskConfigurationCache) {
+            this.roots = roots;
+            this.from = from;
+            this.to = to;
+            this.riskConfigurationCache = riskConfigurationCache;
+        }
+
+        @Override
+        protected List<VeriniceGraphResult> compute() {
+            if (to - from <= ROOTS_PER_TASK) {
+                List<VeriniceGraphResult> results = new ArrayList<>(to - from);
+                for (CnATreeElement potentialRoot : roots.subList(from, to)) {
+                    results.add(scanVeriniceGraph(potentialRoot, riskConfigurationCache));
+                }
+                return results;
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(roots, from, middle, riskConfigurationCache);
+            ScanTask right = new ScanTask(roots, middle, to, riskConfigurationCache);
+            left.fork();
+            List<VeriniceGraphResult> results = new ArrayList<>(right.compute());
+            results.addAll(0, left.join());
+            return results;
+        }
+    }
+
     private List<List<String>> convertToTable(List<Map<String, String>> table) {
 
         List<List<String>> stringTable = new LinkedList<>();
@@ -22,9 +22,12 @@ package sernet.verinice.service.sync;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Set;
 
 import javax.xml.bind.JAXB;
+import javax.xml.stream.XMLStreamException;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
@@ -34,9 +37,16 @@ import de.sernet.sync.mapping.SyncMapping;
 import de.sernet.sync.risk.Risk;
 import de.sernet.sync.sync.SyncRequest;
 import de.sernet.sync.sync.SyncRequest.SyncVnaSchemaVersion;
+import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.service.commands.SyncRequestStreamReader;
 
 /**
+ * A verinice XML file without attachments.
  *
+ * The source-id, the mapping and the schema version are read with a
+ * {@link SyncRequestStreamReader} without unmarshalling the sync data. Use
+ * {@link #getVeriniceXml()} to stream the sync data, {@link #getSyncData()}
+ * unmarshals the complete file.
  *
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  */
@@ -46,6 +56,10 @@ public class PureXml implements IVeriniceArchive {
 
     private byte[] veriniceXml;
 
+    private Path path;
+
+    private boolean metadataRead = false;
+
     private String sourceId;
 
     private SyncData syncData;
@@ -64,6 +78,14 @@ public class PureXml implements IVeriniceArchive {
         veriniceXml = IOUtils.toByteArray(is);
     }
 
+    /**
+     * Creates an instance which reads the XML file from the given path every
+     * time {@link #getVeriniceXml()} is called.
+     */
+    public PureXml(Path path) {
+        this.path = path;
+    }
+
     public PureXml() {
     }
 
@@ -72,7 +94,17 @@ public class PureXml implements IVeriniceArchive {
      */
     @Override
     public InputStream getVeriniceXml() {
-        return new ByteArrayInputStream(veriniceXml);
+        if (veriniceXml != null) {
+            return new ByteArrayInputStream(veriniceXml);
+        }
+        if (path != null) {
+            try {
+                return Files.newInputStream(path);
+            } catch (IOException e) {
+                throw new RuntimeException("Error while loading XML file: " + path, e);
+            }
+        }
+        return null;
     }
 
     public void setVeriniceXml(byte[] veriniceXml) {
@@ -82,7 +114,7 @@ public class PureXml implements IVeriniceArchive {
     @Override
     public String getSourceId() {
         if (sourceId == null) {
-            unmarshal();
+            readMetadata();
         }
         return sourceId;
     }
@@ -108,7 +140,7 @@ public class PureXml implements IVeriniceArchive {
     @Override
     public SyncMapping getSyncMapping() {
         if (syncMapping == null) {
-            unmarshal();
+            readMetadata();
         }
         return syncMapping;
     }
@@ -123,6 +155,39 @@ public class PureXml implements IVeriniceArchive {
         sourceId = syncRequest.getSourceId();
         syncData = syncRequest.getSyncData();
         syncMapping = syncRequest.getSyncMapping();
+        syncVnaSchemaVersion = syncRequest.getSyncVnaSchemaVersion();
+        metadataRead = true;
+    }
+
+    /**
+     * Reads source-id, mapping and schema version and skips the sync data.
+     */
+    private void readMetadata() {
+        if (syncRequest != null || metadataRead) {
+            return;
+        }
+        try (InputStream xml = getVeriniceXml()) {
+            new SyncRequestStreamReader(xml).readMetadata(new SyncRequestStreamReader.Handler() {
+                @Override
+                public void startSyncRequest(String id) {
+                    sourceId = id;
+                }
+
+                @Override
+                public void syncMapping(SyncMapping mapping) {
+                    syncMapping = mapping;
+                }
+
+                @Override
+                public void syncVnaSchemaVersion(SyncVnaSchemaVersion version) {
+                    syncVnaSchemaVersion = version;
+                }
+            });
+            metadataRead = true;
+        } catch (IOException | XMLStreamException | CommandException e) {
+            LOG.error("Error while reading verinice XML", e);
+            throw new VeriniceArchiveNotValidException(e);
+        }
     }
 
     /*
@@ -174,12 +239,12 @@ public class PureXml implements IVeriniceArchive {
     @Override
     public boolean isCompatible(VnaSchemaVersion vnaSchemaVersion) {
 
-        if (syncRequest == null) {
-            unmarshal();
+        if (syncRequest != null) {
+            syncVnaSchemaVersion = syncRequest.getSyncVnaSchemaVersion();
+        } else {
+            readMetadata();
         }
 
-        syncVnaSchemaVersion = syncRequest.getSyncVnaSchemaVersion();
-
         // verinice versions which are older than 1.13 does not export schema
         // information. In order to support imports from older verinice versions
         // we skip the schema check.
@@ -20,6 +20,8 @@
 package sernet.verinice.service.tree;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -27,6 +29,7 @@ import java.util.Set;
 import org.apache.log4j.Logger;
 
 import sernet.gs.service.RetrieveInfo;
+import sernet.gs.service.Retriever;
 import sernet.hui.common.VeriniceContext;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.ICommandService;
@@ -35,6 +38,8 @@ import sernet.verinice.model.bsi.NullModel;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.model.common.ElementFilter;
 import sernet.verinice.service.commands.LoadTreeItem;
+import sernet.verinice.service.commands.LoadTreeNodes;
+import sernet.verinice.service.commands.RetrieveCnATreeElement;
 
 /**
  * ElementManager manages domain objects ({@link CnATreeElement}) for trees in
@@ -49,14 +54,46 @@ import sernet.verinice.service.commands.LoadTreeItem;
  * element is not cached already it's loaded from the backend by command
  * {@link LoadTreeItem}
  * 
+ * The RCP views still work on complete elements: {@link #getChildren(CnATreeElement)}
+ * loads the children with their properties and grandchildren and the
+ * {@link ElementCache} keeps the complete elements. Filters and handlers of
+ * these views (e.g. HideEmptyFilter, DeleteHandler, PasteService) read the
+ * children sets of the tree elements, so the views can not switch to
+ * {@link TreeNode}s without changing them as well.
+ * 
+ * The web tree (TreeBean) only shows the title and icon of elements, it loads
+ * the children as {@link TreeNode}s with
+ * {@link #getChildNodes(Integer, int, int)}. The nodes are cached by their
+ * parent. The complete element of a node is loaded by
+ * {@link #getElement(TreeNode)} when it is needed.
+ * 
  * @author Daniel Murygin <dm[at]sernet[dot]de>
  */
 public class ElementManager {
 
     private static final Logger LOG = Logger.getLogger(ElementManager.class);
 
+    /**
+     * The number of children loaded at once by
+     * {@link #getNumberOfChildNodes(Integer)}
+     */
+    public static final int DEFAULT_PAGE_SIZE = 500;
+
+    // Maximal number of parents whose child nodes are cached
+    private static final int MAX_PARENTS_IN_NODE_CACHE = 1000;
+
     private ElementCache cache;
 
+    private final Map<Integer, ChildNodes> nodeCache = Collections
+            .synchronizedMap(new LinkedHashMap<Integer, ChildNodes>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, ChildNodes> eldest) {
+                    return size() > MAX_PARENTS_IN_NODE_CACHE;
+                }
+            });
+
     private List<IParameter> paramerterList;
 
     private ICommandService commandService;
@@ -105,6 +142,106 @@ public class ElementManager {
         }
     }
 
+    /**
+     * Returns a page of the children of an element as {@link TreeNode}s. The
+     * children are ordered by their database ids.
+     * 
+     * Loaded nodes are cached. Only the nodes which are not cached already
+     * are loaded from the backend by command {@link LoadTreeNodes}. This
+     * method is used by the web tree, the RCP views load the children with
+     * {@link #getChildren(CnATreeElement)}.
+     * 
+     * @param parentId
+     *            The database id of the parent
+     * @param firstResult
+     *            The index of the first child which is returned
+     * @param maxResults
+     *            The maximum number of children which are returned, 0 or
+     *            less for all children
+     * @return The nodes of the children
+     */
+    public List<TreeNode> getChildNodes(Integer parentId, int firstResult, int maxResults) {
+        try {
+            int end = (maxResults > 0) ? firstResult + maxResults : Integer.MAX_VALUE;
+            ChildNodes childNodes = nodeCache.get(parentId);
+            if (childNodes == null || !childNodes.contains(end)) {
+                childNodes = loadChildNodes(parentId, childNodes, end);
+            }
+            return childNodes.getNodes(firstResult, end);
+        } catch (RuntimeException re) {
+            LOG.error("RuntimeException while getting child nodes", re);
+            throw re;
+        } catch (Exception e) {
+            LOG.error("Exception while getting child nodes", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Returns the number of children of an element. Loads the first page of
+     * the children if no nodes of the element are cached.
+     * 
+     * @param parentId
+     *            The database id of the parent
+     * @return The number of children
+     */
+    public int getNumberOfChildNodes(Integer parentId) {
+        ChildNodes childNodes = nodeCache.get(parentId);
+        if (childNodes == null) {
+            getChildNodes(parentId, 0, DEFAULT_PAGE_SIZE);
+            childNodes = nodeCache.get(parentId);
+        }
+        return (childNodes != null) ? childNodes.getTotal() : 0;
+    }
+
+    /**
+     * Returns the complete element of a node with entity and properties. The
+     * element is loaded from the backend if it is not cached.
+     * 
+     * @param node
+     *            A tree node
+     * @return The element of the node
+     */
+    public CnATreeElement getElement(TreeNode node) {
+        try {
+            CnATreeElement element = cache.getElement(node.getUuid());
+            if (element != null && Retriever.isElementInitialized(element)) {
+                return element;
+            }
+            RetrieveCnATreeElement command = new RetrieveCnATreeElement(node.getDbId(),
+                    RetrieveInfo.getPropertyInstance());
+            command = getCommandService().executeCommand(command);
+            element = command.getElement();
+            if (element != null) {
+                addToCache(element, ChildrenExist.convert(node.hasChildren()));
+            }
+            return element;
+        } catch (RuntimeException re) {
+            LOG.error("RuntimeException while getting element of node", re);
+            throw re;
+        } catch (Exception e) {
+            LOG.error("Exception while getting element of node", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private ChildNodes loadChildNodes(Integer parentId, ChildNodes cached, int end)
+            throws CommandException {
+        int from = (cached != null) ? cached.size() : 0;
+        int maxResults = (end == Integer.MAX_VALUE) ? 0 : end - from;
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Loading child nodes from database, parent id: " + parentId + ", first: "
+                    + from + ", max: " + maxResults);
+        }
+        LoadTreeNodes command = new LoadTreeNodes(parentId, from, maxResults,
+                ElementFilter.convertToMap(getParameterList()));
+        command = getCommandService().executeCommand(command);
+        ChildNodes childNodes = (cached != null) ? cached : new ChildNodes();
+        childNodes.add(command.getNodes(), command.getTotalNumberOfNodes());
+        nodeCache.put(parentId, childNodes);
+        return childNodes;
+    }
+
     /**
      * Returns true if element has children false if not.
      * 
@@ -147,6 +284,7 @@ public class ElementManager {
      */
     public void elementChanged(CnATreeElement element) {
         try {
+            removeNodes(element);
             element = replaceEntityInCache(element);
             updateParentInCache(element);
         } catch (RuntimeException re) {
@@ -167,6 +305,7 @@ public class ElementManager {
      */
     public void elementAdded(CnATreeElement element) {
         try {
+            removeNodes(element);
             addToCache(element, checkChildren(element));
             updateParentInCache(element);
         } catch (RuntimeException re) {
@@ -188,6 +327,7 @@ public class ElementManager {
      *            Removed element
      */
     public void elementRemoved(CnATreeElement element) {
+        removeNodes(element);
         cache.remove(element);
         if (LOG.isDebugEnabled()) {
             LOG.debug("Element removed from cache, uuid: " + element.getUuid());
@@ -203,6 +343,12 @@ public class ElementManager {
      *            Uuid of removed element
      */
     public void elementRemoved(String uuid) {
+        CnATreeElement element = cache.getElement(uuid);
+        if (element != null) {
+            removeNodes(element);
+        } else {
+            nodeCache.clear();
+        }
         cache.remove(uuid);
         if (LOG.isDebugEnabled()) {
             LOG.debug("Element removed from cache, uuid: " + uuid);
@@ -214,6 +360,7 @@ public class ElementManager {
      */
     public void clearCache() {
         cache.clear();
+        nodeCache.clear();
     }
 
     /**
@@ -363,6 +510,16 @@ public class ElementManager {
         return cachedElement;
     }
 
+    /**
+     * Removes the cached nodes of the element and its siblings.
+     */
+    private void removeNodes(CnATreeElement element) {
+        if (element != null) {
+            nodeCache.remove(element.getParentId());
+            nodeCache.remove(element.getDbId());
+        }
+    }
+
     private static ChildrenExist checkChildren(CnATreeElement element) {
         ChildrenExist hasChildren = ChildrenExist.UNKNOWN;
         if (element.getChildren().size() > 0) {
@@ -397,4 +554,36 @@ public class ElementManager {
 
     }
 
+    /**
+     * The child nodes of a parent loaded so far, beginning with the first
+     * child.
+     */
+    private static final class ChildNodes {
+
+        private final List<TreeNode> nodes = new ArrayList<>();
+        private int total;
+
+        private synchronized void add(List<TreeNode> page, int total) {
+            nodes.addAll(page);
+            this.total = total;
+        }
+
+        private synchronized boolean contains(int end) {
+            return nodes.size() >= Math.min(end, total);
+        }
+
+        private synchronized int size() {
+            return nodes.size();
+        }
+
+        private synchronized int getTotal() {
+            return total;
+        }
+
+        private synchronized List<TreeNode> getNodes(int from, int end) {
+            int fromIndex = Math.min(Math.max(from, 0), nodes.size());
+            return new ArrayList<>(nodes.subList(fromIndex, Math.min(end, nodes.size())));
+        }
+    }
+
 }
@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.service.tree;
+
+import java.io.Serializable;
+
+import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.model.common.CnATreeElementLabelGenerator;
+import sernet.verinice.model.iso27k.IISO27kGroup;
+
+/**
+ * A node of an element tree in a view. A node contains only the data needed
+ * to show an element in a tree: title, type, icon, scope and whether the
+ * element has children. Load the element with
+ * {@link ElementManager#getElement(TreeNode)} when the complete element is
+ * needed, e.g. to open an editor.
+ * 
+ * Nodes are loaded by command
+ * {@link sernet.verinice.service.commands.LoadTreeNodes}.
+ */
+public class TreeNode implements Serializable {
+
+    private static final long serialVersionUID = -3815043117682903420L;
+
+    private final Integer dbId;
+    private final String uuid;
+    private final String typeId;
+    private final Integer parentId;
+    private final Integer scopeId;
+    private final String title;
+    private final String iconPath;
+    private final boolean group;
+    private final boolean hasChildren;
+
+    public TreeNode(CnATreeElement element, boolean hasChildren) {
+        this.dbId = element.getDbId();
+        this.uuid = element.getUuid();
+        this.typeId = element.getTypeId();
+        this.parentId = element.getParentId();
+        this.scopeId = element.getScopeId();
+        this.title = CnATreeElementLabelGenerator.getElementTitle(element);
+        this.iconPath = element.getIconPath();
+        this.group = element instanceof IISO27kGroup;
+        this.hasChildren = hasChildren;
+    }
+
+    public Integer getDbId() {
+        return dbId;
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getTypeId() {
+        return typeId;
+    }
+
+    public Integer getParentId() {
+        return parentId;
+    }
+
+    public Integer getScopeId() {
+        return scopeId;
+    }
+
+    /**
+     * @return The label of the element generated by
+     *         {@link CnATreeElementLabelGenerator}
+     */
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * @return The path of the custom icon of the element or null
+     */
+    public String getIconPath() {
+        return iconPath;
+    }
+
+    /**
+     * @return True if the element is a group of elements
+     */
+    public boolean isGroup() {
+        return group;
+    }
+
+    public boolean hasChildren() {
+        return hasChildren;
+    }
+
+    @Override
+    public int hashCode() {
+        return (uuid == null) ? 0 : uuid.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof TreeNode)) {
+            return false;
+        }
+        TreeNode other = (TreeNode) obj;
+        return (uuid == null) ? other.uuid == null : uuid.equals(other.uuid);
+    }
+
+    @Override
+    public String toString() {
+        return "TreeNode [dbId=" + dbId + ", typeId=" + typeId + ", title=" + title + "]";
+    }
+}
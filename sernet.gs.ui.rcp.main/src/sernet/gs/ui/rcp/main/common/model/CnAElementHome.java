@@ -41,6 +41,7 @@ import sernet.gs.ui.rcp.main.service.ServiceFactory;
 import sernet.hui.common.connect.HitroUtil;
 import sernet.hui.common.connect.HuiRelation;
 import sernet.verinice.interfaces.ApplicationRoles;
+import sernet.verinice.interfaces.CommandBatch;
 import sernet.verinice.interfaces.CommandException;
 import sernet.verinice.interfaces.IAuthService;
 import sernet.verinice.interfaces.ICommandService;
@@ -117,6 +118,14 @@ public final class CnAElementHome {
         return commandService;
     }
 
+    /**
+     * Creates a batch to execute independent commands in one request to the
+     * server.
+     */
+    public CommandBatch createCommandBatch() {
+        return new CommandBatch(getCommandService());
+    }
+
     private CnAElementHome() {
         // singleton
     }
@@ -20,37 +20,75 @@ package sernet.gs.ui.rcp.main.service;
 
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.apache.log4j.Logger;
 
 import sernet.gs.ui.rcp.main.Activator;
 import sernet.gs.ui.rcp.main.common.model.CnAElementFactory;
 import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.IChangeFeedService;
 import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.model.common.ChangeLogEntry;
+import sernet.verinice.model.common.ChangeSet;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.rcp.Preferences;
 import sernet.verinice.service.commands.task.GetChangesSince;
+import sernet.verinice.service.commands.task.LoadChangedElements;
 
 /**
  * Check transaction log on server for changes and notify listeners. Should be
  * called by a timer or by an event pushed from server.
  * 
+ * If a change feed is injected the changes are requested from the
+ * {@link IChangeFeedService}. A request waits on the server until changes
+ * are published, hence changes are received without delay. Only the changed
+ * elements are loaded. A permission change contains an entry for every
+ * element whose permissions were updated, including the descendants of the
+ * element the permissions were set on. Elements which are no longer readable
+ * after a permission change are removed from the models. If the server has lost
+ * changes (e.g. after a restart) all models are reloaded.
+ * 
+ * The watcher is called every second. If the server answered without waiting
+ * because too many requests are waiting, the next request is sent after
+ * {@link #FALLBACK_INTERVAL_MILLIS}. Without a change feed the change log is
+ * checked at this interval as well. After an error the interval is doubled
+ * up to {@link #MAX_BACKOFF_MILLIS}.
+ * 
  * @author koderman[at]sernet[dot]de
  * @version $Rev$ $LastChangedDate$ $LastChangedBy$
  * 
  */
-// TODO server: implement server-side push of events (beacon service)
 public class TransactionLogWatcher {
 
     private final Logger log = Logger.getLogger(TransactionLogWatcher.class);
 
+    /** Maximum time a request for changes waits on the server */
+    private static final long MAX_WAIT_MILLIS = 20000;
+
+    /** Interval of the requests if the server does not wait for changes */
+    private static final long FALLBACK_INTERVAL_MILLIS = 15000;
+
+    /** Maximum interval of the requests after errors */
+    private static final long MAX_BACKOFF_MILLIS = 300000;
+
+    private long nextRequestMillis = 0;
+    private int failedRequests = 0;
+
     private Date lastChecked = null;
 
+    private String feedId = null;
+    private long lastSequence = -1;
+
     /** ICommandService instance is injected by Spring. */
     private ICommandService commandService;
 
+    /** IChangeFeedService instance is injected by Spring (optional). */
+    private IChangeFeedService changeFeedService;
+
     public void checkLog() {
         Activator.inheritVeriniceContextState();
 
@@ -64,6 +102,15 @@ public class TransactionLogWatcher {
             return;
         }
 
+        if (System.currentTimeMillis() < nextRequestMillis) {
+            return;
+        }
+
+        if (changeFeedService != null) {
+            checkChangeFeed();
+            return;
+        }
+
         try {
             GetChangesSince command = new GetChangesSince(lastChecked, ChangeLogEntry.STATION_ID);
             command = commandService.executeCommand(command);
@@ -82,9 +129,104 @@ public class TransactionLogWatcher {
                     process(changeLogEntry, changedElement);
                 }
             }
+            requestSucceeded(true);
+        } catch (CommandException e) {
+            requestFailed("Fehler bei Abfrage des Transaktionslogfiles.", e);
+        } catch (RuntimeException e) {
+            requestFailed("Fehler bei Abfrage des Transaktionslogfiles.", e);
+        }
+    }
 
+    private void checkChangeFeed() {
+        try {
+            ChangeSet changeSet = changeFeedService.getChanges(lastSequence,
+                    ChangeLogEntry.STATION_ID, MAX_WAIT_MILLIS);
+            boolean firstRequest = (feedId == null);
+            boolean changesLost = !firstRequest
+                    && (!feedId.equals(changeSet.getFeedId()) || !changeSet.isComplete());
+            feedId = changeSet.getFeedId();
+            lastSequence = changeSet.getSequence();
+            if (changesLost) {
+                log.info("Changes are not available on the server, reloading all models");
+                CnAElementFactory.getInstance().reloadAllModelsFromDatabase();
+            } else if (changeSet.isEmpty()) {
+                if (log.isDebugEnabled()) {
+                    log.debug("No changes");
+                }
+            } else {
+                process(changeSet.getEntries());
+            }
+            requestSucceeded(changeSet.isRejected());
         } catch (CommandException e) {
-            log.error("Fehler bei Abfrage des Transaktionslogfiles.", e);
+            requestFailed("Error while loading the changed elements.", e);
+        } catch (RuntimeException e) {
+            requestFailed("Error while requesting the changes from the server.", e);
+        }
+    }
+
+    /**
+     * @param delay
+     *            True if the next request is sent after
+     *            {@link #FALLBACK_INTERVAL_MILLIS}, false if it is sent at once
+     */
+    private void requestSucceeded(boolean delay) {
+        failedRequests = 0;
+        nextRequestMillis = delay ? System.currentTimeMillis() + FALLBACK_INTERVAL_MILLIS : 0;
+    }
+
+    /**
+     * Delays the next request, the delay is doubled with every failed request.
+     * Only the first error is logged with its stack trace.
+     */
+    private void requestFailed(String message, Exception e) {
+        failedRequests++;
+        long backoff = FALLBACK_INTERVAL_MILLIS << Math.min(failedRequests - 1, 5);
+        backoff = Math.min(backoff, MAX_BACKOFF_MILLIS);
+        nextRequestMillis = System.currentTimeMillis() + backoff;
+        if (failedRequests == 1) {
+            log.error(message, e);
+        } else if (log.isInfoEnabled()) {
+            log.info(message + " Failed requests: " + failedRequests + ", next request in "
+                    + (backoff / 1000) + " s, error: " + e.getMessage());
+        }
+    }
+
+    private void process(List<ChangeLogEntry> entries) throws CommandException {
+        Set<Integer> dbIds = new LinkedHashSet<>(entries.size());
+        for (ChangeLogEntry entry : entries) {
+            if (entry.getChange() != ChangeLogEntry.TYPE_DELETE) {
+                dbIds.add(entry.getElementId());
+            }
+        }
+        Map<Integer, CnATreeElement> changedElements = Collections.emptyMap();
+        if (!dbIds.isEmpty()) {
+            LoadChangedElements command = commandService
+                    .executeCommand(new LoadChangedElements(dbIds));
+            changedElements = command.getChangedElements();
+        }
+        for (ChangeLogEntry entry : entries) {
+            CnATreeElement changedElement = changedElements.get(entry.getElementId());
+            if (entry.getChange() == ChangeLogEntry.TYPE_PERMISSION) {
+                processPermissionChange(entry, changedElement);
+            } else if (entry.getChange() == ChangeLogEntry.TYPE_UPDATE && changedElement == null) {
+                // element is no longer readable
+                CnAElementFactory.databaseChildRemoved(entry);
+            } else {
+                process(entry, changedElement);
+            }
+        }
+    }
+
+    /**
+     * Refreshes the element of a permission change only. The element is
+     * removed from the models if it is no longer readable.
+     */
+    private void processPermissionChange(ChangeLogEntry changeLogEntry,
+            CnATreeElement changedElement) {
+        if (changedElement == null) {
+            CnAElementFactory.databaseChildRemoved(changeLogEntry);
+        } else {
+            CnAElementFactory.getModel(changedElement).databaseChildChanged(changedElement);
         }
     }
 
@@ -150,4 +292,8 @@ public class TransactionLogWatcher {
         return commandService;
     }
 
+    public void setChangeFeedService(IChangeFeedService changeFeedService) {
+        this.changeFeedService = changeFeedService;
+    }
+
 }
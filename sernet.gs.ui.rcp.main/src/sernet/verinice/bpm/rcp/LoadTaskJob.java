@@ -20,7 +20,6 @@
 package sernet.verinice.bpm.rcp;
 
 
-import java.util.Collections;
 import java.util.List;
 
 import org.apache.log4j.Logger;
@@ -31,6 +30,7 @@ import sernet.gs.ui.rcp.main.service.ServiceFactory;
 import sernet.verinice.interfaces.ActionRightIDs;
 import sernet.verinice.interfaces.bpm.ITask;
 import sernet.verinice.interfaces.bpm.ITaskParameter;
+import sernet.verinice.interfaces.bpm.TaskSortOrder;
 
 
 /**
@@ -72,13 +72,14 @@ final class LoadTaskJob extends NotifyingThread {
         }
 
 
+        // tasks are sorted by the server
+        param.setSortOrder(TaskSortOrder.NATURAL);
         if(listAllUserEnabled()){
             taskList = ServiceFactory.lookupTaskService().getTaskList(param);
         } else {
             taskList = ServiceFactory.lookupTaskService().getCurrentUserTaskList(param);
         }
 
-        Collections.sort(taskList);  
         if (LOG.isDebugEnabled()) {
             LOG.debug("Tasks loading finished.");
         }
@@ -18,7 +18,11 @@
 
 package sernet.verinice.iso27k.rcp.action;
 
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
@@ -52,6 +56,7 @@ import sernet.gs.ui.rcp.main.common.model.CnAElementFactory;
 import sernet.gs.ui.rcp.main.preferences.PreferenceConstants;
 import sernet.gs.ui.rcp.main.service.ServiceFactory;
 import sernet.verinice.interfaces.ActionRightIDs;
+import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.RightEnabledUserInteraction;
 import sernet.verinice.interfaces.encryption.EncryptionException;
 import sernet.verinice.interfaces.encryption.IEncryptionService;
@@ -61,6 +66,7 @@ import sernet.verinice.iso27k.rcp.Mutex;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.rcp.RightsEnabledActionDelegate;
 import sernet.verinice.service.commands.ExportCommand;
+import sernet.verinice.service.commands.LoadExportResult;
 
 /**
  * Eclipse ActionDelegate which is called to import XML or VNA data. Rights
@@ -165,31 +171,30 @@ public class ExportAction extends RightsEnabledActionDelegate implements IViewAc
                 internalSourceId = getSourceId();
             }
             Activator.inheritVeriniceContextState();
-            ExportCommand exportCommand;
-            if (Activator.getDefault().isStandalone() && !isEncryption()) {
-                exportCommand = new ExportCommand(new LinkedList<CnATreeElement>(getElementSet()),
-                        internalSourceId, isReImport(), getFileFormat());
-            } else {
-                exportCommand = new ExportCommand(new LinkedList<CnATreeElement>(getElementSet()),
-                        internalSourceId, isReImport(), getFileFormat());
-            }
+            ExportCommand exportCommand = new ExportCommand(
+                    new LinkedList<CnATreeElement>(getElementSet()), internalSourceId,
+                    isReImport(), getFileFormat());
+            // the server keeps the result in a file, it is loaded in chunks
+            exportCommand.setResultInFile(true);
             try {
                 boolean exportRiskAnalysis = Activator.getDefault().getPreferenceStore()
                         .getBoolean(PreferenceConstants.EXPORT_RISK_ANALYSIS);
                 exportCommand.setExportRiskAnalysis(exportRiskAnalysis);
-                exportCommand = ServiceFactory.lookupCommandService().executeCommand(exportCommand);
-                if (exportCommand.getResult() != null) {
-                    if (isEncryption()) {
-                        String salt = RandomStringUtils
-                                .random(IEncryptionService.CRYPTO_SALT_DEFAULT_LENGTH, true, true);
-                        byte[] saltBytes = salt
-                                .getBytes(IEncryptionService.CRYPTO_DEFAULT_ENCODING);
-                        byte[] cypherTextBytes = encrypt(exportCommand.getResult(), saltBytes);
-
-                        FileUtils.writeByteArrayToFile(new File(filePath), cypherTextBytes);
-                    } else {
-                        FileUtils.writeByteArrayToFile(new File(filePath),
-                                exportCommand.getResult());
+                ICommandService commandService = ServiceFactory.lookupCommandService();
+                exportCommand = commandService.executeCommand(exportCommand);
+                if (isEncryption()) {
+                    ByteArrayOutputStream result = new ByteArrayOutputStream();
+                    LoadExportResult.copyTo(commandService, exportCommand, result);
+                    String salt = RandomStringUtils
+                            .random(IEncryptionService.CRYPTO_SALT_DEFAULT_LENGTH, true, true);
+                    byte[] saltBytes = salt.getBytes(IEncryptionService.CRYPTO_DEFAULT_ENCODING);
+                    byte[] cypherTextBytes = encrypt(result.toByteArray(), saltBytes);
+
+                    FileUtils.writeByteArrayToFile(new File(filePath), cypherTextBytes);
+                } else {
+                    try (OutputStream out = new BufferedOutputStream(
+                            new FileOutputStream(filePath))) {
+                        LoadExportResult.copyTo(commandService, exportCommand, out);
                     }
                 }
                 updateModel(exportCommand.getChangedElements());
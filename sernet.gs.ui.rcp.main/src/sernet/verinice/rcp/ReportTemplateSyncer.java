@@ -34,6 +34,7 @@ import org.eclipse.core.runtime.Status;
 
 import sernet.gs.ui.rcp.main.Activator;
 import sernet.gs.ui.rcp.main.CnAWorkspace;
+import sernet.gs.ui.rcp.main.ServiceComponent;
 import sernet.gs.ui.rcp.main.common.model.CnAElementFactory;
 import sernet.gs.ui.rcp.main.common.model.IModelLoadListener;
 import sernet.gs.ui.rcp.main.reports.ReportDepositCache;
@@ -105,6 +106,17 @@ public class ReportTemplateSyncer extends WorkspaceJob implements IModelLoadList
         }
     }
 
+    /**
+     * Removes the parsed design of a report template from the cache of the
+     * report service.
+     */
+    public static void invalidateReportTemplate(String filename) {
+        ServiceComponent serviceComponent = ServiceComponent.getDefault();
+        if (serviceComponent != null && serviceComponent.getReportService() != null) {
+            serviceComponent.getReportService().invalidateReportTemplate(filename);
+        }
+    }
+
     private static void startSync() {
         Activator.inheritVeriniceContextState();
 
@@ -177,6 +189,7 @@ public class ReportTemplateSyncer extends WorkspaceJob implements IModelLoadList
         File directory = CnAWorkspace.getInstance().getRemoteReportTemplateDir();
         File rptdesignTemplate = new File(directory, filename);
         FileUtils.writeByteArrayToFile(rptdesignTemplate, content);
+        invalidateReportTemplate(filename);
         if (LOG.isDebugEnabled()) {
             LOG.debug("Template:\t" + filename + " written to:\t"
                     + rptdesignTemplate.getAbsolutePath());
@@ -190,6 +203,7 @@ public class ReportTemplateSyncer extends WorkspaceJob implements IModelLoadList
 
         if (file.exists()) {
             file.delete();
+            invalidateReportTemplate(fileName);
             if (LOG.isDebugEnabled()) {
                 LOG.debug("TemplateFile:\t" + file.getAbsolutePath() + "\tdeleted");
             }
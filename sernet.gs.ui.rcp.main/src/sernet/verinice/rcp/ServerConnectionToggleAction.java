@@ -19,14 +19,16 @@
  ******************************************************************************/
 package sernet.verinice.rcp;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 
-import org.apache.commons.io.FileUtils;
 import org.apache.log4j.Logger;
 import org.eclipse.core.resources.WorkspaceJob;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -47,10 +49,12 @@ import sernet.gs.ui.rcp.main.preferences.PreferenceConstants;
 import sernet.gs.ui.rcp.main.service.ServiceFactory;
 import sernet.verinice.interfaces.ActionRightIDs;
 import sernet.verinice.interfaces.CommandException;
+import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.iso27k.rcp.JobScheduler;
 import sernet.verinice.iso27k.rcp.Mutex;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.service.commands.ExportCommand;
+import sernet.verinice.service.commands.LoadExportResult;
 import sernet.verinice.service.commands.SyncParameter;
 import sernet.verinice.service.sync.VeriniceArchive;
 
@@ -149,8 +153,12 @@ public class ServerConnectionToggleAction extends RightsEnabledAction {
         }
         Activator.inheritVeriniceContextState();
         ExportCommand exportCommand = new ExportCommand(elementList, sourceId, true, SyncParameter.EXPORT_FORMAT_VERINICE_ARCHIV);
-        exportCommand = ServiceFactory.lookupCommandService().executeCommand(exportCommand);
-        FileUtils.writeByteArrayToFile(new File(createFilePath(i)), exportCommand.getResult());      
+        exportCommand.setResultInFile(true);
+        ICommandService commandService = ServiceFactory.lookupCommandService();
+        exportCommand = commandService.executeCommand(exportCommand);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(createFilePath(i)))) {
+            LoadExportResult.copyTo(commandService, exportCommand, out);
+        }
     }
 
     /**
@@ -45,8 +45,6 @@ import sernet.verinice.service.csv.CsvExport;
 import sernet.verinice.service.csv.ICsvExport;
 import sernet.verinice.service.linktable.ILinkTableConfiguration;
 import sernet.verinice.service.linktable.LinkTableService;
-import sernet.verinice.service.linktable.LinkedTableCreator;
-import sernet.verinice.service.linktable.generator.GraphLinkedTableCreator;
 import sernet.verinice.service.linktable.vlt.VeriniceLinkTable;
 import sernet.verinice.service.linktable.vlt.VeriniceLinkTableIO;
 
@@ -64,7 +62,6 @@ public class ExportLinkTableHandler extends RightsEnabledHandler {
     private boolean fromEditor;
     private VeriniceLinkTable veriniceLinkTable;
     private String csvFilePath;
-    private LinkedTableCreator linkedTableCreator;
 
     public ExportLinkTableHandler() {
         this(false, null);
@@ -75,8 +72,6 @@ public class ExportLinkTableHandler extends RightsEnabledHandler {
         this.fromEditor = fromEditor;
         this.veriniceLinkTable = veriniceLinkTable;
         this.linkTableService = new LinkTableService();
-        linkedTableCreator = new GraphLinkedTableCreator();
-        this.linkTableService.setLinkTableCreator(linkedTableCreator);
         this.csvExportHandler.setCharset(PreferenceConstants.getCharsetPreference(PreferenceConstants.VLT_CSV_EXPORT_ENCODING));
     }
 
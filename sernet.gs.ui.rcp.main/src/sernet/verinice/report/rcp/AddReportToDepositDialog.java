@@ -63,6 +63,7 @@ import sernet.verinice.interfaces.ReportTemplateServiceException;
 import sernet.verinice.model.report.FileMetaData;
 import sernet.verinice.model.report.ReportTemplateMetaData;
 import sernet.verinice.model.report.ReportTemplateMetaData.ReportContext;
+import sernet.verinice.rcp.ReportTemplateSyncer;
 
 /**
  *
@@ -349,6 +350,8 @@ public class AddReportToDepositDialog extends TitleAreaDialog {
                         .readFileToByteArray(new File(getSelectedDesginFile()));
                 getReportService().update(editTemplate, rptDesignFile, newMetaData,
                         Locale.getDefault());
+                ReportTemplateSyncer.invalidateReportTemplate(editTemplate.getFilename());
+                ReportTemplateSyncer.invalidateReportTemplate(newMetaData.getFilename());
             } else {
                 getReportService().update(newMetaData, Locale.getDefault());
             }
@@ -369,6 +372,7 @@ public class AddReportToDepositDialog extends TitleAreaDialog {
                     getReportOutputName(), getReportOutputFormats(), true,
                     allowMultipleRootObjects.getSelection(), getContext());
             getReportService().add(metaData, rptDesignFile, Locale.getDefault());
+            ReportTemplateSyncer.invalidateReportTemplate(metaData.getFilename());
         } catch (ReportDepositException e) {
             LOG.error("Error while adding new report template file", e); //$NON-NLS-1$
             ExceptionUtil.log(e, Messages.AddReportToDepositDialog_3);
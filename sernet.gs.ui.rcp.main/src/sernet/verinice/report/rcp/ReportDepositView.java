@@ -516,6 +516,7 @@ public class ReportDepositView extends RightsEnabledView {
             try {
                 ServiceFactory.lookupReportDepositService().remove(sel,
                         Locale.getDefault());
+                ReportTemplateSyncer.invalidateReportTemplate(sel.getFilename());
             } catch (ReportDepositException e) {
                 ExceptionUtil.log(e, "Error deleting Reporttemplate:\t" + sel.getOutputname());
             }
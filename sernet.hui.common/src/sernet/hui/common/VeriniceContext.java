@@ -150,8 +150,16 @@ public final class VeriniceContext {
 
     public static final String GRAPH_SERVICE = "graphService";
 
+    public static final String CHART_AGGREGATE_STORE = "chartAggregateStore";
+
+    public static final String TREE_TOPOLOGY_INDEX = "treeTopologyIndex";
+
+    public static final String PERMISSION_CACHE = "permissionCache";
+
     public static final String COUNT_SERVICE = "countService";
 
+    public static final String ATTACHMENT_STORE = "attachmentStore";
+
     public static final String SESSION_FACTORY = "sessionFactory";
 
     private static String serverUrl = null;
@@ -108,6 +108,18 @@ public class Entity implements ISelectOptionHandler, ITypedElement, Serializable
         this.entityType = entType;
     }
 
+    /**
+     * Creates an entity without properties and without generating a new
+     * uuid. Used by subclasses which keep the properties of a loaded entity
+     * in another form.
+     */
+    protected Entity(Integer dbId, String uuid, String entityType) {
+        this.dbId = dbId;
+        this.uuid = uuid;
+        this.entityType = entityType;
+        this.typedPropertyLists = Collections.emptyMap();
+    }
+
     /**
      * Sets the default values of properties as defined in configuration file
      * SNCA.xml
@@ -185,15 +197,7 @@ public class Entity implements ISelectOptionHandler, ITypedElement, Serializable
                 if (!firstProperty) {
                     sb.append(", ");
                 }
-                String value;
-                if (propertyType.isSingleSelect() || propertyType.isMultiselect()) {
-                    value = getValueOfOptionProperty(propertyType, property);
-                } else if (propertyType.isDate()) {
-                    value = getValueOfDateProperty(property);
-                } else {
-                    value = property.getPropertyValue();
-                }
-
+                String value = formatPropertyValue(propertyType, property.getPropertyValue());
                 if (value != null) {
                     sb.append(value);
                 }
@@ -285,8 +289,23 @@ public class Entity implements ISelectOptionHandler, ITypedElement, Serializable
         return sb.toString();
     }
 
-    private String getValueOfOptionProperty(PropertyType type, Property property) {
-        PropertyOption option = type.getOption(property.getPropertyValue());
+    /**
+     * Returns the value of a single property as it is returned by
+     * {@link #getPropertyValue(String)}: the name of the option for option
+     * properties, the formatted date for date properties and the raw value
+     * for all other properties.
+     */
+    static String formatPropertyValue(PropertyType type, String propertyValue) {
+        if (type.isSingleSelect() || type.isMultiselect()) {
+            return getValueOfOptionProperty(type, propertyValue);
+        } else if (type.isDate()) {
+            return getValueOfDateProperty(propertyValue);
+        }
+        return propertyValue;
+    }
+
+    private static String getValueOfOptionProperty(PropertyType type, String propertyValue) {
+        PropertyOption option = type.getOption(propertyValue);
         return (option != null) ? option.getName() : "";
     }
 
@@ -313,9 +332,8 @@ public class Entity implements ISelectOptionHandler, ITypedElement, Serializable
         }
     }
 
-    private String getValueOfDateProperty(Property property) {
+    private static String getValueOfDateProperty(String propertyValue) {
         String date = null;
-        String propertyValue = property.getPropertyValue();
         if (propertyValue == null) {
             return date;
         }
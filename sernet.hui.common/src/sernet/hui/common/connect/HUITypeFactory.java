@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -75,6 +76,11 @@ public class HUITypeFactory {
     private static final String HUI_PROPERTY_GROUP = "huipropertygroup";
     private static final String HUI_RELATION = "huirelation";
 
+    // key: property type id, value: index of the id in propertyTypeIds
+    private static final Map<String, Integer> PROPERTY_TYPE_INDEXES = new ConcurrentHashMap<>();
+    private static volatile String[] propertyTypeIds = new String[1024];
+    private static int numberOfPropertyTypeIds = 0;
+
     private Document doc;
 
     private Set<String> allTags = new HashSet<>();
@@ -192,6 +198,45 @@ public class HUITypeFactory {
         return (HUITypeFactory) VeriniceContext.get(VeriniceContext.HUI_TYPE_FACTORY);
     }
 
+    /**
+     * Returns a small int which stands for a property type id in this JVM.
+     * The same id always returns the same int. The ids of the property types
+     * defined in SNCA.xml are interned when the file is read, other ids are
+     * interned when they are passed to this method for the first time.
+     *
+     * The ints are not stable across JVMs, do not persist or transfer them.
+     *
+     * @see #getInternedPropertyTypeId(int)
+     */
+    public static int internPropertyTypeId(String propertyTypeId) {
+        Integer index = PROPERTY_TYPE_INDEXES.get(propertyTypeId);
+        if (index != null) {
+            return index;
+        }
+        synchronized (PROPERTY_TYPE_INDEXES) {
+            index = PROPERTY_TYPE_INDEXES.get(propertyTypeId);
+            if (index == null) {
+                String[] ids = propertyTypeIds;
+                if (numberOfPropertyTypeIds == ids.length) {
+                    ids = Arrays.copyOf(ids, ids.length * 2);
+                }
+                ids[numberOfPropertyTypeIds] = propertyTypeId;
+                propertyTypeIds = ids;
+                index = numberOfPropertyTypeIds++;
+                PROPERTY_TYPE_INDEXES.put(propertyTypeId, index);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the property type id for an int returned by
+     * {@link #internPropertyTypeId(String)}.
+     */
+    public static String getInternedPropertyTypeId(int index) {
+        return propertyTypeIds[index];
+    }
+
     private void readAllEntities() {
         NodeList entities = doc.getElementsByTagName("huientity");
         int numberOfEntities = entities.getLength();
@@ -326,6 +371,7 @@ public class HUITypeFactory {
 
         PropertyType propObj = new PropertyType();
         propObj.setId(id);
+        internPropertyTypeId(id);
 
         // name and tooltip are loaded from SNCAMessages (resource bundles)
         // key is: [id]_name, [id]_tooltip
@@ -207,7 +207,7 @@ public class Property implements Serializable, ITypedElement {
                 + propertyValue + "]";
     }
 
-    private static String nfcNormalize(String value) {
+    static String nfcNormalize(String value) {
         if (value != null && !value.isEmpty()) {
             return Normalizer.normalize(value, Form.NFC);
         }
@@ -0,0 +1,523 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.hui.common.connect;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import sernet.hui.common.multiselectionlist.IMLPropertyOption;
+import sernet.hui.common.multiselectionlist.IMLPropertyType;
+
+/**
+ * A compact and immutable view of a loaded {@link Entity} for code which only
+ * reads property values, e.g. the search index, link tables and reports.
+ *
+ * The properties are not kept as {@link PropertyList} and {@link Property}
+ * objects. An instance holds two arrays: the property type ids interned by
+ * {@link HUITypeFactory#internPropertyTypeId(String)} in ascending order and
+ * the values of the properties in the same order. The values of a multi value
+ * property are stored one after another.
+ *
+ * {@link #getPropertyValue(String)}, {@link #getRawPropertyValue(String)},
+ * {@link #getNumericValue(String)} and the other read methods return the same
+ * values as the methods of a loaded {@link Entity}. Methods returning
+ * {@link Property} objects create them on every call. All methods which
+ * change the entity throw an {@link UnsupportedOperationException}. The
+ * license attributes of the properties are not part of this view.
+ *
+ * Instances are not mapped by Hibernate. Set them only to elements which are
+ * not attached to a session and which are never saved.
+ */
+@SuppressWarnings("serial")
+public final class ReadOnlyEntity extends Entity {
+
+    private static final Logger LOG = Logger.getLogger(ReadOnlyEntity.class);
+
+    private static final String READ_ONLY = "Entity is read-only: ";
+
+    // interned property type ids in ascending order, one for each value
+    private transient int[] propertyTypes;
+
+    // the values of the properties sorted by property type and index
+    private String[] values;
+
+    private ReadOnlyEntity(Builder builder) {
+        super(builder.dbId, builder.uuid, builder.entityType);
+        super.setCreatedBy(builder.createdBy);
+        super.setCreatedAt(builder.createdAt);
+        super.setChangedBy(builder.changedBy);
+        super.setChangedAt(builder.changedAt);
+        builder.sort();
+        this.propertyTypes = Arrays.copyOf(builder.types, builder.size);
+        this.values = new String[builder.size];
+        for (int i = 0; i < builder.size; i++) {
+            values[i] = Property.nfcNormalize(builder.values[i]);
+        }
+    }
+
+    /**
+     * Returns a read-only copy of a loaded entity.
+     */
+    public static ReadOnlyEntity copyOf(Entity entity) {
+        Builder builder = new Builder(entity.getDbId(), entity.getUuid(), entity.getEntityType())
+                .setCreated(entity.getCreatedBy(), entity.getCreatedAt())
+                .setChanged(entity.getChangedBy(), entity.getChangedAt());
+        for (Map.Entry<String, PropertyList> entry : entity.getTypedPropertyLists().entrySet()) {
+            if (entry.getValue() == null || entry.getValue().getProperties() == null) {
+                continue;
+            }
+            int index = 0;
+            for (Property property : entry.getValue().getProperties()) {
+                builder.addProperty(entry.getKey(), index++, property.getPropertyValue());
+            }
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String getPropertyValue(String propertyTypeId) {
+        PropertyType propertyType = HUITypeFactory.getInstance().getPropertyType(getEntityType(),
+                propertyTypeId);
+        if (propertyType == null) {
+            return "";
+        }
+        int first = indexOf(propertyTypeId);
+        if (first < 0) {
+            return "";
+        }
+        if (propertyType.isReference()) {
+            return getValueOfReferenceProperty(propertyType, first);
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = first; i < end(first); i++) {
+            if (i > first) {
+                sb.append(", ");
+            }
+            String value = formatPropertyValue(propertyType, values[i]);
+            if (value != null) {
+                sb.append(value);
+            }
+        }
+        return sb.toString();
+    }
+
+    private String getValueOfReferenceProperty(PropertyType propertyType, int first) {
+        StringBuilder sb = new StringBuilder();
+        for (IMLPropertyOption referencedEntity : propertyType
+                .getReferencedEntities(createProperties(first))) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(referencedEntity.getName());
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String getRawPropertyValue(String propertyTypeId) {
+        int first = indexOf(propertyTypeId);
+        if (first < 0) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = first; i < end(first); i++) {
+            if (i > first) {
+                sb.append(",");
+            }
+            if (values[i] != null) {
+                sb.append(values[i]);
+            }
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public int getInt(String propertyTypeId) {
+        int first = indexOf(propertyTypeId);
+        if (first < 0) {
+            return Property.UNDEF;
+        }
+        PropertyType type = HUITypeFactory.getInstance().getPropertyType(getEntityType(),
+                propertyTypeId);
+        if (type.isNumericSelect()) {
+            try {
+                return Integer.parseInt(values[first]);
+            } catch (NumberFormatException e) {
+                return Property.UNDEF;
+            }
+        }
+        return Property.UNDEF;
+    }
+
+    @Override
+    public String getOptionValue(String propertyTypeId) {
+        int first = indexOf(propertyTypeId);
+        if (first < 0) {
+            return null;
+        }
+        if (end(first) - first > 1) {
+            LOG.warn("Property list " + propertyTypeId
+                    + " contains more than entry. Can not determine option value. Entity id is: "
+                    + getDbId());
+            return null;
+        }
+        PropertyType type = HUITypeFactory.getInstance().getPropertyType(getEntityType(),
+                propertyTypeId);
+        if (!type.isSingleSelect()) {
+            LOG.warn("Property " + propertyTypeId + " is not of type "
+                    + PropertyType.INPUT_SINGLEOPTION
+                    + ". Can not determine option value. Entity id is: " + getDbId());
+            return null;
+        }
+        return values[first];
+    }
+
+    @Override
+    public boolean isSelected(String optionId) {
+        for (String value : values) {
+            if (value != null && value.equals(optionId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isSelected(String propertyTypeId, String optionId) {
+        int first = indexOf(propertyTypeId);
+        if (first < 0) {
+            return false;
+        }
+        for (int i = first; i < end(first); i++) {
+            if (values[i] != null && values[i].equals(optionId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a new {@link PropertyList} with new {@link Property} objects.
+     */
+    @Override
+    public PropertyList getProperties(String propertyTypeId) {
+        int first = indexOf(propertyTypeId);
+        if (first < 0) {
+            return new PropertyList();
+        }
+        return createPropertyList(first);
+    }
+
+    /**
+     * Returns a new unmodifiable map with new {@link PropertyList} and
+     * {@link Property} objects.
+     */
+    @Override
+    public Map<String, PropertyList> getTypedPropertyLists() {
+        Map<String, PropertyList> typedPropertyLists = new LinkedHashMap<>();
+        for (int first = 0; first < values.length; first = end(first)) {
+            typedPropertyLists.put(HUITypeFactory.getInternedPropertyTypeId(propertyTypes[first]),
+                    createPropertyList(first));
+        }
+        return Collections.unmodifiableMap(typedPropertyLists);
+    }
+
+    private PropertyList createPropertyList(int first) {
+        List<Property> properties = createProperties(first);
+        PropertyList propertyList = new PropertyList(properties.size());
+        propertyList.setEntityId(getDbId());
+        propertyList.setProperties(properties);
+        return propertyList;
+    }
+
+    private List<Property> createProperties(int first) {
+        String propertyTypeId = HUITypeFactory.getInternedPropertyTypeId(propertyTypes[first]);
+        List<Property> properties = new ArrayList<>(end(first) - first);
+        for (int i = first; i < end(first); i++) {
+            Property property = new Property(this);
+            property.setPropertyType(propertyTypeId);
+            property.setPropertyValue(values[i], false);
+            properties.add(property);
+        }
+        return properties;
+    }
+
+    /**
+     * Returns the position of the first value of a property type or -1 if
+     * there is no value.
+     */
+    private int indexOf(String propertyTypeId) {
+        if (propertyTypeId == null) {
+            return -1;
+        }
+        int propertyType = HUITypeFactory.internPropertyTypeId(propertyTypeId);
+        int i = Arrays.binarySearch(propertyTypes, propertyType);
+        while (i > 0 && propertyTypes[i - 1] == propertyType) {
+            i--;
+        }
+        return (i < 0) ? -1 : i;
+    }
+
+    /**
+     * Returns the position after the last value of the property type at
+     * position first.
+     */
+    private int end(int first) {
+        int i = first + 1;
+        while (i < propertyTypes.length && propertyTypes[i] == propertyTypes[first]) {
+            i++;
+        }
+        return i;
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        // interned ids are not stable across JVMs
+        String[] propertyTypeIds = new String[propertyTypes.length];
+        for (int i = 0; i < propertyTypes.length; i++) {
+            propertyTypeIds[i] = HUITypeFactory.getInternedPropertyTypeId(propertyTypes[i]);
+        }
+        out.writeObject(propertyTypeIds);
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        String[] propertyTypeIds = (String[]) in.readObject();
+        Builder builder = new Builder(getDbId(), getUuid(), getEntityType());
+        for (int i = 0; i < propertyTypeIds.length; i++) {
+            builder.addProperty(propertyTypeIds[i], i, values[i]);
+        }
+        // the order of the interned ids may differ in this JVM
+        builder.sort();
+        propertyTypes = Arrays.copyOf(builder.types, builder.size);
+        values = Arrays.copyOf(builder.values, builder.size);
+    }
+
+    @Override
+    public void initDefaultValues(HUITypeFactory huiTypeFactory) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void setPropertyValue(String propertyTypeId, String value) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void setSimpleValue(PropertyType type, String value) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void setNumericValue(PropertyType type, int value) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void copyEntity(Entity source) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void copyEntity(Entity source, List<String> propertyTypeBlacklist) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public boolean importProperties(HUITypeFactory huiTypeFactory, String propertyTypeId,
+            List<String> foreignProperties, List<Boolean> foreignLimitedLicense,
+            List<String> foreignContentId, boolean licenseManagement,
+            Collection<String> propertiesRequiringExactMatches) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public Property createNewProperty(PropertyType propertyType, String newValue) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public Property createNewProperty(String propertyTypeId, String propertyValue) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void remove(PropertyType propertyType, String propertyValue) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    protected List<Property> initializePropertyListForImport(String propertyTypeId) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void select(IMLPropertyType type, IMLPropertyOption opt) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void unselect(IMLPropertyType type, IMLPropertyOption opt) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void setDbId(Integer dbId) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void setEntityType(String entityType) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void setUuid(String uuid) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void setTypedPropertyLists(Map<String, PropertyList> typedPropertyLists) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void setCreatedBy(String createdBy) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void setCreatedAt(Date createdAt) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void setChangedBy(String changedBy) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void setChangedAt(Date changedAt) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void trackCreation(String userName) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    @Override
+    public void trackChange(String userName) {
+        throw new UnsupportedOperationException(READ_ONLY + this);
+    }
+
+    /**
+     * Collects the properties of an entity and creates a
+     * {@link ReadOnlyEntity}. The properties can be added in any order.
+     */
+    public static final class Builder {
+
+        private final Integer dbId;
+        private final String uuid;
+        private final String entityType;
+        private String createdBy;
+        private Date createdAt;
+        private String changedBy;
+        private Date changedAt;
+
+        private int size = 0;
+        private int[] types = new int[16];
+        private int[] indexes = new int[16];
+        private String[] values = new String[16];
+
+        public Builder(Integer dbId, String uuid, String entityType) {
+            this.dbId = dbId;
+            this.uuid = uuid;
+            this.entityType = entityType;
+        }
+
+        public Builder setCreated(String createdBy, Date createdAt) {
+            this.createdBy = createdBy;
+            this.createdAt = createdAt;
+            return this;
+        }
+
+        public Builder setChanged(String changedBy, Date changedAt) {
+            this.changedBy = changedBy;
+            this.changedAt = changedAt;
+            return this;
+        }
+
+        /**
+         * @param index
+         *            The position of the value in the values of the property
+         *            type
+         */
+        public Builder addProperty(String propertyTypeId, int index, String value) {
+            if (size == types.length) {
+                types = Arrays.copyOf(types, size * 2);
+                indexes = Arrays.copyOf(indexes, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            types[size] = HUITypeFactory.internPropertyTypeId(propertyTypeId);
+            indexes[size] = index;
+            values[size] = value;
+            size++;
+            return this;
+        }
+
+        public ReadOnlyEntity build() {
+            return new ReadOnlyEntity(this);
+        }
+
+        /**
+         * Sorts the properties by property type and index, the properties of
+         * an entity are few and mostly sorted.
+         */
+        private void sort() {
+            for (int i = 1; i < size; i++) {
+                int type = types[i];
+                int index = indexes[i];
+                String value = values[i];
+                int j = i - 1;
+                while (j >= 0 && (types[j] > type || (types[j] == type && indexes[j] > index))) {
+                    types[j + 1] = types[j];
+                    indexes[j + 1] = indexes[j];
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                types[j + 1] = type;
+                indexes[j + 1] = index;
+                values[j + 1] = value;
+            }
+        }
+    }
+}
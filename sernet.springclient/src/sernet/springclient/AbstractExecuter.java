@@ -1,16 +1,46 @@
 package sernet.springclient;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.commons.httpclient.Header;
 import org.apache.commons.httpclient.HostConfiguration;
 import org.apache.commons.httpclient.HttpClient;
 import org.apache.commons.httpclient.MultiThreadedHttpConnectionManager;
 import org.apache.commons.httpclient.UsernamePasswordCredentials;
 import org.apache.commons.httpclient.auth.AuthScope;
+import org.apache.commons.httpclient.methods.PostMethod;
+import org.apache.commons.httpclient.methods.RequestEntity;
 import org.apache.log4j.Logger;
 import org.springframework.remoting.httpinvoker.CommonsHttpInvokerRequestExecutor;
+import org.springframework.remoting.httpinvoker.HttpInvokerClientConfiguration;
+import org.springframework.remoting.support.RemoteInvocation;
+import org.springframework.remoting.support.RemoteInvocationResult;
 
+import sernet.gs.service.TransportStatistics;
+import sernet.gs.service.TransportStatistics.CountingInputStream;
+import sernet.gs.service.TransportStatistics.CountingOutputStream;
 import sernet.verinice.interfaces.IVeriniceConstants;
 import sernet.verinice.service.auth.KerberosStatusService;
 
+/**
+ * Base class of the executers which send the remote invocations to the
+ * verinice server.
+ *
+ * Responses are compressed with gzip by the server. Requests are compressed
+ * after the server announced with header
+ * {@link TransportStatistics#HEADER_ACCEPT_REQUEST_ENCODING} that it reads
+ * compressed requests, the first request to a server is never compressed.
+ * The serialized request is sent without copying it to another buffer.
+ *
+ * The sizes and the (de)serialization times of the requests and responses
+ * are measured per command class.
+ */
 public abstract class AbstractExecuter extends CommonsHttpInvokerRequestExecutor {
 
     public static final int DEFAULT_CONNECTION_TIMEOUT_MILLISECONDS = 1000;
@@ -24,6 +54,15 @@ public abstract class AbstractExecuter extends CommonsHttpInvokerRequestExecutor
 
     private static final Logger LOG = Logger.getLogger(AbstractExecuter.class);
 
+    private static final int BUFFER_SIZE = 8192;
+
+    private volatile boolean serverAcceptsGzip = false;
+
+    private final ThreadLocal<Exchange> exchange = new ThreadLocal<>();
+
+    private final TransportStatistics requestStatistics = new TransportStatistics();
+    private final TransportStatistics responseStatistics = new TransportStatistics();
+
     public AbstractExecuter() {
         super();
         configureConnectionManager();
@@ -95,6 +134,126 @@ public abstract class AbstractExecuter extends CommonsHttpInvokerRequestExecutor
         }
     }
 
+    @Override
+    protected ByteArrayOutputStream getByteArrayOutputStream(RemoteInvocation invocation)
+            throws IOException {
+        Exchange current = new Exchange(
+                TransportStatistics.getKey(invocation.getMethodName(), invocation.getArguments()),
+                serverAcceptsGzip);
+        exchange.set(current);
+        long start = System.nanoTime();
+        ByteArrayOutputStream baos = super.getByteArrayOutputStream(invocation);
+        long nanos = System.nanoTime() - start;
+        long payloadBytes = (current.requestPayload != null) ? current.requestPayload.getCount()
+                : baos.size();
+        requestStatistics.add(current.key, payloadBytes, baos.size(), nanos);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Request "
+                    + TransportStatistics.format(current.key, payloadBytes, baos.size(), nanos));
+        }
+        return baos;
+    }
+
+    @Override
+    protected OutputStream decorateOutputStream(OutputStream os) throws IOException {
+        Exchange current = exchange.get();
+        if (current == null) {
+            return os;
+        }
+        OutputStream out = current.compressRequest ? new FastGZIPOutputStream(os) : os;
+        current.requestPayload = new CountingOutputStream(out);
+        return current.requestPayload;
+    }
+
+    @Override
+    protected PostMethod createPostMethod(HttpInvokerClientConfiguration config)
+            throws IOException {
+        PostMethod postMethod = super.createPostMethod(config);
+        Exchange current = exchange.get();
+        if (current != null && current.compressRequest) {
+            postMethod.addRequestHeader(HTTP_HEADER_CONTENT_ENCODING, ENCODING_GZIP);
+        }
+        return postMethod;
+    }
+
+    /**
+     * Writes the serialized request directly from the buffer. The super
+     * implementation copies the buffer to a new byte array.
+     */
+    @Override
+    protected void setRequestBody(HttpInvokerClientConfiguration config, PostMethod postMethod,
+            ByteArrayOutputStream baos) throws IOException {
+        postMethod.setRequestEntity(new BufferRequestEntity(baos, getContentType()));
+    }
+
+    @Override
+    protected void validateResponse(HttpInvokerClientConfiguration config, PostMethod postMethod)
+            throws IOException {
+        super.validateResponse(config, postMethod);
+        Header header = postMethod
+                .getResponseHeader(TransportStatistics.HEADER_ACCEPT_REQUEST_ENCODING);
+        boolean acceptsGzip = header != null && TransportStatistics.containsGzip(header.getValue());
+        if (acceptsGzip != serverAcceptsGzip) {
+            serverAcceptsGzip = acceptsGzip;
+            if (LOG.isInfoEnabled()) {
+                LOG.info("Server accepts compressed requests: " + acceptsGzip);
+            }
+        }
+    }
+
+    @Override
+    protected InputStream getResponseBody(HttpInvokerClientConfiguration config,
+            PostMethod postMethod) throws IOException {
+        Exchange current = exchange.get();
+        if (current == null) {
+            return super.getResponseBody(config, postMethod);
+        }
+        current.responseWire = new CountingInputStream(postMethod.getResponseBodyAsStream());
+        if (isGzipResponse(postMethod)) {
+            return new GZIPInputStream(current.responseWire, BUFFER_SIZE);
+        }
+        return current.responseWire;
+    }
+
+    @Override
+    protected RemoteInvocationResult readRemoteInvocationResult(InputStream is,
+            String codebaseUrl) throws IOException, ClassNotFoundException {
+        Exchange current = exchange.get();
+        if (current == null || current.responseWire == null) {
+            return super.readRemoteInvocationResult(is, codebaseUrl);
+        }
+        try {
+            long start = System.nanoTime();
+            CountingInputStream payload = new CountingInputStream(is);
+            RemoteInvocationResult result = super.readRemoteInvocationResult(payload,
+                    codebaseUrl);
+            long nanos = System.nanoTime() - start;
+            long wireBytes = current.responseWire.getCount();
+            responseStatistics.add(current.key, payload.getCount(), wireBytes, nanos);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Response " + TransportStatistics.format(current.key,
+                        payload.getCount(), wireBytes, nanos));
+            }
+            return result;
+        } finally {
+            exchange.remove();
+        }
+    }
+
+    /**
+     * @return The measurements of the requests by command class
+     */
+    public TransportStatistics getRequestStatistics() {
+        return requestStatistics;
+    }
+
+    /**
+     * @return The measurements of the responses by command class
+     */
+    public TransportStatistics getResponseStatistics() {
+        return responseStatistics;
+    }
+
     public int getReadTimeout() {
         return readTimeout;
     }
@@ -133,4 +292,65 @@ public abstract class AbstractExecuter extends CommonsHttpInvokerRequestExecutor
             return commonsExecuter;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * The state of the remote invocation executed by the current thread.
+     */
+    private static final class Exchange {
+
+        private final String key;
+        private final boolean compressRequest;
+        private CountingOutputStream requestPayload;
+        private CountingInputStream responseWire;
+
+        private Exchange(String key, boolean compressRequest) {
+            this.key = key;
+            this.compressRequest = compressRequest;
+        }
+    }
+
+    /**
+     * Sends the content of a buffer without copying it.
+     */
+    private static final class BufferRequestEntity implements RequestEntity {
+
+        private final ByteArrayOutputStream buffer;
+        private final String contentType;
+
+        private BufferRequestEntity(ByteArrayOutputStream buffer, String contentType) {
+            this.buffer = buffer;
+            this.contentType = contentType;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            return true;
+        }
+
+        @Override
+        public void writeRequest(OutputStream out) throws IOException {
+            buffer.writeTo(out);
+        }
+
+        @Override
+        public long getContentLength() {
+            return buffer.size();
+        }
+
+        @Override
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    /**
+     * Compresses with the fastest compression level.
+     */
+    private static final class FastGZIPOutputStream extends GZIPOutputStream {
+
+        private FastGZIPOutputStream(OutputStream out) throws IOException {
+            super(out, BUFFER_SIZE);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+}
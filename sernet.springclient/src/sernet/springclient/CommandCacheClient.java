@@ -18,6 +18,7 @@
 package sernet.springclient;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.UUID;
 
@@ -137,6 +138,14 @@ public class CommandCacheClient implements ICommandCacheClient {
         return (T) executeCachableCommand(command);
     }
 
+    /* (non-Javadoc)
+     * @see sernet.verinice.interfaces.ICommandService#executeCommands(java.util.List)
+     */
+    @Override
+    public List<ICommand> executeCommands(List<? extends ICommand> commands) throws CommandException {
+        return getCommandService().executeCommands(commands);
+    }
+
     /* (non-Javadoc)
      * @see sernet.verinice.interfaces.ICommandService#discardUserData()
      */
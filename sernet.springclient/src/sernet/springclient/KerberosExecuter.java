@@ -59,14 +59,6 @@ public class KerberosExecuter extends AbstractExecuter {
     @Override
     protected void validateResponse(HttpInvokerClientConfiguration config, PostMethod postMethod) throws IOException {
 
-        if (postMethod.getStatusCode() == 200) {
-            return;
-        }
-
-        if (postMethod.getStatusCode() == 301) {
-            return;
-        }
-
         if (postMethod.getStatusCode() == 401) {
 
             if (isSendingKeepAlive(postMethod)) {
@@ -74,11 +66,17 @@ public class KerberosExecuter extends AbstractExecuter {
             } else {
                 initClientToken();
             }
-        } else {
-            super.validateResponse(config, postMethod);
+            LOG.info("client token: " + clientToken);
+            return;
+        }
+
+        if (postMethod.getStatusCode() == 301) {
+            return;
         }
 
-        LOG.info("client token: " + clientToken);
+        // checks the status of all other responses and detects if the server
+        // accepts compressed requests
+        super.validateResponse(config, postMethod);
     }
 
     private boolean isSendingKeepAlive(PostMethod postMethod) {
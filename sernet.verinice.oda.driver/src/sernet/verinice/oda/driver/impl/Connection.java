@@ -43,6 +43,8 @@ public class Connection implements IConnection {
 
     private Map<String, List<List<String>>> queryCache;
 
+    private ScriptInterpreterPool interpreterPool;
+
     /*
      * @see org.eclipse.datatools.connectivity.oda.IConnection#open(java.util.
      * Properties )
@@ -53,6 +55,7 @@ public class Connection implements IConnection {
         Activator.getDefault().getMain().updateServerURI(uri);
         isOpen = true;
         queryCache = new HashMap<>();
+        interpreterPool = new ScriptInterpreterPool();
     }
 
     public void setAppContext(Object context) throws OdaException {
@@ -65,6 +68,10 @@ public class Connection implements IConnection {
     public void close() throws OdaException {
         isOpen = false;
         queryCache = null;
+        if (interpreterPool != null) {
+            interpreterPool.logStatistics();
+            interpreterPool = null;
+        }
     }
 
     /*
@@ -99,7 +106,8 @@ public class Connection implements IConnection {
             query = new sernet.verinice.oda.linktable.driver.impl.Query(rootElementIds,
                     queryCache);
         } else {
-            query = new Query(rootElementIds);
+            query = new Query(rootElementIds,
+                    (interpreterPool != null) ? interpreterPool : new ScriptInterpreterPool());
         }
         return query;
     }
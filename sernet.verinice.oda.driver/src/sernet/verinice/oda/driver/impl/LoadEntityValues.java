@@ -27,6 +27,7 @@ import sernet.hui.common.connect.PropertyType;
 import sernet.verinice.interfaces.GenericCommand;
 import sernet.verinice.interfaces.IBaseDao;
 import sernet.verinice.model.common.CnATreeElement;
+import sernet.verinice.service.ReadOnlyEntityLoader;
 
 /**
  * Generic command to retrieve arbitrary cna tree elements and their property values.
@@ -62,6 +63,8 @@ public class LoadEntityValues extends GenericCommand {
 	public void execute() {
 		IBaseDao<CnATreeElement, Serializable> dao = (IBaseDao<CnATreeElement, Serializable>) getDaoFactory().getDAO(typeId);
 		List<CnATreeElement> elements = dao.findAll();
+		// the values are only read, load the properties without Property objects
+		ReadOnlyEntityLoader.setReadOnlyEntities(dao, elements);
 		
 		result = new ArrayList<List<Object>>(elements.size());
 		for (CnATreeElement element : elements)
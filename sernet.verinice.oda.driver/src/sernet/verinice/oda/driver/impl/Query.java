@@ -43,7 +43,6 @@ import org.eclipse.datatools.connectivity.oda.SortSpec;
 import org.eclipse.datatools.connectivity.oda.spec.QuerySpecification;
 
 import bsh.EvalError;
-import bsh.Interpreter;
 import bsh.TargetError;
 import sernet.hui.common.VeriniceContext;
 import sernet.hui.common.connect.Entity;
@@ -53,7 +52,6 @@ import sernet.verinice.interfaces.ICommand;
 import sernet.verinice.interfaces.oda.IVeriniceOdaDriver;
 import sernet.verinice.model.common.CnATreeElement;
 import sernet.verinice.oda.driver.Activator;
-import sernet.verinice.security.report.ReportClassLoader;
 
 public class Query implements IQuery {
     public static final String ODA_DATA_SOURCE_ID = "verinice.oda.driver.dataSource.id"; //$NON-NLS-1$
@@ -68,7 +66,9 @@ public class Query implements IQuery {
 
     private Integer[] vnRootElements;
 
-    private Interpreter setupInterpreter, interpreter;
+    private final ScriptInterpreterPool interpreterPool;
+
+    private ScriptInterpreterPool.ScriptInterpreter interpreter;
 
     private Map<String, String> properties = new HashMap<String, String>();
 
@@ -78,9 +78,22 @@ public class Query implements IQuery {
 
     private String[] columns, inParameters;
 
+    private long setupMillis;
+    private long queryMillis;
+    private int numberOfQueries;
+
     public static final String PROP_SETUP_QUERY_TEXT = "setupQueryText";
 
     Query(Integer[] rootElementIds) {
+        this(rootElementIds, new ScriptInterpreterPool());
+    }
+
+    /**
+     * @param interpreterPool
+     *            The pool of BeanShell interpreters of the report run
+     */
+    Query(Integer[] rootElementIds, ScriptInterpreterPool interpreterPool) {
+        this.interpreterPool = interpreterPool;
         if (rootElementIds != null && rootElementIds.length == 1) {
             vnRootElement = rootElementIds[0];
             vnRootElements = null;
@@ -92,6 +105,7 @@ public class Query implements IQuery {
     }
 
     Query(Integer rootElementId) {
+        interpreterPool = new ScriptInterpreterPool();
         vnRootElement = rootElementId;
         vnRootElements = null;
         init();
@@ -99,37 +113,15 @@ public class Query implements IQuery {
 
     private void init() {
         IVeriniceOdaDriver odaDriver = Activator.getDefault().getOdaDriver();
-        ReportClassLoader securedClassLoader = new ReportClassLoader(Query.class.getClassLoader());
-
+        long start = System.currentTimeMillis();
         try {
-            // "Setup" BSH environment:
-            setupInterpreter = new Interpreter();
-            setupInterpreter.setClassLoader(securedClassLoader);
-
-            setupInterpreter.set("__columns", null);
-            setupInterpreter.eval("columns(c) { __columns = c; }");
-
-            setupInterpreter.set("__inParameters", null);
-            setupInterpreter.eval("inParameters(ip) { __inParameters = ip; }");
-            setupInterpreter.set("helper", new Helper());
-
-            // BSH environment:
-            interpreter = new Interpreter();
-            interpreter.setClassLoader(securedClassLoader);
-
-            interpreter.set("_inpv", inParameterValues);
-            interpreter.eval("inpv(s) {" + " v = _inpv.get(s);"
-                    + " return (v == null) ? \"input parameter value \" + s + \" does not exist.\" : v;"
-                    + "}");
-
-            interpreter.set("_vars", odaDriver.getScriptVariables());
-            interpreter.eval("vars(s) {" + " v = _vars.get(s);"
-                    + " return (v == null) ? s + \" does not exist.\" : v;" + "}");
-
-            interpreter.set("helper", new Helper());
-            interpreter.eval("gpt(entityType) { return helper.getAllPropertyTypes(entityType); }");
-            interpreter.set("properties", properties);
-
+            Map<String, Object> bindings = new HashMap<>();
+            bindings.put("_inpv", inParameterValues);
+            bindings.put("_vars", odaDriver.getScriptVariables());
+            bindings.put("helper", new Helper());
+            bindings.put("properties", properties);
+            interpreter = interpreterPool.borrow(bindings);
+            setupMillis = System.currentTimeMillis() - start;
         } catch (EvalError e) {
             log.error("Error while evaluating a BeanShell script for an ODA query.", e);
             throw new RuntimeException(
@@ -162,6 +154,20 @@ public class Query implements IQuery {
             }
         }
 
+        /**
+         * Executes independent commands in one request to the server.
+         * 
+         * @return The executed commands in the order of the given commands
+         */
+        public List<ICommand> executeAll(List<ICommand> commands) {
+            try {
+                return Activator.getDefault().getCommandService().executeCommands(commands);
+            } catch (CommandException e) {
+                log.error("Query Helper: running a batch of commands failed.", e);
+                throw new IllegalStateException("Running the commands failed.", e);
+            }
+        }
+
         /**
          * A variant of 'retrieveEntityValues' which does not specify the type
          * of the properties. (Defaults to 'getPropertyValue'.)
@@ -373,10 +379,31 @@ public class Query implements IQuery {
 
     @Override
     public void close() throws OdaException {
+        if (interpreter != null) {
+            interpreterPool.release(interpreter);
+            interpreter = null;
+            logStatistics();
+        }
         queryText = null;
         result = null;
     }
 
+    private void logStatistics() {
+        if (log.isInfoEnabled()) {
+            log.info("Data set query executed " + numberOfQueries + " time(s) in " + queryMillis
+                    + " ms, interpreter ready in " + setupMillis + " ms, query: "
+                    + abbreviate(queryText));
+        }
+    }
+
+    private static String abbreviate(String text) {
+        if (text == null) {
+            return null;
+        }
+        String singleLine = text.trim().replaceAll("\\s+", " ");
+        return (singleLine.length() > 80) ? singleLine.substring(0, 80) + "..." : singleLine;
+    }
+
     /*
      * @see org.eclipse.datatools.connectivity.oda.IQuery#getMetaData()
      */
@@ -400,19 +427,10 @@ public class Query implements IQuery {
         if (setupQueryText == null) {
             return;
         }
-        setupInterpreter.eval(setupQueryText);
-        Object cols = setupInterpreter.get("__columns");
-        if (cols instanceof String[]) {
-            columns = (String[]) cols;
-        } else {
-            columns = null;
-        }
-        Object inp = setupInterpreter.get("__inParameters");
-        if (inp instanceof String[]) {
-            inParameters = (String[]) inp;
-        } else {
-            inParameters = null;
-        }
+        ScriptInterpreterPool.SetupResult setupResult = interpreterPool
+                .runSetupScript(setupQueryText, interpreter);
+        columns = setupResult.getColumns();
+        inParameters = setupResult.getInParameters();
     }
 
     private Object runQuery() throws OdaException {
@@ -424,7 +442,13 @@ public class Query implements IQuery {
     }
 
     private Object doRunQuery() throws EvalError {
-        result = interpreter.eval(queryText);
+        long start = System.currentTimeMillis();
+        try {
+            result = interpreter.eval(queryText);
+        } finally {
+            queryMillis += System.currentTimeMillis() - start;
+            numberOfQueries++;
+        }
         return result;
     }
 
@@ -20,6 +20,7 @@ package sernet.verinice.oda.driver.impl;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.List;
 
 import javax.imageio.ImageIO;
 
@@ -71,6 +72,22 @@ public class ReportJavaScriptHelper {
 			throw new IllegalStateException("Running the command failed.", e);
 		}
 	}
+
+	/**
+	 * Executes independent commands in one request to the server.
+	 * 
+	 * @return The executed commands in the order of the given commands
+	 */
+	public List<ICommand> executeAll(List<ICommand> commands)
+	{
+		try
+		{
+			return Activator.getDefault().getCommandService().executeCommands(commands);
+		} catch (CommandException e)
+		{
+			throw new IllegalStateException("Running the commands failed.", e);
+		}
+	}
 	
 	public static void log(String msg){
 	    LOG.debug(msg);
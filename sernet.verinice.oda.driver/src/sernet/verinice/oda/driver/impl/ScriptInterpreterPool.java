@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.oda.driver.impl;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+
+import bsh.EvalError;
+import bsh.Interpreter;
+import bsh.NameSpace;
+import sernet.verinice.security.report.ReportClassLoader;
+
+/**
+ * A pool of prepared BeanShell interpreters for the data sets of one report
+ * run. Creating an interpreter and evaluating the helper functions
+ * (columns, inParameters, inpv, vars, gpt) is done once per pooled
+ * interpreter instead of once per data set.
+ *
+ * A data set script is evaluated in a new namespace whose parent is the
+ * prepared namespace of the interpreter. Hence variables, methods and
+ * imports of a script are not visible to the scripts of other data sets.
+ * All interpreters of a pool use the same {@link ReportClassLoader}, the
+ * classes a script may load are the same as before.
+ *
+ * The results of the setup scripts (columns and input parameters) are cached
+ * by the text of the script. BIRT evaluates the setup script of a data set
+ * several times, e.g. once for every input parameter.
+ *
+ * BeanShell 2.0b4 does not provide a public API to cache the parsed syntax
+ * tree of a script or to compile a script to byte code. Data set scripts are
+ * still parsed when they are evaluated.
+ */
+final class ScriptInterpreterPool {
+
+    private static final Logger LOG = Logger.getLogger(ScriptInterpreterPool.class);
+
+    private static final String VAR_COLUMNS = "__columns";
+    private static final String VAR_IN_PARAMETERS = "__inParameters";
+
+    private final ReportClassLoader classLoader = new ReportClassLoader(
+            Query.class.getClassLoader());
+
+    private final Deque<ScriptInterpreter> idleInterpreters = new ArrayDeque<>();
+
+    // key: text of the setup script
+    private final Map<String, SetupResult> setupResults = new HashMap<>();
+
+    private int createdInterpreters = 0;
+    private int borrowedInterpreters = 0;
+    private int setupCacheHits = 0;
+
+    /**
+     * Returns a prepared interpreter for a data set. The interpreter must be
+     * released after the data set is closed.
+     */
+    synchronized ScriptInterpreter borrow(Map<String, Object> bindings) throws EvalError {
+        ScriptInterpreter interpreter = idleInterpreters.pollFirst();
+        if (interpreter == null) {
+            interpreter = new ScriptInterpreter(classLoader);
+            createdInterpreters++;
+        }
+        borrowedInterpreters++;
+        interpreter.prepare(bindings);
+        return interpreter;
+    }
+
+    synchronized void release(ScriptInterpreter interpreter) {
+        interpreter.reset();
+        idleInterpreters.addFirst(interpreter);
+    }
+
+    /**
+     * Returns the result of a setup script, the script is evaluated only if
+     * it was not evaluated before in this pool.
+     */
+    synchronized SetupResult runSetupScript(String setupScript, ScriptInterpreter interpreter)
+            throws EvalError {
+        SetupResult result = setupResults.get(setupScript);
+        if (result != null) {
+            setupCacheHits++;
+            return result;
+        }
+        result = interpreter.evalSetup(setupScript);
+        setupResults.put(setupScript, result);
+        return result;
+    }
+
+    synchronized void logStatistics() {
+        if (LOG.isInfoEnabled()) {
+            LOG.info("BeanShell interpreters created: " + createdInterpreters + ", borrowed: "
+                    + borrowedInterpreters + ", setup scripts evaluated: " + setupResults.size()
+                    + ", setup script cache hits: " + setupCacheHits);
+        }
+    }
+
+    /**
+     * The columns and input parameters defined by a setup script.
+     */
+    static final class SetupResult {
+
+        private final String[] columns;
+        private final String[] inParameters;
+
+        private SetupResult(String[] columns, String[] inParameters) {
+            this.columns = columns;
+            this.inParameters = inParameters;
+        }
+
+        String[] getColumns() {
+            return (columns != null) ? columns.clone() : null;
+        }
+
+        String[] getInParameters() {
+            return (inParameters != null) ? inParameters.clone() : null;
+        }
+    }
+
+    /**
+     * An interpreter for the setup script and an interpreter for the query
+     * script of a data set.
+     */
+    static final class ScriptInterpreter {
+
+        private final Interpreter setupInterpreter;
+        private final Interpreter interpreter;
+        private final NameSpace setupNameSpace;
+        private final NameSpace nameSpace;
+
+        private ScriptInterpreter(ReportClassLoader classLoader) throws EvalError {
+            setupInterpreter = new Interpreter();
+            setupInterpreter.setClassLoader(classLoader);
+            setupInterpreter.set(VAR_COLUMNS, null);
+            setupInterpreter.set(VAR_IN_PARAMETERS, null);
+            setupInterpreter.eval("columns(c) { " + VAR_COLUMNS + " = c; }");
+            setupInterpreter.eval("inParameters(ip) { " + VAR_IN_PARAMETERS + " = ip; }");
+            setupNameSpace = setupInterpreter.getNameSpace();
+
+            interpreter = new Interpreter();
+            interpreter.setClassLoader(classLoader);
+            interpreter.eval("inpv(s) {" + " v = _inpv.get(s);"
+                    + " return (v == null) ? \"input parameter value \" + s + \" does not exist.\" : v;"
+                    + "}");
+            interpreter.eval("vars(s) {" + " v = _vars.get(s);"
+                    + " return (v == null) ? s + \" does not exist.\" : v;" + "}");
+            interpreter.eval("gpt(entityType) { return helper.getAllPropertyTypes(entityType); }");
+            nameSpace = interpreter.getNameSpace();
+        }
+
+        /**
+         * Sets the variables of a data set in the prepared namespaces and
+         * creates new namespaces for the scripts of the data set.
+         */
+        private void prepare(Map<String, Object> bindings) throws EvalError {
+            // the helper functions find their variables in the prepared
+            // namespaces only
+            for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+                interpreter.set(binding.getKey(), binding.getValue());
+            }
+            setupInterpreter.set("helper", bindings.get("helper"));
+            setupInterpreter.setNameSpace(new NameSpace(setupNameSpace, "setup"));
+            interpreter.setNameSpace(new NameSpace(nameSpace, "dataSet"));
+        }
+
+        private void reset() {
+            setupInterpreter.setNameSpace(setupNameSpace);
+            interpreter.setNameSpace(nameSpace);
+        }
+
+        private SetupResult evalSetup(String setupScript) throws EvalError {
+            NameSpace scriptNameSpace = setupInterpreter.getNameSpace();
+            setupInterpreter.setNameSpace(setupNameSpace);
+            setupInterpreter.set(VAR_COLUMNS, null);
+            setupInterpreter.set(VAR_IN_PARAMETERS, null);
+            setupInterpreter.setNameSpace(scriptNameSpace);
+            setupInterpreter.eval(setupScript);
+            Object columns = setupInterpreter.get(VAR_COLUMNS);
+            Object inParameters = setupInterpreter.get(VAR_IN_PARAMETERS);
+            return new SetupResult((columns instanceof String[]) ? (String[]) columns : null,
+                    (inParameters instanceof String[]) ? (String[]) inParameters : null);
+        }
+
+        Object eval(String script) throws EvalError {
+            return interpreter.eval(script);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.report.service.impl;
+
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.eclipse.birt.report.engine.api.IRunAndRenderTask;
+import org.junit.Assert;
+import org.junit.Test;
+
+import sernet.verinice.interfaces.report.IReportBatchMonitor;
+import sernet.verinice.interfaces.report.IReportOptions;
+import sernet.verinice.report.service.impl.ReportBatch.ScopeRenderer;
+
+public class ReportBatchTest {
+
+    private static final long WAIT_SECONDS = 10;
+
+    private final File outputFile = new File("reports", "report.pdf");
+
+    private final RecordingMonitor monitor = new RecordingMonitor();
+
+    private final AtomicInteger openRenderers = new AtomicInteger();
+
+    @Test
+    public void everyRootElementIsRenderedOnceWithItsOwnOptions() {
+        Map<Integer, IReportOptions> renderedOptions = new ConcurrentHashMap<>();
+        ReportBatch batch = new ReportBatch(null, createOptions(), new Integer[] { 1, 2, 3, 2 },
+                0, monitor);
+
+        Map<Integer, File> outputFiles = batch.run(2,
+                () -> new TestRenderer(options -> renderedOptions
+                        .put(options.getRootElement(), options), null));
+
+        Assert.assertEquals(3, renderedOptions.size());
+        Assert.assertEquals(3, outputFiles.size());
+        for (Integer rootElement : new Integer[] { 1, 2, 3 }) {
+            File expected = new File("reports", "report_" + rootElement + ".pdf");
+            Assert.assertEquals(expected, renderedOptions.get(rootElement).getOutputFile());
+            Assert.assertEquals(expected, outputFiles.get(rootElement));
+            Assert.assertEquals(expected, monitor.finished.get(rootElement));
+        }
+        Assert.assertTrue(monitor.failed.isEmpty());
+        Assert.assertEquals(0, openRenderers.get());
+    }
+
+    @Test
+    public void exceededTimeBudgetCancelsRunningReports() {
+        ReportBatch batch = new ReportBatch(null, createOptions(), new Integer[] { 1, 2 }, 100,
+                monitor);
+
+        Map<Integer, File> outputFiles = batch.run(2,
+                () -> new TestRenderer(options -> {
+                }, new CountDownLatch(1)));
+
+        Assert.assertTrue(outputFiles.isEmpty());
+        Assert.assertTrue(monitor.finished.isEmpty());
+        Assert.assertEquals(2, monitor.failed.size());
+        assertCanceled(monitor.failed.values());
+        Assert.assertEquals(0, openRenderers.get());
+    }
+
+    @Test
+    public void canceledBatchSkipsReportsNotStarted() {
+        CountDownLatch canceled = new CountDownLatch(1);
+        ReportBatch batch = new ReportBatch(null, createOptions(), new Integer[] { 1, 2, 3 }, 0,
+                monitor);
+
+        Map<Integer, File> outputFiles = batch.run(1,
+                () -> new TestRenderer(options -> monitor.canceled.set(true), canceled));
+
+        Assert.assertTrue(outputFiles.isEmpty());
+        Assert.assertEquals(1, monitor.started.get());
+        Assert.assertEquals(3, monitor.failed.size());
+        assertCanceled(monitor.failed.values());
+        Assert.assertEquals(0, openRenderers.get());
+    }
+
+    private static void assertCanceled(Collection<Exception> exceptions) {
+        for (Exception exception : exceptions) {
+            Assert.assertTrue(exception instanceof CancellationException);
+        }
+    }
+
+    private IReportOptions createOptions() {
+        return (IReportOptions) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { IReportOptions.class }, (proxy, method, args) -> {
+                    if ("getOutputFile".equals(method.getName())) {
+                        return outputFile;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Passes the options of a report to a consumer. If a latch is set the
+     * rendering waits until the task is canceled.
+     */
+    private final class TestRenderer implements ScopeRenderer {
+
+        private final Consumer<IReportOptions> optionsConsumer;
+        private final CountDownLatch canceled;
+
+        private TestRenderer(Consumer<IReportOptions> optionsConsumer, CountDownLatch canceled) {
+            this.optionsConsumer = optionsConsumer;
+            this.canceled = canceled;
+            openRenderers.incrementAndGet();
+        }
+
+        @Override
+        public IRunAndRenderTask createTask(IReportOptions scopeOptions) {
+            optionsConsumer.accept(scopeOptions);
+            return (IRunAndRenderTask) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] { IRunAndRenderTask.class }, (proxy, method, args) -> {
+                        if ("cancel".equals(method.getName()) && canceled != null) {
+                            canceled.countDown();
+                        }
+                        return null;
+                    });
+        }
+
+        @Override
+        public void render(IRunAndRenderTask task) {
+            if (canceled == null) {
+                return;
+            }
+            try {
+                Assert.assertTrue("Task was not canceled",
+                        canceled.await(WAIT_SECONDS, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void close() {
+            openRenderers.decrementAndGet();
+        }
+    }
+
+    private static final class RecordingMonitor implements IReportBatchMonitor {
+
+        private final AtomicInteger started = new AtomicInteger();
+        private final Map<Integer, File> finished = new ConcurrentHashMap<>();
+        private final Map<Integer, Exception> failed = new ConcurrentHashMap<>();
+        private final AtomicBoolean canceled = new AtomicBoolean();
+
+        @Override
+        public void reportStarted(Integer rootElement) {
+            started.incrementAndGet();
+        }
+
+        @Override
+        public void reportFinished(Integer rootElement, File outputFile) {
+            finished.put(rootElement, outputFile);
+        }
+
+        @Override
+        public void reportFailed(Integer rootElement, Exception exception) {
+            failed.put(rootElement, exception);
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled.get();
+        }
+    }
+}
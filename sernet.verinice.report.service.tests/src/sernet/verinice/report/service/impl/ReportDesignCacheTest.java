@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.report.service.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.birt.report.engine.api.EngineException;
+import org.eclipse.birt.report.engine.api.IReportEngine;
+import org.eclipse.birt.report.engine.api.IReportRunnable;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReportDesignCacheTest {
+
+    private ReportDesignCache cache = new ReportDesignCache();
+
+    private AtomicInteger parsed = new AtomicInteger();
+
+    private IReportEngine engine = createEngine(parsed);
+
+    private File template;
+
+    private URL templateUrl;
+
+    @Before
+    public void setUp() throws IOException {
+        template = File.createTempFile("ReportDesignCacheTest", ".rptdesign");
+        writeTemplate("<report version=\"1\"/>");
+        templateUrl = template.toURI().toURL();
+    }
+
+    @After
+    public void tearDown() {
+        template.delete();
+    }
+
+    @Test
+    public void unchangedTemplateIsParsedOnce() throws EngineException, IOException {
+        IReportRunnable design = getDesign(engine);
+        Assert.assertSame(design, getDesign(engine));
+        Assert.assertEquals(1, parsed.get());
+    }
+
+    @Test
+    public void changedTemplateIsParsedAgain() throws EngineException, IOException {
+        IReportRunnable design = getDesign(engine);
+        writeTemplate("<report version=\"2\"/>");
+        IReportRunnable changedDesign = getDesign(engine);
+        Assert.assertNotSame(design, changedDesign);
+        Assert.assertEquals(2, parsed.get());
+        Assert.assertSame(changedDesign, getDesign(engine));
+        Assert.assertEquals(2, parsed.get());
+    }
+
+    @Test
+    public void invalidatedTemplateIsParsedAgain() throws EngineException, IOException {
+        getDesign(engine);
+        cache.getDesign(engine, templateUrl, new HashMap<>(), handle -> {
+        });
+        cache.invalidate("/reports/" + template.getName());
+        getDesign(engine);
+        cache.getDesign(engine, templateUrl, new HashMap<>(), handle -> {
+        });
+        Assert.assertEquals(4, parsed.get());
+    }
+
+    @Test
+    public void invalidatingOtherTemplateKeepsDesign() throws EngineException, IOException {
+        IReportRunnable design = getDesign(engine);
+        cache.invalidate("other.rptdesign");
+        Assert.assertSame(design, getDesign(engine));
+        Assert.assertEquals(1, parsed.get());
+    }
+
+    @Test
+    public void customizedDesignIsCachedSeparately() throws EngineException, IOException {
+        AtomicInteger customized = new AtomicInteger();
+        IReportRunnable design = getDesign(engine);
+        IReportRunnable customizedDesign = cache.getDesign(engine, templateUrl,
+                new HashMap<>(), handle -> customized.incrementAndGet());
+        Assert.assertNotSame(design, customizedDesign);
+        Assert.assertSame(customizedDesign, cache.getDesign(engine, templateUrl,
+                new HashMap<>(), handle -> customized.incrementAndGet()));
+        Assert.assertSame(design, getDesign(engine));
+        Assert.assertEquals(2, parsed.get());
+        Assert.assertEquals(1, customized.get());
+    }
+
+    @Test
+    public void designOfOtherEngineIsNotReturned() throws EngineException, IOException {
+        AtomicInteger parsedByNewEngine = new AtomicInteger();
+        IReportEngine newEngine = createEngine(parsedByNewEngine);
+        IReportRunnable design = getDesign(engine);
+        IReportRunnable designOfNewEngine = getDesign(newEngine);
+        Assert.assertNotSame(design, designOfNewEngine);
+        Assert.assertSame(designOfNewEngine, getDesign(newEngine));
+        Assert.assertEquals(1, parsed.get());
+        Assert.assertEquals(1, parsedByNewEngine.get());
+    }
+
+    @Test
+    public void clearedCacheParsesAgain() throws EngineException, IOException {
+        getDesign(engine);
+        cache.clear();
+        getDesign(engine);
+        Assert.assertEquals(2, parsed.get());
+    }
+
+    private IReportRunnable getDesign(IReportEngine reportEngine)
+            throws EngineException, IOException {
+        return cache.getDesign(reportEngine, templateUrl, new HashMap<>(), null);
+    }
+
+    private void writeTemplate(String content) throws IOException {
+        Files.write(template.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates an engine which returns a new design for every parsed template
+     * and counts the parsed templates.
+     */
+    private static IReportEngine createEngine(AtomicInteger parsedCounter) {
+        return (IReportEngine) Proxy.newProxyInstance(ReportDesignCacheTest.class.getClassLoader(),
+                new Class<?>[] { IReportEngine.class }, (proxy, method, args) -> {
+                    if ("openReportDesign".equals(method.getName())) {
+                        parsedCounter.incrementAndGet();
+                        return Proxy.newProxyInstance(
+                                ReportDesignCacheTest.class.getClassLoader(),
+                                new Class<?>[] { IReportRunnable.class },
+                                (design, designMethod, designArgs) -> null);
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
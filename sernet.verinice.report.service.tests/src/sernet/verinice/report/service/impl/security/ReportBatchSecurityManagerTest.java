@@ -0,0 +1,161 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.report.service.impl.security;
+
+import java.security.Permission;
+import java.util.List;
+import java.util.PropertyPermission;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import sernet.verinice.security.report.ReportSecurityException;
+
+public class ReportBatchSecurityManagerTest {
+
+    private static final Permission PERMISSION = new PropertyPermission("user.home", "read");
+
+    @Test
+    public void checkIsPassedToManagerOfThread() throws InterruptedException {
+        ReportBatchSecurityManager batchSecurityManager = new ReportBatchSecurityManager(null);
+        RecordingReportSecurityManager first = new RecordingReportSecurityManager();
+        RecordingReportSecurityManager second = new RecordingReportSecurityManager();
+
+        Thread firstThread = new Thread(() -> check(batchSecurityManager, first));
+        Thread secondThread = new Thread(() -> check(batchSecurityManager, second));
+        firstThread.start();
+        secondThread.start();
+        firstThread.join();
+        secondThread.join();
+
+        Assert.assertEquals(1, first.checkedPermissions.size());
+        Assert.assertEquals(1, second.checkedPermissions.size());
+        Assert.assertEquals(firstThread.getName(), first.checkingThreads.get(0));
+        Assert.assertEquals(secondThread.getName(), second.checkingThreads.get(0));
+    }
+
+    @Test
+    public void threadCreatedByReportInheritsManager() throws InterruptedException {
+        ReportBatchSecurityManager batchSecurityManager = new ReportBatchSecurityManager(null);
+        RecordingReportSecurityManager reportSecurityManager = new RecordingReportSecurityManager();
+
+        batchSecurityManager.register(reportSecurityManager);
+        try {
+            Thread child = new Thread(() -> batchSecurityManager.checkPermission(PERMISSION));
+            child.start();
+            child.join();
+        } finally {
+            batchSecurityManager.unregister();
+        }
+
+        Assert.assertEquals(1, reportSecurityManager.checkedPermissions.size());
+    }
+
+    @Test
+    public void unregisteredManagerIsNotChecked() {
+        ReportBatchSecurityManager batchSecurityManager = new ReportBatchSecurityManager(null);
+        RecordingReportSecurityManager reportSecurityManager = new RecordingReportSecurityManager();
+
+        batchSecurityManager.register(reportSecurityManager);
+        batchSecurityManager.unregister();
+        batchSecurityManager.checkPermission(PERMISSION);
+
+        Assert.assertTrue(reportSecurityManager.checkedPermissions.isEmpty());
+    }
+
+    @Test
+    public void checkOfUnregisteredThreadIsPassedToPreviousManager() {
+        RecordingSecurityManager previous = new RecordingSecurityManager();
+        ReportBatchSecurityManager batchSecurityManager = new ReportBatchSecurityManager(previous);
+
+        batchSecurityManager.checkPermission(PERMISSION);
+        batchSecurityManager.checkExec("ls");
+
+        Assert.assertEquals(1, previous.checkedPermissions.size());
+        Assert.assertEquals("ls", previous.checkedCommand.get());
+    }
+
+    @Test
+    public void reportInUnregisteredThreadIsDenied() {
+        ReportBatchSecurityManager batchSecurityManager = new ReportBatchSecurityManager(null) {
+            @Override
+            boolean isRenderingReport() {
+                return true;
+            }
+        };
+
+        try {
+            batchSecurityManager.checkPermission(PERMISSION);
+            Assert.fail("Expected a ReportSecurityException to be thrown");
+        } catch (ReportSecurityException e) {
+            // expected
+        }
+        try {
+            batchSecurityManager.checkExec("ls");
+            Assert.fail("Expected a ReportSecurityException to be thrown");
+        } catch (ReportSecurityException e) {
+            // expected
+        }
+    }
+
+    private static void check(ReportBatchSecurityManager batchSecurityManager,
+            ReportSecurityManager reportSecurityManager) {
+        batchSecurityManager.register(reportSecurityManager);
+        try {
+            batchSecurityManager.checkPermission(PERMISSION);
+        } finally {
+            batchSecurityManager.unregister();
+        }
+    }
+
+    private static final class RecordingReportSecurityManager extends ReportSecurityManager {
+
+        private final List<Permission> checkedPermissions = new CopyOnWriteArrayList<>();
+        private final List<String> checkingThreads = new CopyOnWriteArrayList<>();
+
+        private RecordingReportSecurityManager() {
+            super(null);
+        }
+
+        @Override
+        public void checkPermission(Permission permission) {
+            checkedPermissions.add(permission);
+            checkingThreads.add(Thread.currentThread().getName());
+        }
+    }
+
+    private static final class RecordingSecurityManager extends SecurityManager {
+
+        private final List<Permission> checkedPermissions = new CopyOnWriteArrayList<>();
+        private final AtomicReference<String> checkedCommand = new AtomicReference<>();
+
+        @Override
+        public void checkPermission(Permission permission) {
+            checkedPermissions.add(permission);
+        }
+
+        @Override
+        public void checkExec(String command) {
+            checkedCommand.set(command);
+        }
+    }
+}
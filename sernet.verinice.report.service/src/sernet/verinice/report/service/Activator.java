@@ -26,6 +26,7 @@ import org.slf4j.LoggerFactory;
 
 import sernet.verinice.interfaces.ICommandService;
 import sernet.verinice.interfaces.oda.IVeriniceOdaDriver;
+import sernet.verinice.report.service.impl.ReportEngineManager;
 
 public class Activator implements BundleActivator {
 	
@@ -56,6 +57,7 @@ public class Activator implements BundleActivator {
 	}
 
 	public void stop(BundleContext context) throws Exception {
+		ReportEngineManager.getInstance().destroy();
 		commandServiceTracker.close();
 		odaDriverTracker.close();
 	}
@@ -21,10 +21,8 @@ package sernet.verinice.report.service.commands;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
-import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -73,8 +71,6 @@ public class LoadAllFindingsCommand extends GenericCommand {
     private static final String SAMT_PERSON_INCHARGE_PROPERTY = "rel_samttopic_person-iso_resp";
     public static final String SAMT_MEASURE_PROPERTY = "samt_topic_controlnote";
 
-    private static Map<Integer, Object[][]> computedData = new HashMap<Integer, Object[][]>();
-
     public LoadAllFindingsCommand(int id) {
         int id0 = -1;
         if(String.valueOf(id).startsWith(String.valueOf(LoadChapterListCommand.PLACEHOLDER_CONTROLGROUP_ID))){
@@ -156,16 +152,16 @@ public class LoadAllFindingsCommand extends GenericCommand {
     @Override
     public void execute() {
         LoadCnAElementById command = new LoadCnAElementById(ControlGroup.TYPE_ID, id);
+        Object[][] computedData = null;
         try {
             command = ServiceFactory.lookupCommandService().executeCommand(command);
             if (command.getFound() != null) {
-                computedData.put(id, generateResultEntry((ControlGroup) command.getFound()));
+                computedData = generateResultEntry((ControlGroup) command.getFound());
             }
         } catch (CommandException e) {
             log.error("Error while executing command", e);
         }
-        result = computedData.get(id);
-        result = sortResult(result);
+        result = sortResult(computedData);
     }
 
     private Cache getCache() {
@@ -26,13 +26,10 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.logging.Level;
 
 import org.apache.commons.lang.StringUtils;
 import org.eclipse.birt.core.data.DataTypeUtil;
 import org.eclipse.birt.core.exception.BirtException;
-import org.eclipse.birt.core.framework.Platform;
-import org.eclipse.birt.report.engine.api.EngineConfig;
 import org.eclipse.birt.report.engine.api.EngineConstants;
 import org.eclipse.birt.report.engine.api.EngineException;
 import org.eclipse.birt.report.engine.api.IDataExtractionOption;
@@ -40,7 +37,6 @@ import org.eclipse.birt.report.engine.api.IDataExtractionTask;
 import org.eclipse.birt.report.engine.api.IRenderOption;
 import org.eclipse.birt.report.engine.api.IReportDocument;
 import org.eclipse.birt.report.engine.api.IReportEngine;
-import org.eclipse.birt.report.engine.api.IReportEngineFactory;
 import org.eclipse.birt.report.engine.api.IReportRunnable;
 import org.eclipse.birt.report.engine.api.IResultSetItem;
 import org.eclipse.birt.report.engine.api.IRunAndRenderTask;
@@ -67,11 +63,19 @@ import sernet.verinice.interfaces.oda.IVeriniceOdaDriver;
 import sernet.verinice.interfaces.report.IReportOptions;
 import sernet.verinice.model.report.AbstractOutputFormat;
 import sernet.verinice.report.service.Activator;
+import sernet.verinice.report.service.impl.security.ReportBatchSecurityManager;
 import sernet.verinice.report.service.impl.security.ReportExecutionThread;
 import sernet.verinice.report.service.impl.security.ReportSecurityManager;
 import sernet.verinice.security.report.ReportClassLoader;
 
-public class BIRTReportService {
+/**
+ * Creates and runs the report tasks. All instances use the report engine and
+ * the cache of parsed report designs provided by {@link ReportEngineManager}.
+ *
+ * The engine is acquired when an instance is created and released by
+ * {@link #close()}, close the instance after the tasks have been closed.
+ */
+public class BIRTReportService implements AutoCloseable {
 
     final Logger log = LoggerFactory.getLogger(BIRTReportService.class);
 
@@ -88,46 +92,10 @@ public class BIRTReportService {
     private ReportClassLoader secureClassLoader;
 
     public BIRTReportService() {
-
-        secureClassLoader = new ReportClassLoader(this.getClass().getClassLoader());
-
-        final int logMaxBackupIndex = 10;
-        final int logRollingSize = 3000000; // equals 3MB
-        EngineConfig config = new EngineConfig();
-
+        ReportEngineManager engineManager = ReportEngineManager.getInstance();
+        secureClassLoader = engineManager.getSecureClassLoader();
         resourceLocator = new ReportResourceLocator();
-
-        IVeriniceOdaDriver odaDriver = Activator.getDefault().getOdaDriver();
-        boolean useReportLogging = odaDriver.getReportLoggingState();
-
-        HashMap hm = config.getAppContext();
-        if (odaDriver.isSandboxEnabled()) {
-            hm.put(EngineConstants.APPCONTEXT_CLASSLOADER_KEY, secureClassLoader);
-        } else {
-            hm.put(EngineConstants.APPCONTEXT_CLASSLOADER_KEY,
-                    BIRTReportService.class.getClassLoader());
-        }
-
-        config.setAppContext(hm);
-
-        if (useReportLogging) {
-            String pref = odaDriver.getLogFile();
-            String logDir = pref.substring(0, pref.lastIndexOf(File.separator));
-            String logFile = pref.substring(pref.lastIndexOf(File.separator) + 1);
-            config.setLogConfig(logDir, Level.parse(odaDriver.getLogLvl()));
-            config.setLogFile(logFile);
-            config.setLogMaxBackupIndex(logMaxBackupIndex);
-            config.setLogRollingSize(logRollingSize); // equals 3MB
-            if (log.isDebugEnabled()) {
-                log.debug("LogParameter:\t\tLogFile:\t" + logFile + "\tLogDir:\t" + logDir
-                        + "\tLogLvl:\t" + odaDriver.getLogLvl());
-            }
-        }
-
-        IReportEngineFactory factory = (IReportEngineFactory) Platform
-                .createFactoryObject(IReportEngineFactory.EXTENSION_REPORT_ENGINE_FACTORY);
-
-        engine = factory.createReportEngine(config);
+        engine = engineManager.acquireEngine();
     }
 
     public IRunAndRenderTask createTask(URL rptDesignURL, IReportOptions options) {
@@ -142,11 +110,11 @@ public class BIRTReportService {
 
         IRunAndRenderTask task = null;
         try {
-            design = engine.openReportDesign(null, rptDesignURL.openStream(), map);
-            ReportDesignHandle designHandle = (ReportDesignHandle) design.getDesignHandle();
-            if(StringUtils.isNotBlank(options.getClassificationHint())) {
-                addClassificationHeader(designHandle);
-            }
+            design = ReportEngineManager.getInstance().getDesignCache().getDesign(engine,
+                    rptDesignURL, map,
+                    StringUtils.isNotBlank(options.getClassificationHint())
+                            ? this::addClassificationHeader
+                            : null);
             task = engine.createRunAndRenderTask(design);
         } catch (EngineException e) {
             log.error(COULD_NOT_OPEN_DESIGN_ERR, e);
@@ -199,7 +167,8 @@ public class BIRTReportService {
 
         IRunTask task = null;
         try {
-            IReportRunnable design0 = engine.openReportDesign(null, rptDesignURL.openStream(), map);
+            IReportRunnable design0 = ReportEngineManager.getInstance().getDesignCache()
+                    .getDesign(engine, rptDesignURL, map, null);
             task = engine.createRunTask(design0);
         } catch (EngineException e) {
             log.error("Could not open report design: ", e);
@@ -273,12 +242,6 @@ public class BIRTReportService {
         }
     }
 
-    private void destroyEngine() {
-        if (engine != null) {
-            engine.destroy();
-        }
-    }
-
     @SuppressWarnings("unchecked")
     public IRunAndRenderTask prepareTaskForRendering(IRunAndRenderTask task,
             IReportOptions options) {
@@ -310,33 +273,47 @@ public class BIRTReportService {
 
     public void performRenderTask(IRunAndRenderTask task,
             ReportSecurityManager secureReportExecutionManager) {
-        try {
-            long startTime = System.currentTimeMillis();
-
-            // Load class DataTypeUtil before the secureClassLoader is set
-            preloadClasses();
-
-            // report generation is handled by a thread here which is not for
-            // reasons of concurrency BUT for reasons of security (this enables
-            // setting specific classloader for executing the report since
-            // concurrency is explicitly not wanted here, we are using
-            // thread.run() instead of thread.start()
-            IVeriniceOdaDriver odaDriver = Activator.getDefault().getOdaDriver();
-            ReportExecutionThread reportExecutionThread = new ReportExecutionThread(task,
-                    secureReportExecutionManager, odaDriver.isSandboxEnabled());
-            if (odaDriver.isSandboxEnabled()) {
-                reportExecutionThread.setContextClassLoader(secureClassLoader);
-            }
+        long startTime = System.currentTimeMillis();
 
-            reportExecutionThread.run();
+        // Load class DataTypeUtil before the secureClassLoader is set
+        preloadClasses();
 
-            if (log.isDebugEnabled()) {
-                long duration = (System.currentTimeMillis() - startTime) / MILLIS_PER_SECOND;
-                log.debug("RunAndRenderTask lasts " + duration + " seconds");
-            }
-        } finally {
-            // ensure .log file is released again (.lck file will be removed)
-            destroyEngine();
+        // report generation is handled by a thread here which is not for
+        // reasons of concurrency BUT for reasons of security (this enables
+        // setting specific classloader for executing the report since
+        // concurrency is explicitly not wanted here, we are using
+        // thread.run() instead of thread.start()
+        IVeriniceOdaDriver odaDriver = Activator.getDefault().getOdaDriver();
+        ReportExecutionThread reportExecutionThread = new ReportExecutionThread(task,
+                secureReportExecutionManager, odaDriver.isSandboxEnabled());
+        if (odaDriver.isSandboxEnabled()) {
+            reportExecutionThread.setContextClassLoader(secureClassLoader);
+        }
+
+        reportExecutionThread.run();
+
+        if (log.isDebugEnabled()) {
+            long duration = (System.currentTimeMillis() - startTime) / MILLIS_PER_SECOND;
+            log.debug("RunAndRenderTask lasts " + duration + " seconds");
+        }
+    }
+
+    /**
+     * Renders a task of a report batch in the calling worker thread, see
+     * {@link ReportBatch}.
+     */
+    public void performRenderTask(IRunAndRenderTask task,
+            ReportSecurityManager secureReportExecutionManager,
+            ReportBatchSecurityManager batchSecurityManager) {
+        long startTime = System.currentTimeMillis();
+        preloadClasses();
+        IVeriniceOdaDriver odaDriver = Activator.getDefault().getOdaDriver();
+        ReportExecutionThread reportExecutionThread = new ReportExecutionThread(task,
+                secureReportExecutionManager, odaDriver.isSandboxEnabled());
+        reportExecutionThread.runInBatch(batchSecurityManager);
+        if (log.isDebugEnabled()) {
+            long duration = (System.currentTimeMillis() - startTime) / MILLIS_PER_SECOND;
+            log.debug("RunAndRenderTask of batch lasts " + duration + " seconds");
         }
     }
 
@@ -351,4 +328,16 @@ public class BIRTReportService {
     public String getLogfile() {
         return Activator.getDefault().getOdaDriver().getLogFile();
     }
+
+    /**
+     * Releases the report engine, see
+     * {@link ReportEngineManager#releaseEngine(IReportEngine)}.
+     */
+    @Override
+    public void close() {
+        if (engine != null) {
+            ReportEngineManager.getInstance().releaseEngine(engine);
+            engine = null;
+        }
+    }
 }
@@ -122,7 +122,25 @@ public class GenericReportType implements IReportType {
      */
     @Override
     public void createReport(ReportTemplateMetaData metadata) {
-        BIRTReportService brs = new BIRTReportService();
+        URL rptURL = getTemplateURL(metadata);
+        try (BIRTReportService brs = new BIRTReportService()) {
+            ReportSecurityContext reportSecurityContext = new ReportSecurityContext(options, rptURL, brs.getLogfile(), metadata);
+            ReportSecurityManager secureReportExecutionManager = new ReportSecurityManager(reportSecurityContext);
+            IRunAndRenderTask task = brs.createTask(reportSecurityContext.getRptDesignUrl(), options);
+            task = brs.prepareTaskForRendering(task, options);
+            try {
+                brs.performRenderTask(task, secureReportExecutionManager);
+            } finally {
+                task.close();
+            }
+        }
+    }
+    
+    /**
+     * Returns the URL of a report template in the server or the local report
+     * deposit.
+     */
+    static URL getTemplateURL(ReportTemplateMetaData metadata) {
         URL rptURL = null;
         try {
             if(metadata.isServer()){
@@ -158,14 +176,9 @@ public class GenericReportType implements IReportType {
         if(LOG.isDebugEnabled()){
             LOG.debug("Trying to open report from template at:\t" + rptURL.toString());
         }
-
-        ReportSecurityContext reportSecurityContext = new ReportSecurityContext(options, rptURL, brs.getLogfile(), metadata);
-        ReportSecurityManager secureReportExecutionManager = new ReportSecurityManager(reportSecurityContext);
-        IRunAndRenderTask task = brs.createTask(reportSecurityContext.getRptDesignUrl(), options);
-        task = brs.prepareTaskForRendering(task, options);
-        brs.performRenderTask(task, secureReportExecutionManager);
+        return rptURL;
     }
-    
+
     public static String getDepositPath(String locationConstant){
         StringBuilder sb = new StringBuilder();
         sb.append(System.getProperty(IVeriniceConstants.OSGI_INSTANCE_AREA));
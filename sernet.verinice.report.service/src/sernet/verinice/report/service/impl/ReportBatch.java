@@ -0,0 +1,419 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.report.service.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.birt.report.engine.api.IRunAndRenderTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sernet.hui.common.VeriniceContext;
+import sernet.verinice.interfaces.report.IOutputFormat;
+import sernet.verinice.interfaces.report.IReportBatchMonitor;
+import sernet.verinice.interfaces.report.IReportOptions;
+import sernet.verinice.interfaces.report.ReportTypeException;
+import sernet.verinice.model.report.ReportTemplateMetaData;
+import sernet.verinice.report.service.impl.security.ReportBatchSecurityManager;
+import sernet.verinice.report.service.impl.security.ReportSecurityManager;
+import sernet.verinice.security.report.ReportSecurityContext;
+
+/**
+ * Renders a report template once for every root element of a list with a
+ * bounded pool of worker threads.
+ *
+ * Every report is rendered with its own {@link BIRTReportService}, its own
+ * task, its own options and its own {@link ReportSecurityManager}. The data
+ * sets of a task are evaluated by the ODA connection of the task, hence the
+ * data loaded for one root element is not visible to the reports of the
+ * other root elements. The security managers of the reports are registered
+ * for the worker threads at the {@link ReportBatchSecurityManager}.
+ *
+ * Templates using the table of contents helpers {@link TocHelper} and
+ * {@link TocHelper2} are rendered one after another because the helpers keep
+ * their state in static fields.
+ */
+public class ReportBatch {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReportBatch.class);
+
+    private static final int MAX_WORKERS = 4;
+
+    private static final long POLL_MILLIS = 500;
+
+    private static final String TOC_HELPER = "TocHelper";
+
+    private static final String CANCELED = "Report batch canceled";
+
+    private final ReportTemplateMetaData template;
+    private final IReportOptions options;
+    private final Integer[] rootElements;
+    private final long timeBudgetMillis;
+    private final IReportBatchMonitor monitor;
+
+    private final Map<Integer, IRunAndRenderTask> runningTasks = new ConcurrentHashMap<>();
+    private final Map<Integer, File> outputFiles = new ConcurrentHashMap<>();
+
+    private volatile boolean canceled = false;
+
+    /**
+     * @param timeBudgetMillis
+     *            The maximum duration of the batch, 0 for no limit
+     */
+    public ReportBatch(ReportTemplateMetaData template, IReportOptions options,
+            Integer[] rootElements, long timeBudgetMillis, IReportBatchMonitor monitor) {
+        this.template = template;
+        this.options = options;
+        this.rootElements = rootElements.clone();
+        this.timeBudgetMillis = timeBudgetMillis;
+        this.monitor = monitor;
+    }
+
+    /**
+     * Renders the reports and returns when all reports are rendered, the
+     * batch is canceled by the monitor or the time budget is exceeded.
+     *
+     * @return The output files of the rendered reports by root element
+     */
+    public Map<Integer, File> run() {
+        long start = System.currentTimeMillis();
+        URL rptURL = GenericReportType.getTemplateURL(template);
+        boolean usesToc = isUsingToc(rptURL);
+        int maxWorkers = usesToc ? 1
+                : Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors());
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Rendering reports of template " + template.getFilename());
+        }
+
+        // load the shared engine before the workers start
+        try (BIRTReportService brs = new BIRTReportService()) {
+            brs.preloadClasses();
+        }
+        ReportBatchSecurityManager batchSecurityManager = ReportBatchSecurityManager.acquire();
+        Map<Integer, File> result;
+        try {
+            result = run(maxWorkers,
+                    () -> new BirtScopeRenderer(template, rptURL, usesToc, batchSecurityManager));
+        } finally {
+            ReportBatchSecurityManager.release();
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info(result.size() + " reports of template " + template.getFilename()
+                    + " rendered in " + (System.currentTimeMillis() - start) + " ms");
+        }
+        return result;
+    }
+
+    /**
+     * Renders the reports with a bounded pool of worker threads, a new
+     * renderer is created for every report.
+     */
+    Map<Integer, File> run(int maxWorkers, Supplier<ScopeRenderer> rendererFactory) {
+        long start = System.currentTimeMillis();
+        long deadline = (timeBudgetMillis > 0) ? start + timeBudgetMillis : Long.MAX_VALUE;
+        // the same root element is rendered only once
+        List<Integer> scopes = new ArrayList<>(new LinkedHashSet<>(Arrays.asList(rootElements)));
+        int workers = Math.max(1, Math.min(scopes.size(), maxWorkers));
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Rendering " + scopes.size() + " reports with " + workers + " worker(s)");
+        }
+
+        VeriniceContext.State state = VeriniceContext.getState();
+        ExecutorService executor = Executors.newFixedThreadPool(workers,
+                new WorkerThreadFactory());
+        try {
+            Map<Integer, Future<?>> futures = new HashMap<>();
+            for (Integer rootElement : scopes) {
+                futures.put(rootElement,
+                        executor.submit(() -> render(rootElement, state, rendererFactory)));
+            }
+            executor.shutdown();
+            awaitReports(futures, deadline);
+        } finally {
+            executor.shutdownNow();
+            awaitTermination(executor);
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info(outputFiles.size() + " of " + scopes.size() + " reports rendered in "
+                    + (System.currentTimeMillis() - start) + " ms");
+        }
+        return Collections.unmodifiableMap(new HashMap<>(outputFiles));
+    }
+
+    private void awaitReports(Map<Integer, Future<?>> futures, long deadline) {
+        for (Map.Entry<Integer, Future<?>> entry : futures.entrySet()) {
+            Future<?> future = entry.getValue();
+            while (!future.isDone()) {
+                if (!canceled && monitor.isCanceled()) {
+                    LOG.info("Report batch canceled");
+                    cancel();
+                } else if (!canceled && System.currentTimeMillis() > deadline) {
+                    LOG.warn("Time budget of report batch exceeded: " + timeBudgetMillis
+                            + " ms, canceling the reports which are not finished");
+                    cancel();
+                }
+                try {
+                    future.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                } catch (TimeoutException e) {
+                    // check cancellation and time budget again
+                } catch (ExecutionException e) {
+                    LOG.error("Error while rendering report of root element: " + entry.getKey(),
+                            e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancel();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Cancels the running tasks, the reports which are not started yet are
+     * skipped by the workers.
+     */
+    private void cancel() {
+        canceled = true;
+        for (IRunAndRenderTask task : runningTasks.values()) {
+            task.cancel();
+        }
+    }
+
+    private void render(Integer rootElement, VeriniceContext.State state,
+            Supplier<ScopeRenderer> rendererFactory) {
+        if (canceled) {
+            monitor.reportFailed(rootElement, new CancellationException(CANCELED));
+            return;
+        }
+        VeriniceContext.setState(state);
+        IReportOptions scopeOptions = new ScopeReportOptions(options, rootElement);
+        monitor.reportStarted(rootElement);
+        try (ScopeRenderer renderer = rendererFactory.get()) {
+            IRunAndRenderTask task = renderer.createTask(scopeOptions);
+            runningTasks.put(rootElement, task);
+            try {
+                if (!canceled) {
+                    renderer.render(task);
+                }
+            } finally {
+                runningTasks.remove(rootElement);
+                task.close();
+            }
+            if (canceled) {
+                monitor.reportFailed(rootElement, new CancellationException(CANCELED));
+            } else {
+                outputFiles.put(rootElement, scopeOptions.getOutputFile());
+                monitor.reportFinished(rootElement, scopeOptions.getOutputFile());
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Error while rendering report of root element: " + rootElement, e);
+            monitor.reportFailed(rootElement, e);
+        }
+    }
+
+    private static boolean isUsingToc(URL rptURL) {
+        try (InputStream in = rptURL.openStream()) {
+            return IOUtils.toString(in, StandardCharsets.UTF_8).contains(TOC_HELPER);
+        } catch (IOException e) {
+            LOG.error("Could not read report template: " + rptURL, e);
+            throw new ReportTypeException(e);
+        }
+    }
+
+    private static void awaitTermination(ExecutorService executor) {
+        try {
+            while (!executor.awaitTermination(POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOG.debug("Waiting for canceled reports to finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The options of the report of one root element. The output file is the
+     * output file of the batch options with the id of the root element
+     * appended to the file name.
+     */
+    private static final class ScopeReportOptions implements IReportOptions {
+
+        private final IReportOptions batchOptions;
+        private Integer rootElement;
+        private final File outputFile;
+
+        private ScopeReportOptions(IReportOptions batchOptions, Integer rootElement) {
+            this.batchOptions = batchOptions;
+            this.rootElement = rootElement;
+            File batchFile = batchOptions.getOutputFile();
+            String name = batchFile.getName();
+            String extension = FilenameUtils.getExtension(name);
+            String scopeName = FilenameUtils.getBaseName(name) + "_" + rootElement
+                    + (extension.isEmpty() ? "" : "." + extension);
+            this.outputFile = new File(batchFile.getParentFile(), scopeName);
+        }
+
+        @Override
+        public String getClassificationHint() {
+            return batchOptions.getClassificationHint();
+        }
+
+        @Override
+        public IOutputFormat getOutputFormat() {
+            return batchOptions.getOutputFormat();
+        }
+
+        @Override
+        public File getOutputFile() {
+            return outputFile;
+        }
+
+        @Override
+        public boolean isToBeCompressed() {
+            return batchOptions.isToBeCompressed();
+        }
+
+        @Override
+        public boolean isToBeEncrypted() {
+            return batchOptions.isToBeEncrypted();
+        }
+
+        @Override
+        public void setRootElement(Integer rootElement) {
+            this.rootElement = rootElement;
+        }
+
+        @Override
+        public void setRootElements(Integer[] rootElements) {
+            // a report of a batch has exactly one root element
+        }
+
+        @Override
+        public Integer getRootElement() {
+            return rootElement;
+        }
+
+        @Override
+        public Integer[] getRootElements() {
+            return null;
+        }
+
+        @Override
+        public String getServerURL() {
+            return batchOptions.getServerURL();
+        }
+    }
+
+    /**
+     * Renders the report of one root element in a worker thread.
+     */
+    interface ScopeRenderer extends AutoCloseable {
+
+        IRunAndRenderTask createTask(IReportOptions scopeOptions);
+
+        /**
+         * Runs a task created by this renderer. The task is canceled if the
+         * batch is canceled while it is running.
+         */
+        void render(IRunAndRenderTask task);
+
+        @Override
+        void close();
+    }
+
+    /**
+     * Renders the report of one root element with its own
+     * {@link BIRTReportService} and its own {@link ReportSecurityManager}.
+     */
+    private static final class BirtScopeRenderer implements ScopeRenderer {
+
+        private final BIRTReportService brs = new BIRTReportService();
+        private final ReportTemplateMetaData template;
+        private final URL rptURL;
+        private final boolean usesToc;
+        private final ReportBatchSecurityManager batchSecurityManager;
+        private ReportSecurityManager secureReportExecutionManager;
+
+        private BirtScopeRenderer(ReportTemplateMetaData template, URL rptURL, boolean usesToc,
+                ReportBatchSecurityManager batchSecurityManager) {
+            this.template = template;
+            this.rptURL = rptURL;
+            this.usesToc = usesToc;
+            this.batchSecurityManager = batchSecurityManager;
+        }
+
+        @Override
+        public IRunAndRenderTask createTask(IReportOptions scopeOptions) {
+            ReportSecurityContext reportSecurityContext = new ReportSecurityContext(scopeOptions,
+                    rptURL, brs.getLogfile(), template);
+            secureReportExecutionManager = new ReportSecurityManager(reportSecurityContext);
+            IRunAndRenderTask task = brs.createTask(rptURL, scopeOptions);
+            return brs.prepareTaskForRendering(task, scopeOptions);
+        }
+
+        @Override
+        public void render(IRunAndRenderTask task) {
+            brs.performRenderTask(task, secureReportExecutionManager, batchSecurityManager);
+        }
+
+        @Override
+        public void close() {
+            brs.close();
+            if (usesToc) {
+                TocHelper2.reset();
+            }
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "report-batch-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
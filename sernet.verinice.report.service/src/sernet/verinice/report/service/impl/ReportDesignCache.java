@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.report.service.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.IOUtils;
+import org.eclipse.birt.report.engine.api.EngineException;
+import org.eclipse.birt.report.engine.api.IReportEngine;
+import org.eclipse.birt.report.engine.api.IReportRunnable;
+import org.eclipse.birt.report.model.api.ReportDesignHandle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Caches the parsed report designs of the report engine by the URL of the
+ * report template and the checksum of the template content. A changed
+ * template is parsed again because its checksum has changed, the design of
+ * the previous content is removed from the cache.
+ *
+ * The engine creates a copy of the design for every task, hence a cached
+ * design is not changed by a report run.
+ *
+ * Designs customized after parsing, e.g. with the classification header,
+ * are cached separately from the designs which are not customized. A design
+ * is only returned for the engine which has parsed it.
+ */
+public final class ReportDesignCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReportDesignCache.class);
+
+    private static final String CUSTOMIZED = "#customized";
+
+    // key: URL of the template and CUSTOMIZED for customized designs
+    private final Map<String, CachedDesign> designs = new HashMap<>();
+
+    private long hits = 0;
+    private long misses = 0;
+    private long savedMillis = 0;
+
+    ReportDesignCache() {
+    }
+
+    /**
+     * Returns the parsed design of a report template. The template is parsed
+     * if it is not cached or if its content has changed.
+     *
+     * @param designCustomizer
+     *            Changes the design after parsing, null if the design is not
+     *            changed
+     */
+    public IReportRunnable getDesign(IReportEngine engine, URL rptDesignURL,
+            Map<String, Object> options, Consumer<ReportDesignHandle> designCustomizer)
+            throws EngineException, IOException {
+        byte[] content;
+        try (InputStream in = rptDesignURL.openStream()) {
+            content = IOUtils.toByteArray(in);
+        }
+        String checksum = createChecksum(content);
+        String key = rptDesignURL.toExternalForm() + (designCustomizer != null ? CUSTOMIZED : "");
+        synchronized (this) {
+            CachedDesign cachedDesign = designs.get(key);
+            if (cachedDesign != null && cachedDesign.engine == engine
+                    && cachedDesign.checksum.equals(checksum)) {
+                hits++;
+                savedMillis += cachedDesign.parseMillis;
+                if (LOG.isInfoEnabled()) {
+                    LOG.info("Report design taken from cache, " + cachedDesign.parseMillis
+                            + " ms saved: " + rptDesignURL + ", total hits: " + hits
+                            + ", total time saved: " + savedMillis + " ms");
+                }
+                return cachedDesign.design;
+            }
+        }
+        long start = System.currentTimeMillis();
+        IReportRunnable design = engine.openReportDesign(null,
+                new ByteArrayInputStream(content), options);
+        if (designCustomizer != null) {
+            designCustomizer.accept((ReportDesignHandle) design.getDesignHandle());
+        }
+        long parseMillis = System.currentTimeMillis() - start;
+        synchronized (this) {
+            misses++;
+            designs.put(key, new CachedDesign(engine, checksum, design, parseMillis));
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info("Report design parsed in " + parseMillis + " ms: " + rptDesignURL
+                    + ", total misses: " + misses);
+        }
+        return design;
+    }
+
+    /**
+     * Removes the designs of a report template from the cache.
+     *
+     * @param filename
+     *            The file name of the report template
+     */
+    public synchronized void invalidate(String filename) {
+        String name = FilenameUtils.getName(filename);
+        Iterator<String> keys = designs.keySet().iterator();
+        while (keys.hasNext()) {
+            String key = keys.next();
+            String url = key.endsWith(CUSTOMIZED)
+                    ? key.substring(0, key.length() - CUSTOMIZED.length())
+                    : key;
+            if (FilenameUtils.getName(url).equals(name)) {
+                keys.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        designs.clear();
+    }
+
+    private static String createChecksum(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class CachedDesign {
+
+        private final IReportEngine engine;
+        private final String checksum;
+        private final IReportRunnable design;
+        private final long parseMillis;
+
+        private CachedDesign(IReportEngine engine, String checksum, IReportRunnable design,
+                long parseMillis) {
+            this.engine = engine;
+            this.checksum = checksum;
+            this.design = design;
+            this.parseMillis = parseMillis;
+        }
+    }
+}
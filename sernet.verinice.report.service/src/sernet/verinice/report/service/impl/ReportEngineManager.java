@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.report.service.impl;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+
+import org.eclipse.birt.core.framework.Platform;
+import org.eclipse.birt.report.engine.api.EngineConfig;
+import org.eclipse.birt.report.engine.api.EngineConstants;
+import org.eclipse.birt.report.engine.api.IReportEngine;
+import org.eclipse.birt.report.engine.api.IReportEngineFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import sernet.verinice.interfaces.oda.IVeriniceOdaDriver;
+import sernet.verinice.report.service.Activator;
+import sernet.verinice.security.report.ReportClassLoader;
+
+/**
+ * Provides the BIRT report engine shared by all report runs and the cache of
+ * the parsed report designs of this engine.
+ *
+ * The engine is created when the first report is created and destroyed when
+ * the bundle is stopped. It is created again if the sandbox or the report
+ * logging settings of the ODA driver have changed. While the engine exists
+ * the report log file is kept open by the engine.
+ *
+ * Every user of the engine acquires it with {@link #acquireEngine()} and
+ * releases it with {@link #releaseEngine(IReportEngine)} when its tasks are
+ * closed. An engine replaced because of changed settings is destroyed when
+ * its last user has released it, reports which are rendered concurrently are
+ * not affected by the new settings.
+ */
+public final class ReportEngineManager {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ReportEngineManager.class);
+
+    private static final int LOG_MAX_BACKUP_INDEX = 10;
+    private static final int LOG_ROLLING_SIZE = 3000000; // equals 3MB
+
+    private static final ReportEngineManager INSTANCE = new ReportEngineManager();
+
+    private final ReportClassLoader secureClassLoader = new ReportClassLoader(
+            ReportEngineManager.class.getClassLoader());
+
+    private final ReportDesignCache designCache = new ReportDesignCache();
+
+    private IReportEngine engine;
+
+    private EngineSettings settings;
+
+    // key: engine in use, value: number of users which have not released it
+    private final Map<IReportEngine, Integer> users = new IdentityHashMap<>();
+
+    private ReportEngineManager() {
+    }
+
+    public static ReportEngineManager getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the report engine and registers the caller as a user of the
+     * engine. The engine is created if it does not exist or if the settings
+     * of the ODA driver have changed. The caller must release the engine with
+     * {@link #releaseEngine(IReportEngine)}.
+     */
+    public synchronized IReportEngine acquireEngine() {
+        EngineSettings currentSettings = new EngineSettings(
+                Activator.getDefault().getOdaDriver());
+        if (engine != null && !currentSettings.equals(settings)) {
+            LOG.info("Report engine settings changed, creating a new report engine");
+            retireEngine();
+        }
+        if (engine == null) {
+            long start = System.currentTimeMillis();
+            engine = createEngine(currentSettings);
+            settings = currentSettings;
+            LOG.info("Report engine created in " + (System.currentTimeMillis() - start)
+                    + " ms");
+        }
+        users.merge(engine, 1, Integer::sum);
+        return engine;
+    }
+
+    /**
+     * Releases an engine returned by {@link #acquireEngine()}. An engine which
+     * has been replaced is destroyed when its last user has released it.
+     */
+    public synchronized void releaseEngine(IReportEngine releasedEngine) {
+        Integer count = users.get(releasedEngine);
+        if (count == null) {
+            LOG.warn("Released report engine is not in use");
+            return;
+        }
+        if (count > 1) {
+            users.put(releasedEngine, count - 1);
+            return;
+        }
+        users.remove(releasedEngine);
+        if (releasedEngine != engine) {
+            LOG.info("Destroying replaced report engine, it is no longer in use");
+            releasedEngine.destroy();
+        }
+    }
+
+    /**
+     * Replaces the current engine. The engine is destroyed now if it is not in
+     * use, otherwise when its last user has released it.
+     */
+    private void retireEngine() {
+        designCache.clear();
+        if (!users.containsKey(engine)) {
+            engine.destroy();
+        }
+        engine = null;
+        settings = null;
+    }
+
+    /**
+     * @return The cache of the report designs parsed by the current engine
+     */
+    public ReportDesignCache getDesignCache() {
+        return designCache;
+    }
+
+    public ReportClassLoader getSecureClassLoader() {
+        return secureClassLoader;
+    }
+
+    /**
+     * Destroys the report engine and the replaced engines which are still in
+     * use and clears the cache of the report designs.
+     */
+    public synchronized void destroy() {
+        designCache.clear();
+        for (IReportEngine usedEngine : users.keySet()) {
+            if (usedEngine != engine) {
+                usedEngine.destroy();
+            }
+        }
+        users.clear();
+        if (engine != null) {
+            // releases the report log file (.lck file will be removed)
+            engine.destroy();
+            engine = null;
+            settings = null;
+        }
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private IReportEngine createEngine(EngineSettings engineSettings) {
+        EngineConfig config = new EngineConfig();
+        HashMap hm = config.getAppContext();
+        if (engineSettings.sandboxEnabled) {
+            hm.put(EngineConstants.APPCONTEXT_CLASSLOADER_KEY, secureClassLoader);
+        } else {
+            hm.put(EngineConstants.APPCONTEXT_CLASSLOADER_KEY,
+                    BIRTReportService.class.getClassLoader());
+        }
+        config.setAppContext(hm);
+
+        if (engineSettings.reportLogging) {
+            String pref = engineSettings.logFile;
+            String logDir = pref.substring(0, pref.lastIndexOf(File.separator));
+            String logFile = pref.substring(pref.lastIndexOf(File.separator) + 1);
+            config.setLogConfig(logDir, Level.parse(engineSettings.logLevel));
+            config.setLogFile(logFile);
+            config.setLogMaxBackupIndex(LOG_MAX_BACKUP_INDEX);
+            config.setLogRollingSize(LOG_ROLLING_SIZE);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("LogParameter:\t\tLogFile:\t" + logFile + "\tLogDir:\t" + logDir
+                        + "\tLogLvl:\t" + engineSettings.logLevel);
+            }
+        }
+
+        IReportEngineFactory factory = (IReportEngineFactory) Platform
+                .createFactoryObject(IReportEngineFactory.EXTENSION_REPORT_ENGINE_FACTORY);
+        return factory.createReportEngine(config);
+    }
+
+    /**
+     * The settings of the ODA driver used to configure the engine.
+     */
+    private static final class EngineSettings {
+
+        private final boolean sandboxEnabled;
+        private final boolean reportLogging;
+        private final String logFile;
+        private final String logLevel;
+
+        private EngineSettings(IVeriniceOdaDriver odaDriver) {
+            sandboxEnabled = odaDriver.isSandboxEnabled();
+            reportLogging = odaDriver.getReportLoggingState();
+            logFile = reportLogging ? odaDriver.getLogFile() : null;
+            logLevel = reportLogging ? odaDriver.getLogLvl() : null;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sandboxEnabled, reportLogging, logFile, logLevel);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof EngineSettings)) {
+                return false;
+            }
+            EngineSettings other = (EngineSettings) obj;
+            return sandboxEnabled == other.sandboxEnabled && reportLogging == other.reportLogging
+                    && Objects.equals(logFile, other.logFile)
+                    && Objects.equals(logLevel, other.logLevel);
+        }
+    }
+}
@@ -17,7 +17,9 @@
  ******************************************************************************/
 package sernet.verinice.report.service.impl;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.Map;
 
 import org.eclipse.birt.report.engine.api.EXCELRenderOption;
 import org.eclipse.birt.report.engine.api.HTMLRenderOption;
@@ -27,6 +29,8 @@ import org.eclipse.birt.report.engine.api.PDFRenderOption;
 import org.eclipse.birt.report.engine.api.RenderOption;
 
 import sernet.verinice.interfaces.report.IOutputFormat;
+import sernet.verinice.interfaces.report.IReportBatchMonitor;
+import sernet.verinice.interfaces.report.IReportOptions;
 import sernet.verinice.interfaces.report.IReportService;
 import sernet.verinice.interfaces.report.IReportType;
 import sernet.verinice.model.report.PropertyFileExistsException;
@@ -110,6 +114,18 @@ public class ReportService implements IReportService {
         return Activator.getDefault().getClassificationHints();
     }
 
+    @Override
+    public void invalidateReportTemplate(String filename) {
+        ReportEngineManager.getInstance().getDesignCache().invalidate(filename);
+    }
+
+    @Override
+    public Map<Integer, File> createReports(ReportTemplateMetaData template,
+            IReportOptions options, Integer[] rootElements, long timeBudgetMillis,
+            IReportBatchMonitor monitor) {
+        return new ReportBatch(template, options, rootElements, timeBudgetMillis, monitor).run();
+    }
+
     private IRenderOption getXLSXRenderOption() {
         RenderOption options = new RenderOption();
         options.setOutputFormat("xlsx");
@@ -104,7 +104,6 @@ public class UserReportType implements IReportType {
 
 	@Override
     public void createReport(IReportOptions reportOptions) {
-		BIRTReportService brs = new BIRTReportService();
 	    URL reportDesign;
 
         try {
@@ -118,30 +117,36 @@ public class UserReportType implements IReportType {
             throw new RuntimeException("Could create tmpFile for reportDocument.", e); //$NON-NLS-1$
         }
 
-        if (((AbstractOutputFormat) reportOptions.getOutputFormat()).isRenderOutput())
-        {
-            ReportSecurityContext reportSecurityContext = new ReportSecurityContext(reportOptions, reportDesign, brs.getLogfile(), null);
-            ReportSecurityManager secureReportExecutionManager = new ReportSecurityManager(reportSecurityContext);
-            IRunAndRenderTask task = brs.createTask(reportSecurityContext.getRptDesignUrl(),reportOptions);
-            task = brs.prepareTaskForRendering(task, reportOptions);
-            int iterations = getEngineIterations(task);
-            if(LOG.isDebugEnabled()){
-                LOG.debug("EngineIterations for UserTypeReport:\t" + iterations);
+        try (BIRTReportService brs = new BIRTReportService()) {
+            if (((AbstractOutputFormat) reportOptions.getOutputFormat()).isRenderOutput())
+            {
+                ReportSecurityContext reportSecurityContext = new ReportSecurityContext(reportOptions, reportDesign, brs.getLogfile(), null);
+                ReportSecurityManager secureReportExecutionManager = new ReportSecurityManager(reportSecurityContext);
+                IRunAndRenderTask task = brs.createTask(reportSecurityContext.getRptDesignUrl(),reportOptions);
+                task = brs.prepareTaskForRendering(task, reportOptions);
+                int iterations = getEngineIterations(task);
+                if(LOG.isDebugEnabled()){
+                    LOG.debug("EngineIterations for UserTypeReport:\t" + iterations);
+                }
+                try {
+                    for(int i = 0;i < iterations; i++){
+                        brs.performRenderTask(task, secureReportExecutionManager);
+                    }
+                } finally {
+                    task.close();
+                }
+
+                // just in case a toc was generated, the next toc should start emtpy again
+                TocHelper2.reset();
             }
-            for(int i = 0;i < iterations; i++){
-                brs.performRenderTask(task, secureReportExecutionManager);
+            else
+            {
+                // this should be @deprecated, since CSV output format isn't supported anymore
+                IDataExtractionTask task = brs.createExtractionTask(reportDesign);
+                // in a user report, only one table should be present for the CSV report (first one found is used):
+                brs.extract(task, reportOptions, 1);
             }
-
-		    // just in case a toc was generated, the next toc should start emtpy again
-		    TocHelper2.reset();
-		}
-		else
-		{
-		    // this should be @deprecated, since CSV output format isn't supported anymore
-			IDataExtractionTask task = brs.createExtractionTask(reportDesign);
-			// in a user report, only one table should be present for the CSV report (first one found is used):
-			brs.extract(task, reportOptions, 1);
-		}
+        }
 	}
 	
 	@Override
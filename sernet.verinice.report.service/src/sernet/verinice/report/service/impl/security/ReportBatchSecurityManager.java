@@ -0,0 +1,155 @@
+/*******************************************************************************
+ * Copyright (c) 2026 verinice.
+ *
+ * This program is free software: you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public License
+ * as published by the Free Software Foundation, either version 3
+ * of the License, or (at your option) any later version.
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty
+ * of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.
+ * See the GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program.
+ * If not, see <http://www.gnu.org/licenses/>.
+ *
+ * Contributors:
+ *     verinice - initial API and implementation
+ ******************************************************************************/
+package sernet.verinice.report.service.impl.security;
+
+import java.security.Permission;
+
+import org.eclipse.osgi.util.NLS;
+
+import sernet.verinice.security.report.ReportSecurityException;
+
+/**
+ * The security manager of the report runs. The JVM has only one security
+ * manager, hence reports rendered concurrently cannot each set their own
+ * {@link ReportSecurityManager}. This manager is the only component which
+ * sets the security manager of the JVM. It is set once for all running
+ * reports and passes every check to the {@link ReportSecurityManager}
+ * registered for the current thread by {@link ReportExecutionThread}.
+ *
+ * The registered manager is inherited by the threads created while a report
+ * is rendered. Reports must not be rendered in a thread without a registered
+ * manager: every check of such a thread is denied while a report is rendered
+ * in it, e.g. if a task was passed to a thread which was created before the
+ * report started. All other checks of threads without a registered manager
+ * are passed to the security manager which was set before the first report
+ * started, they are not checked if no security manager was set.
+ */
+public class ReportBatchSecurityManager extends SecurityManager {
+
+    // loaded before the manager is set, a denied check must not load classes
+    private static final String PERMISSION_DENIED = Messages.REPORT_SECURITY_EXCEPTION_0;
+    private static final String EXECUTION_DENIED = Messages.UNAUTHORIZED_EXECUTION_CALL_DETECTED;
+
+    private static ReportBatchSecurityManager instance;
+
+    private static int batchCount = 0;
+
+    private final SecurityManager previous;
+
+    private final ThreadLocal<ReportSecurityManager> threadManager = new InheritableThreadLocal<>();
+
+    ReportBatchSecurityManager(SecurityManager previous) {
+        super();
+        this.previous = previous;
+    }
+
+    /**
+     * Returns the batch security manager and sets it as security manager of
+     * the JVM if no other report is running. Call {@link #release()} when the
+     * reports are finished.
+     */
+    public static synchronized ReportBatchSecurityManager acquire() {
+        if (batchCount == 0) {
+            instance = new ReportBatchSecurityManager(System.getSecurityManager());
+            System.setSecurityManager(instance);
+        }
+        batchCount++;
+        return instance;
+    }
+
+    /**
+     * Restores the security manager which was set before the first running
+     * report started when the last running report is finished.
+     */
+    public static synchronized void release() {
+        if (batchCount == 0) {
+            throw new IllegalStateException("Report security manager is not acquired");
+        }
+        batchCount--;
+        if (batchCount == 0) {
+            System.setSecurityManager(instance.previous);
+            instance = null;
+        }
+    }
+
+    void register(ReportSecurityManager reportSecurityManager) {
+        threadManager.set(reportSecurityManager);
+    }
+
+    void unregister() {
+        threadManager.remove();
+    }
+
+    @Override
+    public void checkPermission(Permission permission) {
+        ReportSecurityManager reportSecurityManager = threadManager.get();
+        if (reportSecurityManager != null) {
+            reportSecurityManager.checkPermission(permission);
+        } else {
+            denyUnregisteredReport(permission);
+            if (previous != null) {
+                previous.checkPermission(permission);
+            }
+        }
+    }
+
+    @Override
+    public void checkPermission(Permission permission, Object context) {
+        ReportSecurityManager reportSecurityManager = threadManager.get();
+        if (reportSecurityManager != null) {
+            reportSecurityManager.checkPermission(permission);
+        } else {
+            denyUnregisteredReport(permission);
+            if (previous != null) {
+                previous.checkPermission(permission, context);
+            }
+        }
+    }
+
+    @Override
+    public void checkExec(String command) {
+        ReportSecurityManager reportSecurityManager = threadManager.get();
+        if (reportSecurityManager != null) {
+            reportSecurityManager.checkExec(command);
+        } else {
+            if (isRenderingReport()) {
+                throw new ReportSecurityException(EXECUTION_DENIED);
+            }
+            if (previous != null) {
+                previous.checkExec(command);
+            }
+        }
+    }
+
+    private void denyUnregisteredReport(Permission permission) {
+        if (isRenderingReport()) {
+            throw new ReportSecurityException(NLS.bind(PERMISSION_DENIED,
+                    new Object[] { permission.getClass().getCanonicalName(),
+                            permission.getName(), permission.getActions() }));
+        }
+    }
+
+    /**
+     * @return true if a report is rendered in the current thread
+     */
+    boolean isRenderingReport() {
+        return ReportSecurityManager.isCalledByRunQuery();
+    }
+}
@@ -51,20 +51,37 @@ public class ReportExecutionThread extends Thread {
         reportSecurityManager.setProtectionEnabled(sandboxEnabled);
     }
     
+    /**
+     * Executes the task in the calling thread. The security manager of this
+     * task is registered for the calling thread at the
+     * {@link ReportBatchSecurityManager}, which is the only component setting
+     * the security manager of the JVM.
+     */
     @Override
     public void run(){
-      SecurityManager old = System.getSecurityManager();
-      System.setSecurityManager(reportSecurityManager);
-      
-      runUntrustedCode();
-      
-      // without this, we cannot reset the securityManager, because
-      // that needs to be forbidden from within report excecution
-      reportSecurityManager.setProtectionEnabled(false);
-      
-      System.setSecurityManager(old);
+      ReportBatchSecurityManager batchSecurityManager = ReportBatchSecurityManager.acquire();
+      try {
+          runInBatch(batchSecurityManager);
+      } finally {
+          ReportBatchSecurityManager.release();
+      }
     }
-    
+
+    /**
+     * Executes the task in the calling thread of a report batch. The security
+     * manager of this task is registered for the calling thread at the
+     * {@link ReportBatchSecurityManager} acquired by the batch.
+     */
+    public void runInBatch(ReportBatchSecurityManager batchSecurityManager) {
+      batchSecurityManager.register(reportSecurityManager);
+      try {
+          runUntrustedCode();
+      } finally {
+          reportSecurityManager.setProtectionEnabled(false);
+          batchSecurityManager.unregister();
+      }
+    }
+
     /**
      * Note that the so called "untrusted" code is not the line task.run() but
      * the user-generated code, contained in datasets (via beanshell ) or
@@ -114,7 +114,7 @@ public class ReportSecurityManager extends SecurityManager {
         this.protectionEnabled = protectionEnabled;
     }
 
-    private boolean isCalledByRunQuery(){
+    static boolean isCalledByRunQuery(){
         for (StackTraceElement stackTraceElement : Thread.currentThread().getStackTrace()){
             if (stackTraceElement.toString().startsWith(VERINICE_RUN_QUERY_METHOD)){
                 return true;